@@ -0,0 +1,57 @@
+/*
+   Compare finding the next release by scanning a list of Git tags against
+   looking it up in a TagIndex.  Release pipelines for large repositories call
+   AutoRelease several times per build with every tag in the repository.
+
+   Usage:
+       ./gradlew benchmarkAutoRelease
+       ./gradlew benchmarkAutoRelease -Dbenchmark.size=200000
+ */
+import net.gleske.jervis.tools.AutoRelease
+import net.gleske.jervis.tools.TagIndex
+
+int tagCount = Integer.getInteger('benchmark.size', 100000)
+int queries = 20
+
+// releases across many minor versions with a few hotfixes each
+List<String> tags = []
+int minor = 0
+while(tags.size() < tagCount) {
+    (1..50).each { int patch ->
+        tags << "v1.${minor}.${patch}".toString()
+        if(patch % 10 == 0) {
+            tags << "v1.${minor}.${patch}-1".toString()
+        }
+    }
+    minor++
+}
+tags = tags.take(tagCount)
+Collections.shuffle(tags, new Random(1))
+List<String> versions = (1..queries).collect { "1.${(it * 7) % minor}.0".toString() }
+
+Closure time = { Closure body ->
+    long start = System.nanoTime()
+    def result = body()
+    [result, (System.nanoTime() - start) / 1000000.0d]
+}
+
+// warm up class loading and the JIT before measuring
+AutoRelease.getNextSemanticRelease('1.0.0', tags.take(1000), 'v')
+AutoRelease.getNextSemanticRelease('1.0.0', new TagIndex(tags.take(1000)), 'v')
+
+def (List scanned, Double scanMillis) = time {
+    versions.collect { AutoRelease.getNextSemanticRelease(it, tags, 'v') }
+}
+def (TagIndex index, Double indexMillis) = time {
+    TagIndex.fromReader(new StringReader(tags.join('\n')))
+}
+def (List indexed, Double lookupMillis) = time {
+    versions.collect { AutoRelease.getNextSemanticRelease(it, index, 'v') }
+}
+assert scanned == indexed
+
+println "Tags: ${index.size()}, queries: ${queries}"
+println String.format('%-28s %12s', 'operation', 'total (ms)')
+println String.format('%-28s %12.2f', 'scan list', scanMillis)
+println String.format('%-28s %12.2f', 'build TagIndex', indexMillis)
+println String.format('%-28s %12.3f', 'query TagIndex', lookupMillis)
@@ -0,0 +1,72 @@
+/*
+   Compare the generic toolchains script, which has a case statement with the
+   setup of every matrix value, against scripts specialized for each matrix
+   axis.  Uses a 50 axis matrix of 5 JDKs by 10 environments.
+
+   Usage:
+       ./gradlew benchmarkAxisToolchain
+ */
+import net.gleske.jervis.lang.MultiPlatformGenerator
+import net.gleske.jervis.lang.MultiPlatformValidator
+
+int iterations = Integer.getInteger('benchmark.size', 20)
+
+MultiPlatformValidator platforms = new MultiPlatformValidator()
+platforms.loadPlatformsString(new File('resources/platforms.yaml').text)
+['alpine3', 'ubuntu2204'].each { String os ->
+    platforms.loadLifecyclesString(os, new File("resources/lifecycles-${os}-stable.yaml").text)
+    platforms.loadToolchainsString(os, new File("resources/toolchains-${os}-stable.yaml").text)
+}
+
+// each environment value is a long line similar to real build settings
+List<String> env = (1..10).collect { int i ->
+    "BUILD_OPTS='-Dbuild.variant=${i} ${(1..40).collect { "-Dprop${it}=value${it}" }.join(' ')}'".toString()
+}
+String yaml = """
+    |language: java
+    |jdk: [openjdk8, openjdk11, openjdk17, openjdk21, openjdk25]
+    |env:
+    |${env.collect { '  - "' + it + '"' }.join('\n    |')}
+    |script: ./gradlew check
+    """.stripMargin().trim()
+
+MultiPlatformGenerator mpg = new MultiPlatformGenerator(platforms)
+mpg.loadMultiPlatformYaml(yaml: yaml)
+List<Map> axes = mpg.getBuildableMatrixAxes()
+assert axes.size() == 50
+
+Closure measure = { Closure body ->
+    long start = System.nanoTime()
+    iterations.times {
+        body()
+    }
+    (System.nanoTime() - start) / 1000000.0d / iterations
+}
+
+// warm up class loading and the JIT before measuring
+String generic = mpg.generateToolchainSection()
+axes.each { mpg.generateToolchainSection(it) }
+
+Double genericMillis = measure {
+    mpg.generateToolchainSection()
+}
+Double uncachedMillis = measure {
+    // a regenerated generator has an empty cache; the cost of regenerating
+    // is measured separately and subtracted
+    MultiPlatformGenerator fresh = mpg.regenerate(yaml: yaml.replace('check', "check #${System.nanoTime()}"))
+    axes.each { fresh.generateToolchainSection(it) }
+} - measure {
+    mpg.regenerate(yaml: yaml.replace('check', "check #${System.nanoTime()}"))
+}
+Double cachedMillis = measure {
+    axes.each { mpg.generateToolchainSection(it) }
+}
+List<Integer> sizes = axes.collect { mpg.generateToolchainSection(it).size() }
+
+println "Matrix axes: ${axes.size()}, iterations: ${iterations}"
+println String.format('%-36s %12s %14s', 'script', 'bytes', 'ms')
+println String.format('%-36s %12d %14.3f', 'generic (one script for every axis)', generic.size(), genericMillis)
+println String.format('%-36s %12d %14.3f', 'per axis, all 50 axes uncached', sizes.sum(), uncachedMillis)
+println String.format('%-36s %12d %14.3f', 'per axis, all 50 axes cached', sizes.sum(), cachedMillis)
+println String.format('%-36s %12d', 'per axis, largest script', sizes.max())
+println "Bytes shipped to all agents: generic ${generic.size() * axes.size()}, per axis ${sizes.sum()}"
@@ -0,0 +1,59 @@
+/*
+   Compare compression throughput of GZip and ParallelGZip.
+
+   Usage:
+       ./gradlew benchmarkGZip
+ */
+import net.gleske.jervis.tools.GZip
+import net.gleske.jervis.tools.ParallelGZip
+
+int size = Integer.getInteger('benchmark.size', 64 * 1024 * 1024)
+int iterations = Integer.getInteger('benchmark.iterations', 3)
+
+// semi-compressible data similar to build logs
+Random random = new Random(42)
+ByteArrayOutputStream buffer = new ByteArrayOutputStream(size)
+while(buffer.size() < size) {
+    buffer << "${new Date(1700000000000L + random.nextInt())} INFO step ${random.nextInt(100)} finished in ${random.nextInt(100000)}ms ${Long.toHexString(random.nextLong())}\n".toString().bytes
+}
+byte[] data = buffer.toByteArray()
+
+class NullOutputStream extends OutputStream {
+    long count = 0
+    void write(int b) {
+        count++
+    }
+    void write(byte[] b, int off, int len) {
+        count += len
+    }
+}
+
+Map compressors = [
+    GZip: { OutputStream os, Integer level -> new GZip(os, level) },
+    ParallelGZip: { OutputStream os, Integer level -> new ParallelGZip(os, level) }
+]
+
+println "Threads: ${Runtime.runtime.availableProcessors()}"
+println "Uncompressed size: ${data.length} bytes"
+println String.format('%-14s %5s %12s %12s %8s', 'class', 'level', 'MB/s', 'bytes', 'ratio')
+[1, 6, 9].each { Integer level ->
+    compressors.each { String name, Closure compressor ->
+        long best = Long.MAX_VALUE
+        long compressed = 0
+        // first iteration warms up the JIT
+        (iterations + 1).times { int i ->
+            NullOutputStream sink = new NullOutputStream()
+            long start = System.nanoTime()
+            compressor(sink, level).withCloseable {
+                it.write(data, 0, data.length)
+            }
+            long elapsed = System.nanoTime() - start
+            if(i > 0) {
+                best = Math.min(best, elapsed)
+            }
+            compressed = sink.count
+        }
+        double mbPerSecond = (data.length / 1048576.0d) / (best / 1000000000.0d)
+        println String.format('%-14s %5d %12.1f %12d %8.3f', name, level, mbPerSecond, compressed, compressed / (double) data.length)
+    }
+}
@@ -0,0 +1,79 @@
+/*
+   Measure the serialized size and serialization round trip time of a
+   PipelineGenerator.  Jenkins CPS serializes pipeline program state, which
+   includes generators, every time a pipeline step is checkpointed.
+
+   Usage:
+       ./gradlew benchmarkSerialization
+ */
+import net.gleske.jervis.lang.MultiPlatformGenerator
+import net.gleske.jervis.lang.MultiPlatformValidator
+import net.gleske.jervis.lang.PipelineGenerator
+
+int iterations = Integer.getInteger('benchmark.size', 2000)
+
+MultiPlatformValidator platforms = new MultiPlatformValidator()
+platforms.loadPlatformsString(new File('resources/platforms.yaml').text)
+['alpine3', 'ubuntu2204'].each { String os ->
+    platforms.loadLifecyclesString(os, new File("resources/lifecycles-${os}-stable.yaml").text)
+    platforms.loadToolchainsString(os, new File("resources/toolchains-${os}-stable.yaml").text)
+}
+
+String yaml = '''
+    |language: java
+    |jdk:
+    |  - openjdk17
+    |  - openjdk11
+    |env:
+    |  - GRADLE_OPTS=-Xmx1g
+    |  - GRADLE_OPTS=-Xmx2g
+    |script: ./gradlew check
+    |jenkins:
+    |  platform: [x86_64, arm64]
+    |  os: [ubuntu2204, alpine3]
+    |  stash:
+    |    - name: artifacts
+    |      includes: build/libs/*.jar
+    |  collect:
+    |    junit: build/test-results/test/*.xml
+    '''.stripMargin().trim()
+
+MultiPlatformGenerator mpg = new MultiPlatformGenerator(platforms)
+mpg.loadMultiPlatformYaml(yaml: yaml)
+PipelineGenerator pipeline = new PipelineGenerator(mpg)
+pipeline.supported_collections = ['junit']
+
+Closure serialize = { Object obj ->
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream()
+    new ObjectOutputStream(bytes).withCloseable {
+        it.writeObject(obj)
+    }
+    bytes.toByteArray()
+}
+Closure deserialize = { byte[] data ->
+    new ObjectInputStream(new ByteArrayInputStream(data)).withCloseable {
+        it.readObject()
+    }
+}
+
+// verify the round trip before measuring
+PipelineGenerator copy = deserialize(serialize(pipeline))
+assert copy.getStashMap() == pipeline.getStashMap()
+assert copy.generator.generateToolchainSection() == pipeline.generator.generateToolchainSection()
+
+Closure measure = {->
+    long start = System.nanoTime()
+    iterations.times {
+        deserialize(serialize(pipeline))
+    }
+    (System.nanoTime() - start) / 1000000.0d / iterations
+}
+
+println "Iterations: ${iterations}"
+// warm up class loading and the JIT before measuring
+measure()
+println String.format('%-28s %12s', 'object', 'bytes')
+println String.format('%-28s %12d', 'PipelineGenerator', serialize(pipeline).length)
+println String.format('%-28s %12d', 'MultiPlatformGenerator', serialize(mpg).length)
+println String.format('%-28s %12d', 'MultiPlatformValidator', serialize(platforms).length)
+println String.format('PipelineGenerator round trip %.3f ms', measure())
@@ -0,0 +1,79 @@
+/*
+   Compare rebuilding every platform/OS generator against regenerating only
+   the combinations affected by an edit to a multi-platform .jervis.yml.  Uses
+   a 4 platform by 5 operating system matrix.
+
+   Usage:
+       ./gradlew benchmarkIncrementalGenerator
+ */
+import net.gleske.jervis.lang.MultiPlatformGenerator
+import net.gleske.jervis.lang.MultiPlatformValidator
+import net.gleske.jervis.tools.YamlOperator
+
+int iterations = Integer.getInteger('benchmark.size', 20)
+
+List<String> platformNames = ['x86_64', 'amd64', 'arm64', 'ppc64le']
+List<String> osNames = ['alpine3', 'ubuntu2204', 'ubuntu2404', 'debian12', 'rocky9']
+Map os = [
+    friendlyName: 'Linux',
+    language: ['java', 'python', 'shell'],
+    toolchain: ['env', 'jdk', 'python']
+]
+Map platformsYaml = [
+    defaults: [platform: 'x86_64', os: 'ubuntu2204', stability: 'stable', sudo: 'sudo'],
+    supported_platforms: platformNames.collectEntries { String platform ->
+        [(platform): osNames.collectEntries { [(it): os] }]
+    },
+    restrictions: [:]
+]
+MultiPlatformValidator platforms = new MultiPlatformValidator()
+platforms.loadPlatformsString(YamlOperator.writeObjToYaml(platformsYaml))
+osNames.each { String name ->
+    // every OS reuses the same lifecycles and toolchains
+    platforms.loadLifecyclesString(name, new File('resources/lifecycles-ubuntu2204-stable.yaml').text)
+    platforms.loadToolchainsString(name, new File('resources/toolchains-ubuntu2204-stable.yaml').text)
+}
+
+String yaml = """
+    |language: java
+    |jdk: openjdk17
+    |env:
+    |  - GRADLE_OPTS=-Xmx1g
+    |  - GRADLE_OPTS=-Xmx2g
+    |script: ./gradlew check
+    |jenkins:
+    |  platform: [${platformNames.join(', ')}]
+    |  os: [${osNames.join(', ')}]
+    """.stripMargin().trim()
+// a developer edits the arm64 Alpine section
+List<String> edits = (1..iterations).collect { int i ->
+    yaml + "\narm64:\n  alpine3:\n    env: EDIT=${i}"
+}
+
+MultiPlatformGenerator base = new MultiPlatformGenerator(platforms)
+base.loadMultiPlatformYaml(yaml: yaml)
+
+Closure full = { String edited ->
+    MultiPlatformGenerator mpg = new MultiPlatformGenerator(platforms)
+    mpg.loadMultiPlatformYaml(yaml: edited)
+    mpg
+}
+Closure incremental = { String edited ->
+    base.regenerate(yaml: edited)
+}
+Closure measure = { Closure build ->
+    long start = System.nanoTime()
+    edits.each { build(it) }
+    (System.nanoTime() - start) / 1000000.0d / iterations
+}
+
+// verify the results match before measuring
+assert incremental(edits[0]).generateToolchainSection() == full(edits[0]).generateToolchainSection()
+// warm up class loading and the JIT before measuring
+measure(full)
+measure(incremental)
+
+println "Matrix: ${platformNames.size()} platforms x ${osNames.size()} operating systems, iterations: ${iterations}"
+println String.format('%-28s %12s', 'load', 'ms per edit')
+println String.format('%-28s %12.2f', 'full rebuild', measure(full))
+println String.format('%-28s %12.2f', 'regenerate', measure(incremental))
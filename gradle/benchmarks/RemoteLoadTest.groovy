@@ -0,0 +1,105 @@
+/*
+   Drive the Vault and GitHub API clients against the local stand-in server
+   from the test sources at a controlled concurrency.  Reports p50 and p99
+   latency in addition to overall throughput for each client.
+
+   Usage:
+       ./gradlew loadTestRemotes
+       ./gradlew loadTestRemotes -Dloadtest.concurrency=32 -Dloadtest.requests=5000 -Dloadtest.latency=20
+ */
+import net.gleske.jervis.remotes.GitHub
+import net.gleske.jervis.remotes.GitHubGraphQL
+import net.gleske.jervis.remotes.LocalApiServer
+import net.gleske.jervis.remotes.VaultService
+import net.gleske.jervis.remotes.creds.EphemeralTokenCache
+import net.gleske.jervis.remotes.creds.GitHubAppCredential
+import net.gleske.jervis.remotes.creds.GitHubAppRsaCredentialImpl
+import net.gleske.jervis.remotes.creds.VaultAppRoleCredential
+import net.gleske.jervis.remotes.interfaces.TokenCredential
+
+import java.util.concurrent.Callable
+import java.util.concurrent.ExecutorService
+import java.util.concurrent.Executors
+import java.util.concurrent.Future
+
+int concurrency = Integer.getInteger('loadtest.concurrency', 16)
+int requests = Integer.getInteger('loadtest.requests', 2000)
+int latency = Integer.getInteger('loadtest.latency', 5)
+
+LocalApiServer server = new LocalApiServer(threads: Math.max(concurrency, 16), latencyMillis: latency, latencyJitterMillis: latency)
+server.rateLimit = requests * 10
+server.repositories['org/repo'] = [
+    main: ['.jervis.yml': 'language: java', 'src/Main.java': 'class Main {}']
+]
+server.vaultSecrets['kv/app/config'] = [[user: 'jervis', password: 'secret']]
+server.start()
+
+File cacheDir = File.createTempDir()
+ExecutorService pool = Executors.newFixedThreadPool(concurrency)
+
+Closure measure = { String name, Closure request ->
+    // warm up connections and class loading before measuring
+    request()
+    List<Future<Long>> futures = (1..requests).collect {
+        pool.submit({->
+            long start = System.nanoTime()
+            request()
+            System.nanoTime() - start
+        } as Callable<Long>)
+    }
+    long start = System.nanoTime()
+    List<Long> latencies = futures*.get().sort()
+    double seconds = (System.nanoTime() - start) / 1000000000.0d
+    Closure percentile = { double p ->
+        latencies[Math.min(latencies.size() - 1, (int) Math.ceil(p * latencies.size()) - 1)] / 1000000.0d
+    }
+    println String.format('%-28s %10.2f %10.2f %12.1f', name, percentile(0.50d), percentile(0.99d), requests / seconds)
+}
+
+try {
+    TokenCredential vaultToken = [getToken: { -> 'token' }] as TokenCredential
+    VaultService vault = new VaultService(server.vaultUrl, vaultToken)
+    vault.discoverKVMounts()
+    VaultAppRoleCredential approle = new VaultAppRoleCredential(server.vaultUrl - 'v1/', 'role', 'secret')
+
+    GitHub github = new GitHub(gh_api: server.gitHubUrl)
+    github.scheduler = null
+    GitHubGraphQL graphql = new GitHubGraphQL(gh_api: server.graphqlUrl)
+    graphql.scheduler = null
+
+    File key = new File('src/test/resources/rsa_keys/good_id_rsa_2048')
+    GitHubAppRsaCredentialImpl rsaCred = new GitHubAppRsaCredentialImpl('123', key.text, server.gitHubUrl)
+    EphemeralTokenCache tokenCred = new EphemeralTokenCache(key.absolutePath)
+    tokenCred.cacheFile = new File(cacheDir, 'cache.yaml').absolutePath
+    tokenCred.cacheLockFile = new File(cacheDir, 'cache.lock').absolutePath
+    GitHubAppCredential app = new GitHubAppCredential(rsaCred, tokenCred)
+    app.scheduler = null
+
+    println "Concurrency: ${concurrency}, requests per client: ${requests}, server latency: ${latency}-${latency * 2} ms"
+    println String.format('%-28s %10s %10s %12s', 'client', 'p50 (ms)', 'p99 (ms)', 'requests/s')
+    measure('VaultService.getSecret') {
+        vault.getSecret('kv/app/config')
+    }
+    measure('VaultAppRoleCredential') {
+        approle.getToken()
+    }
+    measure('GitHub.getFile') {
+        github.getFile('org/repo', '.jervis.yml', 'main')
+    }
+    measure('GitHub.branches') {
+        github.branches('org/repo')
+    }
+    measure('GitHubGraphQL.sendGQL') {
+        graphql.sendGQL('query { viewer { login } }')
+    }
+    measure('GitHubAppCredential') {
+        app.getToken()
+    }
+    Map stats = server.stats
+    println "Server requests: ${stats.requests}, max in flight: ${stats.max_in_flight}"
+}
+finally {
+    pool.shutdown()
+    server.close()
+    cacheDir.deleteDir()
+}
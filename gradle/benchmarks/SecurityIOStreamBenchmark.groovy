@@ -0,0 +1,64 @@
+/*
+   Measure streaming AES-256-GCM encryption and decryption throughput of
+   SecurityIO in constant memory.
+
+   Usage:
+       ./gradlew benchmarkSecurityIO
+ */
+import net.gleske.jervis.tools.SecurityIO
+
+long size = Long.getLong('benchmark.size', 512L * 1024 * 1024)
+int iterations = Integer.getInteger('benchmark.iterations', 3)
+byte[] secret = SecurityIO.randomBytes(32)
+
+File plain = File.createTempFile('jervis-benchmark', '.plain')
+File encrypted = File.createTempFile('jervis-benchmark', '.enc')
+File decrypted = File.createTempFile('jervis-benchmark', '.dec')
+[plain, encrypted, decrypted]*.deleteOnExit()
+
+plain.withOutputStream { OutputStream os ->
+    byte[] block = SecurityIO.randomBytes(1048576)
+    long written = 0
+    while(written < size) {
+        os.write(block)
+        written += block.length
+    }
+}
+
+double mbPerSecond(long bytes, long nanos) {
+    (bytes / 1048576.0d) / (nanos / 1000000000.0d)
+}
+
+println "Threads: ${Runtime.runtime.availableProcessors()}"
+println "Max heap: ${Runtime.runtime.maxMemory().intdiv(1048576)}MB"
+println "File size: ${plain.length()} bytes"
+println String.format('%-10s %8s %12s %12s', 'operation', 'threads', 'segment', 'MB/s')
+[1, Runtime.runtime.availableProcessors()].unique().each { Integer threads ->
+    [16384, 65536, 1048576].each { Integer segmentSize ->
+        long bestEncrypt = Long.MAX_VALUE
+        long bestDecrypt = Long.MAX_VALUE
+        (iterations + 1).times { int i ->
+            long start = System.nanoTime()
+            plain.withInputStream { is ->
+                encrypted.withOutputStream { os ->
+                    SecurityIO.encryptWithAES256GCMStream(secret, new BufferedInputStream(is), os, segmentSize, threads)
+                }
+            }
+            long middle = System.nanoTime()
+            encrypted.withInputStream { is ->
+                decrypted.withOutputStream { os ->
+                    SecurityIO.decryptWithAES256GCMStream(secret, new BufferedInputStream(is), os, threads)
+                }
+            }
+            long end = System.nanoTime()
+            // first iteration warms up the JIT
+            if(i > 0) {
+                bestEncrypt = Math.min(bestEncrypt, middle - start)
+                bestDecrypt = Math.min(bestDecrypt, end - middle)
+            }
+        }
+        assert decrypted.length() == plain.length()
+        println String.format('%-10s %8d %12d %12.1f', 'encrypt', threads, segmentSize, mbPerSecond(plain.length(), bestEncrypt))
+        println String.format('%-10s %8d %12d %12.1f', 'decrypt', threads, segmentSize, mbPerSecond(plain.length(), bestDecrypt))
+    }
+}
@@ -0,0 +1,103 @@
+/*
+   Compare YamlOperator with creating a new YAML engine for every call.
+   Reports throughput and bytes allocated per operation.
+
+   Usage:
+       ./gradlew benchmarkYaml
+ */
+import java.lang.management.ManagementFactory
+import net.gleske.jervis.tools.YamlOperator
+import org.yaml.snakeyaml.DumperOptions
+import org.yaml.snakeyaml.LoaderOptions
+import org.yaml.snakeyaml.Yaml
+import org.yaml.snakeyaml.constructor.SafeConstructor
+import org.yaml.snakeyaml.representer.Representer
+
+int operations = Integer.getInteger('benchmark.size', 20000)
+int iterations = Integer.getInteger('benchmark.iterations', 3)
+
+// a document similar to a small .jervis.yml
+Map document = [
+    language: 'groovy',
+    jdk: ['openjdk8', 'openjdk11'],
+    env: [matrix: ['GROOVY_VERSION=2.4.21', 'GROOVY_VERSION=3.0.24']],
+    matrix: [exclude: [[jdk: 'openjdk11', env: 'GROOVY_VERSION=2.4.21']]],
+    jenkins: [pipeline_jenkinsfile: 'Jenkinsfile', stash: [[name: 'artifacts', includes: 'build/libs/*.jar']]]
+]
+String text = YamlOperator.writeObjToYaml(document)
+
+// the previous approach which created a new engine on every call
+Closure newEngineLoad = { String yaml ->
+    LoaderOptions options = new LoaderOptions()
+    options.allowDuplicateKeys = true
+    options.allowRecursiveKeys = false
+    options.codePointLimit = 5242880
+    options.maxAliasesForCollections = 500
+    options.nestingDepthLimit = 500
+    options.processComments = false
+    options.wrappedToRootException = false
+    new Yaml(new SafeConstructor(options)).load(new ByteArrayInputStream(yaml.bytes))
+}
+Closure newEngineDump = { def obj ->
+    DumperOptions options = new DumperOptions()
+    options.setIndent(2)
+    options.setPrettyFlow(true)
+    options.setDefaultFlowStyle(DumperOptions.FlowStyle.BLOCK)
+    options.setIndicatorIndent(2)
+    options.setIndentWithIndicator(true)
+    new Yaml(new SafeConstructor(new LoaderOptions()), new Representer(options), options).dump(obj)
+}
+
+Map cases = [
+    'load new engine': { newEngineLoad(text) },
+    'load YamlOperator': { YamlOperator.loadYamlFrom(text) },
+    'dump new engine': { newEngineDump(document) },
+    'dump YamlOperator': { YamlOperator.writeObjToYaml(document) },
+    'dump to Writer': { YamlOperator.writeObjToYaml(new StringWriter(), document) }
+]
+
+def threadBean = ManagementFactory.threadMXBean
+Boolean allocation = threadBean.respondsTo('getThreadAllocatedBytes', [long] as Object[])
+Closure allocated = {->
+    allocation ? threadBean.getThreadAllocatedBytes(Thread.currentThread().id) : 0
+}
+
+println "Operations per iteration: ${operations}"
+println String.format('%-20s %12s %16s', 'case', 'ops/s', 'bytes/op')
+cases.each { String name, Closure body ->
+    long best = Long.MAX_VALUE
+    long bytes = 0
+    // first iteration warms up the JIT
+    (iterations + 1).times { int i ->
+        long startBytes = allocated()
+        long start = System.nanoTime()
+        operations.times {
+            body()
+        }
+        long elapsed = System.nanoTime() - start
+        if(i > 0 && elapsed < best) {
+            best = elapsed
+            bytes = allocated() - startBytes
+        }
+    }
+    double opsPerSecond = operations / (best / 1000000000.0d)
+    println String.format('%-20s %12.0f %16d', name, opsPerSecond, bytes.intdiv(operations))
+}
+
+// multi-document streaming keeps only one document in memory
+File documents = File.createTempFile('jervis-benchmark', '.yaml')
+documents.deleteOnExit()
+documents.withWriter('UTF-8') { Writer w ->
+    operations.times {
+        w << '---\n'
+        YamlOperator.writeObjToYaml(w, document)
+    }
+}
+long start = System.nanoTime()
+Integer count = 0
+YamlOperator.loadAllYamlFrom(documents) {
+    count++
+}
+double seconds = (System.nanoTime() - start) / 1000000000.0d
+println String.format('loadAllYamlFrom: %d documents (%d bytes) in %.2f s', count, documents.length(), seconds)
+documents.delete()
@@ -0,0 +1,118 @@
+/*
+   Measure heap retained by long lived MultiPlatformGenerator objects when
+   Jervis YAML is stored as modifiable LinkedHashMap copies versus compact
+   read-only YAML from YamlOperator.compact().
+
+   Usage:
+       ./gradlew benchmarkYamlHeap
+ */
+import net.gleske.jervis.lang.MultiPlatformGenerator
+import net.gleske.jervis.lang.MultiPlatformValidator
+import net.gleske.jervis.tools.YamlOperator
+
+int generators = Integer.getInteger('benchmark.size', 2000)
+
+MultiPlatformValidator platforms = new MultiPlatformValidator()
+platforms.loadPlatformsString(new File('resources/platforms.yaml').text)
+['alpine3', 'ubuntu2204'].each { String os ->
+    platforms.loadLifecyclesString(os, new File("resources/lifecycles-${os}-stable.yaml").text)
+    platforms.loadToolchainsString(os, new File("resources/toolchains-${os}-stable.yaml").text)
+}
+
+// a set of repositories similar to what a Jenkins controller would load
+List repositories = [
+    '''
+    |language: java
+    |jdk:
+    |  - openjdk17
+    |  - openjdk11
+    |env:
+    |  - GRADLE_OPTS=-Xmx1g
+    |  - GRADLE_OPTS=-Xmx2g
+    |script: ./gradlew check
+    |jenkins:
+    |  platform: [x86_64, arm64]
+    |  os: [ubuntu2204, alpine3]
+    |  stash:
+    |    - name: artifacts
+    |      includes: build/libs/*.jar
+    |  collect:
+    |    junit: build/test-results/test/*.xml
+    |branches:
+    |  only:
+    |    - main
+    |    - /^release-.*$/
+    ''',
+    '''
+    |language: python
+    |python:
+    |  - "3.10"
+    |  - "3.11"
+    |install: pip install -r requirements.txt
+    |script: pytest
+    |jenkins:
+    |  platform: [x86_64, arm64]
+    |  os: ubuntu2204
+    |  collect:
+    |    junit: reports/*.xml
+    ''',
+    '''
+    |language: shell
+    |script:
+    |  - ./build.sh
+    |  - ./test.sh
+    |jenkins:
+    |  os: [ubuntu2204, alpine3]
+    |  ubuntu2204:
+    |    env: UBUNTU=true
+    '''
+].collect { it.stripMargin().trim() }
+
+Closure modifiable = { MultiPlatformGenerator mpg ->
+    // the storage used before YAML was compacted
+    mpg.rawJervisYaml = YamlOperator.deepCopy(mpg.rawJervisYaml)
+    mpg.platform_jervis_yaml.each { String platform, Map byOS ->
+        byOS.keySet().toList().each { String os ->
+            byOS[os] = YamlOperator.deepCopy(byOS[os])
+            mpg.platform_generators[platform][os].jervis_yaml = YamlOperator.deepCopy(byOS[os])
+        }
+    }
+}
+
+Closure usedHeap = {->
+    Runtime runtime = Runtime.runtime
+    long used = Long.MAX_VALUE
+    // repeat until garbage collection stops freeing memory
+    5.times {
+        System.gc()
+        Thread.sleep(100)
+        used = Math.min(used, runtime.totalMemory() - runtime.freeMemory())
+    }
+    used
+}
+
+Closure measure = { Boolean compact ->
+    long before = usedHeap()
+    List retained = []
+    generators.times { int i ->
+        MultiPlatformGenerator mpg = new MultiPlatformGenerator(platforms)
+        mpg.loadMultiPlatformYaml(yaml: repositories[i % repositories.size()])
+        if(!compact) {
+            modifiable(mpg)
+        }
+        retained << mpg
+    }
+    long after = usedHeap()
+    assert retained.size() == generators
+    (after - before).intdiv(generators)
+}
+
+println "Generators: ${generators}"
+// warm up class loading and the JIT before measuring
+measure(true)
+long modifiableBytes = measure(false)
+long compactBytes = measure(true)
+println String.format('%-22s %14s', 'storage', 'bytes/generator')
+println String.format('%-22s %14d', 'LinkedHashMap copies', modifiableBytes)
+println String.format('%-22s %14d', 'compact YAML', compactBytes)
+println String.format('retained heap reduced by %.1f%%', 100.0d * (modifiableBytes - compactBytes) / modifiableBytes)
@@ -16,10 +16,21 @@
 
 package net.gleske.jervis.beta
 
-import static net.gleske.jervis.tools.AutoRelease.getScriptFromTemplate
 import net.gleske.jervis.exceptions.JervisException
+import net.gleske.jervis.tools.DaemonThreadFactory
+import net.gleske.jervis.tools.SecurityIO
 import net.gleske.jervis.tools.YamlOperator
 
+import groovy.text.SimpleTemplateEngine
+import groovy.text.Template
+import java.nio.file.Files
+import java.nio.file.StandardCopyOption
+import java.util.concurrent.Callable
+import java.util.concurrent.ExecutionException
+import java.util.concurrent.ExecutorService
+import java.util.concurrent.Executors
+import java.util.concurrent.Future
+
 /**
   This is a utility class for Jervis admins to generate documentation on the
   fly for their specific environment.  An admin will bring their own
@@ -39,6 +50,18 @@ import net.gleske.jervis.tools.SupportDocumentationGenerator as Doc
 Doc docs = new Doc()
 
 println docs.supportByOS
+</code></pre>
+
+   <p>Render the lifecycle documentation of every OS and language into
+   <tt>{@link #outputDir}</tt>.  Running it again only renders documents
+   whose inputs changed.</p>
+
+<pre><code>
+import net.gleske.jervis.tools.SupportDocumentationGenerator as Doc
+
+Doc docs = new Doc(templateDir: 'src/main/resources/net/gleske/jervis/doctemplates/', jsonDir: '/path/to/json/', outputDir: '/tmp/doc')
+
+println docs.writeLifecycleDocumentation()
 </code></pre>
   */
 class SupportDocumentationGenerator {
@@ -78,6 +101,32 @@ class SupportDocumentationGenerator {
 
     String serviceName = 'Jenkins'
 
+    /**
+      The directory where
+      <tt>{@link #writeLifecycleDocumentation(java.lang.Integer)}</tt> writes
+      documentation.
+      */
+    String outputDir
+
+    /**
+      The name of the file in <tt>{@link #outputDir}</tt> which records a hash
+      of the inputs of every document written.  Documents whose inputs did
+      not change are not rendered again.
+      */
+    static final String INPUTS_FILE = '.inputs.sha256'
+
+    /**
+      A SHA-256 sum of the contents of every JSON file keyed the same as
+      <tt>{@link #jsonFiles}</tt>.
+      */
+    private Map<String, String> jsonFileSums = [:]
+
+    /**
+      Compiled <tt>{@link #templates}</tt> keyed by template contents so a
+      template is compiled once no matter how many documents are rendered.
+      */
+    private Map<String, Template> compiledTemplates = [:]
+
     def SupportDocumentationGenerator() {
         this(
             templateDir: 'src/main/resources/net/gleske/jervis/doctemplates/',
@@ -91,6 +140,7 @@ class SupportDocumentationGenerator {
         }
         this.parseJsonFiles(args.jsonDir -~ '/$')
         this.parseTemplates((args.templateDir ?: '') -~ '/$')
+        this.outputDir = args.outputDir
     }
 
     /**
@@ -113,18 +163,24 @@ class SupportDocumentationGenerator {
     }
 
     private void parseJsonFiles(String jsonDir) {
-        this.jsonFiles['platforms'] = YamlOperator.loadYamlFrom(new File(jsonDir + '/platforms.json'))
+        this.parseJsonFile('platforms', new File(jsonDir + '/platforms.json'))
         String stability = this.jsonFiles.platforms.defaults.stability
         this.jsonFiles.platforms.supported_platforms.each { k, platform ->
             platform.each { os, v ->
-                this.jsonFiles["lifecycles-${os}".toString()] = YamlOperator.loadYamlFrom(new File(jsonDir + "/lifecycles-${os}-${stability}.json"))
-                this.jsonFiles["toolchains-${os}".toString()] = YamlOperator.loadYamlFrom(new File(jsonDir + "/toolchains-${os}-${stability}.json"))
+                this.parseJsonFile("lifecycles-${os}", new File(jsonDir + "/lifecycles-${os}-${stability}.json"))
+                this.parseJsonFile("toolchains-${os}", new File(jsonDir + "/toolchains-${os}-${stability}.json"))
                 this.supportByOS[os] = [languages: this.getLanguages(os)]
                 this.supportByOS[os]['toolchains'] = this.getToolchains(os)
             }
         }
     }
 
+    private void parseJsonFile(String key, File file) {
+        String contents = file.text
+        this.jsonFileSums[key] = SecurityIO.sha256Sum(contents)
+        this.jsonFiles[key] = YamlOperator.loadYamlFrom(contents)
+    }
+
     /**
       Get the full supported language documentation for a given operating system.
 
@@ -144,6 +200,98 @@ class SupportDocumentationGenerator {
       Return markdown documentation for a given OS supporting a language.
       */
     String getLifecycleDocumentation(String os, String language) {
+        StringWriter documentation = new StringWriter()
+        this.renderLifecycleDocumentation(os, language, documentation)
+        documentation.toString()
+    }
+
+    /**
+      Renders the lifecycle documentation of every supported language of every
+      OS into <tt>{@link #outputDir}</tt>.  Documents are written to
+      <tt>&lt;os&gt;/lifecycle-&lt;language&gt;.md</tt>.  Templates are
+      compiled once and documents are rendered concurrently.  A document is
+      skipped if it exists and the hash of its inputs is unchanged since it was
+      last written.  The inputs are the templates, every JSON file, the OS, the
+      language, and <tt>{@link #serviceName}</tt>.  Every JSON file is an input
+      because templates are bound to all of <tt>{@link #jsonFiles}</tt>.
+
+      @param threads The maximum number of documents rendered at the same
+                     time.  Defaults to the number of available processors.
+      @return A Map with a <tt>rendered</tt> and <tt>skipped</tt> list of
+              document files.
+      */
+    Map<String, List<File>> writeLifecycleDocumentation(Integer threads = Runtime.runtime.availableProcessors()) {
+        if(!this.outputDir) {
+            throw new JervisException('outputDir must be set in order to write documentation.')
+        }
+        File output = new File(this.outputDir)
+        output.mkdirs()
+        File inputsFile = new File(output, INPUTS_FILE)
+        Map<String, String> previous = [:]
+        if(inputsFile.exists()) {
+            inputsFile.eachLine('UTF-8') { String line ->
+                List<String> fields = line.tokenize('\t')
+                if(fields.size() == 2) {
+                    previous[fields[1]] = fields[0]
+                }
+            }
+        }
+        // compile all templates before rendering concurrently
+        this.templates.keySet().each {
+            this.compiledTemplate(it)
+        }
+        Map<String, List<File>> result = [rendered: [], skipped: []]
+        // input hashes of documents which are up to date
+        Map<String, String> written = new TreeMap<String, String>()
+        Map<String, String> inputs = [:]
+        Map<String, Future> renders = [:]
+        ExecutorService pool = Executors.newFixedThreadPool(Math.max(1, threads), new DaemonThreadFactory('jervis-doc-render'))
+        try {
+            this.supportByOS.each { String os, Map support ->
+                support.languages.each { String language ->
+                    String path = "${os}/lifecycle-${language}.md"
+                    File document = new File(output, path)
+                    String inputHash = this.lifecycleInputHash(os, language)
+                    inputs[path] = inputHash
+                    if(document.exists() && previous[path] == inputHash) {
+                        written[path] = inputHash
+                        result.skipped << document
+                        return
+                    }
+                    renders[path] = pool.submit({ ->
+                        this.writeDocument(document) { Writer w ->
+                            this.renderLifecycleDocumentation(os, language, w)
+                        }
+                        document
+                    } as Callable)
+                }
+            }
+            for(Map.Entry<String, Future> render : renders) {
+                try {
+                    result.rendered << render.value.get()
+                    written[render.key] = inputs[render.key]
+                }
+                catch(ExecutionException e) {
+                    throw new JervisException("Failed to render ${render.key}: ${e.cause}")
+                }
+            }
+        }
+        finally {
+            pool.shutdownNow()
+            // documents which were not written are rendered again next time
+            this.writeDocument(inputsFile) { Writer w ->
+                written.each { String path, String inputHash ->
+                    w << inputHash << '\t' << path << '\n'
+                }
+            }
+        }
+        result
+    }
+
+    /**
+      Writes a lifecycle document one section at a time.
+      */
+    private void renderLifecycleDocumentation(String os, String language, Writer out) {
         if(!(language in supportByOS[os].languages)) {
             throw new JervisException("Language ${language} is not supported by ${os}.")
         }
@@ -157,7 +305,7 @@ class SupportDocumentationGenerator {
             serviceName: serviceName,
             supportByOS: this.supportByOS
         ]
-        List documentation = [getScriptFromTemplate(templates.'lifecycle-introduction', binding).trim()]
+        out << this.renderTemplate('lifecycle-introduction', binding).trim()
 
         // get all lifecycles sorted by their order in which Jervis will detect
         // build tools and fall back.
@@ -179,9 +327,49 @@ class SupportDocumentationGenerator {
                 nextFile: nextFile,
                 onlyEntry: onlyEntry
             ]
-            documentation << getScriptFromTemplate(templates.'lifecycle', binding + secondBinding).trim()
+            out << '\n\n' << this.renderTemplate('lifecycle', binding + secondBinding).trim()
+        }
+    }
+
+    private String renderTemplate(String name, Map binding) {
+        this.compiledTemplate(name).make(binding).toString()
+    }
+
+    private synchronized Template compiledTemplate(String name) {
+        String text = this.templates[name]
+        if(!this.compiledTemplates.containsKey(text)) {
+            this.compiledTemplates[text] = new SimpleTemplateEngine().createTemplate(text)
+        }
+        this.compiledTemplates[text]
+    }
+
+    private String lifecycleInputHash(String os, String language) {
+        List inputs = this.templates.keySet().toList().sort().collect { String name ->
+            "${name}=${SecurityIO.sha256Sum(this.templates[name])}"
+        }
+        inputs += this.jsonFileSums.keySet().toList().sort().collect { String key ->
+            "${key}=${this.jsonFileSums[key]}"
+        }
+        inputs << "os=${os}" << "language=${language}" << "serviceName=${this.serviceName}"
+        SecurityIO.sha256Sum(inputs.join('\n'))
+    }
+
+    /**
+      Writes to a temporary file which replaces the file once writing finishes
+      so that a partially written file is never left behind.
+      */
+    private static void writeDocument(File file, Closure writer) {
+        file.parentFile.mkdirs()
+        File temp = File.createTempFile(file.name, '.tmp', file.parentFile)
+        try {
+            temp.withWriter('UTF-8') { Writer w ->
+                writer(w)
+            }
+            Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE)
+        }
+        finally {
+            temp.delete()
         }
-        documentation.join('\n\n')
     }
 
     /**
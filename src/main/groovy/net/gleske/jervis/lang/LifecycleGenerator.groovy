@@ -20,6 +20,8 @@ import net.gleske.jervis.exceptions.PlatformValidationException
 import net.gleske.jervis.exceptions.SecurityException
 import net.gleske.jervis.exceptions.UnsupportedLanguageException
 import net.gleske.jervis.exceptions.UnsupportedToolException
+import net.gleske.jervis.tools.Metrics
+import net.gleske.jervis.tools.MetricsSpan
 import net.gleske.jervis.tools.SecurityIO
 import net.gleske.jervis.tools.YamlOperator
 
@@ -82,19 +84,22 @@ println generator.getLabels()
 class LifecycleGenerator implements Serializable {
 
     /**
-      Contains the Jervis YAML loaded as an object.
+      Contains the Jervis YAML loaded as an object.  After
+      <tt>{@link #loadYamlString(java.lang.String)}</tt> this is a read-only
+      compact copy; see
+      <tt>{@link net.gleske.jervis.tools.YamlOperator#compact(java.lang.Object)}</tt>.
      */
-    Map jervis_yaml
+    transient Map jervis_yaml
 
     /**
       A quick access variable for what language is selected for the loaded Jervis YAML.
      */
-    String yaml_language
+    transient String yaml_language
 
     /**
       A quick access variable for what root keys are in the loaded Jervis YAML.
      */
-    String[] yaml_keys
+    transient String[] yaml_keys
 
     /**
       A variable set by any external system relaying to Jervis that this is a
@@ -114,7 +119,7 @@ class LifecycleGenerator implements Serializable {
       used for whitelist filtering and <tt>except</tt> is used for blacklist
       filtering.
       */
-    String filter_type = ''
+    transient String filter_type = ''
 
     /**
       Set if this generator is a part of a multi-platform configuration.  This
@@ -126,7 +131,7 @@ class LifecycleGenerator implements Serializable {
     /**
       A quick access variable for matrix build axes.
      */
-    List yaml_matrix_axes
+    transient List yaml_matrix_axes
 
     /**
       An instance of the <tt>{@link net.gleske.jervis.lang.LifecycleValidator}</tt> class which has loaded a lifecycles file.
@@ -202,17 +207,17 @@ class LifecycleGenerator implements Serializable {
     /**
       A list of secrets loaded from the YAML file.
      */
-    List cipherlist = [] as ArrayList
+    transient List cipherlist = [] as ArrayList
 
     /**
       A map of secrets loaded from the YAML file.
      */
-    Map ciphermap = [:] as HashMap
+    transient Map ciphermap = [:] as HashMap
 
     /**
       A list of decrypted values from the <tt>{@link #cipherlist}</tt>.
      */
-    List plainlist = [] as ArrayList
+    transient List plainlist = [] as ArrayList
 
     /**
       A list of decrypted values from the <tt>{@link #ciphermap}</tt>.
@@ -230,7 +235,30 @@ class LifecycleGenerator implements Serializable {
       show a full key name as if the friendly name were not needed.  Basically,
       it allows the unfriendly name to be accessible via the friendly name.
      */
-    Map matrix_fullName_by_friendly = [:]
+    transient Map matrix_fullName_by_friendly = [:]
+
+    /**
+      Toolchain scripts specialized for a single matrix axis keyed by the
+      values of the matrix toolchains in the axis.
+
+      @see #generateToolchainSection(java.util.Map)
+     */
+    private transient Map<String, String> axis_toolchain_scripts = [:]
+
+    /**
+      The Jervis YAML last passed to
+      <tt>{@link #preloadYamlString(java.lang.String)}</tt> or
+      <tt>{@link #loadYamlString(java.lang.String)}</tt>.  It is serialized
+      instead of the parsed Jervis YAML and the fields calculated from it.
+     */
+    private String jervisYamlSource
+
+    /**
+      <tt>true</tt> if <tt>{@link #jervisYamlSource}</tt> was loaded by
+      <tt>{@link #loadYamlString(java.lang.String)}</tt> instead of only
+      preloaded.
+     */
+    private Boolean jervisYamlLoaded = false
 
     Map getMatrix_fullName_by_friendly() {
         if(!matrix_fullName_by_friendly) {
@@ -394,6 +422,22 @@ class LifecycleGenerator implements Serializable {
       @param raw_yaml A <tt>String</tt> which contains Jervis YAML to be parsed.
      */
     public void loadYamlString(String raw_yaml) throws JervisException, UnsupportedLanguageException {
+        MetricsSpan span = Metrics.startSpan('jervis.generator', [phase: 'loadYamlString'])
+        try {
+            loadYamlStringPhase(raw_yaml)
+        }
+        catch(Throwable e) {
+            span.error(e)
+            throw e
+        }
+        finally {
+            span.close()
+        }
+        this.jervisYamlSource = raw_yaml
+        this.jervisYamlLoaded = true
+    }
+
+    private void loadYamlStringPhase(String raw_yaml) throws JervisException, UnsupportedLanguageException {
         jervis_yaml = YamlOperator.loadYamlFrom(raw_yaml) ?: [:]
         //remove any empty YAML keys to fix null key bug
         def iterator = jervis_yaml.entrySet().iterator()
@@ -469,6 +513,7 @@ class LifecycleGenerator implements Serializable {
         } ?: []
         //populate unfriendly names being accessible by friendly name
         matrix_fullName_by_friendly = [:]
+        axis_toolchain_scripts = [:]
         //populate branch filtering keys removing extra information
         filter_type = ''
         if(jervis_yaml['branches'] instanceof List) {
@@ -493,7 +538,8 @@ class LifecycleGenerator implements Serializable {
                 filter_type = ''
             }
         }
-        null
+        // generators are kept in memory for a long time by Jenkins
+        jervis_yaml = YamlOperator.compact(jervis_yaml)
     }
 
     /**
@@ -681,10 +727,43 @@ env:
        @param toolchain_keys The known keys for a given toolchain to look up <tt>*</tt> or a given toolchain value.
        @param chain          The matrix list from the Jervis YAML for the given toolchain.
        @param matrix         Should the input be considered a matrix build?  If so then set to <tt>true</tt>.
+       @param selected       The matrix axis value of the toolchain.  If set, then only the setup for this value is
+                             written instead of a <tt>case</tt> statement for every value.
      */
-    private String toolchainBuilder(String toolchain, String[] toolchain_keys, List chain, Boolean matrix) throws UnsupportedToolException {
+    private String toolchainBuilder(String toolchain, String[] toolchain_keys, List chain, Boolean matrix, String selected = null) throws UnsupportedToolException {
         String output = ''
         List toolchainScriptList
+        if(matrix && selected) {
+            //validate every value and name them the same as the case statement
+            Integer index = null
+            for(int i=0; i < chain.size(); i++) {
+                String tempchain = chain[i].toString()
+                if(!this.toolchain_obj.supportedTool(toolchain, tempchain, this.isUnstable)) {
+                    throw new UnsupportedToolException("${toolchain}: ${tempchain}")
+                }
+                String label = "${toolchain}:${tempchain}"
+                if(!this.toolchain_obj.isFriendlyLabel(toolchain, this.isUnstable)) {
+                    matrix_fullName_by_friendly["${toolchain}${i}".toString()] = label
+                    label = "${toolchain}${i}"
+                }
+                if(label == selected && index == null) {
+                    index = i
+                }
+            }
+            if(index == null) {
+                //the axis value is unknown so let the script decide at runtime
+                return toolchainBuilder(toolchain, toolchain_keys, chain, matrix)
+            }
+            String tempchain = chain[index].toString()
+            if(tempchain in toolchain_keys) {
+                toolchainScriptList = toolchainScript(YamlOperator.getObjectValue(this.toolchain_obj.getToolchains(this.isUnstable), "\"${toolchain}\".\"${tempchain}\"", [[], '']))
+            }
+            else {
+                //assume using "*" key
+                toolchainScriptList = toolchainScript(YamlOperator.getObjectValue(this.toolchain_obj.getToolchains(this.isUnstable), "\"${toolchain}\".\\*", [[], '']))
+            }
+            return this.interpolate_ivalue(toolchainScriptList, tempchain).join('\n') + '\n'
+        }
         if(matrix) {
             output += "case \${${toolchain}} in\n"
             for(int i=0; i < chain.size(); i++) {
@@ -735,6 +814,64 @@ env:
       @return A bash script setting up the toolchains for building.
      */
     public String generateToolchainSection() throws UnsupportedToolException {
+        MetricsSpan span = Metrics.startSpan('jervis.generator', [phase: 'generateToolchainSection'])
+        try {
+            return toolchainSection(null)
+        }
+        catch(Throwable e) {
+            span.error(e)
+            throw e
+        }
+        finally {
+            span.close()
+        }
+    }
+
+    /**
+      Generate the toolchains shell script for a single matrix axis.  Instead
+      of a <tt>case</tt> statement with the setup of every matrix value, only
+      the setup for the value of each matrix toolchain in the axis is written.
+      Toolchains missing from the axis keep their <tt>case</tt> statement.
+      Scripts are cached by the values of the matrix toolchains in the axis.
+
+      @param axis A matrix axis from <tt>getBuildableMatrixAxes()</tt> such as
+                  <tt>[jdk: 'jdk:openjdk17', env: 'env0']</tt>.  Keys which
+                  are not matrix toolchains (e.g. <tt>platform</tt> and
+                  <tt>os</tt>) are ignored.
+      @return A bash script setting up the toolchains for building the axis.
+      @see #generateToolchainSection()
+     */
+    public String generateToolchainSection(Map axis) throws UnsupportedToolException {
+        String signature = (yaml_matrix_axes ?: []).collect { "${it}=${axis[it]}" }.join('\n')
+        if(this.axis_toolchain_scripts == null) {
+            this.axis_toolchain_scripts = [:]
+        }
+        String script = this.axis_toolchain_scripts[signature]
+        if(script != null) {
+            return script
+        }
+        MetricsSpan span = Metrics.startSpan('jervis.generator', [phase: 'generateToolchainSection'])
+        try {
+            script = toolchainSection(axis)
+        }
+        catch(Throwable e) {
+            span.error(e)
+            throw e
+        }
+        finally {
+            span.close()
+        }
+        this.axis_toolchain_scripts[signature] = script
+        script
+    }
+
+    /**
+      Writes the toolchains section shared by both variants of
+      <tt>{@link #generateToolchainSection()}</tt>.
+
+      @param axis A matrix axis or <tt>null</tt> to write every matrix value.
+     */
+    private String toolchainSection(Map axis) throws UnsupportedToolException {
         //get toolchain order for this language
         def toolchains_order = this.toolchain_obj.getToolchains(this.isUnstable)['toolchains'][yaml_language]
         HashMap cleanup = [:]
@@ -748,24 +885,25 @@ env:
             output += "#${toolchain} toolchain section\n"
             if(toolchain in yaml_keys) {
                 //User wants to override default with a toolchain value in their YAML file.
-                def user_toolchain
+                def user_toolchain = jervis_yaml[toolchain]
                 //convert doubles and integers to strings fixing bug #85
-                if(jervis_yaml[toolchain] instanceof Number) {
-                    jervis_yaml[toolchain] = jervis_yaml[toolchain].toString()
+                if(user_toolchain instanceof Number) {
+                    user_toolchain = user_toolchain.toString()
                 }
                 //toolchain must be an instance of String, List, or (in the case of only advanced toolchains) Map.
-                if(!isInstanceFromList(jervis_yaml[toolchain], [String, List]) &&
+                if(!isInstanceFromList(user_toolchain, [String, List]) &&
                         !(
                             (this.toolchain_obj.toolchainType(toolchain, this.isUnstable) == 'advanced') &&
-                            (jervis_yaml[toolchain] instanceof Map)
+                            (user_toolchain instanceof Map)
                         )) {
-                    throw new UnsupportedToolException("${toolchain}: ${jervis_yaml[toolchain]}")
+                    throw new UnsupportedToolException("${toolchain}: ${user_toolchain}")
                 }
-                if(jervis_yaml[toolchain] instanceof String) {
-                    user_toolchain = [jervis_yaml[toolchain]]
+                if(user_toolchain instanceof String) {
+                    user_toolchain = [user_toolchain]
                 }
-                else {
-                    user_toolchain = jervis_yaml[toolchain]
+                else if(user_toolchain instanceof Map) {
+                    //jervis_yaml is read-only so normalize a copy
+                    user_toolchain = new LinkedHashMap(user_toolchain)
                 }
                 //check if a matrix toolchain
                 boolean matrix_toolchain = toolchain in yaml_matrix_axes
@@ -788,7 +926,8 @@ env:
                             output += toolchainBuilder(toolchain,
                                                        toolchain_keys,
                                                        user_toolchain[key]*.toString(),
-                                                       (key == 'global')? false : matrix_toolchain)
+                                                       (key == 'global')? false : matrix_toolchain,
+                                                       axis?.get(toolchain)?.toString())
                         }
                         else {
                             throw new UnsupportedToolException("${toolchain}: ${key}.${user_toolchain[key]}")
@@ -797,7 +936,7 @@ env:
                 }
                 else {
                     //normal simple toolchain behavior
-                    output += this.toolchainBuilder(toolchain, toolchain_keys, user_toolchain*.toString(), matrix_toolchain)
+                    output += this.toolchainBuilder(toolchain, toolchain_keys, user_toolchain*.toString(), matrix_toolchain, axis?.get(toolchain)?.toString())
                 }
             }
             else {
@@ -1041,6 +1180,8 @@ env:
             throw new PlatformValidationException('Must load the platforms file first.')
         }
         jervis_yaml = YamlOperator.loadYamlFrom(raw_yaml) ?: [:]
+        this.jervisYamlSource = raw_yaml
+        this.jervisYamlLoaded = false
         // stability should always load first; load it twice to account for unstable defaults
         setLabel_stability(YamlOperator.getObjectValue(jervis_yaml, 'jenkins.unstable', this.platform_obj.platforms['defaults']['stability']))
         setLabel_stability(YamlOperator.getObjectValue(jervis_yaml, 'jenkins.unstable', this.platform_obj.getPlatforms(this.isUnstable)['defaults']['stability']))
@@ -1183,4 +1324,34 @@ env:
     public String getJenkinsfile() {
         YamlOperator.getObjectValue(jervis_yaml, 'jenkins.pipeline_jenkinsfile', 'Jenkinsfile')
     }
+
+    /**
+      Only the inputs of this generator are serialized: the Jervis YAML text,
+      validators, labels, folder listing, and decrypted secrets.  Parsed Jervis
+      YAML and the fields calculated from it are loaded again from the Jervis
+      YAML text.  Friendly matrix names and toolchain scripts are recalculated
+      the next time they are requested.
+     */
+    private void readObject(ObjectInputStream input) throws IOException, ClassNotFoundException {
+        input.defaultReadObject()
+        List listing = this.folder_listing
+        String key = this.lifecycle_key
+        this.filter_type = ''
+        this.cipherlist = [] as ArrayList
+        this.ciphermap = [:] as HashMap
+        this.plainlist = (this.plainmap ?: [:]).collect { k, v -> [key: k, secret: v] }
+        this.matrix_fullName_by_friendly = [:]
+        this.axis_toolchain_scripts = [:]
+        if(this.jervisYamlSource != null) {
+            if(this.jervisYamlLoaded) {
+                loadYamlString(this.jervisYamlSource)
+            }
+            else {
+                this.jervis_yaml = YamlOperator.loadYamlFrom(this.jervisYamlSource) ?: [:]
+            }
+        }
+        // loading Jervis YAML resets the folder listing
+        this.@folder_listing = listing
+        this.lifecycle_key = key
+    }
 }
@@ -58,7 +58,7 @@ class LifecycleValidator implements Serializable {
     /**
       A <tt>{@link Map}</tt> of the parsed lifecycles file.
      */
-    Map lifecycles
+    transient Map lifecycles
 
     /**
       Get lifecycles or optionally unstable lifecycles.
@@ -73,14 +73,20 @@ class LifecycleValidator implements Serializable {
     /**
       A <tt>{@link Map}</tt> of the parsed unstable lifecycles file.
      */
-    Map unstable_lifecycles
+    transient Map unstable_lifecycles
+
+    /**
+      Lifecycles YAML in the order it was loaded.  It is serialized instead of
+      the parsed lifecycles.
+     */
+    private LoadedYaml loadedYaml = new LoadedYaml()
 
     /**
       A <tt>String</tt> <tt>{@link Array}</tt> which contains a list of
       supported languages in the lifecycles file.  This is just a list of the
       keys in {@link #lifecycles}.
      */
-    String[] languages
+    transient String[] languages
 
     /**
       A <tt>String</tt> <tt>{@link Array}</tt> which contains a list of
@@ -99,7 +105,7 @@ class LifecycleValidator implements Serializable {
       supported languages in the unstable lifecycles file.  This is just a list
       of the keys in {@link #unstable_lifecycles}.
      */
-    String[] unstable_languages
+    transient String[] unstable_languages
 
     /**
       Load the YAML of a lifecycles file and parse it.  This should be the first
@@ -131,6 +137,7 @@ class LifecycleValidator implements Serializable {
             this.lifecycles = YamlOperator.loadYamlFrom(yaml) ?: [:]
             this.languages = lifecycles.keySet() as String[]
         }
+        this.loadedYaml.add(yaml, unstable)
     }
 
     /**
@@ -209,4 +216,39 @@ class LifecycleValidator implements Serializable {
         }
         return true
     }
+
+    /**
+      Only the loaded lifecycles YAML is serialized.  Lifecycles which were
+      set without loading YAML are serialized as they are.
+     */
+    private void writeObject(ObjectOutputStream output) throws IOException {
+        output.defaultWriteObject()
+        if(this.loadedYaml.isEmpty()) {
+            output.writeObject(this.@lifecycles)
+            output.writeObject(this.@unstable_lifecycles)
+        }
+    }
+
+    /**
+      Lifecycles and languages are parsed again from the loaded YAML.
+     */
+    private void readObject(ObjectInputStream input) throws IOException, ClassNotFoundException {
+        input.defaultReadObject()
+        if(this.loadedYaml.isEmpty()) {
+            this.@lifecycles = (Map) input.readObject()
+            this.@unstable_lifecycles = (Map) input.readObject()
+            if(this.@lifecycles != null) {
+                this.@languages = this.@lifecycles.keySet() as String[]
+            }
+            if(this.@unstable_lifecycles != null) {
+                this.@unstable_languages = this.@unstable_lifecycles.keySet() as String[]
+            }
+            return
+        }
+        LoadedYaml loaded = this.loadedYaml
+        this.loadedYaml = new LoadedYaml()
+        loaded.replay { String yaml, Boolean unstable ->
+            loadYamlString(yaml, unstable)
+        }
+    }
 }
@@ -0,0 +1,80 @@
+/*
+   Copyright 2014-2026 Sam Gleske - https://github.com/samrocketman/jervis
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+   */
+package net.gleske.jervis.lang
+
+import net.gleske.jervis.tools.GZip
+
+import java.util.zip.GZIPInputStream
+
+/**
+  Remembers the YAML a validator loaded and in which order.  Validators
+  serialize this instead of the YAML they parsed and load it again when they
+  are deserialized.  The YAML text is much smaller than the serialized parsed
+  YAML and it is compressed when serialized.
+  */
+class LoadedYaml implements Serializable {
+    private static final long serialVersionUID = 1L
+
+    private transient List<String> yaml = []
+    private final List<Boolean> unstable = []
+
+    /**
+      Remember YAML which was loaded.
+
+      @param yaml The YAML text which was loaded.
+      @param unstable Whether the YAML was loaded as unstable.
+      */
+    void add(String yaml, Boolean unstable) {
+        this.yaml << yaml
+        this.unstable << unstable
+    }
+
+    /**
+      @return <tt>true</tt> if no YAML was loaded.
+      */
+    Boolean isEmpty() {
+        !this.yaml
+    }
+
+    /**
+      Load all remembered YAML again in the order it was originally loaded.
+
+      @param load A <tt>Closure</tt> which takes the YAML text and whether it
+                  is unstable.
+      */
+    void replay(Closure load) {
+        this.yaml.eachWithIndex { String text, int i ->
+            load(text, this.unstable[i])
+        }
+    }
+
+    private void writeObject(ObjectOutputStream output) throws IOException {
+        output.defaultWriteObject()
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream()
+        new ObjectOutputStream(new GZip(compressed)).withCloseable { ObjectOutputStream out ->
+            out.writeObject(this.yaml as String[])
+        }
+        output.writeObject(compressed.toByteArray())
+    }
+
+    private void readObject(ObjectInputStream input) throws IOException, ClassNotFoundException {
+        input.defaultReadObject()
+        byte[] compressed = (byte[]) input.readObject()
+        new ObjectInputStream(new GZIPInputStream(new ByteArrayInputStream(compressed))).withCloseable { ObjectInputStream ins ->
+            this.yaml = ((String[]) ins.readObject()).toList()
+        }
+    }
+}
@@ -16,6 +16,9 @@
 package net.gleske.jervis.lang
 
 import net.gleske.jervis.exceptions.MultiPlatformJervisYamlException
+import net.gleske.jervis.tools.Metrics
+import net.gleske.jervis.tools.MetricsSpan
+import net.gleske.jervis.tools.SecurityIO
 import net.gleske.jervis.tools.YamlOperator
 
 
@@ -69,9 +72,11 @@ class MultiPlatformGenerator implements Serializable {
     final MultiPlatformValidator platforms_obj
 
     /**
-      A POJO parsed from the original user provided <tt>.jervis.yml</tt>.
+      A POJO parsed from the original user provided <tt>.jervis.yml</tt>.  This
+      is a read-only compact copy; see
+      <tt>{@link net.gleske.jervis.tools.YamlOperator#compact(java.lang.Object)}</tt>.
       */
-    Map rawJervisYaml
+    transient Map rawJervisYaml
 
     /**
       A list of platforms requested by user <tt>.jervis.yml</tt>.
@@ -116,11 +121,28 @@ class MultiPlatformGenerator implements Serializable {
       <tt>LifecycleGenerator</tt> created for the platofmr/OS combination.  The
       object is organized by platforms as a top-level key, with operating
       system as the child key; where the operating system contains the
-      <tt>.jervis.yml</tt> object for that platform/OS combination.
+      <tt>.jervis.yml</tt> object for that platform/OS combination.  Each
+      <tt>.jervis.yml</tt> object is a read-only compact copy which shares
+      identical keys with the other platform/OS combinations; see
+      <tt>{@link net.gleske.jervis.tools.YamlOperator#compact(java.lang.Object)}</tt>.
 
       @see #platform_generators
       */
-    Map<String, Map<String, Map>> platform_jervis_yaml = [:]
+    transient Map<String, Map<String, Map>> platform_jervis_yaml = [:]
+
+    /**
+      The user provided <tt>.jervis.yml</tt> last loaded.  It is serialized
+      instead of <tt>{@link #rawJervisYaml}</tt> and
+      <tt>{@link #platform_jervis_yaml}</tt>.
+      */
+    private String rawJervisYamlSource
+
+    /**
+      Checksum of the folder listing and private key last loaded.  Generators
+      are only reused by <tt>{@link #regenerate(java.util.Map)}</tt> when
+      both are unchanged.
+      */
+    private transient String loadOptionsSum
 
     /**
       Do not allow instantiating without arguments.
@@ -136,6 +158,12 @@ class MultiPlatformGenerator implements Serializable {
         this.platforms_obj = platforms
     }
 
+    private MultiPlatformGenerator(MultiPlatformGenerator previous) {
+        this.platforms = previous.platforms
+        this.operating_systems = previous.operating_systems
+        this.platforms_obj = previous.platforms_obj
+    }
+
     MultiPlatformGenerator(LifecycleGenerator lifecycleGenerator) {
         this.platforms_obj = new MultiPlatformValidator()
         if(lifecycleGenerator.platform_obj) {
@@ -230,12 +258,74 @@ class MultiPlatformGenerator implements Serializable {
     }
 
     void loadMultiPlatformYaml(Map options) {
+        loadJervisYaml(options, null)
+    }
+
+    /**
+      Load changed Jervis YAML into a new generator which reuses the
+      <tt>{@link net.gleske.jervis.lang.LifecycleGenerator}</tt> of every
+      platform/OS combination the change does not affect.  The top-level keys
+      of the new YAML are compared with <tt>{@link #rawJervisYaml}</tt>.  A
+      changed platform key only affects combinations on that platform,
+      including <tt>"platform"."os"</tt> keys nested within it.  A changed OS
+      key only affects combinations with that OS.  Any other changed key
+      affects every combination.  Affected combinations whose flattened YAML
+      turns out to be unchanged still reuse their generator.  This generator
+      is not modified.
+
+      <p>The result is the same as calling
+      <tt>{@link #loadMultiPlatformYaml(java.util.Map)}</tt> on a new
+      generator.  Every combination is rebuilt if the
+      <tt>folder_listing</tt> or <tt>private_key</tt> options changed or if
+      this generator has not loaded YAML.</p>
+
+      @param options The same options as <tt>loadMultiPlatformYaml</tt>.
+      @return A new generator for the changed YAML.
+      */
+    MultiPlatformGenerator regenerate(Map options) {
+        MultiPlatformGenerator next = new MultiPlatformGenerator(this)
+        Boolean reusable = this.rawJervisYaml != null && this.loadOptionsSum == loadOptionsChecksum(options)
+        next.loadJervisYaml(options, reusable ? this : null)
+        next
+    }
+
+    private static String loadOptionsChecksum(Map options) {
+        List folder_listing = (options.folder_listing in List) ? options.folder_listing : null
+        SecurityIO.sha256Sum([folder_listing, options.private_key ?: ''].inspect())
+    }
+
+    /**
+      Returns a closure which checks if a platform/OS combination is affected
+      by the difference between two parsed Jervis YAML objects.
+      */
+    private Closure affectedCombinations(Map before, Map after) {
+        List platformOsKeys = [this.platforms, this.operating_systems].flatten()
+        Set changed = (before.keySet() + after.keySet()).findAll { key ->
+            before[key] != after[key]
+        }
+        Boolean all = changed.any { key ->
+            !(key in platformOsKeys) && key != 'jenkins'
+        }
+        if(!all && 'jenkins' in changed) {
+            // selecting different platforms or OSes only adds and removes combinations
+            Closure settings = { Map yaml ->
+                (yaml.jenkins in Map) ? yaml.jenkins.findAll { k, v -> !(k in ['platform', 'os']) } : yaml.jenkins
+            }
+            all = settings(before) != settings(after)
+        }
+        return { String platform, String os ->
+            all || platform in changed || os in changed
+        }
+    }
+
+    private void loadJervisYaml(Map options, MultiPlatformGenerator previous) {
         def parsedJervisYaml = YamlOperator.loadYamlFrom(options.yaml)
         if(!(parsedJervisYaml in Map)) {
             throw new MultiPlatformJervisYamlException("* Jervis YAML must be a YAML object but is YAML ${parsedJervisYaml.getClass()}")
         }
         // validate against the platform
         platforms_obj.validateJervisYaml(parsedJervisYaml)
+        Closure affected = previous ? affectedCombinations(previous.rawJervisYaml, parsedJervisYaml) : null
 
         // initialize platforms
         List user_platform = YamlOperator.getObjectValue(parsedJervisYaml, 'jenkins.platform', [[], '']).with {
@@ -263,37 +353,26 @@ class MultiPlatformGenerator implements Serializable {
         [user_platform, user_os].combinations().collect {
             [platform: it[0], os: it[1]]
         }.each { Map current ->
-            // perform a deep copy on original YAML in order to update it
             if(!this.platform_jervis_yaml[current.platform]) {
                 this.platform_jervis_yaml[current.platform] = [:]
             }
-            this.platform_jervis_yaml[current.platform][current.os] = YamlOperator.deepCopy(parsedJervisYaml)
-            // For each platform and OS; flatten the YAML into a simpler text
-            // for LifecycleGenerator; without matrix jenkins.platform or
-            // jenkins.os
-            this.platform_jervis_yaml[current.platform][current.os].with { Map jervis_yaml ->
-                if(!jervis_yaml.jenkins) {
-                    jervis_yaml.jenkins = [:]
-                }
-                jervis_yaml.jenkins.platform = current.platform
-                jervis_yaml.jenkins.os = current.os
-                // ORDER of merging platform and operating system keys
-                // More specific to least specific
-                // - platform.os
-                // - os
-                // - platform
-
-                [
-                    "\"${current.platform}\".\"${current.os}\"",
-                    "\"${current.os}\"",
-                    "\"${current.platform}\""
-                ].each { String searchString ->
-                    Map merge = YamlOperator.getObjectValue(jervis_yaml, searchString, [:])
-                    jervis_yaml.putAll(merge)
-                }
+            if(!this.platform_generators[current.platform]) {
+                this.platform_generators[current.platform] = [:]
+            }
+            Map previous_yaml = previous?.platform_jervis_yaml?.get(current.platform)?.get(current.os)
+            LifecycleGenerator previous_generator = previous?.platform_generators?.get(current.platform)?.get(current.os)
+            if(previous_generator && !affected(current.platform, current.os)) {
+                this.platform_jervis_yaml[current.platform][current.os] = previous_yaml
+                this.platform_generators[current.platform][current.os] = previous_generator
+                return
+            }
+            this.platform_jervis_yaml[current.platform][current.os] = platformJervisYaml(parsedJervisYaml, current.platform, current.os)
+            if(previous_generator && previous_yaml == this.platform_jervis_yaml[current.platform][current.os]) {
+                // the change was overridden by a more specific key
+                this.platform_jervis_yaml[current.platform][current.os] = previous_yaml
+                this.platform_generators[current.platform][current.os] = previous_generator
+                return
             }
-            // remove user-overridden platforms and OS setings.
-            this.platform_jervis_yaml[current.platform][current.os] = removePlatformOsKeys(this.platform_jervis_yaml[current.platform][current.os])
             errors += validate(
                 platform: current.platform,
                 os: current.os,
@@ -301,9 +380,6 @@ class MultiPlatformGenerator implements Serializable {
             if(errors) {
                 return
             }
-            if(!this.platform_generators[current.platform]) {
-                this.platform_generators[current.platform] = [:]
-            }
             this.platform_generators[current.platform][current.os] = platforms_obj.getGeneratorFromJervis(
                 yaml: YamlOperator.writeObjToYaml(this.platform_jervis_yaml[current.platform][current.os]),
                 folder_listing: options.folder_listing,
@@ -316,7 +392,43 @@ class MultiPlatformGenerator implements Serializable {
             this.platform_generators = [:]
             throw new MultiPlatformJervisYamlException('* ' + errors.sort().unique().reverse().join('\n* '))
         }
-        this.rawJervisYaml = parsedJervisYaml
+        this.rawJervisYaml = YamlOperator.compact(parsedJervisYaml)
+        this.rawJervisYamlSource = options.yaml
+        this.loadOptionsSum = loadOptionsChecksum(options)
+    }
+
+    /**
+      Flattens user provided <tt>.jervis.yml</tt> into the Jervis YAML of a
+      single platform/OS combination for
+      <tt>{@link net.gleske.jervis.lang.LifecycleGenerator}</tt>; without
+      matrix <tt>jenkins.platform</tt> or <tt>jenkins.os</tt>.
+
+      @return A read-only compact copy of the flattened YAML.
+      */
+    private Map platformJervisYaml(Map parsedJervisYaml, String platform, String os) {
+        // perform a deep copy on original YAML in order to update it
+        Map jervis_yaml = YamlOperator.deepCopy(parsedJervisYaml)
+        if(!jervis_yaml.jenkins) {
+            jervis_yaml.jenkins = [:]
+        }
+        jervis_yaml.jenkins.platform = platform
+        jervis_yaml.jenkins.os = os
+        // ORDER of merging platform and operating system keys
+        // More specific to least specific
+        // - platform.os
+        // - os
+        // - platform
+
+        [
+            "\"${platform}\".\"${os}\"",
+            "\"${os}\"",
+            "\"${platform}\""
+        ].each { String searchString ->
+            Map merge = YamlOperator.getObjectValue(jervis_yaml, searchString, [:])
+            jervis_yaml.putAll(merge)
+        }
+        // remove user-overridden platforms and OS setings.
+        YamlOperator.compact(removePlatformOsKeys(jervis_yaml))
     }
 
     List getStashes() {
@@ -459,6 +571,20 @@ class MultiPlatformGenerator implements Serializable {
     }
 
     List getBuildableMatrixAxes() {
+        MetricsSpan span = Metrics.startSpan('jervis.generator', [phase: 'getBuildableMatrixAxes'])
+        try {
+            return buildableMatrixAxesPhase()
+        }
+        catch(Throwable e) {
+            span.error(e)
+            throw e
+        }
+        finally {
+            span.close()
+        }
+    }
+
+    private List buildableMatrixAxesPhase() {
         if(!isMatrixBuild()) {
             return []
         }
@@ -535,6 +661,20 @@ class MultiPlatformGenerator implements Serializable {
         }
     }
     String generateToolchainSection() {
+        MetricsSpan span = Metrics.startSpan('jervis.generator', [phase: 'generateToolchainSection'])
+        try {
+            return generateToolchainSectionPhase()
+        }
+        catch(Throwable e) {
+            span.error(e)
+            throw e
+        }
+        finally {
+            span.close()
+        }
+    }
+
+    private String generateToolchainSectionPhase() {
         if(!(isPlatformMatrix() || isOSMatrix())) {
             return getGenerator().generateToolchainSection()
         }
@@ -557,4 +697,43 @@ class MultiPlatformGenerator implements Serializable {
         scripts << 'fi'
         scripts.join('\n')
     }
+
+    /**
+      Generate the toolchains shell script for a single matrix axis.  Only the
+      toolchain setup of the axis platform, OS, and matrix toolchain values is
+      included rather than the setup of every combination.  The generic
+      script from <tt>{@link #generateToolchainSection()}</tt> is still
+      available.
+
+      @param axis A matrix axis from <tt>{@link #getBuildableMatrixAxes()}</tt>.
+                  A missing <tt>platform</tt> or <tt>os</tt> uses the default.
+      @return A bash script setting up the toolchains for building the axis.
+      @see net.gleske.jervis.lang.LifecycleGenerator#generateToolchainSection(java.util.Map)
+      */
+    String generateToolchainSection(Map axis) {
+        String platform = axis.platform ?: this.defaultPlatform
+        String os = axis.os ?: this.defaultOS
+        this.platform_generators[platform][os].generateToolchainSection(axis)
+    }
+
+    /**
+      Only the user provided <tt>.jervis.yml</tt> text is serialized.  The
+      parsed YAML and the YAML of every platform/OS combination are loaded
+      again from it.
+      */
+    private void readObject(ObjectInputStream input) throws IOException, ClassNotFoundException {
+        input.defaultReadObject()
+        this.platform_jervis_yaml = [:]
+        if(this.rawJervisYamlSource == null) {
+            return
+        }
+        Map parsedJervisYaml = YamlOperator.loadYamlFrom(this.rawJervisYamlSource)
+        this.rawJervisYaml = YamlOperator.compact(parsedJervisYaml)
+        this.platform_generators.each { String platform, Map generators ->
+            this.platform_jervis_yaml[platform] = [:]
+            generators.keySet().each { String os ->
+                this.platform_jervis_yaml[platform][os] = platformJervisYaml(parsedJervisYaml, platform, os)
+            }
+        }
+    }
 }
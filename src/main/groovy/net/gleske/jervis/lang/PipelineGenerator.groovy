@@ -89,14 +89,32 @@ class PipelineGenerator implements PipelineGeneratorInterface, Serializable {
     Set<String> supported_collections
 
     /**
-      A list of items to collect from the build.
+      A list of items to collect from the build.  This only depends on Jervis
+      YAML so it is not serialized.
      */
-    private Map collect_items = [:]
+    private transient Map collect_items = [:]
 
     /**
-      A list of stash maps collected from the Jervis YAML.
+      A list of stash maps collected from the Jervis YAML.  This only depends
+      on Jervis YAML so it is not serialized.
      */
-    private List<Map> stashes = []
+    private transient List<Map> stashes = []
+
+    /**
+      Stashes from Jervis YAML normalized once when the YAML is loaded.  Each
+      stash is indexed by its matrix axis so looking up stashes for an axis is
+      a single hash lookup.  Non-matrix builds index all stashes under an
+      empty axis.  This only depends on Jervis YAML so it is rebuilt if
+      missing after deserialization.
+     */
+    private transient Map<Map, List<Map>> stashPlan
+
+    /**
+      Results calculated from admin settings such as compiled validation
+      patterns, publishable items, and stash maps for each matrix axis.  It is
+      discarded when admin settings are set.
+     */
+    private transient Map adminPlan
 
     /**
       This is a <tt>Map</tt> of default settings for the YAML key
@@ -107,6 +125,10 @@ class PipelineGenerator implements PipelineGeneratorInterface, Serializable {
       the default value from this map is selected.  This allows providing more
       advanced options to users but allowing sane defaults to be defined if a
       user chooses not to define more advanced options in YAML.
+
+      <p>Admin settings must be set instead of modified in place once
+      publishable items or stash maps were calculated.  Results calculated
+      from admin settings are only discarded when a setting is set.</p>
      */
     Map collect_settings_defaults = [:]
 
@@ -121,6 +143,15 @@ class PipelineGenerator implements PipelineGeneratorInterface, Serializable {
      */
     Map collect_settings_validation = [:]
 
+    /**
+      Sets <tt>{@link #collect_settings_validation}</tt> and discards results
+      calculated from admin settings.
+     */
+    void setCollect_settings_validation(Map m) {
+        this.collect_settings_validation = m
+        this.adminPlan = null
+    }
+
     /**
       Some settings defined in <tt>{@link #collect_settings_defaults}</tt> support
       <a href="http://ant.apache.org/manual/Types/fileset.html" target=_blank>Ant filesets</a>
@@ -128,6 +159,15 @@ class PipelineGenerator implements PipelineGeneratorInterface, Serializable {
      */
     Map collect_settings_filesets = [:]
 
+    /**
+      Sets <tt>{@link #collect_settings_filesets}</tt> and discards results
+      calculated from admin settings.
+     */
+    void setCollect_settings_filesets(Map m) {
+        this.collect_settings_filesets = m
+        this.adminPlan = null
+    }
+
     /**
       Customize the processing of stashmaps for stash names.  A stashmap
       preprocessor can be used to customize how stashing is calculated for
@@ -187,13 +227,14 @@ pipeline_generator.stashMap['html']['includes']
             v.maximumNumberOfParameters == 1 &&
             (Map in v.parameterTypes)
         }
+        this.adminPlan = null
     }
 
 
     /**
       This holds the user defined jenkins.collect item maps so we don't have to reference them.
      */
-    private Map user_defined_collect_settings = [:]
+    private transient Map user_defined_collect_settings = [:]
 
     /**
       <b>Deprecated:</b> Instantiates this class with a
@@ -213,11 +254,8 @@ pipeline_generator.stashMap['html']['includes']
     @Deprecated(forRemoval=true, since="jervis-2.1")
     PipelineGenerator(LifecycleGenerator generator) {
         this.platformGenerator = new MultiPlatformGenerator(generator)
-        // TODO replace stashes with platformGenerator.stashes
-        this.stashes = YamlOperator.getObjectValue(this.platformGenerator.getRawJervisYaml(), 'jenkins.stash', [[:], []]).with {
-            (!it) ? [] : ((it in List) ? it : [it])
-        }
-        processCollectItems()
+        loadStashes()
+        getStashPlan()
     }
 
     /**
@@ -230,10 +268,8 @@ pipeline_generator.stashMap['html']['includes']
      */
     PipelineGenerator(MultiPlatformGenerator platformGenerator) {
         this.platformGenerator = platformGenerator
-        this.stashes = YamlOperator.getObjectValue(this.platformGenerator.getRawJervisYaml(), 'jenkins.stash', [[:], []]).with {
-            (!it) ? [] : ((it in List) ? it : [it])
-        }
-        processCollectItems()
+        loadStashes()
+        getStashPlan()
     }
 
     /**
@@ -252,6 +288,7 @@ pipeline_generator.stashMap['html']['includes']
             }
             this.collect_settings_defaults << tmp
         }
+        this.adminPlan = null
     }
 
     /**
@@ -274,6 +311,22 @@ pipeline_generator.stashMap['html']['includes']
         }
     }
 
+    /**
+      Loads stashes and <tt>jenkins.collect</tt> items from Jervis YAML.
+     */
+    private void loadStashes() {
+        this.collect_items = [:]
+        this.user_defined_collect_settings = [:]
+        // TODO replace stashes with platformGenerator.stashes
+        this.stashes = YamlOperator.getObjectValue(this.platformGenerator.getRawJervisYaml(), 'jenkins.stash', [[:], []]).with {
+            (!it) ? [] : ((it in List) ? it : [it])
+        }.collect {
+            // Jervis YAML is read-only and stashes are updated with collect items
+            (it instanceof Map) ? new LinkedHashMap(it) : it
+        }
+        processCollectItems()
+    }
+
     /**
       Processes <tt>jenkins.collect</tt> items from Jervis YAML.
      */
@@ -306,52 +359,127 @@ pipeline_generator.stashMap['html']['includes']
         this.platformGenerator.getBuildableMatrixAxes()
     }
 
+    /**
+      Normalizes stashes from Jervis YAML and indexes them by matrix axis.
+      This is only calculated once.
+
+      @return An immutable <tt>Map</tt> of matrix axis to a list of stashes.
+     */
+    private Map<Map, List<Map>> getStashPlan() {
+        if(this.stashPlan != null) {
+            return this.stashPlan
+        }
+        if(this.stashes == null) {
+            loadStashes()
+        }
+        boolean isMatrix = generator.isMatrixBuild()
+        Map<Map, List<Map>> plan = [:]
+        stashes.each { s ->
+            if(!(s instanceof Map)) {
+                return
+            }
+            Map stash = s
+            if(('name' in stash) &&
+                    YamlOperator.getObjectValue(collect_items, stash['name'], '')) {
+                stash['includes'] = YamlOperator.getObjectValue(collect_items, stash['name'], '')
+            }
+            Map matrix_axis = YamlOperator.getObjectValue(stash, 'matrix_axis', [:])
+            if(!(('name' in stash) &&
+                    YamlOperator.getObjectValue(stash, 'name', '') &&
+                    ('includes' in stash) &&
+                    YamlOperator.getObjectValue(stash, 'includes', '') &&
+                    (!isMatrix || matrix_axis))) {
+                return
+            }
+            Map axis = isMatrix ? matrix_axis.asImmutable() : [:]
+            if(!plan[axis]) {
+                plan[axis] = []
+            }
+            plan[axis] << [
+                'name': YamlOperator.getObjectValue(stash, 'name', ''),
+                'includes': YamlOperator.getObjectValue(stash, 'includes', ''),
+                'excludes': YamlOperator.getObjectValue(stash, 'excludes', ''),
+                'use_default_excludes': YamlOperator.getObjectValue(stash, 'use_default_excludes', true),
+                'allow_empty': YamlOperator.getObjectValue(stash, 'allow_empty', false),
+                'matrix_axis': matrix_axis.asImmutable()
+            ].asImmutable()
+        }
+        this.stashPlan = plan.collectEntries { k, v ->
+            [(k): v.asImmutable()]
+        }.asImmutable()
+    }
+
+    /**
+      Returns cached results calculated from admin settings.  Admin settings
+      are set after this class is instantiated so the setters of admin
+      settings discard cached results.
+     */
+    private Map getAdminPlan() {
+        if(this.adminPlan == null) {
+            this.adminPlan = [
+                patterns: [:],
+                publishable: [:],
+                stash_maps: [:]
+            ]
+        }
+        this.adminPlan
+    }
+
     /**
       Returns a list of stashes from Jervis YAML to be stashed either serially or
       in this matrix axis for matrix builds.
      */
     Map getStashMap(Map matrix_axis = [:]) {
         // TODO platformGenerator.getStashMap
-        boolean isMatrix = generator.isMatrixBuild()
+        Map stash_maps = getAdminPlan().stash_maps
+        if(!stash_maps.containsKey(matrix_axis)) {
+            Map axis = generator.isMatrixBuild() ? convertMatrixAxis(matrix_axis) : [:]
+            // calculated before caching so errors are raised on every call
+            Map stash_map = calculateStashMap(getStashPlan()[axis] ?: [])
+            stash_maps[new LinkedHashMap(matrix_axis).asImmutable()] = stash_map
+        }
+        // callers may modify the result so return a copy
+        stash_maps[matrix_axis].collectEntries { name, stash ->
+            [(name): stash.collectEntries { k, v ->
+                [(k): (v in Map) ? new LinkedHashMap(v) : v]
+            }]
+        }
+    }
+
+    /**
+      Applies admin validation and stashmap preprocessors to stashes from the
+      stash plan.
+
+      @param planned Stashes from the stash plan for a single matrix axis.
+      @return Returns a stash map.
+     */
+    private Map calculateStashMap(List<Map> planned) {
         Map stash_map = [:]
-        stashes.each { s ->
-            if((s instanceof Map) &&
-                    ('name' in s) &&
-                    YamlOperator.getObjectValue(collect_items, s['name'], '')) {
-                s['includes'] = YamlOperator.getObjectValue(collect_items, s['name'], '')
-            }
-            if((s instanceof Map) &&
-                    ('name' in s) &&
-                    YamlOperator.getObjectValue(s, 'name', '') &&
-                    ('includes' in s) &&
-                    YamlOperator.getObjectValue(s, 'includes', '') &&
-                    (!isMatrix || YamlOperator.getObjectValue(s, 'matrix_axis', [:])) &&
-                    (!isMatrix || (YamlOperator.getObjectValue(s, 'matrix_axis', [:]) == convertMatrixAxis(matrix_axis)))) {
-                String name = YamlOperator.getObjectValue(s, 'name', '')
-                String includes = YamlOperator.getObjectValue(s, 'includes', '')
-                Boolean validUserInput = isCollectUserInputValid(name, 'path', includes)
-                if((name in stashmap_preprocessor) && (getPublishable(name) in Map)) {
-                    def result
-                    try {
-                        result = stashmap_preprocessor[name](getPublishable(name))
-                    }
-                    catch(Exception e) {
-                        throw new PipelineGeneratorException("stashmap_preprocessor for collect item '${name}' must return a String but does not.  This issue can only be resolved by an admin of the pipeline shared library.\nSTART Preprocessor Exception:\n${e.toString()}\n    ${e.getStackTrace()*.toString().join('\n    ')}\n\nEND Preprocessor Exception")
-                    }
-                    if(!(result in String)) {
-                        throw new PipelineGeneratorException("stashmap_preprocessor for collect item '${name}' must return a String but does not.  This issue can only be resolved by an admin of the pipeline shared library.")
-                    }
-                    includes = result
+        planned.each { Map s ->
+            String name = s['name']
+            String includes = s['includes']
+            Boolean validUserInput = isCollectUserInputValid(name, 'path', includes)
+            if((name in stashmap_preprocessor) && (getPublishable(name) in Map)) {
+                def result
+                try {
+                    result = stashmap_preprocessor[name](getPublishable(name))
                 }
-                if(validUserInput) {
-                    stash_map[name] = [
-                        'includes': includes,
-                        'excludes': YamlOperator.getObjectValue(s, 'excludes', ''),
-                        'use_default_excludes': YamlOperator.getObjectValue(s, 'use_default_excludes', true),
-                        'allow_empty': YamlOperator.getObjectValue(s, 'allow_empty', false),
-                        'matrix_axis': YamlOperator.getObjectValue(s, 'matrix_axis', [:])
-                    ]
+                catch(Exception e) {
+                    throw new PipelineGeneratorException("stashmap_preprocessor for collect item '${name}' must return a String but does not.  This issue can only be resolved by an admin of the pipeline shared library.\nSTART Preprocessor Exception:\n${e.toString()}\n    ${e.getStackTrace()*.toString().join('\n    ')}\n\nEND Preprocessor Exception")
                 }
+                if(!(result in String)) {
+                    throw new PipelineGeneratorException("stashmap_preprocessor for collect item '${name}' must return a String but does not.  This issue can only be resolved by an admin of the pipeline shared library.")
+                }
+                includes = result
+            }
+            if(validUserInput) {
+                stash_map[name] = [
+                    'includes': includes,
+                    'excludes': s['excludes'],
+                    'use_default_excludes': s['use_default_excludes'],
+                    'allow_empty': s['allow_empty'],
+                    'matrix_axis': s['matrix_axis']
+                ]
             }
         }
         stash_map
@@ -411,6 +539,9 @@ pipeline_generator.stashMap['html']['includes']
      */
     List getPublishableItems() {
         // TODO refactor for platformGenerator; currently unknown
+        if(this.collect_items == null) {
+            loadStashes()
+        }
         Set known_items = collect_items.keySet() as Set
         if(!supported_collections) {
             throw new PipelineGeneratorException('Calling getPublishableItems() without setting supported_collections.  This issue can only be resolved by an admin of the pipeline shared library.')
@@ -453,7 +584,11 @@ pipeline_generator.stashMap['html']['includes']
             }
             //Admin has properly defined settings so let's proceed with validating the value provided by the user.
             String regex = (validator in List)? validator.join('|') : validator
-            Pattern.compile(regex).matcher(input).matches()
+            Map patterns = getAdminPlan().patterns
+            if(!patterns[regex]) {
+                patterns[regex] = Pattern.compile(regex)
+            }
+            patterns[regex].matcher(input).matches()
         }
         else {
             true
@@ -471,7 +606,26 @@ pipeline_generator.stashMap['html']['includes']
               YAML key.
      */
     def getPublishable(String item) {
+        Map publishable = getAdminPlan().publishable
+        if(!publishable.containsKey(item)) {
+            // calculated before caching so errors are raised on every call
+            def result = calculatePublishable(item)
+            publishable[item] = result
+        }
+        // callers may modify the result so return a copy
+        (publishable[item] in Map) ? new LinkedHashMap(publishable[item]) : publishable[item]
+    }
+
+    /**
+      Calculates a publishable item from user YAML and admin settings.
+
+      @see #getPublishable(java.lang.String)
+     */
+    private def calculatePublishable(String item) {
         // TODO refactor for platformGenerator; currently unknown
+        if(this.collect_items == null) {
+            loadStashes()
+        }
         String path = (collect_items[item])?: ''
         if(item in collect_settings_defaults) {
             Map tmp = collect_settings_defaults[item].collect { k, v ->
@@ -527,4 +681,15 @@ pipeline_generator.stashMap['html']['includes']
     Map getYaml() {
         this.platformGenerator.rawJervisYaml
     }
+
+    /**
+      Stashes, collect items, and stash and admin plans are recalculated from
+      Jervis YAML the next time they are needed.
+     */
+    private void readObject(ObjectInputStream input) throws IOException, ClassNotFoundException {
+        input.defaultReadObject()
+        this.stashes = null
+        this.collect_items = null
+        this.user_defined_collect_settings = null
+    }
 }
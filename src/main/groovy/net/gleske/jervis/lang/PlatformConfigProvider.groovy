@@ -0,0 +1,270 @@
+/*
+   Copyright 2014-2026 Sam Gleske - https://github.com/samrocketman/jervis
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+   */
+package net.gleske.jervis.lang
+
+import net.gleske.jervis.exceptions.MultiPlatformValidatorException
+import net.gleske.jervis.tools.DaemonThreadFactory
+import net.gleske.jervis.tools.SecurityIO
+
+import java.util.concurrent.Executors
+import java.util.concurrent.ScheduledExecutorService
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicReference
+
+/**
+  Provides a validated <tt>{@link net.gleske.jervis.lang.MultiPlatformValidator}</tt>
+  loaded from a directory of admin configuration files and reloads it when
+  the files change.  The directory contains <tt>platforms.yaml</tt> and the
+  lifecycles and toolchains files for each operating system such as
+  <tt>lifecycles-ubuntu2204-stable.yaml</tt> and
+  <tt>toolchains-ubuntu2204-stable.yaml</tt>.
+
+  <p>Files are polled for changes by modification time and size.  When either
+  changes the file is hashed so that touching a file without changing its
+  contents does not reload it.  Changed files are loaded and validated in the
+  background into a new <tt>MultiPlatformValidator</tt> which is published
+  as the current snapshot.  A reload never changes a published snapshot so a
+  generation which read a snapshot keeps using it even if a newer snapshot is
+  published while it runs.  If the changed files fail to load or validate,
+  then the last good snapshot is kept and the error is available from
+  <tt>{@link #getLastError()}</tt>.</p>
+
+  <p>Only the collections of a snapshot are read-only:
+  <tt>lifecycles</tt>, <tt>toolchains</tt>, <tt>known_platforms</tt>,
+  <tt>known_operating_systems</tt>, and <tt>known_toolchains</tt>.  The
+  platform, lifecycle, and toolchain validators in those collections and the
+  YAML they parsed are shared by every generation which reads the snapshot
+  and are not frozen.  They are left modifiable because
+  <tt>{@link net.gleske.jervis.lang.LifecycleGenerator#loadYamlString(java.lang.String)}</tt>
+  adds <tt>additional_toolchains</tt> from Jervis YAML to the toolchain order
+  of its language.  Callers must not modify them otherwise.</p>
+
+  <h2>Sample usage</h2>
+  <p>To run this example, clone Jervis and execute <tt>./gradlew console</tt>
+  to bring up a <a href="http://groovy-lang.org/groovyconsole.html" target="_blank">Groovy Console</a>
+  with the classpath set up.</p>
+
+<pre><code>
+import net.gleske.jervis.lang.MultiPlatformGenerator
+import net.gleske.jervis.lang.MultiPlatformValidator
+import net.gleske.jervis.lang.PlatformConfigProvider
+
+PlatformConfigProvider provider = new PlatformConfigProvider(new File('resources'))
+provider.onError = { Throwable e -&gt;
+    println "Keeping the last good platforms: ${e.message}"
+}
+// check for changes every 5 seconds
+provider.start(5000)
+
+// read the snapshot once for each generation
+MultiPlatformValidator platforms = provider.snapshot
+MultiPlatformGenerator generator = new MultiPlatformGenerator(platforms)
+generator.loadMultiPlatformYaml(yaml: 'language: shell')
+println generator.getBuildableMatrixAxes()
+
+provider.close()
+</code></pre>
+  */
+class PlatformConfigProvider implements Closeable {
+
+    /**
+      The name of the platforms file in <tt>{@link #directory}</tt>.
+      */
+    static final String PLATFORMS_FILE = 'platforms.yaml'
+
+    /**
+      The directory containing the platforms, lifecycles, and toolchains
+      files.
+      */
+    final File directory
+
+    /**
+      Called with the exception when changed files fail to load or validate.
+      The last good snapshot is kept.
+      */
+    Closure onError
+
+    /**
+      Called with the new snapshot after it has been published.
+      */
+    Closure onReload
+
+    private final AtomicReference<MultiPlatformValidator> current = new AtomicReference<MultiPlatformValidator>()
+    private Map<String, List> fingerprints = [:]
+    private Throwable lastError
+    private long version = 0
+    private ScheduledExecutorService watcher
+
+    /**
+      Loads and validates the configuration files in a directory.
+
+      @param directory A directory containing <tt>platforms.yaml</tt> and
+                       lifecycles and toolchains files.
+      @throws MultiPlatformValidatorException when the files are missing or
+                                             invalid.
+      */
+    PlatformConfigProvider(File directory) {
+        this.directory = directory
+        if(!reload()) {
+            throw (this.lastError instanceof MultiPlatformValidatorException) ? this.lastError : new MultiPlatformValidatorException("Could not load platforms from ${directory}: ${this.lastError}".toString())
+        }
+    }
+
+    /**
+      The current snapshot.  Read it once per generation and do not modify
+      it.
+
+      @return The last successfully loaded and validated platforms.
+      */
+    MultiPlatformValidator getSnapshot() {
+        this.current.get()
+    }
+
+    /**
+      The number of snapshots published.  The first snapshot is version
+      <tt>1</tt>.
+      */
+    synchronized long getVersion() {
+        this.version
+    }
+
+    /**
+      The error from the most recent failed reload or <tt>null</tt> if the
+      most recent reload succeeded.
+      */
+    synchronized Throwable getLastError() {
+        this.lastError
+    }
+
+    /**
+      Checks the files for changes every interval in a background thread.
+
+      @param intervalMillis Milliseconds between checks.  Default:
+                            <tt>2000</tt>.
+      */
+    synchronized void start(long intervalMillis = 2000) {
+        if(this.watcher) {
+            return
+        }
+        this.watcher = Executors.newSingleThreadScheduledExecutor(new DaemonThreadFactory('jervis-platform-config'))
+        this.watcher.scheduleWithFixedDelay({->
+            checkForChanges()
+        } as Runnable, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS)
+    }
+
+    /**
+      Stops checking for changes.  The current snapshot is still available.
+      */
+    synchronized void close() {
+        this.watcher?.shutdownNow()
+        this.watcher = null
+    }
+
+    /**
+      Reloads the files if any were added, removed, or their contents
+      changed.
+
+      @return <tt>true</tt> if a new snapshot was published.
+      */
+    synchronized Boolean checkForChanges() {
+        Map<String, List> latest = scanFiles(this.fingerprints)
+        if(latest == this.fingerprints) {
+            return false
+        }
+        if(contentSums(latest) == contentSums(this.fingerprints)) {
+            // only timestamps changed
+            this.fingerprints = latest
+            return false
+        }
+        reload()
+    }
+
+    /**
+      Loads and validates all files into a new snapshot.  A failure keeps the
+      last good snapshot.
+
+      @return <tt>true</tt> if a new snapshot was published.
+      */
+    synchronized Boolean reload() {
+        Map<String, List> latest = scanFiles(this.fingerprints)
+        MultiPlatformValidator platforms
+        try {
+            platforms = load()
+        }
+        catch(Exception e) {
+            // remember the files so the same broken files are not reloaded every check
+            this.fingerprints = latest
+            this.lastError = e
+            this.onError?.call(e)
+            return false
+        }
+        this.fingerprints = latest
+        this.lastError = null
+        this.current.set(platforms)
+        this.version++
+        this.onReload?.call(platforms)
+        true
+    }
+
+    private MultiPlatformValidator load() {
+        MultiPlatformValidator platforms = new MultiPlatformValidator()
+        platforms.loadPlatformsString(new File(this.directory, PLATFORMS_FILE).text)
+        platforms.getToolchainFiles().each { String fileName ->
+            File file = new File(this.directory, "${fileName}.yaml")
+            if(file.exists()) {
+                platforms.loadToolchainsString(fileName, file.text)
+            }
+        }
+        platforms.getLifecycleFiles().each { String fileName ->
+            File file = new File(this.directory, "${fileName}.yaml")
+            if(file.exists()) {
+                platforms.loadLifecyclesString(fileName, file.text)
+            }
+        }
+        platforms.validate()
+        // published snapshots are shared between threads; only the
+        // collections are read-only, see the class documentation
+        platforms.lifecycles = Collections.unmodifiableMap(platforms.lifecycles)
+        platforms.toolchains = Collections.unmodifiableMap(platforms.toolchains)
+        platforms.known_platforms = Collections.unmodifiableList(platforms.known_platforms)
+        platforms.known_operating_systems = Collections.unmodifiableList(platforms.known_operating_systems)
+        platforms.known_toolchains = Collections.unmodifiableList(platforms.known_toolchains)
+        platforms
+    }
+
+    private static Map<String, String> contentSums(Map<String, List> fingerprints) {
+        fingerprints.collectEntries { String name, List fingerprint ->
+            [(name): fingerprint[2]]
+        }
+    }
+
+    /**
+      Fingerprint of each configuration file: modification time, size, and
+      SHA-256 sum.  Files are only hashed when the time or size changed.
+      */
+    private Map<String, List> scanFiles(Map<String, List> previous) {
+        List<File> files = (this.directory.listFiles() ?: []).findAll { File f ->
+            f.isFile() && (f.name == PLATFORMS_FILE || f.name ==~ /(lifecycles|toolchains)-.+\.yaml/)
+        }.sort { it.name }
+        files.collectEntries { File f ->
+            List old = previous[f.name]
+            if(old && old[0] == f.lastModified() && old[1] == f.length()) {
+                return [(f.name): old]
+            }
+            [(f.name): [f.lastModified(), f.length(), SecurityIO.sha256Sum(f.bytes)]]
+        }
+    }
+}
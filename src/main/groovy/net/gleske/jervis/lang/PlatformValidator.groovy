@@ -61,7 +61,7 @@ class PlatformValidator implements Serializable {
     /**
       A <tt>{@link Map}</tt> of the parsed platforms file.
      */
-    Map platforms
+    transient Map platforms
 
     Map getPlatforms(Boolean unstable = false) {
         this.isUnstable(unstable) ?
@@ -71,7 +71,13 @@ class PlatformValidator implements Serializable {
     /**
       A <tt>{@link Map}</tt> of the parsed unstable platforms file.
      */
-    Map unstable_platforms
+    transient Map unstable_platforms
+
+    /**
+      Platforms YAML in the order it was loaded.  It is serialized instead of
+      the parsed platforms.
+     */
+    private LoadedYaml loadedYaml = new LoadedYaml()
 
     /**
       Load the YAML of a platforms file and parse it.  This should be the first
@@ -136,6 +142,7 @@ class PlatformValidator implements Serializable {
         else {
             this.platforms = YamlOperator.loadYamlFrom(yaml) ?: [:]
         }
+        this.loadedYaml.add(yaml, unstable)
     }
 
     /**
@@ -246,4 +253,33 @@ class PlatformValidator implements Serializable {
         }
         return true
     }
+
+    /**
+      Only the loaded platforms YAML is serialized.  Platforms which were set
+      without loading YAML are serialized as they are.
+     */
+    private void writeObject(ObjectOutputStream output) throws IOException {
+        output.defaultWriteObject()
+        if(this.loadedYaml.isEmpty()) {
+            output.writeObject(this.@platforms)
+            output.writeObject(this.@unstable_platforms)
+        }
+    }
+
+    /**
+      Platforms are parsed again from the loaded YAML.
+     */
+    private void readObject(ObjectInputStream input) throws IOException, ClassNotFoundException {
+        input.defaultReadObject()
+        if(this.loadedYaml.isEmpty()) {
+            this.@platforms = (Map) input.readObject()
+            this.@unstable_platforms = (Map) input.readObject()
+            return
+        }
+        LoadedYaml loaded = this.loadedYaml
+        this.loadedYaml = new LoadedYaml()
+        loaded.replay { String yaml, Boolean unstable ->
+            loadYamlString(yaml, unstable)
+        }
+    }
 }
@@ -71,7 +71,7 @@ class ToolchainValidator implements Serializable {
     /**
       A <tt>{@link Map}</tt> of the parsed toolchains file.
      */
-    Map toolchains
+    transient Map toolchains
 
     /**
       Returns a copy of a parsed toolchains file for either stable toolchains
@@ -87,14 +87,20 @@ class ToolchainValidator implements Serializable {
     /**
       A <tt>{@link Map}</tt> of the parsed unstable toolchains file.
      */
-    Map unstable_toolchains
+    transient Map unstable_toolchains
+
+    /**
+      Toolchains YAML in the order it was loaded.  It is serialized instead of
+      the parsed toolchains.
+     */
+    private LoadedYaml loadedYaml = new LoadedYaml()
 
     /**
       A <tt>String</tt> <tt>{@link Array}</tt> which contains a list of
       toolchains in the toolchains file.  This is just a list of the keys in
       <tt>{@link #toolchains}</tt>.
      */
-    String[] toolchain_list
+    transient String[] toolchain_list
     /**
       A <tt>String</tt> <tt>{@link Array}</tt> which contains a list of
       toolchains in the toolchains file.  This is just a list of the keys in
@@ -112,14 +118,14 @@ class ToolchainValidator implements Serializable {
       toolchains in the unstable toolchains file.  This is just a list of the
       keys in <tt>{@link #unstable_toolchains}</tt>.
      */
-    String[] unstable_toolchain_list
+    transient String[] unstable_toolchain_list
 
     /**
       A <tt>String</tt> <tt>{@link Array}</tt> which contains a list of
       toolchains in the toolchains file which are capable of matrix building.
       This is just a list of the keys in <tt>{@link #toolchains}</tt>.
      */
-    List matrix_toolchain_list
+    transient List matrix_toolchain_list
 
     /**
       A <tt>String</tt> <tt>{@link Array}</tt> which contains a list of
@@ -136,14 +142,14 @@ class ToolchainValidator implements Serializable {
     /**
       A <tt>String</tt> <tt>{@link Array}</tt> which contains a list of toolchains in the toolchains file which are capable of matrix building.  This is just a list of the keys in <tt>{@link #toolchains}</tt>.
      */
-    List unstable_matrix_toolchain_list
+    transient List unstable_matrix_toolchain_list
 
     /**
       A <tt>String</tt> <tt>{@link Array}</tt> which contains a list of
       supported languages in the lifecycles file.  This is just a list of the
       keys in {@link #lifecycles}.
      */
-    String[] languages
+    transient String[] languages
 
     /**
       A <tt>String</tt> <tt>{@link Array}</tt> which contains a list of
@@ -162,7 +168,7 @@ class ToolchainValidator implements Serializable {
       supported languages in the unstable toolchains file.  This is just a list
       of the keys in {@link #unstable_toolchains}.
      */
-    String[] unstable_languages
+    transient String[] unstable_languages
 
     /**
       Load the YAML of a toolchains file and parse it.  This should be the first
@@ -195,6 +201,22 @@ class ToolchainValidator implements Serializable {
             this.unstable_toolchains.putAll(tempUnstableToolchains)
             this.unstable_toolchains.toolchains = toolsByLanguage
             // end merge toolchains
+        }
+        else {
+            this.toolchains = YamlOperator.loadYamlFrom(yaml) ?: [:]
+        }
+        loadToolchainLists(unstable)
+        this.loadedYaml.add(yaml, unstable)
+    }
+
+    /**
+      Populates toolchain and language lists from the keys of a parsed
+      toolchains file.
+
+      @param unstable Populate unstable lists instead of stable.
+     */
+    private void loadToolchainLists(Boolean unstable) {
+        if(unstable) {
             this.unstable_toolchain_list = this.unstable_toolchains.keySet() as String[]
             this.unstable_matrix_toolchain_list = this.unstable_toolchain_list.findAll { String toolchain ->
                 toolchainType(toolchain, true) != 'disabled'
@@ -204,7 +226,6 @@ class ToolchainValidator implements Serializable {
             }
         }
         else {
-            this.toolchains = YamlOperator.loadYamlFrom(yaml) ?: [:]
             this.toolchain_list = this.@toolchains.keySet() as String[]
             this.matrix_toolchain_list = this.toolchain_list.findAll { String toolchain ->
                 toolchainType(toolchain) != 'disabled'
@@ -386,4 +407,40 @@ class ToolchainValidator implements Serializable {
         }
         return false
     }
+
+    /**
+      Only the loaded toolchains YAML is serialized.  Toolchains which were
+      set without loading YAML are serialized as they are.
+     */
+    private void writeObject(ObjectOutputStream output) throws IOException {
+        output.defaultWriteObject()
+        if(this.loadedYaml.isEmpty()) {
+            output.writeObject(this.@toolchains)
+            output.writeObject(this.@unstable_toolchains)
+        }
+    }
+
+    /**
+      Toolchains, toolchain lists, and languages are parsed again from the
+      loaded YAML.
+     */
+    private void readObject(ObjectInputStream input) throws IOException, ClassNotFoundException {
+        input.defaultReadObject()
+        if(this.loadedYaml.isEmpty()) {
+            this.@toolchains = (Map) input.readObject()
+            this.@unstable_toolchains = (Map) input.readObject()
+            if(this.@toolchains != null) {
+                loadToolchainLists(false)
+            }
+            if(this.@unstable_toolchains != null) {
+                loadToolchainLists(true)
+            }
+            return
+        }
+        LoadedYaml loaded = this.loadedYaml
+        this.loadedYaml = new LoadedYaml()
+        loaded.replay { String yaml, Boolean unstable ->
+            loadYamlString(yaml, unstable)
+        }
+    }
 }
@@ -0,0 +1,313 @@
+/*
+   Copyright 2014-2026 Sam Gleske - https://github.com/samrocketman/jervis
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+   */
+package net.gleske.jervis.remotes
+
+import net.gleske.jervis.remotes.interfaces.JervisRemote
+import net.gleske.jervis.tools.DaemonThreadFactory
+
+import java.lang.reflect.Method
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.CompletionException
+import java.util.concurrent.ExecutorService
+import java.util.concurrent.Executors
+import java.util.concurrent.Semaphore
+import java.util.function.Supplier
+
+/**
+  Calls a <tt>{@link net.gleske.jervis.remotes.interfaces.JervisRemote}</tt>
+  asynchronously.  Every method returns a
+  <tt>{@link java.util.concurrent.CompletableFuture}</tt> so independent calls
+  such as reading Jervis YAML and listing files for many projects run at the
+  same time instead of one after another.
+
+  <p>Calls run on an executor which uses virtual threads on Java 21 and newer
+  or a bounded pool of daemon threads on older Java.  No matter which
+  executor is used, at most <tt>{@link #maxConcurrency}</tt> remote calls run
+  at once.  The blocking methods of the wrapped remote are unchanged and are
+  what each asynchronous call runs.</p>
+
+  <h2>Sample usage</h2>
+  <p>To run this example, clone Jervis and execute <tt>./gradlew console</tt>
+  to bring up a <a href="http://groovy-lang.org/groovyconsole.html" target="_blank">Groovy Console</a>
+  with the classpath set up.</p>
+
+<pre><code>
+import net.gleske.jervis.remotes.AsyncJervisRemote
+import net.gleske.jervis.remotes.GitHub
+
+new AsyncJervisRemote(new GitHub(), 4).withCloseable { AsyncJervisRemote remote -&gt;
+    // a single call
+    remote.branchesAsync('samrocketman/jervis').thenAccept { List branches -&gt;
+        println branches
+    }.join()
+
+    // Jervis YAML and the root folder listing of many projects
+    List results = remote.getJervisYamlAsync([
+        [project: 'samrocketman/jervis'],
+        [project: 'samrocketman/jervis', ref: 'main'],
+        [project: 'samrocketman/does-not-exist']
+    ]).join()
+    results.each { Map result -&gt;
+        if(result.error) {
+            println "${result.project}: ${result.error.message}"
+        }
+        else {
+            println "${result.project} ${result.yaml_file}: ${result.listing}"
+        }
+    }
+}
+</code></pre>
+  */
+class AsyncJervisRemote implements Closeable {
+
+    /**
+      The default value of <tt>{@link #maxConcurrency}</tt>.
+      */
+    static final Integer DEFAULT_CONCURRENCY = 8
+
+    /**
+      Files searched for in order when reading Jervis YAML with
+      <tt>{@link #getJervisYamlAsync(java.lang.String, java.lang.String)}</tt>.
+      */
+    static final List<String> JERVIS_YAML_FILES = ['.jervis.yml', '.travis.yml'].asImmutable()
+
+    /**
+      The remote which is called asynchronously.
+      */
+    final JervisRemote remote
+
+    /**
+      The maximum number of remote calls which run at the same time.
+      */
+    final Integer maxConcurrency
+
+    private final ExecutorService executor
+    private final Boolean ownsExecutor
+    private final Semaphore permits
+
+    /**
+      Calls a remote on a new executor which is shut down by
+      <tt>{@link #close()}</tt>.
+
+      @param remote A remote to call asynchronously.
+      @param maxConcurrency The maximum number of remote calls which run at
+                            the same time.
+      @param virtualThreads Use virtual threads when the Java runtime
+                            supports them.  Otherwise, a pool of
+                            <tt>maxConcurrency</tt> threads is used.
+      */
+    AsyncJervisRemote(JervisRemote remote, Integer maxConcurrency = DEFAULT_CONCURRENCY, Boolean virtualThreads = true) {
+        this(remote, newExecutor(maxConcurrency, virtualThreads), maxConcurrency, true)
+    }
+
+    /**
+      Calls a remote on a provided executor.  The executor is not shut down
+      by <tt>{@link #close()}</tt> so it can be shared.
+
+      @param remote A remote to call asynchronously.
+      @param executor Runs remote calls.
+      @param maxConcurrency The maximum number of remote calls which run at
+                            the same time.
+      */
+    AsyncJervisRemote(JervisRemote remote, ExecutorService executor, Integer maxConcurrency = DEFAULT_CONCURRENCY) {
+        this(remote, executor, maxConcurrency, false)
+    }
+
+    private AsyncJervisRemote(JervisRemote remote, ExecutorService executor, Integer maxConcurrency, Boolean ownsExecutor) {
+        if(maxConcurrency < 1) {
+            throw new IllegalArgumentException("Concurrency must be positive but got ${maxConcurrency}.")
+        }
+        this.remote = remote
+        this.executor = executor
+        this.ownsExecutor = ownsExecutor
+        this.maxConcurrency = maxConcurrency
+        this.permits = new Semaphore(maxConcurrency, true)
+    }
+
+    /**
+      Creates an executor for remote calls.  Java 21 and newer start a virtual
+      thread for every call.  Older Java uses a fixed pool of daemon threads.
+
+      @param threads The number of threads when virtual threads are not used.
+      @param virtualThreads Use virtual threads when the Java runtime supports
+                            them.
+      @return A new executor.
+      */
+    static ExecutorService newExecutor(Integer threads = DEFAULT_CONCURRENCY, Boolean virtualThreads = true) {
+        if(threads < 1) {
+            throw new IllegalArgumentException("Thread count must be positive but got ${threads}.")
+        }
+        Method virtualExecutor = virtualThreads ? virtualThreadExecutorMethod() : null
+        if(virtualExecutor) {
+            return (ExecutorService) virtualExecutor.invoke(null)
+        }
+        Executors.newFixedThreadPool(threads, new DaemonThreadFactory('jervis-remote'))
+    }
+
+    /**
+      @return <tt>true</tt> if the Java runtime supports virtual threads.
+      */
+    static Boolean isVirtualThreadsSupported() {
+        virtualThreadExecutorMethod() != null
+    }
+
+    // Jervis is compiled for Java 8 so Java 21 APIs are looked up at runtime
+    private static Method virtualThreadExecutorMethod() {
+        try {
+            Executors.getMethod('newVirtualThreadPerTaskExecutor')
+        }
+        catch(NoSuchMethodException ignored) {
+            null
+        }
+    }
+
+    /**
+      Runs a blocking call once a permit is available.
+
+      @param call A blocking remote call.
+      @return A future result of the call.
+      */
+    private <T> CompletableFuture<T> async(Closure<T> call) {
+        CompletableFuture.supplyAsync({ ->
+            try {
+                permits.acquire()
+            }
+            catch(InterruptedException e) {
+                Thread.currentThread().interrupt()
+                throw new CompletionException(e)
+            }
+            try {
+                call()
+            }
+            catch(RuntimeException e) {
+                throw e
+            }
+            catch(Exception e) {
+                // checked exceptions such as IOException complete the future
+                // as they are instead of being wrapped by the Supplier proxy
+                throw new CompletionException(e)
+            }
+            finally {
+                permits.release()
+            }
+        } as Supplier<T>, this.executor)
+    }
+
+    /**
+      Asynchronous <tt>{@link net.gleske.jervis.remotes.interfaces.JervisRemote#branches(java.lang.String)}</tt>.
+
+      @param project A project on the remote.
+      @return A future <tt>List</tt> of branches.
+      */
+    CompletableFuture<List> branchesAsync(String project) {
+        async { ->
+            this.remote.branches(project)
+        }
+    }
+
+    /**
+      Asynchronous <tt>{@link net.gleske.jervis.remotes.interfaces.JervisRemote#getFile(java.lang.String, java.lang.String, java.lang.String)}</tt>.
+
+      @param project A project on the remote.
+      @param file_path A path to a file relative to the root of the
+                       repository.
+      @param ref A git reference.  The default branch is used if empty.
+      @return The future contents of the file.
+      */
+    CompletableFuture<String> getFileAsync(String project, String file_path, String ref = '') {
+        async { ->
+            ref ? this.remote.getFile(project, file_path, ref) : this.remote.getFile(project, file_path)
+        }
+    }
+
+    /**
+      Asynchronous <tt>{@link net.gleske.jervis.remotes.interfaces.JervisRemote#getFolderListing(java.lang.String, java.lang.String, java.lang.String)}</tt>.
+
+      @param project A project on the remote.
+      @param dir_path A path to a directory relative to the root of the
+                      repository.
+      @param ref A git reference.  The default branch is used if empty.
+      @return A future list of files in the directory.
+      */
+    CompletableFuture<ArrayList> getFolderListingAsync(String project, String dir_path = '/', String ref = '') {
+        async { ->
+            ref ? this.remote.getFolderListing(project, dir_path, ref) : this.remote.getFolderListing(project, dir_path)
+        }
+    }
+
+    /**
+      Reads Jervis YAML and the root folder listing of a project.  The first
+      file of <tt>{@link #JERVIS_YAML_FILES}</tt> found in the listing is
+      read.
+
+      @param project A project on the remote.
+      @param ref A git reference.  The default branch is used if empty.
+      @return A future <tt>Map</tt> with <tt>project</tt>, <tt>ref</tt>,
+              <tt>yaml</tt>, <tt>yaml_file</tt>, and <tt>listing</tt> keys.
+              Completes exceptionally with a
+              <tt>{@link java.io.FileNotFoundException}</tt> if no Jervis
+              YAML file exists.
+      */
+    CompletableFuture<Map> getJervisYamlAsync(String project, String ref = '') {
+        getFolderListingAsync(project, '/', ref).thenCompose { ArrayList listing ->
+            String yaml_file = JERVIS_YAML_FILES.find { it in listing }
+            if(!yaml_file) {
+                CompletableFuture<Map> missing = new CompletableFuture<Map>()
+                missing.completeExceptionally(new FileNotFoundException("Cannot find ${JERVIS_YAML_FILES.join(' nor ')} in ${project}."))
+                return missing
+            }
+            getFileAsync(project, yaml_file, ref).thenApply { String yaml ->
+                [project: project, ref: ref, yaml: yaml, yaml_file: yaml_file, listing: listing]
+            }
+        }
+    }
+
+    /**
+      Reads Jervis YAML and the root folder listing of many projects at the
+      same time.  A project which fails does not stop the others.
+
+      @param projects A list of <tt>Map</tt>s with a <tt>project</tt> and
+                      optional <tt>ref</tt> key.
+      @return A future list of results in the same order as
+              <tt>projects</tt>.  Each result is the result of
+              <tt>{@link #getJervisYamlAsync(java.lang.String, java.lang.String)}</tt>
+              or a <tt>Map</tt> with <tt>project</tt>, <tt>ref</tt>, and an
+              <tt>error</tt> <tt>Throwable</tt>.
+      */
+    CompletableFuture<List<Map>> getJervisYamlAsync(List<Map> projects) {
+        List<CompletableFuture<Map>> results = []
+        for(Map request : projects) {
+            String project = request.project
+            String ref = request.ref ?: ''
+            results << getJervisYamlAsync(project, ref).exceptionally { Throwable error ->
+                [project: project, ref: ref, error: (error instanceof CompletionException && error.cause) ? error.cause : error]
+            }
+        }
+        CompletableFuture.allOf(results as CompletableFuture[]).thenApply {
+            results*.join()
+        }
+    }
+
+    /**
+      Shuts down the executor if it was created by this instance.
+      */
+    @Override
+    void close() {
+        if(this.ownsExecutor) {
+            this.executor.shutdown()
+        }
+    }
+}
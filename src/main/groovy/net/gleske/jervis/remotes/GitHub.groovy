@@ -89,7 +89,7 @@ github.apiFetch('repos/samrocketman/jervis/code-scanning/sarifs', [:], 'POST', d
 </code></pre>
 
  */
-class GitHub implements JervisRemote, SimpleRestServiceSupport {
+class GitHub implements JervisRemote, ScheduledRestServiceSupport {
 
     private static final String DEFAULT_URL = 'https://api.github.com/'
     private static final String DEFAULT_WEB_URL = 'https://github.com/'
@@ -146,6 +146,15 @@ class GitHub implements JervisRemote, SimpleRestServiceSupport {
        Default: <tt>null</tt>
       */
     TokenCredential credential
+
+    /**
+      Caches file contents and folder listings by commit SHA.  References
+      such as branch names are resolved to a commit SHA before reading from
+      the cache.  Set to <tt>null</tt> to disable caching.  Default:
+      <tt>null</tt>
+      */
+    GitHubContentCache contentCache
+
     void setCredential(TokenCredential c) {
         this.credential = c
     }
@@ -274,6 +283,16 @@ class GitHub implements JervisRemote, SimpleRestServiceSupport {
       @returns            A <tt>String</tt> which contains the contents of the file requested.
     */
     public String getFile(String project, String file_path, String ref = '') {
+        if(this.contentCache) {
+            String sha = this.contentCache.resolveRef(this, project, ref)
+            return this.contentCache.getContent(this, project, sha, "file:${file_path}".toString()) { ->
+                fetchFile(project, file_path, sha)
+            }
+        }
+        fetchFile(project, file_path, ref)
+    }
+
+    private String fetchFile(String project, String file_path, String ref) {
         String path
         if(ref) {
             path = "repos/${project}/contents/${file_path}?ref=${java.net.URLEncoder.encode(ref)}"
@@ -298,6 +317,16 @@ class GitHub implements JervisRemote, SimpleRestServiceSupport {
         if(!dir_path?.startsWith('/')) {
             dir_path = '/' + dir_path
         }
+        if(this.contentCache) {
+            String sha = this.contentCache.resolveRef(this, project, ref)
+            return this.contentCache.getContent(this, project, sha, "dir:${dir_path}".toString()) { ->
+                fetchFolderListing(project, dir_path, sha)
+            }
+        }
+        fetchFolderListing(project, dir_path, ref)
+    }
+
+    private ArrayList fetchFolderListing(String project, String dir_path, String ref) {
         String path
         if(ref) {
             path = "repos/${project}/contents${dir_path}?ref=${java.net.URLEncoder.encode(ref)}"
@@ -0,0 +1,419 @@
+/*
+   Copyright 2014-2026 Sam Gleske - https://github.com/samrocketman/jervis
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+   */
+package net.gleske.jervis.remotes
+
+import net.gleske.jervis.remotes.creds.GitHubAppCredential
+import net.gleske.jervis.tools.GZip
+import net.gleske.jervis.tools.SecurityIO
+import net.gleske.jervis.tools.YamlOperator
+
+import java.nio.file.Files
+import java.nio.file.StandardCopyOption
+import java.util.zip.GZIPInputStream
+
+/**
+  Caches file contents and folder listings read by
+  <tt>{@link net.gleske.jervis.remotes.GitHub}</tt>.  Contents at a commit
+  never change so they are cached by host, credential, repository, commit
+  SHA, and path without ever expiring.  Only a hash of the credential is part
+  of the cache key.  Contents read with one credential are never returned to
+  a client using another credential, which may not be allowed to read them.
+  A GitHub App is identified by its
+  <tt>{@link net.gleske.jervis.remotes.creds.GitHubAppCredential#getHash()}</tt>
+  so contents stay cached when its tokens rotate.  Branch names and other
+  symbolic references are
+  resolved to a commit SHA first.  The resolution is revalidated with an
+  <tt>If-None-Match</tt> conditional request which GitHub answers with
+  <tt>304 Not Modified</tt> until the reference moves.  GitHub does not count
+  <tt>304</tt> responses against the rate limit.
+
+  <p>Cached contents are kept in two tiers:</p>
+  <ul>
+  <li>A memory tier which keeps the <tt>{@link #maxMemoryEntries}</tt> most
+      recently used contents.</li>
+  <li>An optional disk tier in <tt>{@link #cacheDirectory}</tt> which keeps
+      contents as GZip compressed blobs.  An <tt>index</tt> file lists every
+      blob so a cache directory can be reused by later runs such as seed jobs
+      re-scanning the same repositories.</li>
+  </ul>
+
+  <h2>Sample usage</h2>
+  <p>To run this example, clone Jervis and execute <tt>./gradlew console</tt>
+  to bring up a <a href="http://groovy-lang.org/groovyconsole.html" target="_blank">Groovy Console</a>
+  with the classpath set up.</p>
+
+<pre><code>
+import net.gleske.jervis.remotes.GitHub
+import net.gleske.jervis.remotes.GitHubContentCache
+
+GitHub github = new GitHub()
+github.contentCache = new GitHubContentCache(new File('/tmp/github-cache'))
+
+// first read downloads the file
+github.getFile('samrocketman/jervis', '.jervis.yml', 'main')
+// later reads only check if main moved to a different commit
+github.getFile('samrocketman/jervis', '.jervis.yml', 'main')
+github.getFolderListing('samrocketman/jervis', '/', 'main')
+
+println github.contentCache.stats
+</code></pre>
+  */
+class GitHubContentCache {
+
+    /**
+      The name of the index file in <tt>{@link #cacheDirectory}</tt>.
+      */
+    static final String INDEX_FILE = 'index'
+
+    /**
+      The maximum number of contents kept in memory.  Default: <tt>1000</tt>
+      */
+    Integer maxMemoryEntries = 1000
+
+    /**
+      The maximum size in bytes of compressed blobs kept on disk.  The least
+      recently added blobs are removed first.  Set to <tt>0</tt> for no limit.
+      Default: <tt>0</tt>
+      */
+    Long maxDiskBytes = 0
+
+    /**
+      How long in milliseconds a resolved reference is trusted before it is
+      revalidated.  By default, a reference is revalidated on every read.
+      Default: <tt>0</tt>
+      */
+    Long refMaxAgeMillis = 0
+
+    /**
+      A directory where compressed blobs and the index are stored.  If
+      <tt>null</tt>, then contents are only cached in memory.
+      */
+    final File cacheDirectory
+
+    private final LinkedHashMap<String, Object> memory = new LinkedHashMap<String, Object>(16, 0.75f, true)
+    // content key to blob file name and compressed size in insertion order
+    private final LinkedHashMap<String, List> disk = new LinkedHashMap<String, List>()
+    private Long diskBytes = 0
+    private final Map<String, Map> refs = [:]
+    private final Map<String, Long> stats = [
+        memory_hits: 0L,
+        disk_hits: 0L,
+        misses: 0L,
+        ref_resolved: 0L,
+        ref_not_modified: 0L
+    ]
+
+    /**
+      Creates a cache.
+
+      @param cacheDirectory A directory where compressed contents are stored.
+                            If <tt>null</tt>, then contents are only cached
+                            in memory.
+      */
+    GitHubContentCache(File cacheDirectory = null) {
+        this.cacheDirectory = cacheDirectory
+        if(cacheDirectory) {
+            cacheDirectory.mkdirs()
+            loadIndex()
+        }
+    }
+
+    /**
+      Resolves a reference such as a branch or tag to a commit SHA.  A full
+      commit SHA is returned as-is.
+
+      @param github A client used to resolve the reference.
+      @param project A GitHub project including the org.
+      @param ref A git reference.  The default branch is used if empty.
+      @return A commit SHA.
+      */
+    String resolveRef(GitHub github, String project, String ref) {
+        if(ref ==~ /[0-9a-f]{40}|[0-9a-f]{64}/) {
+            return ref
+        }
+        String symbolic = ref ?: 'HEAD'
+        String refKey = [host(github), credentialHash(github), project, symbolic].join('\n')
+        Map cached
+        synchronized(this) {
+            cached = this.refs[refKey]
+            if(cached && System.currentTimeMillis() - cached.checked < this.refMaxAgeMillis) {
+                return cached.sha
+            }
+        }
+        Map headers = [
+            Accept: 'application/vnd.github.sha',
+            'Parse-JSON': false,
+            'Response-Map': true
+        ]
+        if(cached?.etag) {
+            headers['If-None-Match'] = cached.etag
+        }
+        Map response = github.apiFetch("repos/${project}/commits/${URLEncoder.encode(symbolic, 'UTF-8')}", headers)
+        synchronized(this) {
+            if(response.response_code == 304 && cached) {
+                this.stats.ref_not_modified++
+                cached.checked = System.currentTimeMillis()
+                return cached.sha
+            }
+            if(response.error || !response.content) {
+                throw new FileNotFoundException("Could not resolve ref '${symbolic}' in ${project}; HTTP ${response.response_code}.")
+            }
+            this.stats.ref_resolved++
+            String sha = response.content.toString().trim()
+            this.refs[refKey] = [sha: sha, etag: header(response.response_headers, 'ETag'), checked: System.currentTimeMillis()]
+            sha
+        }
+    }
+
+    /**
+      Gets contents from the cache or loads and caches them if they are not
+      cached.
+
+      @param github The client which loads contents.  Its API host and a hash
+                    of its credential are part of the cache key.
+      @param project A GitHub project including the org.
+      @param sha A commit SHA.
+      @param path A path prefixed with the type of contents such as
+                  <tt>file:</tt> or <tt>dir:</tt>.
+      @param loader Loads contents if they are not cached.  Must return a
+                    <tt>String</tt> or a <tt>List</tt> of <tt>String</tt>s.
+      @return Cached contents.  A cached <tt>List</tt> is returned as a new
+              <tt>ArrayList</tt> which can be modified by the caller.
+      */
+    def getContent(GitHub github, String project, String sha, String path, Closure loader) {
+        String key = [host(github), credentialHash(github), project, sha, path].join('\n')
+        def value = getCached(key)
+        if(value == null) {
+            value = loader()
+            putCached(key, value)
+        }
+        (value instanceof List) ? new ArrayList(value) : value
+    }
+
+    /**
+      Returns counts of cache hits and misses and of references which were
+      resolved or not modified.
+
+      @return A copy of cache statistics.
+      */
+    synchronized Map<String, Long> getStats() {
+        new LinkedHashMap(this.stats) + [
+            memory_entries: (Long) this.memory.size(),
+            disk_entries: (Long) this.disk.size(),
+            disk_bytes: this.diskBytes
+        ]
+    }
+
+    /**
+      Removes all cached contents and references from memory and disk.
+      */
+    synchronized void clear() {
+        this.memory.clear()
+        this.refs.clear()
+        if(this.cacheDirectory) {
+            this.disk.keySet().toList().each { String key ->
+                removeBlob(key)
+            }
+            writeIndex()
+        }
+    }
+
+    private static String host(GitHub github) {
+        new URL(github.gh_api).host
+    }
+
+    private static String credentialHash(GitHub github) {
+        // GitHub App tokens rotate so the App is identified instead
+        if(github.credential instanceof GitHubAppCredential) {
+            return ((GitHubAppCredential) github.credential).getHash()
+        }
+        String token = github.getGh_token()
+        token ? SecurityIO.sha256Sum(token) : 'anonymous'
+    }
+
+    private static String header(Map response_headers, String name) {
+        def values = response_headers?.find { k, v -> k && name.equalsIgnoreCase(k.toString()) }?.value
+        (values instanceof List) ? values.first() : values
+    }
+
+    // blobs are compressed and read or written outside of the lock
+    private def getCached(String key) {
+        String name
+        synchronized(this) {
+            def value = this.memory.get(key)
+            if(value != null) {
+                this.stats.memory_hits++
+                return value
+            }
+            name = this.cacheDirectory ? this.disk[key]?.getAt(0) : null
+            if(!name) {
+                this.stats.misses++
+                return null
+            }
+        }
+        def value = readBlob(name)
+        synchronized(this) {
+            if(value == null) {
+                // a missing or corrupt blob is a cache miss
+                if(this.disk[key]?.getAt(0) == name) {
+                    removeBlob(key)
+                    writeIndex()
+                }
+                this.stats.misses++
+                return null
+            }
+            this.stats.disk_hits++
+            if(key in this.disk.keySet()) {
+                // move to the end so it is removed last
+                this.disk.put(key, this.disk.remove(key))
+            }
+            remember(key, value)
+        }
+        value
+    }
+
+    private void putCached(String key, def value) {
+        if(value instanceof List) {
+            value = Collections.unmodifiableList(new ArrayList(value))
+        }
+        synchronized(this) {
+            remember(key, value)
+            if(!this.cacheDirectory || key in this.disk.keySet()) {
+                return
+            }
+        }
+        String name = SecurityIO.sha256Sum(key) + '.gz'
+        Long size = writeBlob(name, value)
+        synchronized(this) {
+            if(key in this.disk.keySet()) {
+                // written by another thread at the same time
+                return
+            }
+            addBlob(key, name, size)
+        }
+    }
+
+    private void remember(String key, def value) {
+        this.memory.put(key, value)
+        Iterator it = this.memory.entrySet().iterator()
+        while(this.memory.size() > this.maxMemoryEntries && it.hasNext()) {
+            it.next()
+            it.remove()
+        }
+    }
+
+    private static byte[] encode(def value) {
+        // S is a String and L is a List stored as YAML
+        String type = (value instanceof List) ? 'L' : 'S'
+        String text = (value instanceof List) ? YamlOperator.writeObjToYaml(value) : value.toString()
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream()
+        new GZip(compressed, 6).withCloseable {
+            it.write((type + text).getBytes('UTF-8'))
+        }
+        compressed.toByteArray()
+    }
+
+    private static def decode(byte[] data) {
+        ByteArrayOutputStream plain = new ByteArrayOutputStream()
+        new GZIPInputStream(new ByteArrayInputStream(data)).withCloseable {
+            plain << it
+        }
+        String text = plain.toString('UTF-8')
+        if(text.startsWith('L')) {
+            return Collections.unmodifiableList(new ArrayList(YamlOperator.loadYamlFrom(text.substring(1)) ?: []))
+        }
+        text.substring(1)
+    }
+
+    private def readBlob(String name) {
+        try {
+            decode(new File(this.cacheDirectory, name).bytes)
+        }
+        catch(IOException ignored) {
+            null
+        }
+    }
+
+    private Long writeBlob(String name, def value) {
+        byte[] data = encode(value)
+        File temp = File.createTempFile('blob', '.tmp', this.cacheDirectory)
+        temp.bytes = data
+        Files.move(temp.toPath(), new File(this.cacheDirectory, name).toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE)
+        (Long) data.length
+    }
+
+    private void addBlob(String key, String name, Long size) {
+        this.disk[key] = [name, size]
+        this.diskBytes += size
+        Boolean evicted = false
+        Iterator<String> it = this.disk.keySet().toList().iterator()
+        while(this.maxDiskBytes > 0 && this.diskBytes > this.maxDiskBytes && this.disk.size() > 1 && it.hasNext()) {
+            removeBlob(it.next())
+            evicted = true
+        }
+        if(evicted) {
+            writeIndex()
+        }
+        else {
+            new File(this.cacheDirectory, INDEX_FILE) << indexLine(key, this.disk[key])
+        }
+    }
+
+    private void removeBlob(String key) {
+        List entry = this.disk.remove(key)
+        if(entry) {
+            this.diskBytes -= entry[1]
+            new File(this.cacheDirectory, entry[0]).delete()
+        }
+    }
+
+    private static String indexLine(String key, List entry) {
+        // keys contain newlines so they are stored Base64 encoded
+        [entry[0], entry[1], SecurityIO.encodeBase64(key)].join('\t') + '\n'
+    }
+
+    private void loadIndex() {
+        File index = new File(this.cacheDirectory, INDEX_FILE)
+        if(!index.exists()) {
+            return
+        }
+        index.eachLine('UTF-8') { String line ->
+            List<String> fields = line.tokenize('\t')
+            if(fields.size() != 3 || !fields[1].isLong()) {
+                return
+            }
+            String key = SecurityIO.decodeBase64String(fields[2])
+            if(!new File(this.cacheDirectory, fields[0]).exists()) {
+                return
+            }
+            if(key in this.disk.keySet()) {
+                this.diskBytes -= this.disk.remove(key)[1]
+            }
+            this.disk[key] = [fields[0], Long.parseLong(fields[1])]
+            this.diskBytes += Long.parseLong(fields[1])
+        }
+    }
+
+    private void writeIndex() {
+        File temp = File.createTempFile('index', '.tmp', this.cacheDirectory)
+        temp.withWriter('UTF-8') { Writer w ->
+            this.disk.each { String key, List entry ->
+                w << indexLine(key, entry)
+            }
+        }
+        Files.move(temp.toPath(), new File(this.cacheDirectory, INDEX_FILE).toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE)
+    }
+}
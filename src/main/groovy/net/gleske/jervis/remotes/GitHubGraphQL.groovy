@@ -69,7 +69,7 @@ if(['.jervis.yml', '.travis.yml'].intersect((response.data.repository.rootFolder
     }
 }</pre></tt>
  */
-class GitHubGraphQL implements SimpleRestServiceSupport {
+class GitHubGraphQL implements ScheduledRestServiceSupport {
 
     private static final String DEFAULT_URL = 'https://api.github.com/graphql'
 
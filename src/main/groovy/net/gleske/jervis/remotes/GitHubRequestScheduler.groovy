@@ -0,0 +1,496 @@
+/*
+   Copyright 2014-2026 Sam Gleske - https://github.com/samrocketman/jervis
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+   */
+package net.gleske.jervis.remotes
+
+import net.gleske.jervis.tools.Metrics
+import net.gleske.jervis.tools.SecurityIO
+
+import java.time.Instant
+import java.time.format.DateTimeParseException
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.ThreadLocalRandom
+
+/**
+  Schedules GitHub API requests so that many clients sharing the same token,
+  such as several seed jobs using one GitHub App, stay within GitHub
+  <a href="https://docs.github.com/en/rest/using-the-rest-api/rate-limits-for-the-rest-api" target="_blank">rate limits</a>.
+  <tt>{@link net.gleske.jervis.remotes.GitHub}</tt>,
+  <tt>{@link net.gleske.jervis.remotes.GitHubGraphQL}</tt>, and
+  <tt>{@link net.gleske.jervis.remotes.creds.GitHubAppCredential}</tt> use
+  <tt>{@link #SHARED}</tt> by default.
+
+  <p>A separate budget is tracked for every token.  Tokens are identified by
+  a SHA-256 hash and are never stored.  For each budget the scheduler:</p>
+  <ul>
+  <li>Throttles requests with a token bucket of
+      <tt>{@link #requestsPerSecond}</tt> which allows short bursts of up to
+      <tt>{@link #burst}</tt> requests.</li>
+  <li>Tracks the remaining budget reported by <tt>X-RateLimit-Remaining</tt>
+      and <tt>X-RateLimit-Reset</tt> response headers or a GraphQL
+      <tt>rateLimit { remaining resetAt }</tt> query.  When the budget runs
+      out requests wait until it resets.</li>
+  <li>Limits concurrent requests.  The limit is halved every time GitHub
+      responds with a rate limit error and grows by one after a full window
+      of successful requests up to <tt>{@link #maxConcurrency}</tt>.</li>
+  <li>Retries <tt>403</tt> and <tt>429</tt> rate limit responses up to
+      <tt>{@link #maxRetries}</tt> times.  It waits for
+      <tt>Retry-After</tt>, the rate limit reset, or an exponential backoff
+      and adds random jitter so that waiting clients do not retry at the same
+      time.</li>
+  </ul>
+
+  <h2>Sample usage</h2>
+  <p>To run this example, clone Jervis and execute <tt>./gradlew console</tt>
+  to bring up a <a href="http://groovy-lang.org/groovyconsole.html" target="_blank">Groovy Console</a>
+  with the classpath set up.</p>
+
+<pre><code>
+import net.gleske.jervis.remotes.GitHub
+import net.gleske.jervis.remotes.GitHubRequestScheduler
+
+GitHubRequestScheduler.SHARED.requestsPerSecond = 5
+GitHub github = new GitHub()
+github.branches('samrocketman/jervis')
+
+// Inspect the queue and budget of every token
+println GitHubRequestScheduler.SHARED.stats
+println GitHubRequestScheduler.SHARED.queueDepth
+
+// Opt out of scheduling for a single client
+github.scheduler = null
+</code></pre>
+  */
+class GitHubRequestScheduler {
+
+    /**
+      The scheduler shared by all GitHub API clients in the JVM.
+      */
+    static final GitHubRequestScheduler SHARED = new GitHubRequestScheduler()
+
+    /**
+      The rate at which requests are allowed for each token.  Set to
+      <tt>0</tt> to disable the token bucket.  Default: <tt>10</tt>
+      */
+    Double requestsPerSecond = 10
+
+    /**
+      The number of requests which can be made at once before being
+      throttled by <tt>{@link #requestsPerSecond}</tt>.  Default: <tt>20</tt>
+      */
+    Integer burst = 20
+
+    /**
+      The maximum number of concurrent requests for each token.  Default:
+      <tt>10</tt>
+      */
+    Integer maxConcurrency = 10
+
+    /**
+      The number of times a rate limited request is retried before giving
+      up.  Default: <tt>3</tt>
+      */
+    Integer maxRetries = 3
+
+    /**
+      The initial delay in milliseconds before retrying a rate limited
+      request when GitHub does not say how long to wait.  The delay doubles
+      on every attempt.  Default: <tt>1000</tt>
+      */
+    Long backoffMillis = 1000
+
+    /**
+      The maximum delay in milliseconds of the exponential backoff.  Delays
+      requested by GitHub are always honored.  Default: <tt>60000</tt>
+      */
+    Long maxBackoffMillis = 60000
+
+    /**
+      The number of requests to hold back from the rate limit.  When the
+      remaining budget reaches the reserve, requests wait until the rate limit
+      resets.  Default: <tt>0</tt>
+      */
+    Integer reserve = 0
+
+    /**
+      The time in milliseconds after which the budget of a token with no
+      requests is forgotten.  Budgets are kept until the rate limit window
+      reported by GitHub resets.  Tokens such as GitHub App installation tokens
+      rotate so forgotten budgets keep memory bounded.  Set to <tt>0</tt> to
+      keep budgets until <tt>{@link #reset()}</tt>.  Default:
+      <tt>3600000</tt> (1 hour)
+      */
+    Long idleBudgetMillis = 3600000
+
+    private final ConcurrentHashMap<String, Budget> budgets = new ConcurrentHashMap<String, Budget>()
+
+    /**
+      Rate limit state of a single token.  All fields are guarded by
+      synchronizing on the budget.
+      */
+    private static class Budget {
+        double tokens
+        long refilled = System.nanoTime()
+        int concurrency
+        int inFlight = 0
+        int waiting = 0
+        int successes = 0
+        long remaining = -1
+        long limit = -1
+        long resetMillis = 0
+        long blockedUntil = 0
+        long requests = 0
+        long retries = 0
+        long waitNanos = 0
+        long lastUsed = System.currentTimeMillis()
+
+        Budget(int burst, int concurrency) {
+            this.tokens = burst
+            this.concurrency = concurrency
+        }
+
+        /**
+          Takes a permit if one is available.
+          @return <tt>0</tt> if a permit was taken, a number of milliseconds
+                  to wait, or <tt>-1</tt> to wait for a request to finish.
+          */
+        long tryAcquire(double rate, int burst, long reserve) {
+            long now = System.currentTimeMillis()
+            if(blockedUntil > now) {
+                return blockedUntil - now
+            }
+            if(remaining >= 0 && remaining <= reserve) {
+                if(resetMillis > now) {
+                    return resetMillis - now
+                }
+                // the rate limit window reset so the budget is unknown
+                remaining = -1
+            }
+            if(inFlight >= concurrency) {
+                return -1
+            }
+            if(rate > 0) {
+                long nanos = System.nanoTime()
+                tokens = Math.min((double) burst, tokens + (nanos - refilled) / 1000000000.0d * rate)
+                refilled = nanos
+                if(tokens < 1) {
+                    return Math.max(1L, (long) Math.ceil((1 - tokens) / rate * 1000))
+                }
+                tokens--
+            }
+            if(remaining > 0) {
+                remaining--
+            }
+            inFlight++
+            requests++
+            lastUsed = now
+            0
+        }
+
+        /**
+          @return <tt>true</tt> if the budget has no requests and nothing is
+                  known to limit the token any longer.
+          */
+        boolean isIdle(long idleMillis) {
+            long now = System.currentTimeMillis()
+            !inFlight && !waiting && now - lastUsed >= idleMillis && blockedUntil <= now && resetMillis <= now
+        }
+    }
+
+    /**
+      Calculates a budget key for a request.  The key is a hash of the API
+      host and the <tt>Authorization</tt> header so that every token has its
+      own budget.
+
+      @param api_url The URL of the API request.
+      @param http_headers The HTTP headers of the API request.
+      @return A SHA-256 hex string.
+      */
+    static String budgetKey(URL api_url, Map http_headers) {
+        def authorization = http_headers.find { k, v ->
+            'Authorization'.equalsIgnoreCase(k.toString())
+        }?.value
+        SecurityIO.sha256Sum("${api_url.host}\n${authorization ?: ''}".toString())
+    }
+
+    /**
+      Makes an API request with
+      <tt>{@link net.gleske.jervis.remotes.SimpleRestService#apiFetch(java.net.URL, java.util.Map, java.lang.String, java.lang.Object, groovy.lang.Closure)}</tt>
+      once the budget for the token allows it.  Rate limited requests are
+      retried.
+
+      @param api_url The URL of the API request.
+      @param http_headers HTTP headers including authentication.
+      @param http_method The HTTP method.
+      @param data Data to send with the request.
+      @param key The budget to use.  Defaults to a hash of the
+                 <tt>Authorization</tt> header.
+      @return The response from <tt>SimpleRestService.apiFetch</tt>.
+      */
+    def fetch(URL api_url, Map http_headers = [:], String http_method = 'GET', def data = '', String key = null) {
+        Budget budget = getBudget(key ?: budgetKey(api_url, http_headers))
+        Closure user_callback = (http_headers['Response-Callback'] in Closure) ? http_headers['Response-Callback'] : null
+        int attempt = 0
+        while(true) {
+            Map observed = [:]
+            Map headers = http_headers + [
+                'Response-Callback': { Integer response_code, Map response_headers ->
+                    observed.code = response_code
+                    observed.headers = response_headers
+                    if(user_callback) {
+                        user_callback(response_code, response_headers)
+                    }
+                }
+            ]
+            acquire(budget)
+            Boolean released = false
+            try {
+                def response = SimpleRestService.apiFetch(api_url, headers, http_method, data)
+                released = true
+                if(!release(budget, observed.code, observed.headers, response, attempt)) {
+                    return response
+                }
+            }
+            catch(IOException e) {
+                released = true
+                if(!release(budget, observed.code, observed.headers, null, attempt)) {
+                    throw e
+                }
+            }
+            finally {
+                if(!released) {
+                    // any other exception returns the permit without a retry
+                    release(budget, observed.code, observed.headers, null, maxRetries)
+                }
+            }
+            attempt++
+        }
+    }
+
+    /**
+      Get the state of the budget of a single token.
+
+      @param key A budget key.
+      @see #budgetKey(java.net.URL, java.util.Map)
+      @return A <tt>Map</tt> with <tt>queue_depth</tt>, <tt>in_flight</tt>,
+              <tt>concurrency</tt>, <tt>remaining</tt>, <tt>limit</tt>,
+              <tt>reset_millis</tt>, <tt>requests</tt>, <tt>retries</tt>,
+              and total <tt>wait_millis</tt>.  <tt>remaining</tt> and
+              <tt>limit</tt> are <tt>-1</tt> if GitHub did not report them.
+              Returns <tt>null</tt> if the key has no requests.
+      */
+    Map getStats(String key) {
+        Budget budget = budgets[key]
+        if(!budget) {
+            return null
+        }
+        synchronized(budget) {
+            [
+                queue_depth: budget.waiting,
+                in_flight: budget.inFlight,
+                concurrency: budget.concurrency,
+                remaining: budget.remaining,
+                limit: budget.limit,
+                reset_millis: budget.resetMillis,
+                requests: budget.requests,
+                retries: budget.retries,
+                wait_millis: budget.waitNanos.intdiv(1000000)
+            ]
+        }
+    }
+
+    /**
+      Get the state of the budgets of all tokens.
+
+      @see #getStats(java.lang.String)
+      @return A <tt>Map</tt> of budget keys to budget state.
+      */
+    Map<String, Map> getStats() {
+        budgets.keySet().collectEntries { String key ->
+            [(key): getStats(key)]
+        }
+    }
+
+    /**
+      @return The number of requests waiting across all tokens.
+      */
+    Integer getQueueDepth() {
+        budgets.values().sum(0) { Budget budget ->
+            synchronized(budget) {
+                budget.waiting
+            }
+        }
+    }
+
+    /**
+      Forgets the budgets of all tokens.
+      */
+    void reset() {
+        budgets.clear()
+    }
+
+    private Budget getBudget(String key) {
+        Budget budget = budgets.get(key)
+        if(budget) {
+            return budget
+        }
+        // new tokens are the only time budgets grow so forget idle budgets
+        removeIdleBudgets()
+        budgets.computeIfAbsent(key) {
+            new Budget(burst, maxConcurrency)
+        }
+    }
+
+    private void removeIdleBudgets() {
+        if(!idleBudgetMillis) {
+            return
+        }
+        budgets.each { String key, Budget budget ->
+            synchronized(budget) {
+                if(budget.isIdle(idleBudgetMillis)) {
+                    budgets.remove(key, budget)
+                }
+            }
+        }
+    }
+
+    private void acquire(Budget budget) {
+        long start = System.nanoTime()
+        synchronized(budget) {
+            budget.waiting++
+            try {
+                long delay
+                while((delay = budget.tryAcquire(requestsPerSecond, burst, reserve)) != 0) {
+                    if(delay < 0) {
+                        budget.wait()
+                    }
+                    else {
+                        budget.wait(delay)
+                    }
+                }
+            }
+            finally {
+                budget.waiting--
+            }
+            budget.waitNanos += System.nanoTime() - start
+        }
+        Metrics.record('jervis.github.scheduler.wait', [:], (System.nanoTime() - start) / 1000000000.0d)
+    }
+
+    /**
+      Updates the budget after a request finishes.
+
+      @return <tt>true</tt> if the request should be retried.
+      */
+    private Boolean release(Budget budget, Integer response_code, Map response_headers, def response, int attempt) {
+        Boolean retry = false
+        synchronized(budget) {
+            budget.inFlight--
+            updateFromHeaders(budget, response_headers)
+            if(response in Map) {
+                updateFromGraphQL(budget, response)
+            }
+            if(isRateLimited(response_code, response_headers, response)) {
+                budget.concurrency = Math.max(1, budget.concurrency.intdiv(2))
+                budget.successes = 0
+                if(attempt < maxRetries) {
+                    long delay = retryDelay(budget, response_headers, attempt)
+                    budget.blockedUntil = Math.max(budget.blockedUntil, System.currentTimeMillis() + delay)
+                    budget.retries++
+                    retry = true
+                }
+            }
+            else if(response_code && response_code < 400) {
+                budget.successes++
+                if(budget.successes >= budget.concurrency && budget.concurrency < maxConcurrency) {
+                    budget.concurrency++
+                    budget.successes = 0
+                }
+            }
+            budget.notifyAll()
+        }
+        if(retry) {
+            Metrics.count('jervis.github.scheduler.retries')
+        }
+        retry
+    }
+
+    private long retryDelay(Budget budget, Map response_headers, int attempt) {
+        long delay
+        String retryAfter = SimpleRestService.headerValue(response_headers, 'Retry-After')
+        if(retryAfter?.isLong()) {
+            delay = Long.parseLong(retryAfter) * 1000
+        }
+        else if(budget.remaining == 0 && budget.resetMillis > System.currentTimeMillis()) {
+            delay = budget.resetMillis - System.currentTimeMillis()
+        }
+        else {
+            delay = Math.min(maxBackoffMillis, backoffMillis * (1L << Math.min(attempt, 30)))
+        }
+        // jitter spreads out clients which were limited at the same time
+        delay + ThreadLocalRandom.current().nextLong(delay.intdiv(2) + 1)
+    }
+
+    private static Boolean isRateLimited(Integer response_code, Map response_headers, def response) {
+        if(response_code == 429) {
+            return true
+        }
+        if(response_code == 403) {
+            return SimpleRestService.headerValue(response_headers, 'Retry-After') != null ||
+                SimpleRestService.headerValue(response_headers, 'X-RateLimit-Remaining') == '0'
+        }
+        // GraphQL reports exceeding the rate limit as an error
+        (response in Map) && (response.errors in List) && response.errors.any { error ->
+            (error in Map) && error.type == 'RATE_LIMITED'
+        }
+    }
+
+    private static void updateFromHeaders(Budget budget, Map response_headers) {
+        String remaining = SimpleRestService.headerValue(response_headers, 'X-RateLimit-Remaining')
+        String limit = SimpleRestService.headerValue(response_headers, 'X-RateLimit-Limit')
+        String reset = SimpleRestService.headerValue(response_headers, 'X-RateLimit-Reset')
+        if(remaining?.isLong()) {
+            budget.remaining = Long.parseLong(remaining)
+        }
+        if(limit?.isLong()) {
+            budget.limit = Long.parseLong(limit)
+        }
+        if(reset?.isLong()) {
+            budget.resetMillis = Long.parseLong(reset) * 1000
+        }
+    }
+
+    private static void updateFromGraphQL(Budget budget, Map response) {
+        def rateLimit = (response.data in Map) ? response.data.rateLimit : null
+        if(!(rateLimit in Map)) {
+            return
+        }
+        if(rateLimit.remaining in Number) {
+            budget.remaining = rateLimit.remaining
+        }
+        if(rateLimit.limit in Number) {
+            budget.limit = rateLimit.limit
+        }
+        if(rateLimit.resetAt in String) {
+            try {
+                budget.resetMillis = Instant.parse(rateLimit.resetAt).toEpochMilli()
+            }
+            catch(DateTimeParseException ignored) {
+                // keep the reset time from the response headers
+            }
+        }
+    }
+
+}
@@ -0,0 +1,297 @@
+/*
+   Copyright 2014-2026 Sam Gleske - https://github.com/samrocketman/jervis
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+   */
+package net.gleske.jervis.remotes
+
+import net.gleske.jervis.tools.SecurityIO
+import net.gleske.jervis.tools.YamlOperator
+
+/**
+  An in-memory HTTP response cache for <tt>GET</tt> requests made by
+  <tt>{@link net.gleske.jervis.remotes.SimpleRestServiceSupport}</tt> API
+  clients such as <tt>{@link net.gleske.jervis.remotes.GitHub}</tt> and
+  <tt>{@link net.gleske.jervis.remotes.VaultService}</tt>.  Responses are
+  cached according to their HTTP caching headers.
+
+  <ul>
+  <li>A response with <tt>Cache-Control: max-age</tt> is returned without
+      making a request until it is older than <tt>max-age</tt>.</li>
+  <li>A response with an <tt>ETag</tt> or <tt>Last-Modified</tt> header is
+      revalidated with an <tt>If-None-Match</tt> or
+      <tt>If-Modified-Since</tt> conditional request.  A <tt>304 Not
+      Modified</tt> response returns the cached object without parsing the
+      response again.</li>
+  <li>Responses with <tt>Cache-Control: no-store</tt> and responses other
+      than <tt>200 OK</tt> are never cached.</li>
+  <li>Any other HTTP method such as <tt>POST</tt> or <tt>DELETE</tt> removes
+      cached responses for the same URL.</li>
+  </ul>
+
+  <p>All request headers, including credentials such as
+  <tt>Authorization</tt> or <tt>X-Vault-Token</tt>, are hashed into the cache
+  key.  A cached response is only returned to a request made with the same
+  credentials so one cache can be shared by clients with different
+  identities.  The least recently used responses are removed once there are
+  more than <tt>{@link #maxEntries}</tt>.</p>
+
+  <p>Every response to a <tt>GET</tt> request which goes through the cache is
+  returned as read-only JSON created by
+  <tt>{@link net.gleske.jervis.tools.YamlOperator#compact(java.lang.Object)}</tt>
+  whether it was downloaded, returned from the cache, or revalidated.  Use
+  <tt>{@link net.gleske.jervis.tools.YamlOperator#deepCopy(java.lang.Object)}</tt>
+  if you need to modify it.  Only the parsed <tt>content</tt> of a
+  <tt>Response-Map</tt> is read-only.  Requests which skip the cache return
+  the response unchanged.</p>
+
+  <p>Requests with <tt>Binary-Data</tt>, <tt>Response-Code</tt>,
+  <tt>Response-Headers</tt>, or their own <tt>If-None-Match</tt> or
+  <tt>If-Modified-Since</tt> headers are never cached.  Set the
+  <tt>Response-Cache</tt> special header to <tt>false</tt> to skip the cache
+  for a single request.</p>
+
+  <h2>Sample usage</h2>
+  <p>To run this example, clone Jervis and execute <tt>./gradlew console</tt>
+  to bring up a <a href="http://groovy-lang.org/groovyconsole.html" target="_blank">Groovy Console</a>
+  with the classpath set up.</p>
+
+<pre><code>
+import net.gleske.jervis.remotes.GitHub
+import net.gleske.jervis.remotes.HttpResponseCache
+
+GitHub github = new GitHub()
+github.responseCache = new HttpResponseCache()
+
+// first request downloads the repository metadata
+github.fetch('repos/samrocketman/jervis')
+// later requests are revalidated with If-None-Match
+github.fetch('repos/samrocketman/jervis')
+// skip the cache for a single request
+github.apiFetch('repos/samrocketman/jervis', ['Response-Cache': false])
+
+println github.responseCache.stats
+</code></pre>
+  */
+class HttpResponseCache {
+
+    /**
+      The special HTTP header which disables the cache for a single request
+      when set to <tt>false</tt>.
+      */
+    static final String CACHE_HEADER = 'Response-Cache'
+
+    /**
+      The maximum number of cached responses.  Default: <tt>500</tt>
+      */
+    Integer maxEntries = 500
+
+    private final LinkedHashMap<String, Map> entries = new LinkedHashMap<String, Map>(16, 0.75f, true)
+    private final Map<String, Long> stats = [
+        hits: 0L,
+        not_modified: 0L,
+        misses: 0L,
+        stored: 0L,
+        invalidated: 0L
+    ]
+
+    /**
+      Makes a request through the cache.  Called by
+      <tt>{@link net.gleske.jervis.remotes.SimpleRestServiceSupport#apiFetch(java.lang.String, java.util.Map, java.lang.String, java.lang.String)}</tt>.
+
+      @param api_url The full URL of the API request.
+      @param http_headers HTTP headers including authentication headers.
+      @param http_method The HTTP method of the request.
+      @param request Makes the request.  It is called with the
+                     <tt>Map</tt> of HTTP headers to send, which may include
+                     conditional request headers, and returns the response.
+      @return The response returned by <tt>request</tt> or a cached response.
+              Responses to cacheable <tt>GET</tt> requests are read-only.
+      */
+    def fetch(URL api_url, Map http_headers, String http_method, Closure request) {
+        Map headers = new LinkedHashMap(http_headers)
+        Boolean enabled = removeHeader(headers, CACHE_HEADER)?.toString() != 'false'
+        if(http_method.toUpperCase() != 'GET') {
+            try {
+                return request(headers)
+            }
+            finally {
+                invalidate(api_url)
+            }
+        }
+        if(!enabled || !isCacheable(headers)) {
+            return request(headers)
+        }
+        String key = cacheKey(api_url, headers)
+        Map cached
+        synchronized(this) {
+            cached = this.entries.get(key)
+            if(cached && System.currentTimeMillis() < cached.fresh_until) {
+                this.stats.hits++
+                return responseValue(cached.value)
+            }
+        }
+        if(cached?.etag) {
+            headers['If-None-Match'] = cached.etag
+        }
+        if(cached?.last_modified) {
+            headers['If-Modified-Since'] = cached.last_modified
+        }
+        Map observed = [:]
+        Closure user_callback = removeHeader(headers, 'Response-Callback')
+        headers['Response-Callback'] = { Integer response_code, Map response_headers ->
+            observed.code = response_code
+            observed.headers = response_headers
+            if(user_callback in Closure) {
+                user_callback(response_code, response_headers)
+            }
+        }
+        def response = compactValue(request(headers))
+        synchronized(this) {
+            if(observed.code == 304 && cached) {
+                this.stats.not_modified++
+                cached.fresh_until = freshUntil(observed.headers)
+                cached.etag = header(observed.headers, 'ETag') ?: cached.etag
+                cached.last_modified = header(observed.headers, 'Last-Modified') ?: cached.last_modified
+                return responseValue(cached.value)
+            }
+            this.stats.misses++
+            this.entries.remove(key)
+            if(observed.code == 200 && isStorable(observed.headers)) {
+                store(key, api_url, response, observed.headers)
+            }
+        }
+        responseValue(response)
+    }
+
+    /**
+      Removes cached responses for a URL regardless of the credentials used
+      to request it.
+
+      @param api_url The full URL of an API request.
+      */
+    synchronized void invalidate(URL api_url) {
+        String prefix = api_url.toString() + '\n'
+        Iterator<String> it = this.entries.keySet().iterator()
+        while(it.hasNext()) {
+            if(it.next().startsWith(prefix)) {
+                it.remove()
+                this.stats.invalidated++
+            }
+        }
+    }
+
+    /**
+      Returns counts of requests answered from the cache without a request
+      (<tt>hits</tt>), answered by a <tt>304</tt> revalidation
+      (<tt>not_modified</tt>), and requests which had to be downloaded
+      (<tt>misses</tt>).
+
+      @return A copy of cache statistics.
+      */
+    synchronized Map<String, Long> getStats() {
+        new LinkedHashMap(this.stats) + [entries: (Long) this.entries.size()]
+    }
+
+    /**
+      Removes all cached responses.
+      */
+    synchronized void clear() {
+        this.entries.clear()
+    }
+
+    private static Boolean isCacheable(Map headers) {
+        if(['Binary-Data', 'Response-Code', 'Response-Headers'].any { header(headers, it)?.toString() == 'true' }) {
+            return false
+        }
+        !header(headers, 'If-None-Match') && !header(headers, 'If-Modified-Since')
+    }
+
+    private static Boolean isStorable(Map response_headers) {
+        List<String> directives = cacheControl(response_headers)
+        if('no-store' in directives) {
+            return false
+        }
+        header(response_headers, 'ETag') || header(response_headers, 'Last-Modified') || maxAge(directives) > 0
+    }
+
+    private static def compactValue(def response) {
+        if(response instanceof Map && response.keySet().containsAll(['response_code', 'content', 'response_headers'])) {
+            // a Response-Map; only the parsed content is compacted
+            Map copy = new LinkedHashMap(response)
+            copy.content = YamlOperator.compact(copy.content)
+            return Collections.unmodifiableMap(copy)
+        }
+        YamlOperator.compact(response)
+    }
+
+    private void store(String key, URL api_url, def response, Map response_headers) {
+        this.entries.put(key, [
+            value: response,
+            etag: header(response_headers, 'ETag'),
+            last_modified: header(response_headers, 'Last-Modified'),
+            fresh_until: freshUntil(response_headers)
+        ])
+        this.stats.stored++
+        Iterator it = this.entries.entrySet().iterator()
+        while(this.entries.size() > this.maxEntries && it.hasNext()) {
+            it.next()
+            it.remove()
+        }
+    }
+
+    private static def responseValue(def value) {
+        // callers may change the response map but not the cached content
+        (value instanceof Map && value.containsKey('response_headers')) ? new LinkedHashMap(value) : value
+    }
+
+    private static Long freshUntil(Map response_headers) {
+        List<String> directives = cacheControl(response_headers)
+        Long now = System.currentTimeMillis()
+        if('no-cache' in directives) {
+            return now
+        }
+        Long age = header(response_headers, 'Age')?.trim()?.isLong() ? Long.parseLong(header(response_headers, 'Age').trim()) : 0L
+        now + Math.max(0L, maxAge(directives) - age) * 1000L
+    }
+
+    private static List<String> cacheControl(Map response_headers) {
+        def values = response_headers?.find { k, v -> k && 'Cache-Control'.equalsIgnoreCase(k.toString()) }?.value
+        List all = (values instanceof List) ? values : [values]
+        all.findAll().collectMany { it.toString().tokenize(',') }*.trim()*.toLowerCase()
+    }
+
+    private static Long maxAge(List<String> directives) {
+        String value = directives.find { it.startsWith('max-age=') }?.substring('max-age='.size())?.replace('"', '')
+        (value?.isLong()) ? Long.parseLong(value) : 0L
+    }
+
+    private static String cacheKey(URL api_url, Map headers) {
+        // closures such as Response-Callback differ for every request
+        String hashed = headers.findAll { k, v -> !(v in Closure) }.collect { k, v ->
+            "${k.toString().toLowerCase()}: ${v}".toString()
+        }.sort().join('\n')
+        api_url.toString() + '\n' + SecurityIO.sha256Sum(hashed)
+    }
+
+    private static def removeHeader(Map headers, String name) {
+        def key = headers.keySet().find { it && name.equalsIgnoreCase(it.toString()) }
+        (key == null) ? null : headers.remove(key)
+    }
+
+    private static String header(Map headers, String name) {
+        def values = headers?.find { k, v -> k && name.equalsIgnoreCase(k.toString()) }?.value
+        def value = (values instanceof List) ? values.find() : values
+        (value == null) ? null : value.toString()
+    }
+}
@@ -0,0 +1,62 @@
+/*
+   Copyright 2014-2026 Sam Gleske - https://github.com/samrocketman/jervis
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+   */
+package net.gleske.jervis.remotes
+
+/**
+  GitHub API clients derive scheduling of their requests from this trait.
+  Requests built by
+  <tt>{@link net.gleske.jervis.remotes.SimpleRestServiceSupport#apiFetch(java.lang.String, java.util.Map, java.lang.String, java.lang.String)}</tt>
+  are made through a
+  <tt>{@link net.gleske.jervis.remotes.GitHubRequestScheduler}</tt> so that
+  rate limits are respected.
+  */
+trait ScheduledRestServiceSupport implements SimpleRestServiceSupport {
+
+    /**
+      Schedules API requests in order to stay within GitHub rate limits.
+      Set to <tt>null</tt> to disable scheduling.  Default:
+      <tt>{@link net.gleske.jervis.remotes.GitHubRequestScheduler#SHARED}</tt>
+      */
+    GitHubRequestScheduler scheduler = GitHubRequestScheduler.SHARED
+
+    /**
+      The budget of the <tt>{@link #scheduler}</tt> used by requests.  API
+      clients can override this so that requests made with different tokens
+      share one budget.
+
+      @return A budget key or <tt>null</tt> to use a hash of the
+              <tt>Authorization</tt> header.
+      @see net.gleske.jervis.remotes.GitHubRequestScheduler#budgetKey(java.net.URL, java.util.Map)
+      */
+    String schedulerKey() {
+        null
+    }
+
+    /**
+      Makes API requests through the <tt>{@link #scheduler}</tt> so that
+      rate limits are respected.
+
+      @see net.gleske.jervis.remotes.SimpleRestServiceSupport#submitRequest(java.net.URL, java.util.Map, java.lang.String, java.lang.String)
+      */
+    @Override
+    def submitRequest(URL api_url, Map http_headers, String http_method, String data) {
+        GitHubRequestScheduler scheduler = getScheduler()
+        if(!scheduler) {
+            return SimpleRestService.apiFetch(api_url, http_headers, http_method, data)
+        }
+        scheduler.fetch(api_url, http_headers, http_method, data, schedulerKey())
+    }
+}
@@ -15,9 +15,18 @@
    */
 package net.gleske.jervis.remotes
 
+import net.gleske.jervis.tools.CountingInputStream
+import net.gleske.jervis.tools.CountingOutputStream
+import net.gleske.jervis.tools.GZip
+import net.gleske.jervis.tools.Metrics
+import net.gleske.jervis.tools.MetricsSpan
 import net.gleske.jervis.tools.YamlOperator
 
 import groovy.json.JsonBuilder
+import java.util.zip.Deflater
+import java.util.zip.GZIPInputStream
+import java.util.zip.Inflater
+import java.util.zip.InflaterInputStream
 
 /**
   A simple class which makes using REST services like the GitHub API really
@@ -94,6 +103,46 @@ HttpURLConnection response = SimpleRestService.apiFetch(
 
 // get response message from Nexus
 response.getHeaderFields()[null][0]
+</code></pre>
+
+  <h4>Streaming large uploads</h4>
+  <p>Binary uploads written by a <tt>Closure</tt> are buffered in memory by
+  default so that a <tt>Content-Length</tt> can be sent; some servers and
+  proxies reject uploads with chunked transfer encoding.  Large uploads must
+  opt in to streaming with <tt>Stream-Chunk-Size</tt> or, when the size is
+  known in advance, <tt>Stream-Length</tt> so they are never fully held in
+  memory.  Large artifacts can be compressed on the fly while upload progress
+  is reported.  See
+  <tt>{@link #apiFetch(java.net.URL, java.util.Map, java.lang.String, java.lang.Object, groovy.lang.Closure)}</tt>
+  for all streaming special headers.</p>
+
+<pre><code>
+import java.net.HttpURLConnection
+import net.gleske.jervis.remotes.SimpleRestService
+
+File artifact = new File('/path/to/large-artifact.tar')
+URL api_url = new URL('http://localhost:8081/repository/hosted-raw-repo/large-artifact.tar.gz')
+Map http_headers = [
+    Accept: '*&sol;*',
+    'Binary-Data': true,
+    // stream in 64KB chunks instead of buffering the artifact in memory
+    'Stream-Chunk-Size': 65536,
+    // compress data with GZip before it is sent
+    'Stream-GZip': 1,
+    // called after every write with total uncompressed bytes written
+    'Stream-Progress': { Long bytes -&gt; println "Uploaded ${bytes} bytes" }
+]
+
+HttpURLConnection response = SimpleRestService.apiFetch(
+        api_url,
+        http_headers,
+        'PUT',
+        'binary-data') { httpOutputStream -&gt;
+    artifact.withInputStream { is -&gt;
+        httpOutputStream &lt;&lt; is
+    }
+}
+response.responseCode
 </code></pre>
 
   <p>You can also use the <tt>Binary-Data</tt> special header to get back the raw HTTP request response so you can do your own custom processing.</p>
@@ -124,9 +173,43 @@ response.inputStream.withCloseable { is -&gt;
 assert plain.toString() == 'hello world\n\nMy friend\n'
 </code></pre>
 
+  <h4>Compressed transfer</h4>
+  <p>Unless <tt>Binary-Data</tt> is used, every request asks for a
+  compressed response with <tt>Accept-Encoding: gzip, deflate</tt>.
+  Compressed responses are decompressed while they are read so the caller
+  always receives plain text or parsed JSON.  Set your own
+  <tt>Accept-Encoding</tt> HTTP header (e.g. <tt>identity</tt>) to opt out.
+  Large request bodies can also be compressed for servers which accept
+  <tt>Content-Encoding: gzip</tt>.</p>
+
+<pre><code>
+import net.gleske.jervis.remotes.SimpleRestService
+
+String body = '{"query": "' + ('x' * 100000) + '"}'
+SimpleRestService.apiFetch(new URL('https://example.com/api'), ['Request-GZip': true], 'POST', body)
+</code></pre>
+
+  <p>When <tt>{@link net.gleske.jervis.tools.Metrics}</tt> are enabled, the
+  <tt>jervis.http.response.bytes</tt> and <tt>jervis.http.request.bytes</tt>
+  counters record compressed and uncompressed byte counts of compressed
+  transfers.  The <tt>transfer</tt> tag is either <tt>compressed</tt> or
+  <tt>uncompressed</tt>.</p>
+
   */
 class SimpleRestService {
 
+    /**
+      Request bodies smaller than this number of bytes are never compressed
+      by <tt>Request-GZip</tt> because the GZip header and trailer would make
+      them larger.
+      */
+    private static final Integer REQUEST_GZIP_MIN_BYTES = 1024
+
+    /**
+      Response content encodings which are decompressed automatically.
+      */
+    private static final List<String> SUPPORTED_ENCODINGS = ['gzip', 'x-gzip', 'deflate'].asImmutable()
+
     private SimpleRestService() {
         throw new IllegalStateException('ERROR: This utility class only provides static methods and is not meant for instantiation.  See Java doc for this class for examples.')
     }
@@ -187,8 +270,8 @@ class SimpleRestService {
       <dt><b>Special HTTP Headers:</b></dt>
       <dd>
         <tt>Binary-Data</tt> - Enable send and receive of binary data.  No
-        <tt>Content-Type</tt> is set and no automatic response processing is
-        performed.  An
+        <tt>Content-Type</tt> or <tt>Accept-Encoding</tt> is set and no
+        automatic response processing or decompression is performed.  An
         <tt>{@link java.net.HttpURLConnection}</tt> will
         always be returned.  All other special HTTP headers will be ignored.
       </dd>
@@ -197,6 +280,28 @@ class SimpleRestService {
         parsed.  This setting can disable automatic parsing if set to
         <tt>false</tt>.
       </dd>
+      <dd>
+        <tt>Request-GZip</tt> - Compress the <tt>data</tt> request body with
+        <tt>{@link net.gleske.jervis.tools.GZip}</tt> and send it with a
+        <tt>Content-Encoding: gzip</tt> HTTP header.  Only use this for
+        endpoints which accept compressed request bodies.  Set to
+        <tt>true</tt> for the <tt>GZip</tt> default compression level or an
+        <tt>Integer</tt> compression level between <tt>0</tt> and
+        <tt>9</tt>.  Request bodies smaller than 1024 bytes are sent
+        uncompressed.  Ignored if <tt>Binary-Data</tt> is enabled.
+      </dd>
+      <dd>
+        <tt>Response-Cache</tt> - Used by
+        <tt>{@link net.gleske.jervis.remotes.HttpResponseCache}</tt>.  It is
+        never sent to the server.
+      </dd>
+      <dd>
+        <tt>Response-Callback</tt> - A <tt>Closure</tt> which is called with
+        the <tt>Integer</tt> HTTP response code and the <tt>Map</tt> of HTTP
+        response headers as soon as a response is received.  It is called
+        before the response is processed so it is also called for 4XX and
+        5XX responses.  Does not change the return value.
+      </dd>
       <dd>
         <tt>Response-Code</tt> - Return the HTTP response code.
       </dd>
@@ -213,12 +318,57 @@ class SimpleRestService {
         will return <tt>true</tt> if <tt>response_code</tt> is a 4XX or 5XX
         HTTP code.
       </dd>
+      <dd>
+        <tt>Stream-Chunk-Size</tt> - Only used with <tt>Binary-Data</tt> and
+        <tt>httpOutputStream</tt>.  Opt in to sending the upload with chunked
+        transfer encoding so that the request body is never fully buffered in
+        memory.  This sets the size of each chunk in bytes, for example
+        <tt>65536</tt>.  By default, the request body is buffered in memory
+        before it is sent because some servers and proxies reject chunked
+        uploads.
+      </dd>
+      <dd>
+        <tt>Stream-Length</tt> - Only used with <tt>Binary-Data</tt> and
+        <tt>httpOutputStream</tt>.  If the exact number of bytes to be
+        uploaded is known, then the upload is streamed with a fixed
+        <tt>Content-Length</tt> instead of chunked transfer encoding.  Ignored
+        if <tt>Stream-GZip</tt> is enabled because the compressed size is not
+        known in advance.  Takes precedence over <tt>Stream-Chunk-Size</tt>.
+      </dd>
+      <dd>
+        <tt>Stream-GZip</tt> - Only used with <tt>Binary-Data</tt> and
+        <tt>httpOutputStream</tt>.  Compress the upload on the fly with
+        <tt>{@link net.gleske.jervis.tools.GZip}</tt>.  Set to <tt>true</tt>
+        for the <tt>GZip</tt> default compression level or an
+        <tt>Integer</tt> compression level between <tt>0</tt> and
+        <tt>9</tt>.  A <tt>Content-Encoding</tt> HTTP header is not added
+        automatically.
+      </dd>
+      <dd>
+        <tt>Stream-Progress</tt> - Only used with <tt>Binary-Data</tt> and
+        <tt>httpOutputStream</tt>.  A <tt>Closure</tt> which is called with a
+        <tt>Long</tt> of the total number of bytes written by
+        <tt>httpOutputStream</tt> after every write.  When compression is
+        enabled the count is uncompressed bytes.
+      </dd>
+      <dd>
+        <tt>X-HTTP-Read-Timeout-Millis</tt> - The time in milliseconds to
+        wait for data while reading the response.  A read which takes longer
+        throws a <tt>{@link java.net.SocketTimeoutException}</tt>.  Defaults
+        to no read timeout.
+      </dd>
       </dl>
 
+      <p>Responses with a <tt>gzip</tt> or <tt>deflate</tt>
+      <tt>Content-Encoding</tt> are decompressed as they are read.  If the
+      caller does not set an <tt>Accept-Encoding</tt> HTTP header, then
+      <tt>Accept-Encoding: gzip, deflate</tt> is sent.</p>
+
       @param api_url A URL of a REST endpoint in which to make an HTTP call.
       @param http_headers HTTP headers to pass as part of the HTTP request.  By
-                  default only <tt>Content-Type: application/json</tt> HTTP
-                  header will be set.
+                  default only <tt>Content-Type: application/json</tt> and
+                  <tt>Accept-Encoding: gzip, deflate</tt> HTTP headers will be
+                  set.
       @param http_method The HTTP method or action to request from the server.
                   Currently supported methods include: GET, POST, PUT, DELETE,
                   and PATCH.
@@ -258,7 +408,7 @@ class SimpleRestService {
         }
         // copy valid fields only
         http_headers.each { k, v ->
-            if(v in Boolean) {
+            if(v in Boolean || v in Closure) {
                 tmp_http_headers[k] = v
             }
             else {
@@ -279,13 +429,33 @@ class SimpleRestService {
         if(!return_response_code && http_method == 'HEAD') {
             only_response_headers = true
         }
+        Integer stream_chunk_size = YamlOperator.getObjectValue(tmp_http_headers, 'Stream-Chunk-Size', -1)
+        Long stream_length = YamlOperator.getObjectValue(tmp_http_headers, 'Stream-Length', -1L)
+        Integer stream_gzip_level = gzipLevel(tmp_http_headers['Stream-GZip'])
+        Boolean user_specified_accept_encoding = tmp_http_headers.keySet().toList()*.equalsIgnoreCase('Accept-Encoding').any { it }
+        if(!user_specified_accept_encoding && !binary_data) {
+            tmp_http_headers['Accept-Encoding'] = 'gzip, deflate'
+        }
+        Integer request_gzip_level = gzipLevel(tmp_http_headers['Request-GZip'])
+        byte[] request_body = null
+        if(!binary_data && request_gzip_level >= 0 && http_method.toUpperCase() != 'GET') {
+            request_body = data.toString().getBytes('UTF-8')
+            if(request_body.length >= REQUEST_GZIP_MIN_BYTES) {
+                tmp_http_headers['Content-Encoding'] = 'gzip'
+            }
+            else {
+                request_body = null
+            }
+        }
+        Closure stream_progress = (tmp_http_headers['Stream-Progress'] in Closure) ? tmp_http_headers['Stream-Progress'] : null
+        Closure response_callback = (tmp_http_headers['Response-Callback'] in Closure) ? tmp_http_headers['Response-Callback'] : null
 
         Map response_headers = [:]
         Integer response_code = 0
         Boolean response_failure = false
         String response_content = ''
-        //data_response could be either a List or Map depending on the JSON
-        def response = api_url.openConnection().with { conn ->
+        MetricsSpan span = Metrics.startSpan('jervis.http.request', [host: api_url.host, method: http_method.toUpperCase()])
+        Closure request = { conn ->
             if(http_method.toUpperCase() != 'GET' && data.size()) {
                 conn.setDoOutput(true)
             }
@@ -298,10 +468,14 @@ class SimpleRestService {
                 timeout = Integer.parseInt(tmp_http_headers.find { it.key.toLowerCase() == 'x-http-timeout-millis' }.value.toString())
             }
             conn.setConnectTimeout(timeout)
+            def readTimeout = tmp_http_headers.find { it.key.toLowerCase() == 'x-http-read-timeout-millis' }?.value
+            if(readTimeout != null) {
+                conn.setReadTimeout(Integer.parseInt(readTimeout.toString()))
+            }
 
             tmp_http_headers.each { k, v ->
                 // ignored headers are skipped
-                if(k.toLowerCase() in ['binary-data', 'parse-json', 'response-code', 'response-headers', 'response-map', 'x-http-binary-data', 'x-http-method-override', 'x-http-timeout-millis']) {
+                if(k.toLowerCase() in ['binary-data', 'parse-json', 'request-gzip', 'response-cache', 'response-callback', 'response-code', 'response-headers', 'response-map', 'stream-chunk-size', 'stream-gzip', 'stream-length', 'stream-progress', 'x-http-binary-data', 'x-http-method-override', 'x-http-read-timeout-millis', 'x-http-timeout-millis']) {
                     return
                 }
                 conn.setRequestProperty(k, v)
@@ -332,9 +506,32 @@ class SimpleRestService {
 
             if(conn.getDoOutput()) {
                 if(binary_data && httpOutputStream) {
-                    conn.getOutputStream().withCloseable { os ->
-                        httpOutputStream(os)
+                    // streaming mode must be set before the connection is
+                    // opened; otherwise, HttpURLConnection buffers the entire
+                    // request body in memory to calculate Content-Length.
+                    // Chunked transfer encoding is opt-in.
+                    if(stream_length >= 0 && stream_gzip_level < 0) {
+                        conn.setFixedLengthStreamingMode(stream_length)
+                    }
+                    else if(stream_chunk_size > 0) {
+                        conn.setChunkedStreamingMode(stream_chunk_size)
+                    }
+                    OutputStream os = conn.getOutputStream()
+                    if(stream_gzip_level >= 0) {
+                        os = new GZip(os, stream_gzip_level)
+                    }
+                    if(stream_progress) {
+                        os = new CountingOutputStream(os, stream_progress)
                     }
+                    os.withCloseable {
+                        httpOutputStream(it)
+                    }
+                } else if(request_body != null) {
+                    CountingOutputStream wire = new CountingOutputStream(conn.getOutputStream())
+                    new GZip(wire, request_gzip_level).withCloseable {
+                        it.write(request_body)
+                    }
+                    countTransfer('jervis.http.request.bytes', api_url.host, 'gzip', wire.count, request_body.length)
                 } else {
                     conn.getOutputStream().withWriter { writer ->
                         writer << data
@@ -343,9 +540,18 @@ class SimpleRestService {
             }
             //getHeaderFields will make a network request
             response_headers = conn.getHeaderFields()
+            if(response_headers[null] == null) {
+                // getHeaderFields hides failures such as a read timeout;
+                // getInputStream throws them
+                conn.getInputStream()
+            }
             response_code = Integer.parseInt(response_headers[null].toList().first().tokenize(' ')[1])
+            span.tag('status', response_code)
             // 4xx and 5xx are errors
             response_failure = response_code.toString()[0] in ['4', '5']
+            if(response_callback) {
+                response_callback(response_code, response_headers)
+            }
             // user requested Binary-Data processing so return binary data
             if(binary_data) {
                 return conn
@@ -361,7 +567,12 @@ class SimpleRestService {
             if(conn.getContentLengthLong() == 0) {
                 return
             }
-            if(response_failure) {
+            String content_encoding = headerValue(response_headers, 'Content-Encoding')?.trim()?.toLowerCase()
+            if(content_encoding in SUPPORTED_ENCODINGS) {
+                span.tag('content_encoding', content_encoding)
+                InputStream body = response_failure ? conn.getErrorStream() : conn.getInputStream()
+                response_content = decompressText(body, content_encoding, headerValue(response_headers, 'Content-Type'), api_url.host)
+            } else if(response_failure) {
                 ByteArrayOutputStream errorResponse = new ByteArrayOutputStream()
                 errorResponse << conn.getErrorStream()
                 response_content = errorResponse.toString()
@@ -370,6 +581,18 @@ class SimpleRestService {
             }
             response_content
         }
+        //data_response could be either a List or Map depending on the JSON
+        def response
+        try {
+            response = api_url.openConnection().with(request)
+        }
+        catch(Throwable e) {
+            span.error(e)
+            throw e
+        }
+        finally {
+            span.close()
+        }
         if(binary_data) {
             return response
         }
@@ -399,4 +622,89 @@ class SimpleRestService {
             response
         }
     }
+
+    /**
+      Parses a GZip compression level from a special HTTP header value.
+
+      @return <tt>-1</tt> if compression is disabled.
+      */
+    private static Integer gzipLevel(def value) {
+        if(value?.toString() == 'true') {
+            return Deflater.BEST_COMPRESSION
+        }
+        if(value?.toString()?.isInteger()) {
+            return Integer.parseInt(value.toString())
+        }
+        -1
+    }
+
+    /**
+      Case insensitive lookup of the first value of an HTTP response header.
+
+      @param response_headers HTTP response headers such as the headers passed
+                              to a <tt>Response-Callback</tt>.  May be
+                              <tt>null</tt>.
+      @param name The name of the header.
+      @return The first value of the header or <tt>null</tt> if it is not
+              set.
+      */
+    static String headerValue(Map response_headers, String name) {
+        def entry = response_headers?.find { k, v ->
+            (k in String) && name.equalsIgnoreCase(k)
+        }
+        if(!entry) {
+            return null
+        }
+        (entry.value in List) ? entry.value.find { it }?.toString() : entry.value?.toString()
+    }
+
+    /**
+      Reads a compressed response body as text while it is decompressed.
+      The charset of the <tt>Content-Type</tt> is used and defaults to
+      <tt>UTF-8</tt>.
+      */
+    private static String decompressText(InputStream is, String encoding, String content_type, String host) {
+        if(is == null) {
+            return ''
+        }
+        String charset = 'UTF-8'
+        String requested = content_type?.tokenize(';')?.find { it.trim().toLowerCase().startsWith('charset=') }
+        if(requested) {
+            charset = requested.trim().substring('charset='.size()).replace('"', '').trim()
+        }
+        CountingInputStream wire = new CountingInputStream(is)
+        CountingInputStream plain
+        // InflaterInputStream does not end an Inflater it was given
+        Inflater inflater
+        if(encoding == 'deflate') {
+            // RFC 9110 deflate is zlib wrapped but some servers send raw deflate
+            BufferedInputStream buffered = new BufferedInputStream(wire)
+            buffered.mark(2)
+            int cmf = buffered.read()
+            int flg = buffered.read()
+            buffered.reset()
+            Boolean zlib = (cmf & 0x0F) == 8 && ((cmf << 8) | flg) % 31 == 0
+            inflater = new Inflater(!zlib)
+            plain = new CountingInputStream(new InflaterInputStream(buffered, inflater))
+        }
+        else {
+            plain = new CountingInputStream(new GZIPInputStream(wire))
+        }
+        String text
+        try {
+            text = plain.withCloseable {
+                it.getText(charset)
+            }
+        }
+        finally {
+            inflater?.end()
+        }
+        countTransfer('jervis.http.response.bytes', host, encoding, wire.count, plain.count)
+        text
+    }
+
+    private static void countTransfer(String name, String host, String encoding, long compressed, long uncompressed) {
+        Metrics.count(name, [host: host, encoding: encoding, transfer: 'compressed'], compressed)
+        Metrics.count(name, [host: host, encoding: encoding, transfer: 'uncompressed'], uncompressed)
+    }
 }
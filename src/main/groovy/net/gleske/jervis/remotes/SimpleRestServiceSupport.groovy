@@ -39,6 +39,15 @@ trait SimpleRestServiceSupport {
       */
     abstract Map header(Map original_headers)
 
+    /**
+      Caches responses of <tt>GET</tt> requests made by
+      <tt>{@link #apiFetch(java.lang.String, java.util.Map, java.lang.String, java.lang.String)}</tt>
+      using HTTP caching headers.  A cache can be shared by multiple API
+      clients.  Set to <tt>null</tt> to disable caching.  Default:
+      <tt>null</tt>
+      */
+    HttpResponseCache responseCache
+
     /**
       A method for converting a HashMap of standard Java types to a JSON String.
 
@@ -70,7 +79,10 @@ trait SimpleRestServiceSupport {
     /**
       This is a convenient method for making API calls to remote REST services.
       It automatically builds out authentication headers by calling other
-      methods defined in this trait.
+      methods defined in this trait.  If <tt>{@link #responseCache}</tt> is
+      set, then requests are made through the cache.  Pass the
+      <tt>Response-Cache</tt> special header set to <tt>false</tt> to skip
+      the cache for a single request.
 
       @param path A path appended to the <tt>{@link #baseUrl()}</tt> for making
                   an API call.
@@ -88,6 +100,30 @@ trait SimpleRestServiceSupport {
         http_headers = header(http_headers)
         path = path ? (baseUrl() + path) : baseUrl()
         URL api_url = new URL(path)
+        HttpResponseCache cache = getResponseCache()
+        if(cache) {
+            return cache.fetch(api_url, http_headers, http_method) { Map headers ->
+                submitRequest(api_url, headers, http_method, data)
+            }
+        }
+        submitRequest(api_url, http_headers, http_method, data)
+    }
+
+    /**
+      Submits a request built by
+      <tt>{@link #apiFetch(java.lang.String, java.util.Map, java.lang.String, java.lang.String)}</tt>.
+      By default, this calls
+      <tt>{@link net.gleske.jervis.remotes.SimpleRestService#apiFetch(java.net.URL, java.util.Map, java.lang.String, java.lang.Object, groovy.lang.Closure)}</tt>.
+      API clients can override this in order to change how requests are
+      made such as scheduling requests around rate limits.
+
+      @param api_url The full URL of the API request.
+      @param http_headers HTTP headers including authentication headers.
+      @param http_method The HTTP method to call when making an API request.
+      @param data Data to be written to the remote service.
+      @return The response from the remote service.
+      */
+    def submitRequest(URL api_url, Map http_headers, String http_method, String data) {
         SimpleRestService.apiFetch(api_url, http_headers, http_method, data)
     }
 
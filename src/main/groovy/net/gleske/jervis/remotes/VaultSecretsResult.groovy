@@ -0,0 +1,69 @@
+/*
+   Copyright 2014-2026 Sam Gleske - https://github.com/samrocketman/jervis
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+   */
+package net.gleske.jervis.remotes
+
+/**
+  The result of reading many secrets at once from
+  <tt>{@link net.gleske.jervis.remotes.VaultService}</tt>.  Secrets which
+  could not be read are reported in <tt>{@link #failures}</tt> instead of
+  being silently skipped.
+
+  <h2>Sample usage</h2>
+<pre><code>
+import net.gleske.jervis.remotes.VaultSecretsResult
+import net.gleske.jervis.remotes.VaultService
+
+VaultService vault = new VaultService(...)
+VaultSecretsResult result = vault.getSecrets(['kv/foo', [mount: 'kv', path: 'foo/bar']])
+if(!result.isSuccess()) {
+    result.failures.each { String path, Throwable error -&gt;
+        println "Could not read ${path}: ${error.message}"
+    }
+}
+result.secrets['kv/foo/bar']
+</code></pre>
+  */
+class VaultSecretsResult {
+
+    /**
+      Secrets which were read successfully keyed by full path including the
+      mount.  Paths are in the order they were first requested.
+      */
+    final Map<String, Map> secrets = [:]
+
+    /**
+      Errors of secrets which could not be read keyed by full path including
+      the mount.  Paths are in the order they were first requested.  A read
+      which takes too long is reported as an
+      <tt>{@link java.io.InterruptedIOException}</tt>.
+      */
+    final Map<String, Throwable> failures = [:]
+
+    /**
+      Environment variables combined from all secrets which were read
+      successfully.  Only set by
+      <tt>{@link net.gleske.jervis.remotes.VaultService#fetchEnvironmentSecrets(java.util.List, java.lang.Boolean)}</tt>.
+      Keys from secrets later in the requested list take precedence.
+      */
+    Map<String, String> environment = [:]
+
+    /**
+      @return <tt>true</tt> if every secret was read.
+      */
+    Boolean isSuccess() {
+        !this.failures
+    }
+}
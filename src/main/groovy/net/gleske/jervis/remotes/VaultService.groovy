@@ -18,6 +18,15 @@ package net.gleske.jervis.remotes
 import net.gleske.jervis.exceptions.VaultException
 import net.gleske.jervis.remotes.interfaces.TokenCredential
 import net.gleske.jervis.remotes.interfaces.VaultCredential
+import net.gleske.jervis.tools.DaemonThreadFactory
+
+import java.util.concurrent.Callable
+import java.util.concurrent.ExecutionException
+import java.util.concurrent.Future
+import java.util.concurrent.LinkedBlockingQueue
+import java.util.concurrent.ThreadPoolExecutor
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.TimeoutException
 
 /**
   Provides easy access to
@@ -350,6 +359,43 @@ vault.mountVersions = versions
       */
     Map<String, String> headers = [:]
 
+    /**
+      The maximum number of secrets read at the same time by
+      <tt>{@link #getSecrets(java.util.List)}</tt> and
+      <tt>{@link #getEnvironmentSecrets(java.util.List, java.lang.Boolean)}</tt>.
+      Default: <tt>8</tt>
+      */
+    Integer readConcurrency = 8
+
+    /**
+      The time in milliseconds to wait for data from Vault while reading a
+      response when reading many secrets at once.  Reads which time out are
+      reported as failures.  Other requests to Vault are not limited.  Set to
+      <tt>0</tt> to wait forever.  Default: <tt>30000</tt>
+      */
+    Long readTimeoutMillis = 30000
+
+    /**
+      The time in milliseconds to wait for all secrets when reading many
+      secrets at once.  Reads which have not finished by then are cancelled
+      and reported as a <tt>{@link java.util.concurrent.TimeoutException}</tt>.
+      Set to <tt>0</tt> to wait forever.  Default: <tt>120000</tt>
+      */
+    Long readDeadlineMillis = 120000
+
+    /**
+      Set while a thread reads a secret for
+      <tt>{@link #getSecrets(java.util.List)}</tt> so only those requests
+      are limited by <tt>{@link #readTimeoutMillis}</tt>.
+      */
+    private static final ThreadLocal<Boolean> BULK_READ = new ThreadLocal<Boolean>()
+
+    /**
+      Threads for reading many secrets at once.  Created when first needed
+      and reused by later reads.  Idle threads exit.
+      */
+    private transient ThreadPoolExecutor readPool
+
     /**
       Authenticate with a Vault instance using a basic token credential.  This
       constructor is provided for simplicity and testing.  However, AppRole
@@ -446,6 +492,23 @@ vault.discoverKVMounts()
         tempHeaders
     }
 
+    /**
+      Submits requests.  Secrets read by
+      <tt>{@link #getSecrets(java.util.List)}</tt> and
+      <tt>{@link #fetchEnvironmentSecrets(java.util.List, java.lang.Boolean)}</tt>
+      have a read timeout of <tt>{@link #readTimeoutMillis}</tt>.
+
+      @see net.gleske.jervis.remotes.SimpleRestServiceSupport#submitRequest(java.net.URL, java.util.Map, java.lang.String, java.lang.String)
+      */
+    @Override
+    def submitRequest(URL api_url, Map http_headers, String http_method, String data) {
+        Map headers = http_headers
+        if(BULK_READ.get() && this.readTimeoutMillis) {
+            headers = http_headers + ['X-HTTP-Read-Timeout-Millis': this.readTimeoutMillis]
+        }
+        SimpleRestService.apiFetch(api_url, headers, http_method, data)
+    }
+
     /**
        Get secret from a KV v1 or KV v2 secret engine.
 
@@ -963,14 +1026,148 @@ secret/
               sorted by key name.
       */
     Map<String, String> getEnvironmentSecrets(List paths, Boolean allowInvalidKeys = false) {
-        paths.collect { path ->
+        VaultSecretsResult result = fetchEnvironmentSecrets(paths, allowInvalidKeys)
+        // secrets which could not be read over the network are skipped
+        Throwable error = result.failures.values().find { !(it in IOException) && !(it in TimeoutException) }
+        if(error) {
+            throw error
+        }
+        result.environment
+    }
+
+    /**
+      Reads secrets for environment variables like
+      <tt>{@link #getEnvironmentSecrets(java.util.List, java.lang.Boolean)}</tt>
+      but reports secrets which could not be read instead of skipping them.
+      Up to <tt>{@link #readConcurrency}</tt> secrets are read at the same
+      time and each read is limited to <tt>{@link #readTimeoutMillis}</tt>.
+      All reads are limited to <tt>{@link #readDeadlineMillis}</tt>.  A path
+      listed more than once is only read once.
+
+      @param paths A List of paths to search Vault for Maps.  A path can be a
+                   String or a location Map.  Later paths take precedence
+                   when key names conflict.
+      @param allowInvalidKeys Includes keys which have invalid bash variable
+                              names.
+      @return A result with combined <tt>environment</tt> variables sorted by
+              key name and any <tt>failures</tt>.
+      */
+    VaultSecretsResult fetchEnvironmentSecrets(List paths, Boolean allowInvalidKeys = false) {
+        List<String> order = []
+        VaultSecretsResult result = readSecrets(paths, order) { Map location ->
+            getEnvironmentSecret(location, 0, allowInvalidKeys)
+        }
+        Map<String, String> environment = [:]
+        order.each { String path ->
+            if(path in result.secrets.keySet()) {
+                environment.putAll(result.secrets[path])
+            }
+        }
+        result.environment = environment.sort()
+        result
+    }
+
+    /**
+      Reads many secrets at once.  Up to <tt>{@link #readConcurrency}</tt>
+      secrets are read at the same time and each read is limited to
+      <tt>{@link #readTimeoutMillis}</tt>.  All reads are limited to
+      <tt>{@link #readDeadlineMillis}</tt>.  A location listed more than once
+      is only read once.  If no mounts are known, then
+      <tt>{@link #discoverKVMounts()}</tt> is called once before reading.
+
+      @param locations A List of paths or location Maps of secrets to read.
+      @return A result with <tt>secrets</tt> and <tt>failures</tt> keyed by
+              full path.
+      */
+    VaultSecretsResult getSecrets(List locations) {
+        readSecrets(locations, []) { Map location ->
+            getSecret(location)
+        }
+    }
+
+    /**
+      Reads unique locations concurrently.
+
+      @param locations Paths or location Maps.
+      @param order Filled with the full path of every location in the
+                   requested order including repeated paths.
+      @param reader Reads a single location Map.
+      */
+    private VaultSecretsResult readSecrets(List locations, List<String> order, Closure reader) {
+        if(!this.mountVersions) {
+            discoverKVMounts()
+        }
+        Map<String, Map> unique = [:]
+        locations.each { location ->
+            Map resolved = (location in Map) ? location : getLocationMapFromPath(location.toString())
+            String path = getPathFromLocationMap(resolved)
+            order << path
+            if(!(path in unique.keySet())) {
+                unique[path] = [mount: resolved.mount, path: resolved.path]
+            }
+        }
+        VaultSecretsResult result = new VaultSecretsResult()
+        if(!unique) {
+            return result
+        }
+        // renew the token once instead of in every thread
+        this.credential.getToken()
+        ThreadPoolExecutor pool = getReadPool()
+        Map<String, Future> reads = [:]
+        unique.each { String path, Map location ->
+            reads[path] = pool.submit({ ->
+                BULK_READ.set(true)
+                try {
+                    reader(location)
+                }
+                finally {
+                    BULK_READ.remove()
+                }
+            } as Callable)
+        }
+        Long deadline = System.currentTimeMillis() + this.readDeadlineMillis
+        for(Map.Entry<String, Future> read : reads) {
             try {
-                getEnvironmentSecret(path, 0, allowInvalidKeys)
+                if(this.readDeadlineMillis) {
+                    result.secrets[read.key] = read.value.get(Math.max(0, deadline - System.currentTimeMillis()), TimeUnit.MILLISECONDS)
+                }
+                else {
+                    result.secrets[read.key] = read.value.get()
+                }
             }
-            catch(IOException ignored) {
-                [:]
+            catch(ExecutionException e) {
+                result.failures[read.key] = e.cause
             }
-        }.sum().sort()
+            catch(TimeoutException e) {
+                read.value.cancel(true)
+                result.failures[read.key] = new TimeoutException("Reading ${read.key} from Vault did not finish within ${this.readDeadlineMillis}ms.".toString())
+            }
+        }
+        result
+    }
+
+    /**
+      Returns the threads for reading secrets sized to
+      <tt>{@link #readConcurrency}</tt>.
+      */
+    private synchronized ThreadPoolExecutor getReadPool() {
+        Integer threads = Math.max(1, this.readConcurrency)
+        if(!this.readPool) {
+            this.readPool = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(), new DaemonThreadFactory('jervis-vault-read'))
+            this.readPool.allowCoreThreadTimeOut(true)
+        }
+        else if(this.readPool.maximumPoolSize != threads) {
+            // grow the maximum first because it may not be less than the core size
+            if(threads > this.readPool.maximumPoolSize) {
+                this.readPool.maximumPoolSize = threads
+                this.readPool.corePoolSize = threads
+            }
+            else {
+                this.readPool.corePoolSize = threads
+                this.readPool.maximumPoolSize = threads
+            }
+        }
+        this.readPool
     }
 
     /**
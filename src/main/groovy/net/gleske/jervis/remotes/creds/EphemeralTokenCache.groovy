@@ -20,6 +20,7 @@ import net.gleske.jervis.exceptions.TokenException
 import net.gleske.jervis.remotes.interfaces.EphemeralTokenCredential
 import net.gleske.jervis.tools.CipherMap
 import net.gleske.jervis.tools.LockableFile
+import net.gleske.jervis.tools.RsaKeyRegistry
 import net.gleske.jervis.tools.YamlOperator
 
 import java.time.Instant
@@ -167,8 +168,9 @@ new EphemeralTokenCache({-&gt; new File(privateKeyPath).text })
         String privateKey = privateKeyClosure()
         if(privateKey) {
             // Quickly test validity and private key strength (it will throw an
-            // exception for a weak key)
-            new CipherMap(privateKey)
+            // exception for a weak key).  The decoded key is registered so
+            // loading the cache does not decode it again.
+            RsaKeyRegistry.getKey(privateKey)
             this.getPrivateKey = privateKeyClosure
         }
         else if(!this.allowEmptyPrivateKey) {
@@ -234,6 +236,8 @@ new EphemeralTokenCache({-&gt; new File(privateKeyPath).text })
         String privateKey = this.getPrivateKey()
         if(privateKey) {
             this.cipherMap = new CipherMap(privateKey, this.hash_iterations)
+            // only changed tokens are encrypted when the cache is saved
+            this.cipherMap.per_entry = true
             if(data) {
                 this.cipherMap << data
             }
@@ -17,7 +17,7 @@
 package net.gleske.jervis.remotes.creds
 
 import net.gleske.jervis.exceptions.GitHubAppException
-import net.gleske.jervis.remotes.SimpleRestServiceSupport
+import net.gleske.jervis.remotes.ScheduledRestServiceSupport
 import net.gleske.jervis.remotes.interfaces.GitHubAppRsaCredential
 import net.gleske.jervis.remotes.interfaces.EphemeralTokenCredential
 import net.gleske.jervis.tools.SecurityIO
@@ -61,7 +61,7 @@ println('\n' + ['='*80, 'Encrypted cache below', '='*80].join('\n') + '\n')
 println(new File(tokenCred.cacheFile).text)
 </code></pre>
   */
-class GitHubAppCredential implements ReadonlyTokenCredential, SimpleRestServiceSupport {
+class GitHubAppCredential implements ReadonlyTokenCredential, ScheduledRestServiceSupport {
     private GitHubAppRsaCredential rsaCredential
     private EphemeralTokenCredential tokenCredential
 
@@ -216,6 +216,17 @@ github_app.scope = [repositories: ['repo1', 'repo2'], permissions: [contents: 'r
         tempHeaders
     }
 
+    /**
+      All requests authenticated as the GitHub App share one budget of the
+      <tt>{@link #scheduler}</tt>.
+
+      @see net.gleske.jervis.remotes.ScheduledRestServiceSupport#schedulerKey()
+      */
+    @Override
+    String schedulerKey() {
+        SecurityIO.sha256Sum([baseUrl(), rsaCredential.getAppID()].join('\n'))
+    }
+
     /**
       Get a valid GitHub App API token meant for cloning code or interacting
       with GitHub APIs.
@@ -188,6 +188,36 @@ class AutoRelease {
                 have to strip it from the returned result.
       */
     static String getNextSemanticRelease(String version, List<String> git_tags, String prefix = '') {
+        nextSemanticRelease(version, prefix) { String currentVersion, String hotfix_seperator ->
+            getNextRelease(currentVersion, git_tags, hotfix_seperator, prefix)
+        }
+    }
+
+    /**
+        Provides automatically getting the next version for
+        <a href="https://semver.org/" target="_blank">semantic versioning</a>
+        from an index of Git tags.  Returns the same release as
+        <tt><a href="#getNextSemanticRelease(java.lang.String, List<String>, java.lang.String)">getNextSemanticRelease</a></tt>
+        but looking up existing releases does not scan every tag.
+
+        @param version  A version number pulled from the current commit of a
+                        project (e.g. pom.xml version) which will be used to
+                        determine the next release.
+        @param git_tags An index of tags pulled from Git.
+        @param prefix   A prefix which will be automatically stripped during
+                        version bumping.  However, the prefix will
+                        automatically be prependend to the next release.
+                        <tt>prefix</tt> is optional and is empty by default.
+
+        @return The next semantic release for the given <tt>version</tt>.
+      */
+    static String getNextSemanticRelease(String version, TagIndex git_tags, String prefix = '') {
+        nextSemanticRelease(version, prefix) { String currentVersion, String hotfix_seperator ->
+            getNextRelease(currentVersion, git_tags, hotfix_seperator, prefix)
+        }
+    }
+
+    private static String nextSemanticRelease(String version, String prefix, Closure nextRelease) {
         String currentVersion = (version -~ '-SNAPSHOT$') -~ "^\\Q${prefix}\\E"
         // nextVersion will be set and returned at the end.
         String nextVersion = ''
@@ -198,7 +228,7 @@ class AutoRelease {
                 throw new JervisException("ERROR: ${currentVersion} is an invalid semantic version.  See https://semver.org/")
             }
             // hotfixing a hotfix (strange but it happens in software)
-            nextVersion = getNextRelease(currentVersion, git_tags, hotfix_seperator, prefix)
+            nextVersion = nextRelease(currentVersion, hotfix_seperator)
         }
         else{
             def parsed_version = currentVersion.tokenize('.')
@@ -208,12 +238,12 @@ class AutoRelease {
             else if(parsed_version[-1] == '0') {
                 // a normal semver release
                 String partial_version = parsed_version[0..1].join('.')
-                nextVersion = getNextRelease(partial_version, git_tags, '.', prefix)
+                nextVersion = nextRelease(partial_version, '.')
             }
             else {
                 // In this case, version would end up being a patch for a
                 // hotfix so we need to return the greatest hotfix tag
-                nextVersion = getNextRelease(currentVersion, git_tags, hotfix_seperator, prefix)
+                nextVersion = nextRelease(currentVersion, hotfix_seperator)
             }
         }
         nextVersion
@@ -327,18 +357,54 @@ class AutoRelease {
                 have to strip it from the returned result.
       */
     static String getNextRelease(String version, List<String> git_tags, String hotfix_seperator = '.', String prefix = '') {
-        String major_minor = (version -~ '-SNAPSHOT$') -~ "^\\Q${prefix}\\E"
-        if(major_minor.contains('.') && major_minor.tokenize('.')[-1] == '0') {
-            major_minor = major_minor.tokenize('.')[0..-2].join('.')
-        }
+        String major_minor = releaseBase(version, prefix)
+        // compile once instead of for every tag
+        Pattern release = Pattern.compile("^${prefix}${major_minor}${hotfix_seperator}[0-9]+\$")
         Integer next_patch = ((git_tags.findAll {
-            it =~ /^${prefix}${major_minor}${hotfix_seperator}[0-9]+$/
+            release.matcher(it).find()
         }*.tokenize(hotfix_seperator)*.getAt(-1).collect {
             Integer.parseInt(it)
         }.max()) ?: 0) + 1
         "${prefix}${major_minor}${hotfix_seperator}${next_patch}"
     }
 
+    /**
+        Gets a bumped version with a more loosely formed format from an index
+        of Git tags.  Returns the same release as
+        <tt><a href="#getNextRelease(java.lang.String, List<String>, java.lang.String, java.lang.String)">getNextRelease</a></tt>
+        except that the <tt>prefix</tt> and <tt>version</tt> are always
+        compared literally.  Looking up existing releases does not scan every
+        tag.
+
+        @param version  A version number pulled from the current commit of a
+                        project (e.g. <tt>pom.xml</tT> version) which will be
+                        used to determine the next release.
+        @param git_tags An index of tags pulled from Git.
+        @param hotfix_separator
+                        The separator used when hotfixes are applied past the
+                        first 3 sets of decimal numbers.  By default,
+                        <tt>hotfix_separator</tt> is a period (<tt>.</tt>).
+        @param prefix   A prefix which will be automatically stripped during
+                        version bumping.  However, the prefix will
+                        automatically be prependend to the next release.
+                        <tt>prefix</tt> is optional and is empty by default.
+
+        @return The next release for the given <tt>version</tt>.
+      */
+    static String getNextRelease(String version, TagIndex git_tags, String hotfix_seperator = '.', String prefix = '') {
+        String major_minor = releaseBase(version, prefix)
+        Long next_patch = (git_tags.getLatestRelease("${prefix}${major_minor}${hotfix_seperator}".toString()) ?: 0L) + 1
+        "${prefix}${major_minor}${hotfix_seperator}${next_patch}"
+    }
+
+    private static String releaseBase(String version, String prefix) {
+        String major_minor = (version -~ '-SNAPSHOT$') -~ "^\\Q${prefix}\\E"
+        if(major_minor.contains('.') && major_minor.tokenize('.')[-1] == '0') {
+            major_minor = major_minor.tokenize('.')[0..-2].join('.')
+        }
+        major_minor
+    }
+
     /**
         This method is for applying variables to a groovy template.  It's purpose
         is to simplify escaping required by the Groovy interpreter when doing more
@@ -15,12 +15,15 @@
    */
 package net.gleske.jervis.tools
 
+import net.gleske.jervis.exceptions.DecryptException
 import net.gleske.jervis.exceptions.JervisException
 
 import java.security.SignatureException
 import java.time.Instant
 import java.time.format.DateTimeParseException
 import javax.crypto.BadPaddingException
+import javax.crypto.Mac
+import javax.crypto.spec.SecretKeySpec
 
 /**
   Strong encrypted storage backend used for encrypting a <tt>Map</tt> at rest.
@@ -70,6 +73,50 @@ import javax.crypto.BadPaddingException
   </li>
   </ul>
 
+  <h2>Per-entry encryption</h2>
+
+  <p>By default, the whole map is serialized and encrypted as a single value
+  so changing one key requires decrypting and encrypting every key.  Large
+  maps can instead encrypt each entry separately under the same AES secret by
+  setting <tt>{@link #per_entry}</tt>, calling <tt>{@link #migrate()}</tt>, or
+  using <tt>{@link #put(java.lang.Object, java.lang.Object)}</tt>.  The
+  <tt>get</tt>, <tt>put</tt>, and <tt>remove</tt> methods only decrypt or
+  encrypt a single entry.</p>
+
+  <ul>
+  <li>
+    Entry names are not stored in plain text.  Each entry is stored under an
+    HMAC-SHA-256 of its key.  The HMAC key is derived from the AES secret with
+    HKDF.
+  </li>
+  <li>
+    The RS256 signature covers a SHA-256 hash list of every stored entry so
+    entries can't be added, removed, swapped, or replayed from older
+    ciphertext.  Signing is deferred until <tt>{@link #toString()}</tt> so
+    many updates only cost a single signature.
+  </li>
+  <li>
+    The unwrapped AES secret is kept in memory so RSA decryption only occurs
+    once per secret instead of on every operation.
+  </li>
+  </ul>
+
+<pre><code>
+import net.gleske.jervis.tools.CipherMap
+
+CipherMap cmap = new CipherMap(new File('src/test/resources/rsa_keys/good_id_rsa_4096'))
+1000.times {
+    cmap.put("key${it}".toString(), [token: "secret${it}".toString()])
+}
+String ciphertext = cmap.toString()
+
+CipherMap cmap2 = new CipherMap(new File('src/test/resources/rsa_keys/good_id_rsa_4096'))
+cmap2 &lt;&lt; ciphertext
+assert cmap2.get('key42') == [token: 'secret42']
+cmap2.remove('key42')
+assert cmap2.get('key42') == null
+</code></pre>
+
   <h2>Sample usage</h2>
   <p>To run this example, clone Jervis and execute <tt>./gradlew console</tt>
   to bring up a <a href="http://groovy-lang.org/groovyconsole.html" target="_blank">Groovy Console</a>
@@ -135,6 +182,50 @@ class CipherMap implements Serializable {
       */
     Long rotate_time_limit = 2592000
 
+    /**
+      The at rest format version written when entries are encrypted
+      separately.  The original format has no version field.
+      */
+    static final String ENTRIES_VERSION = '2'
+
+    /**
+      When <tt>true</tt>, <tt>{@link #setPlainMap(java.util.Map)}</tt> stores
+      each entry encrypted separately instead of a single encrypted value.
+      Ciphertext in the original format is migrated the next time the map is
+      updated.  This is enabled automatically when loading ciphertext which
+      already uses per-entry encryption.
+
+      @default <tt>false</tt>
+      @see #migrate()
+      */
+    Boolean per_entry = false
+
+    /**
+      The RSA-OAEP encrypted secret which was last unwrapped.
+      */
+    private transient String unwrappedCipher
+
+    /**
+      The AES secret unwrapped from <tt>unwrappedCipher</tt>.
+      */
+    private transient byte[] unwrappedSecret
+
+    /**
+      HMAC key derived from <tt>unwrappedSecret</tt> for naming entries.
+      */
+    private transient byte[] entryIdKey
+
+    /**
+      SHA-256 of each stored entry ciphertext used by the signed hash list.
+      */
+    private transient Map<String, String> entryDigests = [:]
+
+    /**
+      SHA-256 of each entry plaintext which is known to be stored.  Used to
+      skip encrypting unchanged entries.
+      */
+    private transient Map<String, String> plainDigests = [:]
+
     /**
       Instantiates a new CipherMap object with the given private key.  This is
       used for asymmetric encryption wrapping symmetric encryption.
@@ -182,6 +273,26 @@ class CipherMap implements Serializable {
         this(privateKey.text, hash_iterations)
     }
 
+    /**
+      Unwraps the RSA-OAEP encrypted AES secret.  The result is kept in memory
+      so RSA decryption only occurs when the secret changes.
+      @return Returns the AES secret.
+      */
+    private byte[] aesSecret() {
+        String encryptedSecret = this.hidden.cipher
+        if(encryptedSecret != this.unwrappedCipher) {
+            // Decrypt the RSA-wrapped AES secret using OAEP padding
+            rememberSecret(encryptedSecret, security.rsaDecryptBytesOaep(security.decodeBase64Bytes(encryptedSecret)))
+        }
+        this.unwrappedSecret
+    }
+
+    private void rememberSecret(String encryptedSecret, byte[] secret) {
+        this.unwrappedSecret = secret
+        this.entryIdKey = SecurityIO.hkdfSha256(secret, null, 'jervis ciphermap entry id'.getBytes('UTF-8'), 32)
+        this.unwrappedCipher = encryptedSecret
+    }
+
     /**
       Encrypts the data with AES-256-GCM authenticated encryption.
 
@@ -189,11 +300,8 @@ class CipherMap implements Serializable {
       @return Returns encrypted String.
       */
     private String encrypt(String data) {
-        String encryptedSecret = this.hidden.cipher
-        // Decrypt the RSA-wrapped AES secret using OAEP padding
-        byte[] aesSecret = security.rsaDecryptBytesOaep(security.decodeBase64Bytes(encryptedSecret))
         // Encrypt data with AES-256-GCM (nonce is generated automatically and prepended)
-        SecurityIO.encryptWithAES256GCMBase64(security.encodeBase64(aesSecret), data)
+        SecurityIO.encryptWithAES256GCMBase64(security.encodeBase64(aesSecret()), data)
     }
 
     /**
@@ -202,11 +310,60 @@ class CipherMap implements Serializable {
       @return Returns the plaintext data.
       */
     private String decrypt(String data) {
-        String encryptedSecret = this.hidden.cipher
-        // Decrypt the RSA-wrapped AES secret using OAEP padding
-        byte[] aesSecret = security.rsaDecryptBytesOaep(security.decodeBase64Bytes(encryptedSecret))
         // Decrypt data with AES-256-GCM
-        SecurityIO.decryptWithAES256GCMBase64(security.encodeBase64(aesSecret), data)
+        SecurityIO.decryptWithAES256GCMBase64(security.encodeBase64(aesSecret()), data)
+    }
+
+    /**
+      Calculates the name an entry is stored under so that keys are not
+      stored in plain text.
+      @param key A key of the plain map.
+      @return Returns a Base64Url HMAC-SHA-256 of the key.
+      */
+    private String entryId(def key) {
+        aesSecret()
+        Mac mac = Mac.getInstance('HmacSHA256')
+        mac.init(new SecretKeySpec(this.entryIdKey, 'HmacSHA256'))
+        SecurityIO.encodeBase64Url(mac.doFinal(String.valueOf(key).getBytes('UTF-8')))
+    }
+
+    /**
+      Serializes a single entry of the plain map.
+      */
+    private String entryYaml(def key, def value) {
+        YamlOperator.writeObjToYaml([key: key, value: value])
+    }
+
+    /**
+      Encrypts and stores a single entry.
+      */
+    private void storeEntry(String id, String yaml) {
+        String data = encrypt(yaml)
+        this.hidden.entries[id] = data
+        this.entryDigests[id] = SecurityIO.sha256Sum(data)
+        this.plainDigests[id] = SecurityIO.sha256Sum(yaml)
+        this.hidden.signature = ''
+    }
+
+    /**
+      Decrypts a single stored entry.
+      @return Returns a Map with <tt>key</tt> and <tt>value</tt>.
+      */
+    private Map decryptEntry(String id) throws DecryptException {
+        String yaml = decrypt(this.hidden.entries[id])
+        Map entry = YamlOperator.loadYamlFrom(yaml)
+        if(entryId(entry.key) != id) {
+            throw new DecryptException('CipherMap entry is stored under the wrong name.')
+        }
+        this.plainDigests[id] = SecurityIO.sha256Sum(yaml)
+        entry
+    }
+
+    /**
+      Returns <tt>true</tt> if the hidden map stores entries separately.
+      */
+    private Boolean isEntriesFormat() {
+        this.hidden?.version == ENTRIES_VERSION
     }
 
     /**
@@ -216,11 +373,59 @@ class CipherMap implements Serializable {
         [obj.age, obj.cipher, obj.data].join('\n')
     }
 
+    /**
+      Returns a string meant for signing and verifying data stored per-entry.
+      Rather than signing every entry, a hash list of entry ciphertext is
+      signed.
+      */
+    private String signedEntries(Map obj, Map<String, String> digests) {
+        String hashList = digests.keySet().sort().collect { String id ->
+            [id, digests[id]].join(':')
+        }.join('\n')
+        [obj.version, obj.age, obj.cipher, SecurityIO.sha256Sum(hashList)].join('\n')
+    }
+
+    private Boolean verifyEntriesObj(Map obj) {
+        if(!(['version', 'age', 'cipher', 'entries', 'signature'] == obj.keySet().toList())) {
+            return false
+        }
+        if(obj.version != ENTRIES_VERSION) {
+            return false
+        }
+        Boolean typeCheck = [
+            obj.age,
+            obj.cipher,
+            obj.signature
+        ].every { it in String } && (obj.entries in Map) && obj.entries.every { k, v ->
+            (k in String) && (v in String)
+        }
+        if(!(typeCheck)) {
+            return false
+        }
+        Map<String, String> digests = obj.entries.collectEntries { String id, String data ->
+            [(id): SecurityIO.sha256Sum(data)]
+        }
+        // Data integrity check
+        try {
+            if(!security.verifyRS256Base64Url(obj.signature, signedEntries(obj, digests))) {
+                return false
+            }
+        }
+        catch(SignatureException ignored) {
+            return false
+        }
+        this.entryDigests = digests
+        true
+    }
+
     private Boolean verifyCipherObj(def obj) {
         // Strict type checking
         if(!(obj in Map)) {
             return false
         }
+        if(obj.containsKey('version')) {
+            return verifyEntriesObj(obj)
+        }
         if(!(['age', 'cipher', 'data', 'signature'] == obj.keySet().toList())) {
             return false
         }
@@ -249,17 +454,43 @@ class CipherMap implements Serializable {
       */
     private String newCipher() {
         // Generate a 32-byte (256-bit) random AES secret
+        byte[] secret = SecurityIO.randomBytes(32)
         // Use OAEP padding for RSA encryption to prevent Bleichenbacher attacks
-        security.encodeBase64(security.rsaEncryptBytesOaep(SecurityIO.randomBytes(32)))
+        String encryptedSecret = security.encodeBase64(security.rsaEncryptBytesOaep(secret))
+        rememberSecret(encryptedSecret, secret)
+        encryptedSecret
     }
 
+    /**
+      Initializes the hidden map in the format selected by <tt>per_entry</tt>.
+      The secret and its age are kept when switching formats so migrating
+      does not require a new secret.
+      */
     private void initialize() {
-        this.hidden = [
-            age: '',
-            cipher: '',
-            data: '',
-            signature: ''
-        ]
+        Map previous = this.hidden
+        if(this.per_entry) {
+            this.hidden = [
+                version: ENTRIES_VERSION,
+                age: '',
+                cipher: '',
+                entries: [:],
+                signature: ''
+            ]
+        }
+        else {
+            this.hidden = [
+                age: '',
+                cipher: '',
+                data: '',
+                signature: ''
+            ]
+        }
+        this.entryDigests = [:]
+        this.plainDigests = [:]
+        if(previous?.cipher in String) {
+            this.hidden.age = previous.age
+            this.hidden.cipher = previous.cipher
+        }
     }
 
     /**
@@ -286,13 +517,35 @@ class CipherMap implements Serializable {
       @param input A <tt>String</tt> to load or a <tt>CipherMap</tt> to append.
       */
     void leftShift(def input) throws JervisException {
+        MetricsSpan span = Metrics.startSpan('jervis.ciphermap', [operation: 'leftShift'])
+        try {
+            leftShiftInternal(input)
+        }
+        catch(Throwable e) {
+            span.error(e)
+            throw e
+        }
+        finally {
+            span.close()
+        }
+    }
+
+    private void leftShiftInternal(def input) throws JervisException {
         if(![String, CipherMap].any { input in it }) {
             throw new JervisException("Cannot leftShift type ${input.getClass()}")
         }
         if(input in CipherMap) {
+            if(this.per_entry) {
+                // only the appended entries are encrypted
+                input.plainMap.each { k, v ->
+                    put(k, v)
+                }
+                return
+            }
             setPlainMap(getPlainMap() + input.plainMap)
             return
         }
+        this.plainDigests = [:]
         def parsedObj = YamlOperator.loadYamlFrom(input)
         if(!verifyCipherObj(parsedObj)) {
             // wipe the data since leftShift should overwrite
@@ -300,15 +553,20 @@ class CipherMap implements Serializable {
             return
         }
         this.hidden = parsedObj
+        if(isEntriesFormat()) {
+            this.per_entry = true
+        }
     }
 
-    private void rotateSecrets() {
-        if(!this.hidden) {
-            initialize()
-        }
+    /**
+      Checks the age of the AES secret.
+      @return Returns <tt>true</tt> if the secret is missing or older than
+              <tt>rotate_time_limit</tt>.
+      */
+    private Boolean isSecretExpired() {
         Long age
         try {
-            age = (this.hidden.age) ? Instant.parse(decrypt(this.hidden.age)).epochSecond : 0
+            age = (this.hidden?.age) ? Instant.parse(decrypt(this.hidden.age)).epochSecond : 0
         }
         catch(BadPaddingException|DateTimeParseException ignored) {
             age = 0
@@ -316,11 +574,28 @@ class CipherMap implements Serializable {
         if(age) {
             Long now = Instant.now().epochSecond
             if((now - age) < this.rotate_time_limit) {
-                return
+                return false
             }
         }
+        true
+    }
+
+    /**
+      Rotates the AES secret if it is too old.  If the format selected by
+      <tt>per_entry</tt> differs from the hidden map, then the hidden map is
+      initialized in the selected format.
+      @return Returns <tt>true</tt> if the secret was rotated.
+      */
+    private Boolean rotateSecrets() {
+        if(!this.hidden || (this.per_entry != isEntriesFormat())) {
+            initialize()
+        }
+        if(!isSecretExpired()) {
+            return false
+        }
         this.hidden.cipher = newCipher()
         this.hidden.age = encrypt(Instant.now().toString())
+        true
     }
 
     /**
@@ -335,23 +610,210 @@ class CipherMap implements Serializable {
                  java classes.
       */
     void setPlainMap(Map obj) {
+        MetricsSpan span = Metrics.startSpan('jervis.ciphermap', [operation: 'setPlainMap'])
+        try {
+            setPlainMapInternal(obj)
+        }
+        catch(Throwable e) {
+            span.error(e)
+            throw e
+        }
+        finally {
+            span.close()
+        }
+    }
+
+    private void setPlainMapInternal(Map obj) {
+        if(this.per_entry) {
+            setPlainEntries(obj)
+            return
+        }
         rotateSecrets()
         this.hidden.data = encrypt(YamlOperator.writeObjToYaml([secure_field: obj]))
         this.hidden.signature = security.signRS256Base64Url(signedData(this.hidden))
     }
 
+    /**
+      Stores every entry of a map encrypted separately.  Entries which are
+      already stored with the same value are not encrypted again.
+      */
+    private void setPlainEntries(Map obj) {
+        if(rotateSecrets()) {
+            // every entry must be encrypted with the new secret
+            this.hidden.entries = [:]
+            this.entryDigests = [:]
+            this.plainDigests = [:]
+        }
+        Map previous = this.hidden.entries
+        this.hidden.entries = [:]
+        Map<String, String> digests = [:]
+        obj.each { k, v ->
+            String id = entryId(k)
+            String yaml = entryYaml(k, v)
+            if(previous[id] && this.plainDigests[id] == SecurityIO.sha256Sum(yaml)) {
+                this.hidden.entries[id] = previous[id]
+                digests[id] = this.entryDigests[id]
+            }
+            else {
+                storeEntry(id, yaml)
+                digests[id] = this.entryDigests[id]
+            }
+        }
+        this.entryDigests = digests
+        this.plainDigests = this.plainDigests.findAll { id, digest ->
+            id in digests
+        }
+        this.hidden.signature = ''
+    }
+
     /**
       Decrypts the encrypted map and returns the object.
 
       @returns A map consisting of standard java class objects.
       */
     Map getPlainMap() {
+        MetricsSpan span = Metrics.startSpan('jervis.ciphermap', [operation: 'getPlainMap'])
+        try {
+            return getPlainMapInternal()
+        }
+        catch(Throwable e) {
+            span.error(e)
+            throw e
+        }
+        finally {
+            span.close()
+        }
+    }
+
+    private Map getPlainMapInternal() {
+        if(isEntriesFormat()) {
+            return this.hidden.entries.keySet().toList().collectEntries { String id ->
+                Map entry = decryptEntry(id)
+                [(entry.key): entry.value]
+            }
+        }
         if(!hidden?.data) {
             return [:]
         }
         YamlOperator.loadYamlFrom(decrypt(this.hidden.data)).secure_field
     }
 
+    /**
+      Decrypts a single value without decrypting the rest of the map when
+      entries are encrypted separately.
+
+      @param key A key of the plain map.
+      @return Returns the value or <tt>null</tt> if the key does not exist.
+      */
+    def get(Object key) {
+        MetricsSpan span = Metrics.startSpan('jervis.ciphermap', [operation: 'get'])
+        try {
+            return getInternal(key)
+        }
+        catch(Throwable e) {
+            span.error(e)
+            throw e
+        }
+        finally {
+            span.close()
+        }
+    }
+
+    private def getInternal(Object key) {
+        if(!isEntriesFormat()) {
+            return getPlainMap()[key]
+        }
+        String id = entryId(key)
+        if(!this.hidden.entries[id]) {
+            return null
+        }
+        decryptEntry(id).value
+    }
+
+    /**
+      Encrypts and stores a single value without encrypting the rest of the
+      map.  Ciphertext in the original format is migrated first.  If the AES
+      secret is due for rotation, then all entries are encrypted with a new
+      secret.
+
+      @see #migrate()
+      @param key A key of the plain map.
+      @param value The plain java object to be encrypted.  It must only
+                   consist of standard java classes.
+      */
+    void put(Object key, Object value) {
+        MetricsSpan span = Metrics.startSpan('jervis.ciphermap', [operation: 'put'])
+        try {
+            putInternal(key, value)
+        }
+        catch(Throwable e) {
+            span.error(e)
+            throw e
+        }
+        finally {
+            span.close()
+        }
+    }
+
+    private void putInternal(Object key, Object value) {
+        migrate()
+        if(isSecretExpired()) {
+            Map plain = getPlainMap()
+            plain[key] = value
+            setPlainEntries(plain)
+            return
+        }
+        storeEntry(entryId(key), entryYaml(key, value))
+    }
+
+    /**
+      Removes a single entry without decrypting the rest of the map.
+      Ciphertext in the original format is migrated first.
+
+      @see #migrate()
+      @param key A key of the plain map.
+      @return Returns <tt>true</tt> if an entry was removed.
+      */
+    Boolean remove(Object key) {
+        MetricsSpan span = Metrics.startSpan('jervis.ciphermap', [operation: 'remove'])
+        try {
+            return removeInternal(key)
+        }
+        catch(Throwable e) {
+            span.error(e)
+            throw e
+        }
+        finally {
+            span.close()
+        }
+    }
+
+    private Boolean removeInternal(Object key) {
+        migrate()
+        String id = entryId(key)
+        if(!this.hidden.entries.containsKey(id)) {
+            return false
+        }
+        this.hidden.entries.remove(id)
+        this.entryDigests.remove(id)
+        this.plainDigests.remove(id)
+        this.hidden.signature = ''
+        true
+    }
+
+    /**
+      Converts the hidden map to per-entry encryption and enables
+      <tt>{@link #per_entry}</tt>.  The existing AES secret is kept.  Does
+      nothing if entries are already encrypted separately.
+      */
+    void migrate() {
+        this.per_entry = true
+        if(isEntriesFormat()) {
+            return
+        }
+        setPlainEntries(getPlainMap())
+    }
+
     /**
       Returns an encrypted object as text meant for storing at rest.
 
@@ -360,6 +822,17 @@ age: AES-GCM encrypted timestamp
 cipher: RSA-OAEP encrypted AES-256 secret
 data: AES-GCM encrypted data (with nonce prepended)
 signature: RS256 Base64URL signature.
+</code></pre>
+
+      <p>When entries are encrypted separately the format is the following.</p>
+
+<pre><code>
+version: '2'
+age: AES-GCM encrypted timestamp
+cipher: RSA-OAEP encrypted AES-256 secret
+entries:
+  HMAC of key: AES-GCM encrypted key and value
+signature: RS256 Base64URL signature of a hash list of entries.
 </code></pre>
 
       @see #getPlainMap()
@@ -367,6 +840,9 @@ signature: RS256 Base64URL signature.
       @return Returns encrypted ciphertext.
       */
     String toString() {
+        if(isEntriesFormat() && !this.hidden.signature) {
+            this.hidden.signature = security.signRS256Base64Url(signedEntries(this.hidden, this.entryDigests))
+        }
         YamlOperator.writeObjToYaml(this.hidden)
     }
 }
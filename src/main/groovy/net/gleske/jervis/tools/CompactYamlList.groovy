@@ -0,0 +1,82 @@
+/*
+   Copyright 2014-2026 Sam Gleske - https://github.com/samrocketman/jervis
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+   */
+package net.gleske.jervis.tools
+
+/**
+  A read-only <tt>List</tt> created by
+  <tt>{@link net.gleske.jervis.tools.YamlOperator#compact(java.lang.Object)}</tt>.
+  Items are stored in an array sized exactly to the number of items.
+
+  <p>Any attempt to modify the list throws an
+  <tt>{@link java.lang.UnsupportedOperationException}</tt>.  Use
+  <tt>{@link net.gleske.jervis.tools.YamlOperator#deepCopy(java.lang.Object)}</tt>
+  to get a modifiable copy.</p>
+  */
+class CompactYamlList extends AbstractList<Object> implements RandomAccess, Serializable {
+    private static final long serialVersionUID = 1L
+
+    private final Object[] items
+    private transient int hash
+
+    /**
+      Create a read-only list.  The array is used as-is and must not be
+      modified afterwards.  Normally, this is only called by
+      <tt>{@link net.gleske.jervis.tools.YamlOperator#compact(java.lang.Object)}</tt>.
+
+      @param items List items in order.
+      */
+    CompactYamlList(Object[] items) {
+        this.items = items
+    }
+
+    @Override
+    Object get(int i) {
+        items[i]
+    }
+
+    @Override
+    int size() {
+        items.length
+    }
+
+    /**
+      The hash code is calculated once because compact lists are immutable
+      and are frequently used as keys when sharing identical YAML.
+      */
+    @Override
+    int hashCode() {
+        int h = hash
+        if(h == 0) {
+            h = 1
+            for(int i = 0; i < items.length; i++) {
+                h = 31 * h + Objects.hashCode(items[i])
+            }
+            hash = h
+        }
+        h
+    }
+
+    @Override
+    boolean equals(Object o) {
+        if(this.is(o)) {
+            return true
+        }
+        if((o instanceof CompactYamlList) && (hashCode() != o.hashCode())) {
+            return false
+        }
+        super.equals(o)
+    }
+}
@@ -0,0 +1,218 @@
+/*
+   Copyright 2014-2026 Sam Gleske - https://github.com/samrocketman/jervis
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+   */
+package net.gleske.jervis.tools
+
+/**
+  A read-only <tt>Map</tt> created by
+  <tt>{@link net.gleske.jervis.tools.YamlOperator#compact(java.lang.Object)}</tt>.
+  Keys and values are stored in two arrays in their original order rather
+  than one <tt>LinkedHashMap</tt> entry object per key.  Maps with more than
+  <tt>{@link #INDEX_THRESHOLD}</tt> keys also keep a small open addressing
+  index of array positions so lookups do not scan every key.
+
+  <p>Any attempt to modify the map throws an
+  <tt>{@link java.lang.UnsupportedOperationException}</tt>.  Use
+  <tt>{@link net.gleske.jervis.tools.YamlOperator#deepCopy(java.lang.Object)}</tt>
+  to get a modifiable copy.</p>
+  */
+class CompactYamlMap extends AbstractMap<Object, Object> implements Serializable {
+    private static final long serialVersionUID = 1L
+
+    /**
+      Maps with more keys than this are looked up through an index instead of
+      comparing every key.
+      */
+    static final int INDEX_THRESHOLD = 8
+
+    private final Object[] keys
+    private final Object[] values
+    private transient int[] index
+    private transient int hash
+    private transient Set<Map.Entry<Object, Object>> entries
+
+    /**
+      Create a read-only map.  The arrays are used as-is and must not be
+      modified afterwards.  Normally, this is only called by
+      <tt>{@link net.gleske.jervis.tools.YamlOperator#compact(java.lang.Object)}</tt>.
+
+      @param keys Map keys in iteration order.
+      @param values Map values in the same order as <tt>keys</tt>.
+      */
+    CompactYamlMap(Object[] keys, Object[] values) {
+        if(keys.length != values.length) {
+            throw new IllegalArgumentException("Got ${keys.length} keys but ${values.length} values.")
+        }
+        this.keys = keys
+        this.values = values
+        this.index = buildIndex(keys)
+    }
+
+    private static int spread(Object key) {
+        int h = Objects.hashCode(key)
+        h ^ (h >>> 16)
+    }
+
+    private static int[] buildIndex(Object[] keys) {
+        if(keys.length <= INDEX_THRESHOLD) {
+            return null
+        }
+        // load factor is at most one half so probing stays short
+        int size = Integer.highestOneBit(keys.length * 2 - 1) << 1
+        int[] table = new int[size]
+        int mask = size - 1
+        for(int i = 0; i < keys.length; i++) {
+            int slot = spread(keys[i]) & mask
+            while(table[slot] != 0) {
+                slot = (slot + 1) & mask
+            }
+            // zero means empty so positions are stored plus one
+            table[slot] = i + 1
+        }
+        table
+    }
+
+    private int indexOf(Object key) {
+        if(index == null) {
+            for(int i = 0; i < keys.length; i++) {
+                if(Objects.equals(keys[i], key)) {
+                    return i
+                }
+            }
+            return -1
+        }
+        int mask = index.length - 1
+        int slot = spread(key) & mask
+        while(index[slot] != 0) {
+            int i = index[slot] - 1
+            if(Objects.equals(keys[i], key)) {
+                return i
+            }
+            slot = (slot + 1) & mask
+        }
+        -1
+    }
+
+    @Override
+    Object get(Object key) {
+        int i = indexOf(key)
+        (i < 0) ? null : values[i]
+    }
+
+    @Override
+    boolean containsKey(Object key) {
+        indexOf(key) >= 0
+    }
+
+    @Override
+    int size() {
+        keys.length
+    }
+
+    @Override
+    boolean isEmpty() {
+        keys.length == 0
+    }
+
+    @Override
+    Set<Map.Entry<Object, Object>> entrySet() {
+        if(entries == null) {
+            entries = new EntrySet(keys, values)
+        }
+        entries
+    }
+
+    /**
+      The hash code is calculated once because compact maps are immutable and
+      are frequently used as keys when sharing identical YAML.
+      */
+    @Override
+    int hashCode() {
+        int h = hash
+        if(h == 0) {
+            for(int i = 0; i < keys.length; i++) {
+                h += Objects.hashCode(keys[i]) ^ Objects.hashCode(values[i])
+            }
+            hash = h
+        }
+        h
+    }
+
+    @Override
+    boolean equals(Object o) {
+        if(this.is(o)) {
+            return true
+        }
+        if((o instanceof CompactYamlMap) && (hashCode() != o.hashCode())) {
+            return false
+        }
+        super.equals(o)
+    }
+
+    private void readObject(ObjectInputStream input) throws IOException, ClassNotFoundException {
+        input.defaultReadObject()
+        this.index = buildIndex(keys)
+    }
+
+    private static class EntrySet extends AbstractSet<Map.Entry<Object, Object>> {
+        private final Object[] keys
+        private final Object[] values
+
+        EntrySet(Object[] keys, Object[] values) {
+            this.keys = keys
+            this.values = values
+        }
+
+        @Override
+        int size() {
+            keys.length
+        }
+
+        @Override
+        Iterator<Map.Entry<Object, Object>> iterator() {
+            new EntryIterator(keys, values)
+        }
+    }
+
+    private static class EntryIterator implements Iterator<Map.Entry<Object, Object>> {
+        private final Object[] keys
+        private final Object[] values
+        private int position = 0
+
+        EntryIterator(Object[] keys, Object[] values) {
+            this.keys = keys
+            this.values = values
+        }
+
+        @Override
+        boolean hasNext() {
+            position < keys.length
+        }
+
+        @Override
+        Map.Entry<Object, Object> next() {
+            if(position >= keys.length) {
+                throw new NoSuchElementException()
+            }
+            int i = position++
+            new AbstractMap.SimpleImmutableEntry<Object, Object>(keys[i], values[i])
+        }
+
+        @Override
+        void remove() {
+            throw new UnsupportedOperationException('Compact YAML is read-only.')
+        }
+    }
+}
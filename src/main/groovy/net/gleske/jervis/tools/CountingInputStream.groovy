@@ -0,0 +1,103 @@
+/*
+   Copyright 2014-2026 Sam Gleske - https://github.com/samrocketman/jervis
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+   */
+package net.gleske.jervis.tools
+
+/**
+  Wraps an <tt>{@link java.io.InputStream}</tt> and counts the bytes which
+  are read from it.  Reads are passed straight to the wrapped stream without
+  additional buffering.  This is the read side of
+  <tt>{@link net.gleske.jervis.tools.CountingOutputStream}</tt>.
+
+  <h2>Sample usage</h2>
+  <p>To run this example, clone Jervis and execute <tt>./gradlew console</tt>
+  to bring up a <a href="http://groovy-lang.org/groovyconsole.html" target="_blank">Groovy Console</a>
+  with the classpath set up.</p>
+
+<pre><code>
+import java.util.zip.GZIPInputStream
+import net.gleske.jervis.tools.CountingInputStream
+import net.gleske.jervis.tools.GZip
+
+ByteArrayOutputStream compressed = new ByteArrayOutputStream()
+new GZip(compressed).withCloseable {
+    it &lt;&lt; 'hello world\n' * 100
+}
+CountingInputStream wire = new CountingInputStream(new ByteArrayInputStream(compressed.toByteArray()))
+CountingInputStream plain = new CountingInputStream(new GZIPInputStream(wire))
+assert plain.text.size() == 1200
+assert plain.count == 1200
+assert wire.count == compressed.size()
+</code></pre>
+  */
+class CountingInputStream extends FilterInputStream {
+
+    /**
+      The total number of bytes read from the wrapped stream.
+      */
+    private long count = 0
+
+    /**
+      Wraps an <tt>{@link java.io.InputStream}</tt> in order to count bytes
+      read.
+
+      @param is An <tt>InputStream</tt> which will be read.
+      */
+    CountingInputStream(InputStream is) {
+        super(is)
+    }
+
+    /**
+      Get the total number of bytes read so far.
+      @return Number of bytes read from the wrapped stream.
+      */
+    long getCount() {
+        this.count
+    }
+
+    @Override
+    int read() throws IOException {
+        int b = super.read()
+        if(b >= 0) {
+            this.count++
+        }
+        b
+    }
+
+    @Override
+    int read(byte[] b, int off, int len) throws IOException {
+        int read = super.read(b, off, len)
+        if(read > 0) {
+            this.count += read
+        }
+        read
+    }
+
+    @Override
+    long skip(long n) throws IOException {
+        long skipped = super.skip(n)
+        this.count += skipped
+        skipped
+    }
+
+    /**
+      Marking is not supported because bytes read again after a reset would
+      be counted twice.
+      */
+    @Override
+    boolean markSupported() {
+        false
+    }
+}
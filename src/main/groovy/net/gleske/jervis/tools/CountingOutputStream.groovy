@@ -0,0 +1,123 @@
+/*
+   Copyright 2014-2026 Sam Gleske - https://github.com/samrocketman/jervis
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+   */
+package net.gleske.jervis.tools
+
+/**
+  Wraps an <tt>{@link java.io.OutputStream}</tt> and counts the bytes which
+  pass through it.  Writes are passed straight to the wrapped stream without
+  additional buffering so that a slow destination, such as a network socket,
+  naturally slows down the writer.  Optionally, a progress <tt>Closure</tt> is
+  called with the total byte count after every write.
+
+  <h2>Sample usage</h2>
+  <p>To run this example, clone Jervis and execute <tt>./gradlew console</tt>
+  to bring up a <a href="http://groovy-lang.org/groovyconsole.html" target="_blank">Groovy Console</a>
+  with the classpath set up.</p>
+
+<pre><code>
+import net.gleske.jervis.tools.CountingOutputStream
+import net.gleske.jervis.tools.GZip
+
+ByteArrayOutputStream compressed = new ByteArrayOutputStream()
+CountingOutputStream wire = new CountingOutputStream(compressed)
+Closure progress = { Long bytes -&gt;
+    println "${bytes} bytes written"
+}
+CountingOutputStream plain = new CountingOutputStream(new GZip(wire), progress)
+plain.withCloseable {
+    it &lt;&lt; 'hello world\n'.bytes
+}
+assert plain.count == 12
+assert wire.count == compressed.size()
+</code></pre>
+  */
+class CountingOutputStream extends OutputStream {
+
+    /**
+      The wrapped stream which receives all writes.
+      */
+    private final OutputStream os
+
+    /**
+      The total number of bytes written to the wrapped stream.
+      */
+    private long count = 0
+
+    /**
+      An optional callback which receives the total number of bytes written
+      after every write.
+      */
+    private final Closure progress
+
+    /**
+      Wraps an <tt>{@link java.io.OutputStream}</tt> in order to count bytes
+      written.
+
+      @param os An <tt>OutputStream</tt> which will receive all bytes written.
+      @param progress An optional <tt>Closure</tt> called with a <tt>Long</tt>
+                      total number of bytes written after every write.
+      */
+    CountingOutputStream(OutputStream os, Closure progress = null) {
+        this.os = os
+        this.progress = progress
+    }
+
+    /**
+      Get the total number of bytes written so far.
+      @return Number of bytes written to the wrapped stream.
+      */
+    long getCount() {
+        this.count
+    }
+
+    @Override
+    void write(int b) throws IOException {
+        this.os.write(b)
+        added(1)
+    }
+
+    /**
+      Writes a slice of a byte array directly to the wrapped stream instead of
+      one byte at a time.
+      */
+    @Override
+    void write(byte[] b, int off, int len) throws IOException {
+        this.os.write(b, off, len)
+        added(len)
+    }
+
+    @Override
+    void write(byte[] b) throws IOException {
+        write(b, 0, b.length)
+    }
+
+    @Override
+    void flush() throws IOException {
+        this.os.flush()
+    }
+
+    @Override
+    void close() throws IOException {
+        this.os.close()
+    }
+
+    private void added(int len) {
+        this.count += len
+        if(this.progress) {
+            this.progress(this.count)
+        }
+    }
+}
@@ -0,0 +1,67 @@
+/*
+   Copyright 2014-2026 Sam Gleske - https://github.com/samrocketman/jervis
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+   */
+package net.gleske.jervis.tools
+
+import java.util.concurrent.ThreadFactory
+
+/**
+  Creates named daemon threads for the thread pools used throughout Jervis.
+  Daemon threads never keep the JVM running after a script or pipeline has
+  finished, even when a pool was not shut down.
+
+  <h2>Sample usage</h2>
+  <p>To run this example, clone Jervis and execute <tt>./gradlew console</tt>
+  to bring up a <a href="http://groovy-lang.org/groovyconsole.html" target="_blank">Groovy Console</a>
+  with the classpath set up.</p>
+
+<pre><code>
+import java.util.concurrent.ExecutorService
+import java.util.concurrent.Executors
+import net.gleske.jervis.tools.DaemonThreadFactory
+
+ExecutorService pool = Executors.newFixedThreadPool(2, new DaemonThreadFactory('example'))
+assert pool.submit({-&gt; Thread.currentThread().name } as java.util.concurrent.Callable).get() == 'example'
+pool.shutdown()
+</code></pre>
+  */
+class DaemonThreadFactory implements ThreadFactory {
+
+    /**
+      The name given to every thread created by this factory.
+      */
+    final String name
+
+    /**
+      Creates a factory for daemon threads.
+
+      @param name The name given to every thread created by this factory.
+      */
+    DaemonThreadFactory(String name) {
+        this.name = name
+    }
+
+    /**
+      Creates a daemon thread named <tt>{@link #name}</tt>.
+
+      @param r The task the new thread will run.
+      @return A daemon thread which has not been started.
+      */
+    Thread newThread(Runnable r) {
+        Thread t = new Thread(r, this.name)
+        t.daemon = true
+        t
+    }
+}
@@ -70,6 +70,7 @@ new LockableFile('/path/to/file').withLock { ->
     void withLock(Closure body) {
         FileLock lock
         final RandomAccessFile fileaccess = new RandomAccessFile(getAbsoluteFile(), 'rw')
+        MetricsSpan lockWait = Metrics.startSpan('jervis.lockablefile.wait')
         try {
             // A do-while loop
             while({ ->
@@ -82,8 +83,10 @@ new LockableFile('/path/to/file').withLock { ->
             }()) {
                 sleep(new Random().nextInt(this.lockWaitSleep))
             }
+            lockWait.close()
             body()
         } finally {
+            lockWait.close()
             lock?.close()
             fileaccess.close()
         }
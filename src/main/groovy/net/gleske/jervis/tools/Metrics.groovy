@@ -0,0 +1,211 @@
+/*
+   Copyright 2014-2026 Sam Gleske - https://github.com/samrocketman/jervis
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+   */
+package net.gleske.jervis.tools
+
+import net.gleske.jervis.tools.interfaces.MetricsListener
+
+/**
+  A lightweight instrumentation API for counters, histograms, and spans
+  without any dependencies.  Jervis reports timings for HTTP requests,
+  generator phases, encryption, and file locks through this class.  Metrics
+  are disabled by default; setting a
+  <tt>{@link net.gleske.jervis.tools.interfaces.MetricsListener}</tt> enables
+  them.  While disabled, every method returns immediately and spans are a
+  shared no-op instance.
+
+  <h2>Instrumented operations</h2>
+  <table>
+  <tr><th>Span name</th><th>Tags</th></tr>
+  <tr><td><tt>jervis.http.request</tt></td><td><tt>host</tt>, <tt>method</tt>, <tt>status</tt></td></tr>
+  <tr><td><tt>jervis.generator</tt></td><td><tt>phase</tt></td></tr>
+  <tr><td><tt>jervis.ciphermap</tt></td><td><tt>operation</tt></td></tr>
+  <tr><td><tt>jervis.securityio</tt></td><td><tt>operation</tt></td></tr>
+  <tr><td><tt>jervis.lockablefile.wait</tt></td><td></td></tr>
+  </table>
+
+  <h2>Sample usage</h2>
+  <p>To run this example, clone Jervis and execute <tt>./gradlew console</tt>
+  to bring up a <a href="http://groovy-lang.org/groovyconsole.html" target="_blank">Groovy Console</a>
+  with the classpath set up.</p>
+
+<pre><code>
+import net.gleske.jervis.tools.Metrics
+import net.gleske.jervis.tools.MetricsRegistry
+import net.gleske.jervis.tools.YamlOperator
+
+MetricsRegistry registry = new MetricsRegistry()
+Metrics.listener = registry
+
+Metrics.count('example.events')
+Metrics.record('example.payload.bytes', [kind: 'yaml'], 1024)
+String yaml = Metrics.span('example.serialize') {
+    YamlOperator.writeObjToYaml([hello: 'world'])
+}
+
+// stop collecting metrics
+Metrics.listener = null
+
+registry.writePrometheus(new File('/tmp/jervis.prom'))
+registry.writeJson(new File('/tmp/jervis.json'))
+</code></pre>
+  */
+class Metrics {
+    private Metrics() {
+        throw new IllegalStateException('ERROR: This utility class only provides static methods and is not meant for instantiation.  See Java doc for this class for examples.')
+    }
+
+    private static volatile MetricsListener listener
+
+    private static final ThreadLocal<MetricsSpan> currentSpan = new ThreadLocal<MetricsSpan>()
+
+    /**
+      Sets the listener which receives all metrics.  Set to <tt>null</tt> to
+      disable metrics.
+
+      @param metricsListener A listener such as a
+                             <tt>{@link net.gleske.jervis.tools.MetricsRegistry}</tt>.
+      */
+    static void setListener(MetricsListener metricsListener) {
+        listener = metricsListener
+    }
+
+    /**
+      @return The listener which receives all metrics or <tt>null</tt> if
+              metrics are disabled.
+      */
+    static MetricsListener getListener() {
+        listener
+    }
+
+    /**
+      @return <tt>true</tt> if a listener is set.  Instrumentation which is
+              expensive to prepare should check this first.
+      */
+    static Boolean isEnabled() {
+        listener != null
+    }
+
+    /**
+      Increments a counter.
+
+      @param name The name of the counter.
+      @param tags Dimensions of the counter.
+      @param amount The amount to increment.
+      */
+    static void count(String name, Map tags = [:], long amount = 1) {
+        MetricsListener current = listener
+        if(current == null) {
+            return
+        }
+        current.count(name, stringTags(tags), amount)
+    }
+
+    /**
+      Records a value in a histogram.
+
+      @param name The name of the histogram.
+      @param tags Dimensions of the histogram.
+      @param value The value observed.
+      */
+    static void record(String name, Map tags = [:], double value) {
+        MetricsListener current = listener
+        if(current == null) {
+            return
+        }
+        current.record(name, stringTags(tags), value)
+    }
+
+    /**
+      Starts a span which is reported when it is closed.  Spans must be
+      closed on the thread which started them.
+
+      @param name The name of the operation.
+      @return A new span or a no-op span if metrics are disabled.
+      */
+    static MetricsSpan startSpan(String name) {
+        MetricsListener current = listener
+        if(current == null) {
+            return MetricsSpan.NOOP
+        }
+        MetricsSpan parent = currentSpan.get()
+        MetricsSpan span = new MetricsSpan(name, parent, { MetricsSpan finished ->
+            // restore the parent only if spans were closed in order
+            if(currentSpan.get()?.is(finished)) {
+                if(finished.parent == null) {
+                    currentSpan.remove()
+                }
+                else {
+                    currentSpan.set(finished.parent)
+                }
+            }
+            current.spanFinished(finished)
+        })
+        currentSpan.set(span)
+        span
+    }
+
+    /**
+      Starts a span with tags.
+
+      @see #startSpan(java.lang.String)
+      @param name The name of the operation.
+      @param tags Dimensions of the span.
+      @return A new span or a no-op span if metrics are disabled.
+      */
+    static MetricsSpan startSpan(String name, Map tags) {
+        MetricsSpan span = startSpan(name)
+        if(!span.is(MetricsSpan.NOOP)) {
+            tags.each { k, v ->
+                span.tag(k.toString(), v)
+            }
+        }
+        span
+    }
+
+    /**
+      Times a closure as a span.  Exceptions thrown by the closure are
+      recorded on the span and rethrown.
+
+      @param name The name of the operation.
+      @param tags Dimensions of the span.
+      @param body A closure which may optionally accept the
+                  <tt>{@link net.gleske.jervis.tools.MetricsSpan}</tt> in
+                  order to add tags.
+      @return The value returned by the closure.
+      */
+    static def span(String name, Map tags = [:], Closure body) {
+        MetricsSpan span = startSpan(name, tags)
+        try {
+            return (body.maximumNumberOfParameters == 0) ? body() : body(span)
+        }
+        catch(Throwable e) {
+            span.error(e)
+            throw e
+        }
+        finally {
+            span.close()
+        }
+    }
+
+    private static Map<String, String> stringTags(Map tags) {
+        if(!tags) {
+            return Collections.emptyMap()
+        }
+        tags.collectEntries { k, v ->
+            [(k.toString()): String.valueOf(v)]
+        }
+    }
+}
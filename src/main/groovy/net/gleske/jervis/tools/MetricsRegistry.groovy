@@ -0,0 +1,349 @@
+/*
+   Copyright 2014-2026 Sam Gleske - https://github.com/samrocketman/jervis
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+   */
+package net.gleske.jervis.tools
+
+import net.gleske.jervis.tools.interfaces.MetricsListener
+
+import groovy.json.JsonOutput
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.atomic.AtomicLong
+
+/**
+  An in-memory <tt>{@link net.gleske.jervis.tools.interfaces.MetricsListener}</tt>
+  which aggregates counters and histograms and keeps recently finished spans.
+  Metrics can be exported as JSON or the
+  <a href="https://prometheus.io/docs/instrumenting/exposition_formats/" target="_blank">Prometheus text format</a>.
+
+  <p>Finished spans are recorded in a histogram of seconds with the same name
+  and tags as the span.  Spans which recorded an error also increment a
+  counter named after the span with <tt>.errors</tt> appended.</p>
+
+  <h2>Sample usage</h2>
+  <p>To run this example, clone Jervis and execute <tt>./gradlew console</tt>
+  to bring up a <a href="http://groovy-lang.org/groovyconsole.html" target="_blank">Groovy Console</a>
+  with the classpath set up.</p>
+
+<pre><code>
+import net.gleske.jervis.remotes.SimpleRestService
+import net.gleske.jervis.tools.Metrics
+import net.gleske.jervis.tools.MetricsRegistry
+
+MetricsRegistry registry = new MetricsRegistry()
+Metrics.listener = registry
+SimpleRestService.apiFetch(new URL('https://api.github.com/rate_limit'))
+Metrics.listener = null
+
+println registry.toPrometheus()
+</code></pre>
+  */
+class MetricsRegistry implements MetricsListener {
+
+    /**
+      Default histogram bucket upper bounds.  Suitable for durations measured
+      in seconds.
+      */
+    static final List<Double> DEFAULT_BUCKETS = [0.001d, 0.005d, 0.01d, 0.025d, 0.05d, 0.1d, 0.25d, 0.5d, 1d, 2.5d, 5d, 10d].asImmutable()
+
+    /**
+      The number of recently finished spans kept for tracing.
+      */
+    final Integer spanLimit
+
+    private final double[] buckets
+    private final Map<List, AtomicLong> counters = new ConcurrentHashMap<List, AtomicLong>()
+    private final Map<List, Histogram> histograms = new ConcurrentHashMap<List, Histogram>()
+    private final ArrayDeque<Map> spans = new ArrayDeque<Map>()
+
+    /**
+      A histogram with fixed buckets.
+      */
+    private static class Histogram {
+        final long[] bucketCounts
+        long count = 0
+        double sum = 0
+        double min = Double.POSITIVE_INFINITY
+        double max = Double.NEGATIVE_INFINITY
+
+        Histogram(int size) {
+            bucketCounts = new long[size]
+        }
+
+        synchronized void add(double[] bounds, double value) {
+            for(int i = 0; i < bounds.length; i++) {
+                if(value <= bounds[i]) {
+                    bucketCounts[i]++
+                    break
+                }
+            }
+            count++
+            sum += value
+            min = Math.min(min, value)
+            max = Math.max(max, value)
+        }
+
+        synchronized Map snapshot() {
+            List<Long> cumulative = []
+            long total = 0
+            for(int i = 0; i < bucketCounts.length; i++) {
+                total += bucketCounts[i]
+                cumulative << total
+            }
+            [
+                count: count,
+                sum: sum,
+                min: count ? min : 0d,
+                max: count ? max : 0d,
+                buckets: cumulative
+            ]
+        }
+    }
+
+    /**
+      Creates a registry.
+
+      @param buckets Histogram bucket upper bounds in ascending order.
+      @param spanLimit The number of recently finished spans to keep.
+      */
+    MetricsRegistry(List<Number> buckets = DEFAULT_BUCKETS, Integer spanLimit = 1000) {
+        if(!buckets || buckets != buckets.sort(false)) {
+            throw new IllegalArgumentException('Histogram buckets must be a non-empty ascending list.')
+        }
+        if(spanLimit < 0) {
+            throw new IllegalArgumentException("Span limit must not be negative but got ${spanLimit}.")
+        }
+        this.buckets = buckets*.doubleValue() as double[]
+        this.spanLimit = spanLimit
+    }
+
+    @Override
+    void count(String name, Map<String, String> tags, long amount) {
+        List key = [name, new TreeMap(tags)]
+        AtomicLong counter = counters[key]
+        if(counter == null) {
+            counters.putIfAbsent(key, new AtomicLong())
+            counter = counters[key]
+        }
+        counter.addAndGet(amount)
+    }
+
+    @Override
+    void record(String name, Map<String, String> tags, double value) {
+        List key = [name, new TreeMap(tags)]
+        Histogram histogram = histograms[key]
+        if(histogram == null) {
+            histograms.putIfAbsent(key, new Histogram(buckets.length))
+            histogram = histograms[key]
+        }
+        histogram.add(buckets, value)
+    }
+
+    @Override
+    void spanFinished(MetricsSpan span) {
+        record(span.name, span.tags, span.durationNanos / 1000000000.0d)
+        if(span.error) {
+            count(span.name + '.errors', span.tags, 1)
+        }
+        if(!spanLimit) {
+            return
+        }
+        Map finished = [
+            name: span.name,
+            parent: span.parent?.name,
+            tags: span.tags,
+            duration_seconds: span.durationNanos / 1000000000.0d,
+            error: span.error?.getClass()?.name
+        ]
+        synchronized(spans) {
+            spans.addLast(finished)
+            while(spans.size() > spanLimit) {
+                spans.removeFirst()
+            }
+        }
+    }
+
+    /**
+      Get the current value of a counter.
+
+      @param name The name of the counter.
+      @param tags Dimensions of the counter.
+      @return The counter value or <tt>0</tt> if it has not been incremented.
+      */
+    long getCounter(String name, Map tags = [:]) {
+        counters[[name, new TreeMap(stringTags(tags))]]?.get() ?: 0
+    }
+
+    /**
+      Get a snapshot of a histogram.
+
+      @param name The name of the histogram.
+      @param tags Dimensions of the histogram.
+      @return A <tt>Map</tt> with <tt>count</tt>, <tt>sum</tt>, <tt>min</tt>,
+              <tt>max</tt>, and cumulative <tt>buckets</tt>.  Returns
+              <tt>null</tt> if nothing was recorded.
+      */
+    Map getHistogram(String name, Map tags = [:]) {
+        Histogram histogram = histograms[[name, new TreeMap(stringTags(tags))]]
+        histogram ? snapshot(histogram) : null
+    }
+
+    /**
+      @return A list of recently finished spans, oldest first.
+      */
+    List<Map> getSpans() {
+        synchronized(spans) {
+            spans.toList()
+        }
+    }
+
+    /**
+      Removes all metrics and spans.
+      */
+    void reset() {
+        counters.clear()
+        histograms.clear()
+        synchronized(spans) {
+            spans.clear()
+        }
+    }
+
+    /**
+      Exports all metrics and recent spans as JSON.
+
+      @return A JSON <tt>String</tt>.
+      */
+    String toJson() {
+        Map result = [
+            counters: sortedKeys(counters).collect { List key ->
+                [name: key[0], tags: key[1], value: counters[key].get()]
+            },
+            histograms: sortedKeys(histograms).collect { List key ->
+                [name: key[0], tags: key[1]] + snapshot(histograms[key])
+            },
+            spans: getSpans()
+        ]
+        JsonOutput.prettyPrint(JsonOutput.toJson(result))
+    }
+
+    /**
+      Exports all counters and histograms in the Prometheus text format.
+      Metric names are converted to valid Prometheus names; for example,
+      <tt>jervis.http.request</tt> becomes <tt>jervis_http_request</tt>.
+      Counters have <tt>_total</tt> appended.
+
+      @return Prometheus text format metrics.
+      */
+    String toPrometheus() {
+        StringBuilder out = new StringBuilder()
+        String previous
+        sortedKeys(counters).each { List key ->
+            String name = prometheusName(key[0]) + '_total'
+            if(name != previous) {
+                out << "# TYPE ${name} counter\n"
+                previous = name
+            }
+            out << name << prometheusLabels(key[1]) << ' ' << counters[key].get() << '\n'
+        }
+        sortedKeys(histograms).each { List key ->
+            String name = prometheusName(key[0])
+            if(name != previous) {
+                out << "# TYPE ${name} histogram\n"
+                previous = name
+            }
+            Map values = snapshot(histograms[key])
+            values.buckets.each { String le, Long value ->
+                out << name << '_bucket' << prometheusLabels(key[1] + [le: le]) << ' ' << value << '\n'
+            }
+            out << name << '_sum' << prometheusLabels(key[1]) << ' ' << formatDouble(values.sum) << '\n'
+            out << name << '_count' << prometheusLabels(key[1]) << ' ' << values.count << '\n'
+        }
+        out.toString()
+    }
+
+    /**
+      Writes metrics as JSON to a file.
+
+      @see #toJson()
+      @param destFile A file which will be overwritten.
+      */
+    void writeJson(File destFile) {
+        destFile.withWriter('UTF-8') { Writer w ->
+            w << toJson()
+        }
+    }
+
+    /**
+      Writes metrics in the Prometheus text format to a file.  For example,
+      the file could be read by the Prometheus node exporter textfile
+      collector.
+
+      @see #toPrometheus()
+      @param destFile A file which will be overwritten.
+      */
+    void writePrometheus(File destFile) {
+        destFile.withWriter('UTF-8') { Writer w ->
+            w << toPrometheus()
+        }
+    }
+
+    /**
+      Converts histogram bucket counts to cumulative counts keyed by their
+      upper bound similar to Prometheus.
+      */
+    private Map snapshot(Histogram histogram) {
+        Map result = histogram.snapshot()
+        Map cumulativeBuckets = [:]
+        result.buckets.eachWithIndex { Long value, int i ->
+            cumulativeBuckets[formatDouble(buckets[i])] = value
+        }
+        cumulativeBuckets['+Inf'] = result.count
+        result.buckets = cumulativeBuckets
+        result
+    }
+
+    private static List<List> sortedKeys(Map<List, ?> metrics) {
+        metrics.keySet().toList().sort { a, b ->
+            (a[0] <=> b[0]) ?: (a[1].toString() <=> b[1].toString())
+        }
+    }
+
+    private static Map<String, String> stringTags(Map tags) {
+        tags.collectEntries { k, v ->
+            [(k.toString()): String.valueOf(v)]
+        }
+    }
+
+    private static String prometheusName(String name) {
+        String result = name.replaceAll('[^a-zA-Z0-9_:]', '_')
+        (result ==~ /^[0-9].*/) ? "_${result}".toString() : result
+    }
+
+    private static String prometheusLabels(Map<String, String> tags) {
+        if(!tags) {
+            return ''
+        }
+        '{' + tags.collect { k, v ->
+            String value = v.replace('\\', '\\\\').replace('"', '\\"').replace('\n', '\\n')
+            "${prometheusName(k)}=\"${value}\""
+        }.join(',') + '}'
+    }
+
+    private static String formatDouble(double value) {
+        if(value == Math.rint(value) && !Double.isInfinite(value)) {
+            return String.valueOf((long) value)
+        }
+        String.valueOf(value)
+    }
+}
@@ -0,0 +1,162 @@
+/*
+   Copyright 2014-2026 Sam Gleske - https://github.com/samrocketman/jervis
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+   */
+package net.gleske.jervis.tools
+
+/**
+  A timed operation reported to a
+  <tt>{@link net.gleske.jervis.tools.interfaces.MetricsListener}</tt> when it
+  is closed.  Spans are created by
+  <tt>{@link net.gleske.jervis.tools.Metrics#startSpan(java.lang.String)}</tt>.
+  Spans started while another span is open on the same thread record the open
+  span as their parent.
+
+  <p>When no listener is configured a shared no-op span is returned so
+  instrumentation costs almost nothing.</p>
+
+  <h2>Sample usage</h2>
+  <p>To run this example, clone Jervis and execute <tt>./gradlew console</tt>
+  to bring up a <a href="http://groovy-lang.org/groovyconsole.html" target="_blank">Groovy Console</a>
+  with the classpath set up.</p>
+
+<pre><code>
+import net.gleske.jervis.tools.Metrics
+import net.gleske.jervis.tools.MetricsRegistry
+
+MetricsRegistry registry = new MetricsRegistry()
+Metrics.listener = registry
+Metrics.startSpan('example.request').tag('method', 'GET').withCloseable { span -&gt;
+    span.tag('status', 200)
+}
+Metrics.listener = null
+println registry.toPrometheus()
+</code></pre>
+  */
+class MetricsSpan implements Closeable {
+
+    /**
+      A span which does nothing.  Returned when metrics are disabled.
+      */
+    static final MetricsSpan NOOP = new MetricsSpan()
+
+    /**
+      The name of the operation.
+      */
+    final String name
+
+    /**
+      The span which was open on the same thread when this span started or
+      <tt>null</tt>.
+      */
+    final MetricsSpan parent
+
+    /**
+      Value of <tt>{@link java.lang.System#nanoTime()}</tt> when the span
+      started.
+      */
+    final long startNanos
+
+    private final Map<String, String> tags = [:]
+    private final Closure onClose
+    private long durationNanos = -1
+    private Throwable error
+
+    private MetricsSpan() {
+        this.name = ''
+        this.parent = null
+        this.startNanos = 0
+        this.onClose = null
+    }
+
+    /**
+      Starts a span.  Use <tt>Metrics.startSpan</tt> instead of calling this
+      directly.
+
+      @param name The name of the operation.
+      @param parent The enclosing span or <tt>null</tt>.
+      @param onClose Called with this span when it is closed.
+      */
+    MetricsSpan(String name, MetricsSpan parent, Closure onClose) {
+        this.name = name
+        this.parent = parent
+        this.onClose = onClose
+        this.startNanos = System.nanoTime()
+    }
+
+    /**
+      Adds a dimension to this span.  Values are converted to a
+      <tt>String</tt>.
+
+      @param key A tag name.
+      @param value A tag value.
+      @return This span for chaining.
+      */
+    MetricsSpan tag(String key, def value) {
+        if(this.is(NOOP)) {
+            return this
+        }
+        this.tags[key] = String.valueOf(value)
+        this
+    }
+
+    /**
+      Records an error thrown by the operation.
+
+      @param e An exception thrown while the span was open.
+      @return This span for chaining.
+      */
+    MetricsSpan error(Throwable e) {
+        if(this.is(NOOP)) {
+            return this
+        }
+        this.error = e
+        this
+    }
+
+    /**
+      @return An unmodifiable view of the tags of this span.
+      */
+    Map<String, String> getTags() {
+        Collections.unmodifiableMap(this.tags)
+    }
+
+    /**
+      @return The duration in nanoseconds or <tt>-1</tt> if the span has not
+              finished.
+      */
+    long getDurationNanos() {
+        this.durationNanos
+    }
+
+    /**
+      @return The error thrown by the operation or <tt>null</tt>.
+      */
+    Throwable getError() {
+        this.error
+    }
+
+    /**
+      Finishes the span and reports it.  Closing a span more than once has no
+      effect.
+      */
+    @Override
+    void close() {
+        if(this.is(NOOP) || this.durationNanos >= 0) {
+            return
+        }
+        this.durationNanos = System.nanoTime() - this.startNanos
+        this.onClose(this)
+    }
+}
@@ -0,0 +1,365 @@
+/*
+   Copyright 2014-2026 Sam Gleske - https://github.com/samrocketman/jervis
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+   */
+package net.gleske.jervis.tools
+
+import java.util.concurrent.Callable
+import java.util.concurrent.ExecutionException
+import java.util.concurrent.ExecutorService
+import java.util.concurrent.Executors
+import java.util.concurrent.Future
+import java.util.zip.CRC32
+import java.util.zip.Deflater
+
+/**
+  A multi-threaded alternative to <tt>{@link net.gleske.jervis.tools.GZip}</tt>
+  for compressing large payloads such as build artifacts.  Input is split into
+  blocks which are compressed concurrently on a thread pool.  Similar to
+  <a href="https://zlib.net/pigz/" target="_blank">pigz</a>, each block uses
+  the end of the previous block as a preset dictionary so compression ratio is
+  close to single threaded compression.
+
+  <p>The output is a single standard GZip member so it can be decompressed by
+  <tt>{@link java.util.zip.GZIPInputStream}</tt> or the <tt>gunzip</tt>
+  command.</p>
+
+  <h2>Sample usage</h2>
+  <p>To run this example, clone Jervis and execute <tt>./gradlew console</tt>
+  to bring up a <a href="http://groovy-lang.org/groovyconsole.html" target="_blank">Groovy Console</a>
+  with the classpath set up.</p>
+
+  <h4>Write out a compressed file</h4>
+
+<pre><code>
+import net.gleske.jervis.tools.ParallelGZip
+
+new File('test.gz').withOutputStream { OutputStream os -&gt;
+    // level 6 compression, 4 threads, and 1MB blocks
+    new ParallelGZip(os, 6, 4, 1048576).withCloseable { gzip -&gt;
+        new File('large-artifact.tar').withInputStream { is -&gt;
+            gzip &lt;&lt; is
+        }
+    }
+}
+</code></pre>
+
+  <h4>Share a thread pool</h4>
+  <p>A thread pool can be provided so many compressions share the same
+  threads.  A provided thread pool is not shut down when the stream is
+  closed.</p>
+
+<pre><code>
+import java.util.concurrent.ExecutorService
+import java.util.concurrent.Executors
+import java.util.zip.GZIPInputStream
+import net.gleske.jervis.tools.ParallelGZip
+
+ExecutorService pool = Executors.newFixedThreadPool(4)
+ByteArrayOutputStream compressed = new ByteArrayOutputStream()
+new ParallelGZip(compressed, 1, pool).withCloseable {
+    it &lt;&lt; 'hello'
+    it &lt;&lt; ' world'
+}
+pool.shutdown()
+
+ByteArrayOutputStream plain = new ByteArrayOutputStream()
+plain &lt;&lt; new GZIPInputStream(new ByteArrayInputStream(compressed.toByteArray()))
+assert plain.toString() == 'hello world'
+</code></pre>
+  */
+class ParallelGZip extends OutputStream {
+
+    /**
+      Deflate back-references can reach at most 32KB.  This is the amount of
+      the previous block used as a preset dictionary.
+      */
+    static final int DICTIONARY_SIZE = 32768
+
+    /**
+      Default size in bytes of uncompressed blocks compressed by each thread.
+      */
+    static final int DEFAULT_BLOCK_SIZE = 131072
+
+    private final OutputStream os
+    private final Integer level
+    private final Integer blockSize
+    private final ExecutorService pool
+    private final Boolean ownsPool
+    private final Integer maxInFlight
+    private final ArrayDeque<Future<byte[]>> pending = new ArrayDeque<Future<byte[]>>()
+    private final CRC32 crc = new CRC32()
+    private long uncompressedSize = 0
+    private byte[] block
+    private int blockLength = 0
+    private byte[] previousBlock
+    private Boolean finished = false
+    private Boolean closed = false
+
+    /**
+      Creates a parallel GZip compressor which manages its own thread pool.
+      The thread pool is shut down when the stream is closed.
+
+      @param os An <tt>{@link java.io.OutputStream}</tt> to wrap which will
+                write out compressed data.
+      @param level A compression level between no compression (<tt>0</tt>)
+                   and best compression (<tt>9</tt>).  Defaults to best
+                   compression like <tt>{@link net.gleske.jervis.tools.GZip}</tt>.
+      @param threads The number of threads compressing blocks.  Defaults to
+                     the number of available processors.
+      @param blockSize The size in bytes of each block of uncompressed data.
+                       Defaults to <tt>131072</tt>.
+      */
+    ParallelGZip(OutputStream os, Integer level = Deflater.BEST_COMPRESSION, Integer threads = Runtime.runtime.availableProcessors(), Integer blockSize = DEFAULT_BLOCK_SIZE) {
+        this(os, level, newPool(threads), blockSize, true, threads)
+    }
+
+    /**
+      Creates a parallel GZip compressor which compresses blocks on a provided
+      thread pool.  The thread pool is not shut down when the stream is
+      closed.
+
+      @param os An <tt>{@link java.io.OutputStream}</tt> to wrap which will
+                write out compressed data.
+      @param level A compression level between no compression (<tt>0</tt>)
+                   and best compression (<tt>9</tt>).
+      @param pool A thread pool for compressing blocks.
+      @param blockSize The size in bytes of each block of uncompressed data.
+                       Defaults to <tt>131072</tt>.
+      */
+    ParallelGZip(OutputStream os, Integer level, ExecutorService pool, Integer blockSize = DEFAULT_BLOCK_SIZE) {
+        this(os, level, pool, blockSize, false, Runtime.runtime.availableProcessors())
+    }
+
+    private ParallelGZip(OutputStream os, Integer level, ExecutorService pool, Integer blockSize, Boolean ownsPool, Integer threads) {
+        this.os = os
+        this.level = level
+        this.pool = pool
+        this.ownsPool = ownsPool
+        this.blockSize = blockSize
+        try {
+            if(level < Deflater.NO_COMPRESSION || level > Deflater.BEST_COMPRESSION) {
+                throw new IllegalArgumentException("Compression level must be between 0 and 9 but got ${level}.")
+            }
+            if(blockSize < 1) {
+                throw new IllegalArgumentException("Block size must be positive but got ${blockSize}.")
+            }
+            // limit memory use by limiting the number of blocks waiting to be
+            // written
+            this.maxInFlight = Math.max(threads, 1) * 2
+            this.block = new byte[blockSize]
+            writeHeader()
+        }
+        catch(Throwable e) {
+            // a pool created for this instance would otherwise leak threads
+            if(ownsPool) {
+                pool.shutdownNow()
+            }
+            throw e
+        }
+    }
+
+    private static ExecutorService newPool(Integer threads) {
+        if(threads < 1) {
+            throw new IllegalArgumentException("Thread count must be positive but got ${threads}.")
+        }
+        Executors.newFixedThreadPool(threads, new DaemonThreadFactory('jervis-parallel-gzip'))
+    }
+
+    /**
+      Compress a single block as raw deflate data.  Blocks other than the
+      final block end with a sync flush so that blocks can be concatenated.
+
+      @param input Uncompressed data.
+      @param length Number of bytes of <tt>input</tt> to compress.
+      @param dictionary The previous uncompressed block or <tt>null</tt> if
+                        this is the first block.
+      @param last <tt>true</tt> if this is the final block of the stream.
+      @param level Compression level.
+      @return Raw deflate compressed data.
+      */
+    static byte[] deflateBlock(byte[] input, int length, byte[] dictionary, Boolean last, Integer level) {
+        Deflater deflater = new Deflater(level, true)
+        try {
+            if(dictionary) {
+                int dictionaryLength = Math.min(DICTIONARY_SIZE, dictionary.length)
+                deflater.setDictionary(Arrays.copyOfRange(dictionary, dictionary.length - dictionaryLength, dictionary.length))
+            }
+            deflater.setInput(input, 0, length)
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream(Math.max(length.intdiv(2), 64))
+            byte[] buffer = new byte[65536]
+            int count
+            if(last) {
+                deflater.finish()
+                while(!deflater.finished()) {
+                    count = deflater.deflate(buffer)
+                    compressed.write(buffer, 0, count)
+                }
+            }
+            else {
+                // a full output buffer means there may be more output
+                while((count = deflater.deflate(buffer, 0, buffer.length, Deflater.SYNC_FLUSH)) == buffer.length) {
+                    compressed.write(buffer, 0, count)
+                }
+                compressed.write(buffer, 0, count)
+            }
+            compressed.toByteArray()
+        }
+        finally {
+            deflater.end()
+        }
+    }
+
+    @Override
+    void write(int b) throws IOException {
+        ensureOpen()
+        block[blockLength++] = (byte) b
+        crc.update(b)
+        uncompressedSize++
+        if(blockLength == blockSize) {
+            submitBlock(false)
+        }
+    }
+
+    @Override
+    void write(byte[] b, int off, int len) throws IOException {
+        ensureOpen()
+        crc.update(b, off, len)
+        uncompressedSize += len
+        while(len > 0) {
+            int count = Math.min(len, blockSize - blockLength)
+            System.arraycopy(b, off, block, blockLength, count)
+            blockLength += count
+            off += count
+            len -= count
+            if(blockLength == blockSize) {
+                submitBlock(false)
+            }
+        }
+    }
+
+    @Override
+    void write(byte[] b) throws IOException {
+        write(b, 0, b.length)
+    }
+
+    /**
+      Write a <tt>String</tt> similar to how you would write to a file with <tt>leftShift</tt> on a <tt>{@link java.io.Writer}</tt>.
+      @param shiftString A string which will be written out after being compressed.
+      */
+    OutputStream leftShift(String shiftString) {
+        write(shiftString.bytes)
+        this
+    }
+
+    /**
+      Writes out all blocks which have finished compressing and flushes the
+      wrapped stream.  Uncompressed data which does not fill a block is not
+      written until more data is written or the stream is finished.
+      */
+    @Override
+    void flush() throws IOException {
+        while(pending && pending.peekFirst().isDone()) {
+            writeNextBlock()
+        }
+        os.flush()
+    }
+
+    /**
+      Finishes writing compressed data without closing the wrapped stream.
+      */
+    void finish() throws IOException {
+        if(finished) {
+            return
+        }
+        finished = true
+        submitBlock(true)
+        while(pending) {
+            writeNextBlock()
+        }
+        writeIntLE(crc.value)
+        writeIntLE(uncompressedSize)
+        os.flush()
+    }
+
+    /**
+      Finishes writing compressed data and closes the wrapped stream.  If this
+      instance manages its own thread pool, then the pool is shut down.
+      */
+    @Override
+    void close() throws IOException {
+        if(closed) {
+            return
+        }
+        try {
+            finish()
+        }
+        finally {
+            closed = true
+            if(ownsPool) {
+                pool.shutdownNow()
+            }
+            os.close()
+        }
+    }
+
+    private void ensureOpen() throws IOException {
+        if(finished) {
+            throw new IOException('ParallelGZip stream is already finished.')
+        }
+    }
+
+    private void submitBlock(Boolean last) throws IOException {
+        final byte[] input = block
+        final int length = blockLength
+        final byte[] dictionary = previousBlock
+        final Integer compressionLevel = level
+        pending.add(pool.submit({ ->
+            deflateBlock(input, length, dictionary, last, compressionLevel)
+        } as Callable<byte[]>))
+        previousBlock = input
+        block = new byte[blockSize]
+        blockLength = 0
+        // write out completed blocks and apply back pressure to the writer
+        while(pending && (pending.size() >= maxInFlight || pending.peekFirst().isDone())) {
+            writeNextBlock()
+        }
+    }
+
+    private void writeNextBlock() throws IOException {
+        try {
+            os.write(pending.pollFirst().get())
+        }
+        catch(ExecutionException e) {
+            throw new IOException('Failed to compress block.', e.cause)
+        }
+        catch(InterruptedException e) {
+            Thread.currentThread().interrupt()
+            throw new InterruptedIOException('Interrupted while compressing block.')
+        }
+    }
+
+    private void writeHeader() throws IOException {
+        // magic number, deflate method, no flags, no mtime, no extra flags,
+        // unknown OS
+        os.write([0x1f, 0x8b, 8, 0, 0, 0, 0, 0, 0, 0xff] as byte[])
+    }
+
+    private void writeIntLE(long value) throws IOException {
+        os.write((int) (value & 0xff))
+        os.write((int) ((value >> 8) & 0xff))
+        os.write((int) ((value >> 16) & 0xff))
+        os.write((int) ((value >> 24) & 0xff))
+    }
+}
@@ -0,0 +1,264 @@
+/*
+   Copyright 2014-2026 Sam Gleske - https://github.com/samrocketman/jervis
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+   */
+package net.gleske.jervis.tools
+
+import net.gleske.jervis.exceptions.DecryptException
+
+import java.security.MessageDigest
+import javax.crypto.Mac
+import javax.crypto.spec.SecretKeySpec
+
+/**
+  Encrypts many messages with one passphrase while only running the slow
+  PBKDF2 key derivation once.
+  <tt>{@link net.gleske.jervis.tools.SecurityIO#encryptWithPassphraseGCM(java.lang.String, java.lang.String)}</tt>
+  derives a new key for every message which costs hundreds of milliseconds
+  each.  A session instead derives a master key from the passphrase and a
+  random session salt once.  Every message is encrypted with AES-256-GCM using
+  a subkey derived from the master key and a random message salt with
+  <tt>{@link net.gleske.jervis.tools.SecurityIO#hkdfSha256(byte[], byte[], byte[], int)}</tt>.
+  The PBKDF2 parameters are the same as
+  <tt>encryptWithPassphraseGCM</tt> so brute forcing the passphrase is not
+  any easier.
+
+  <p>Session ciphertext is Base64 encoded and starts with
+  <tt>{@link #FORMAT_PREFIX}</tt> so that it is never confused with the
+  original passphrase format.  The binary format is session salt (32 bytes)
+  || message salt (16 bytes) || nonce (12 bytes) || ciphertext || auth-tag.
+  <tt>{@link net.gleske.jervis.tools.SecurityIO#decryptWithPassphraseGCM(java.lang.String, java.lang.String)}</tt>
+  decrypts both formats.  When decrypting, master keys are kept in a bounded
+  cache so many messages from the same session only derive the master key
+  once.  Cache entries are keyed by an HMAC of the session salt and
+  passphrase with a random key which only exists in memory of the current
+  process.  Master keys are wiped when they expire, are evicted, or the cache
+  is cleared.</p>
+
+  <h2>Sample usage</h2>
+  <p>To run this example, clone Jervis and execute <tt>./gradlew console</tt>
+  to bring up a <a href="http://groovy-lang.org/groovyconsole.html" target="_blank">Groovy Console</a>
+  with the classpath set up.</p>
+
+<pre><code>
+import net.gleske.jervis.tools.PassphraseSession
+import net.gleske.jervis.tools.SecurityIO
+
+PassphraseSession session = new PassphraseSession('correct horse battery staple')
+List encrypted = (1..50).collect {
+    session.encrypt("secret ${it}")
+}
+// only the first message derives the master key
+encrypted.each {
+    println SecurityIO.decryptWithPassphraseGCM('correct horse battery staple', it)
+}
+</code></pre>
+  */
+class PassphraseSession {
+
+    /**
+      Prefix of Base64 encoded session ciphertext.  Base64 never contains a
+      colon so session ciphertext cannot be mistaken for the original format.
+      */
+    static final String FORMAT_PREFIX = 'pps1:'
+
+    /**
+      The maximum number of master keys cached for decryption.  Default:
+      <tt>64</tt>.
+      */
+    static Integer cacheSize = 64
+
+    /**
+      The time in milliseconds a master key stays cached for decryption after
+      it was derived.  Default: <tt>300000</tt> (5 minutes).
+      */
+    static Long cacheTtlMillis = 300000
+
+    private static final int SESSION_SALT_SIZE = 32
+    private static final int MESSAGE_SALT_SIZE = 16
+    // session salt + message salt + 12 bytes nonce + 16 bytes auth tag
+    private static final int MIN_SIZE = SESSION_SALT_SIZE + MESSAGE_SALT_SIZE + 28
+    private static final byte[] SUBKEY_INFO = 'jervis passphrase session subkey'.getBytes('UTF-8')
+    private static final LinkedHashMap<String, PassphraseSession> cache = new LinkedHashMap<String, PassphraseSession>(16, 0.75f, true)
+    private static final byte[] CACHE_KEY = SecurityIO.randomBytes(32)
+
+    private final byte[] salt
+    private final byte[] masterKey
+    private final long created = System.currentTimeMillis()
+
+    /**
+      Start a new session with a random session salt.  Derives the master key
+      so expect the constructor to take as long as a single call to
+      <tt>encryptWithPassphraseGCM</tt>.
+
+      @param passphrase A passphrase which would typically come from human
+                        input.
+      */
+    PassphraseSession(String passphrase) {
+        this(passphrase, SecurityIO.randomBytes(SESSION_SALT_SIZE))
+    }
+
+    private PassphraseSession(String passphrase, byte[] salt) {
+        this.salt = salt
+        this.masterKey = SecurityIO.passwordKeyDerivation(passphrase, SecurityIO.encodeBase64(salt))
+    }
+
+    /**
+      Encrypts data with a subkey unique to this message.
+
+      @param data Data to be encrypted.
+      @return Base64 encoded ciphertext prefixed by <tt>{@link #FORMAT_PREFIX}</tt>.
+      */
+    String encrypt(String data) {
+        byte[] messageSalt = SecurityIO.randomBytes(MESSAGE_SALT_SIZE)
+        ByteArrayOutputStream output = new ByteArrayOutputStream()
+        output.write(this.salt)
+        output.write(messageSalt)
+        output.write(SecurityIO.encryptWithAES256GCM(subkey(messageSalt), data))
+        FORMAT_PREFIX + SecurityIO.encodeBase64(output.toByteArray())
+    }
+
+    /**
+      Decrypts ciphertext from this session without deriving the master key
+      again.
+
+      @param data Ciphertext returned by <tt>{@link #encrypt(java.lang.String)}</tt>.
+      @return Decrypted plaintext.
+      @throws DecryptException when the ciphertext is malformed or comes from
+                               a different session.
+      */
+    String decrypt(String data) {
+        byte[] bytes = decode(data)
+        if(!MessageDigest.isEqual(this.salt, Arrays.copyOfRange(bytes, 0, SESSION_SALT_SIZE))) {
+            throw new DecryptException('Ciphertext was encrypted by a different passphrase session.')
+        }
+        decryptBytes(bytes)
+    }
+
+    /**
+      Decrypts session ciphertext with a passphrase.  Master keys are cached by
+      session salt and passphrase up to <tt>{@link #cacheSize}</tt> sessions
+      for <tt>{@link #cacheTtlMillis}</tt>.
+
+      @param passphrase A passphrase used to decrypt the ciphertext.
+      @param data Ciphertext returned by <tt>{@link #encrypt(java.lang.String)}</tt>.
+      @return Decrypted plaintext.
+      */
+    static String decrypt(String passphrase, String data) {
+        byte[] bytes = decode(data)
+        byte[] sessionSalt = Arrays.copyOfRange(bytes, 0, SESSION_SALT_SIZE)
+        byte[] messageSalt = Arrays.copyOfRange(bytes, SESSION_SALT_SIZE, SESSION_SALT_SIZE + MESSAGE_SALT_SIZE)
+        // include the passphrase so a wrong passphrase never finds a cached key
+        String key = cacheKey(sessionSalt, passphrase)
+        byte[] subkey
+        // subkeys are derived while holding the lock because master keys are
+        // wiped when they leave the cache
+        synchronized(cache) {
+            removeExpired()
+            subkey = cache.get(key)?.subkey(messageSalt)
+        }
+        if(!subkey) {
+            PassphraseSession session = new PassphraseSession(passphrase, sessionSalt)
+            subkey = session.subkey(messageSalt)
+            synchronized(cache) {
+                cache.put(key, session)?.wipe()
+                Iterator<PassphraseSession> it = cache.values().iterator()
+                while(cache.size() > cacheSize && it.hasNext()) {
+                    it.next().wipe()
+                    it.remove()
+                }
+            }
+        }
+        SecurityIO.decryptWithAES256GCM(subkey, Arrays.copyOfRange(bytes, SESSION_SALT_SIZE + MESSAGE_SALT_SIZE, bytes.length))
+    }
+
+    /**
+      Checks if ciphertext is in the passphrase session format.
+
+      @param data Ciphertext to check.
+      @return <tt>true</tt> if the ciphertext starts with
+              <tt>{@link #FORMAT_PREFIX}</tt>.
+      */
+    static Boolean isSessionCiphertext(String data) {
+        data?.startsWith(FORMAT_PREFIX) ?: false
+    }
+
+    /**
+      Wipes and removes all cached master keys.
+      */
+    static void clearCache() {
+        synchronized(cache) {
+            cache.values()*.wipe()
+            cache.clear()
+        }
+    }
+
+    /**
+      Returns the number of cached master keys.
+      */
+    static Integer getCachedSessions() {
+        synchronized(cache) {
+            removeExpired()
+            cache.size()
+        }
+    }
+
+    /**
+      Wipes and removes expired master keys.  Callers must hold the cache
+      lock.
+      */
+    private static void removeExpired() {
+        long expired = System.currentTimeMillis() - cacheTtlMillis
+        Iterator<PassphraseSession> it = cache.values().iterator()
+        while(it.hasNext()) {
+            PassphraseSession session = it.next()
+            if(session.created <= expired) {
+                session.wipe()
+                it.remove()
+            }
+        }
+    }
+
+    private static String cacheKey(byte[] sessionSalt, String passphrase) {
+        Mac mac = Mac.getInstance('HmacSHA256')
+        mac.init(new SecretKeySpec(CACHE_KEY, 'HmacSHA256'))
+        mac.update(sessionSalt)
+        SecurityIO.encodeBase64(mac.doFinal(passphrase.getBytes('UTF-8')))
+    }
+
+    private void wipe() {
+        Arrays.fill(this.masterKey, (byte) 0)
+    }
+
+    private byte[] subkey(byte[] messageSalt) {
+        SecurityIO.hkdfSha256(this.masterKey, messageSalt, SUBKEY_INFO, 32)
+    }
+
+    private String decryptBytes(byte[] bytes) {
+        byte[] messageSalt = Arrays.copyOfRange(bytes, SESSION_SALT_SIZE, SESSION_SALT_SIZE + MESSAGE_SALT_SIZE)
+        byte[] ciphertext = Arrays.copyOfRange(bytes, SESSION_SALT_SIZE + MESSAGE_SALT_SIZE, bytes.length)
+        SecurityIO.decryptWithAES256GCM(subkey(messageSalt), ciphertext)
+    }
+
+    private static byte[] decode(String data) {
+        if(!isSessionCiphertext(data)) {
+            throw new DecryptException('Ciphertext is not in the passphrase session format.')
+        }
+        byte[] bytes = SecurityIO.decodeBase64Bytes(data.substring(FORMAT_PREFIX.size()))
+        if(bytes.length < MIN_SIZE) {
+            throw new DecryptException('Ciphertext too short - missing salt, nonce, or auth tag')
+        }
+        bytes
+    }
+}
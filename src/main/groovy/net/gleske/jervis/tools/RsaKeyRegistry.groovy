@@ -0,0 +1,240 @@
+/*
+   Copyright 2014-2026 Sam Gleske - https://github.com/samrocketman/jervis
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+   */
+package net.gleske.jervis.tools
+
+import net.gleske.jervis.exceptions.KeyPairDecodeException
+
+import java.security.KeyFactory
+import java.security.KeyPair
+import java.security.PrivateKey
+import java.security.spec.PKCS8EncodedKeySpec
+import java.util.Arrays
+import org.bouncycastle.crypto.params.AsymmetricKeyParameter
+import org.bouncycastle.crypto.util.PrivateKeyFactory
+import org.bouncycastle.crypto.util.PublicKeyFactory
+
+/**
+  A process-wide registry of decoded RSA private keys.  Decoding a PEM
+  through BouncyCastle and checking its strength is slow compared to how often
+  the same key is used by <tt>{@link net.gleske.jervis.tools.SecurityIO}</tt>,
+  <tt>{@link net.gleske.jervis.tools.CipherMap}</tt>,
+  <tt>{@link net.gleske.jervis.remotes.creds.EphemeralTokenCache}</tt>, and
+  GitHub App credentials.  Keys are registered by the SHA-256 fingerprint of
+  their PEM so every later use of the same PEM is a hash lookup.
+
+  <p>A registered key holds the decoded <tt>{@link java.security.KeyPair}</tt>
+  and keys prepared for signing and for RSA encryption and decryption.  Keys
+  which have not been used for <tt>{@link #ttlMillis}</tt> are evicted, and the
+  least recently used keys are evicted once there are more than
+  <tt>{@link #maxEntries}</tt>.  RSA keys in the JVM are backed by immutable
+  <tt>BigInteger</tt> values which cannot be overwritten, so eviction drops the
+  reference held by the registry and the key is garbage collected once no
+  <tt>SecurityIO</tt> uses it.  Encoded private key bytes created while
+  preparing a key are overwritten as soon as they are no longer needed.</p>
+
+  <h2>Sample usage</h2>
+  <p>To run this example, clone Jervis and execute <tt>./gradlew console</tt>
+  to bring up a <a href="http://groovy-lang.org/groovyconsole.html" target="_blank">Groovy Console</a>
+  with the classpath set up.</p>
+
+<pre><code>
+import net.gleske.jervis.tools.RsaKeyRegistry
+import net.gleske.jervis.tools.SecurityIO
+
+if(!(new File('/tmp/id_rsa').exists())) {
+    'openssl genrsa -out /tmp/id_rsa 4096'.execute().waitFor()
+}
+String pem = new File('/tmp/id_rsa').text
+
+// the first SecurityIO decodes the key and later ones look it up
+new SecurityIO(pem)
+new SecurityIO(pem)
+
+println RsaKeyRegistry.fingerprint(pem)
+println RsaKeyRegistry.stats
+</code></pre>
+  */
+class RsaKeyRegistry {
+
+    /**
+      Registered keys not used for this many milliseconds are evicted.
+      Default: <tt>3600000</tt> (1 hour)
+      */
+    static Long ttlMillis = 3600000L
+
+    /**
+      The maximum number of registered keys.  Default: <tt>64</tt>
+      */
+    static Integer maxEntries = 64
+
+    private static final LinkedHashMap<String, RegisteredKey> keys = new LinkedHashMap<String, RegisteredKey>(16, 0.75f, true)
+    private static final Map<String, Long> stats = [
+        hits: 0L,
+        misses: 0L,
+        evicted: 0L
+    ]
+
+    private RsaKeyRegistry() {
+        throw new IllegalStateException('ERROR: This utility class only provides static methods and is not meant for instantiation.  See Java doc for this class for examples.')
+    }
+
+    /**
+      A decoded and validated RSA key pair with keys prepared for signing,
+      encryption, and decryption.  All fields are safe to share between
+      threads.
+      */
+    static class RegisteredKey {
+
+        /**
+          The SHA-256 fingerprint of the PEM this key was decoded from.
+          */
+        final String fingerprint
+
+        /**
+          The decoded key pair.
+          */
+        final KeyPair keyPair
+
+        /**
+          A private key ready to initialize a
+          <tt>{@link java.security.Signature}</tt>.
+          */
+        final PrivateKey signingKey
+
+        /**
+          The public key ready to initialize a BouncyCastle RSA engine.
+          */
+        final AsymmetricKeyParameter publicParameter
+
+        /**
+          The private key ready to initialize a BouncyCastle RSA engine.
+          */
+        final AsymmetricKeyParameter privateParameter
+
+        private volatile long lastUsed = System.currentTimeMillis()
+
+        private RegisteredKey(String fingerprint, KeyPair keyPair) {
+            this.fingerprint = fingerprint
+            this.keyPair = keyPair
+            byte[] encoded = keyPair.private.encoded
+            try {
+                this.signingKey = KeyFactory.getInstance('RSA').generatePrivate(new PKCS8EncodedKeySpec(encoded))
+                this.privateParameter = PrivateKeyFactory.createKey(encoded)
+            }
+            finally {
+                Arrays.fill(encoded, (byte) 0)
+            }
+            this.publicParameter = PublicKeyFactory.createKey(keyPair.public.encoded)
+        }
+    }
+
+    /**
+      Calculates the fingerprint used to register a PEM.
+
+      @param pem A PKCS1 or PKCS8 PEM encoded RSA private key.
+      @return A hex encoded SHA-256 sum of the PEM.
+      */
+    static String fingerprint(String pem) {
+        SecurityIO.sha256Sum(pem)
+    }
+
+    /**
+      Gets a registered key or decodes, validates, and registers it.  A PEM
+      which can't be decoded or a key smaller than 2048 bits is never
+      registered.
+
+      @param pem A PKCS1 or PKCS8 PEM encoded RSA private key.
+      @return A registered key.
+      @throws KeyPairDecodeException if the PEM can't be decoded or the key is
+              too weak.
+      */
+    static RegisteredKey getKey(String pem) throws KeyPairDecodeException {
+        String fingerprint = fingerprint(pem)
+        RegisteredKey key
+        synchronized(keys) {
+            evictExpired()
+            key = keys.get(fingerprint)
+            if(key) {
+                stats.hits++
+                key.lastUsed = System.currentTimeMillis()
+                return key
+            }
+            stats.misses++
+        }
+        // decode outside of the lock so other keys can be looked up
+        RegisteredKey decoded = new RegisteredKey(fingerprint, SecurityIO.decodeKeyPair(pem))
+        synchronized(keys) {
+            key = keys.get(fingerprint)
+            if(key) {
+                // another thread registered the same key first
+                return key
+            }
+            keys.put(fingerprint, decoded)
+            while(keys.size() > maxEntries) {
+                evict(keys.keySet().iterator().next())
+            }
+        }
+        decoded
+    }
+
+    /**
+      Removes a key from the registry.
+
+      @param pem A PKCS1 or PKCS8 PEM encoded RSA private key.
+      */
+    static void remove(String pem) {
+        synchronized(keys) {
+            evict(fingerprint(pem))
+        }
+    }
+
+    /**
+      Removes all keys from the registry.
+      */
+    static void clear() {
+        synchronized(keys) {
+            keys.keySet().toList().each {
+                evict(it)
+            }
+        }
+    }
+
+    /**
+      Returns counts of keys found in the registry (<tt>hits</tt>), keys
+      which had to be decoded (<tt>misses</tt>), and keys which were
+      <tt>evicted</tt>.
+
+      @return A copy of registry statistics.
+      */
+    static Map<String, Long> getStats() {
+        synchronized(keys) {
+            new LinkedHashMap(stats) + [entries: (Long) keys.size()]
+        }
+    }
+
+    private static void evictExpired() {
+        long expired = System.currentTimeMillis() - ttlMillis
+        keys.findAll { String k, RegisteredKey v -> v.lastUsed < expired }.keySet().each {
+            evict(it)
+        }
+    }
+
+    private static void evict(String fingerprint) {
+        if(keys.remove(fingerprint)) {
+            stats.evicted++
+        }
+    }
+}
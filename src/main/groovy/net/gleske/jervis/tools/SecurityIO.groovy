@@ -18,12 +18,14 @@ package net.gleske.jervis.tools
 import net.gleske.jervis.exceptions.DecryptException
 import net.gleske.jervis.exceptions.EncryptException
 import net.gleske.jervis.exceptions.KeyPairDecodeException
+import net.gleske.jervis.exceptions.SecurityException
 
 import groovy.json.JsonBuilder
 import java.io.ByteArrayOutputStream
 import java.security.KeyFactory
 import java.security.KeyPair
 import java.security.MessageDigest
+import java.security.PrivateKey
 import java.security.SecureRandom
 import java.security.Security
 import java.security.Signature
@@ -32,7 +34,14 @@ import java.security.spec.PKCS8EncodedKeySpec
 import java.time.Duration
 import java.time.Instant
 import java.util.Arrays
+import java.util.concurrent.Callable
+import java.util.concurrent.ExecutionException
+import java.util.concurrent.ExecutorService
+import java.util.concurrent.Executors
+import java.util.concurrent.Future
+import javax.crypto.AEADBadTagException
 import javax.crypto.Cipher
+import javax.crypto.Mac
 import javax.crypto.SecretKey
 import javax.crypto.SecretKeyFactory
 import javax.crypto.spec.GCMParameterSpec
@@ -95,6 +104,31 @@ class SecurityIO implements Serializable {
       */
     static Integer DEFAULT_AES_ITERATIONS = 5000
 
+    /**
+      The default number of plaintext bytes in each segment of streaming
+      AES-256-GCM encryption.  Default: <tt>65536</tt> bytes.
+
+      @see #encryptWithAES256GCMStream(byte[], java.io.InputStream, java.io.OutputStream, java.lang.Integer, java.lang.Integer)
+      */
+    static Integer DEFAULT_STREAM_SEGMENT_SIZE = 65536
+
+    /**
+      Format version of streaming AES-256-GCM ciphertext.
+      */
+    private static final byte STREAM_VERSION = 1
+
+    /**
+      Streaming header: version (1 byte), segment size (4 bytes), salt (16
+      bytes), and nonce prefix (7 bytes).
+      */
+    private static final int STREAM_HEADER_SIZE = 28
+
+    /**
+      Largest segment size accepted when decrypting a stream.  Prevents a
+      corrupt header from allocating large amounts of memory.
+      */
+    private static final int STREAM_MAX_SEGMENT_SIZE = 16777216
+
     /**
       A decoded RSA key pair used for encryption and decryption, and signing.
 
@@ -104,6 +138,12 @@ class SecurityIO implements Serializable {
      */
     transient KeyPair key_pair
 
+    /**
+      The registered key which <tt>{@link #key_pair}</tt> was set from.  It
+      provides keys prepared for signing and RSA encryption.
+      */
+    private transient RsaKeyRegistry.RegisteredKey registered_key
+
     /**
       Instantiates an unconfigured instance of this class.  Call
       <tt>{@link #setKey_pair(java.lang.String)}</tt> to properly use this
@@ -133,10 +173,22 @@ class SecurityIO implements Serializable {
                   signature.
       */
     String signRS256Base64Url(String data) {
-        PKCS8EncodedKeySpec spec = new PKCS8EncodedKeySpec(key_pair.private.encoded)
-        KeyFactory kf = KeyFactory.getInstance("RSA")
+        MetricsSpan span = Metrics.startSpan('jervis.securityio', [operation: 'signRS256'])
+        try {
+            return signRS256Base64UrlInternal(data)
+        }
+        catch(Throwable e) {
+            span.error(e)
+            throw e
+        }
+        finally {
+            span.close()
+        }
+    }
+
+    private String signRS256Base64UrlInternal(String data) {
         Signature privateSignature = Signature.getInstance("SHA256withRSA")
-        privateSignature.initSign(kf.generatePrivate(spec))
+        privateSignature.initSign(signingKey())
         privateSignature.update(data.getBytes("UTF-8"))
         byte[] signedData = privateSignature.sign()
         encodeBase64Url(signedData)
@@ -152,6 +204,20 @@ class SecurityIO implements Serializable {
                        failed.
       */
     Boolean verifyRS256Base64Url(String signature, String data) {
+        MetricsSpan span = Metrics.startSpan('jervis.securityio', [operation: 'verifyRS256'])
+        try {
+            return verifyRS256Base64UrlInternal(signature, data)
+        }
+        catch(Throwable e) {
+            span.error(e)
+            throw e
+        }
+        finally {
+            span.close()
+        }
+    }
+
+    private Boolean verifyRS256Base64UrlInternal(String signature, String data) {
         Signature publicSignature = Signature.getInstance("SHA256withRSA")
         publicSignature.initVerify(key_pair.public)
         publicSignature.update(data.bytes)
@@ -293,11 +359,24 @@ if(security.verifyGitHubJWTPayload(jwt)) {
     }
 
     /**
-      Sets <tt>{@link #key_pair}</tt> by decoding the <tt>String</tt>.
+      Sets <tt>{@link #key_pair}</tt> from the
+      <tt>{@link net.gleske.jervis.tools.RsaKeyRegistry}</tt>.  The
+      <tt>String</tt> is only decoded if the same PEM was not used before.
 
       @param pem An X.509 PEM encoded RSA private key.
      */
     void setKey_pair(String pem) throws KeyPairDecodeException {
+        this.registered_key = RsaKeyRegistry.getKey(pem)
+        this.key_pair = this.registered_key.keyPair
+    }
+
+    /**
+      Decodes a PEM and checks minimum key strength.
+
+      @param pem An X.509 PEM encoded RSA private key.
+      @return A decoded key pair.
+      */
+    protected static KeyPair decodeKeyPair(String pem) throws KeyPairDecodeException {
         PEMParser parser = new PEMParser(new StringReader(pem))
         def obj = parser.readObject()
         parser.close()
@@ -308,7 +387,7 @@ if(security.verifyGitHubJWTPayload(jwt)) {
             obj = getKeypairFromPkcs8(obj)
         }
         if(obj in PEMKeyPair) {
-            setPemKeyPair(obj)
+            return keyPairFromPem(obj)
         } else {
             throw new KeyPairDecodeException("Could not decode KeyPair from pem String.  Unable to handle ${obj.class}")
         }
@@ -317,7 +396,7 @@ if(security.verifyGitHubJWTPayload(jwt)) {
     /**
       Converts from PKCS8 private to PKCS1 pair.
       */
-    private PEMKeyPair getKeypairFromPkcs8(PrivateKeyInfo pkInfo) {
+    private static PEMKeyPair getKeypairFromPkcs8(PrivateKeyInfo pkInfo) {
         ASN1Encodable pkcs1ASN1Encodable = pkInfo.parsePrivateKey()
         ASN1Primitive privateKeyPkcs1ASN1 = pkcs1ASN1Encodable.toASN1Primitive()
         StringWriter stringWriter = new StringWriter()
@@ -333,10 +412,9 @@ if(security.verifyGitHubJWTPayload(jwt)) {
 
     /**
       Creates a <tt>{@link java.security.KeyPair}</tt> from  <tt>PEMKeyPair</tt>
-      and checks minimum key strength.  Sets <tt>{@link #key_pair}</tt> which is
-      used for encryption, decryption, and signing.
+      and checks minimum key strength.
       */
-    private void setPemKeyPair(PEMKeyPair obj) {
+    private static KeyPair keyPairFromPem(PEMKeyPair obj) {
         if(!Security.getProvider('BC')) {
             Security.addProvider(new BouncyCastleProvider())
         }
@@ -350,7 +428,36 @@ if(security.verifyGitHubJWTPayload(jwt)) {
             message += '\n\nSee "Enforcing stronger RSA keys" section of the wiki article.'
             throw new KeyPairDecodeException(message)
         }
-        key_pair = parsedKeyPair
+        parsedKeyPair
+    }
+
+    /**
+      Keys prepared by the registry are only used if <tt>{@link #key_pair}</tt>
+      was not replaced with a different <tt>KeyPair</tt>.
+      */
+    private Boolean isRegistered() {
+        this.registered_key && this.registered_key.keyPair.is(this.key_pair)
+    }
+
+    private PrivateKey signingKey() {
+        if(isRegistered()) {
+            return this.registered_key.signingKey
+        }
+        KeyFactory.getInstance("RSA").generatePrivate(new PKCS8EncodedKeySpec(key_pair.private.encoded))
+    }
+
+    private AsymmetricKeyParameter publicParameter() {
+        if(isRegistered()) {
+            return this.registered_key.publicParameter
+        }
+        PublicKeyFactory.createKey(key_pair.public.encoded)
+    }
+
+    private AsymmetricKeyParameter privateParameter() {
+        if(isRegistered()) {
+            return this.registered_key.privateParameter
+        }
+        PrivateKeyFactory.createKey(key_pair.private.encoded)
     }
 
     /**
@@ -471,12 +578,26 @@ println "Key size: ${security.rsa_keysize}"
       @return Enciphered bytes are returned.
       */
     byte[] rsaEncryptBytesOaep(byte[] plainbytes) throws EncryptException {
+        MetricsSpan span = Metrics.startSpan('jervis.securityio', [operation: 'rsaEncryptOaep'])
+        try {
+            return rsaEncryptBytesOaepInternal(plainbytes)
+        }
+        catch(Throwable e) {
+            span.error(e)
+            throw e
+        }
+        finally {
+            span.close()
+        }
+    }
+
+    private byte[] rsaEncryptBytesOaepInternal(byte[] plainbytes) throws EncryptException {
         if(!key_pair) {
             throw new EncryptException('key_pair is not set.')
         }
         // Use OAEP padding instead of PKCS1 to prevent Bleichenbacher padding oracle attacks
         AsymmetricBlockCipher encrypt = new OAEPEncoding(new RSAEngine())
-        encrypt.init(true, PublicKeyFactory.createKey(key_pair.public.encoded) as AsymmetricKeyParameter)
+        encrypt.init(true, publicParameter())
         byte[] enciphered = encrypt.processBlock(plainbytes, 0, plainbytes.length)
         enciphered
     }
@@ -501,12 +622,26 @@ println "Key size: ${security.rsa_keysize}"
       @return Returns decrypted bytes.
       */
     byte[] rsaDecryptBytesOaep(byte[] cipherbytes) throws DecryptException {
+        MetricsSpan span = Metrics.startSpan('jervis.securityio', [operation: 'rsaDecryptOaep'])
+        try {
+            return rsaDecryptBytesOaepInternal(cipherbytes)
+        }
+        catch(Throwable e) {
+            span.error(e)
+            throw e
+        }
+        finally {
+            span.close()
+        }
+    }
+
+    private byte[] rsaDecryptBytesOaepInternal(byte[] cipherbytes) throws DecryptException {
         if(!key_pair) {
             throw new DecryptException('key_pair is not set.')
         }
         // Use OAEP padding instead of PKCS1 to prevent Bleichenbacher padding oracle attacks
         AsymmetricBlockCipher decrypt = new OAEPEncoding(new RSAEngine())
-        decrypt.init(false, PrivateKeyFactory.createKey(key_pair.private.encoded) as AsymmetricKeyParameter)
+        decrypt.init(false, privateParameter())
         decrypt.processBlock(cipherbytes, 0, cipherbytes.length)
     }
 
@@ -544,7 +679,7 @@ echo -n 'plaintext' | openssl rsautl -encrypt -inkey ./id_rsa.pub -pubin | opens
             throw new EncryptException('key_pair is not set.')
         }
         AsymmetricBlockCipher encrypt = new PKCS1Encoding(new RSAEngine())
-        encrypt.init(true, PublicKeyFactory.createKey(key_pair.public.encoded) as AsymmetricKeyParameter)
+        encrypt.init(true, publicParameter())
         byte[] enciphered = encrypt.processBlock(plainbytes, 0, plainbytes.length)
         enciphered
     }
@@ -583,7 +718,7 @@ echo 'ciphertext' | openssl enc -base64 -A -d | openssl rsautl -decrypt -inkey /
             throw new DecryptException('key_pair is not set.')
         }
         AsymmetricBlockCipher decrypt = new PKCS1Encoding(new RSAEngine())
-        decrypt.init(false, PrivateKeyFactory.createKey(key_pair.private.encoded) as AsymmetricKeyParameter)
+        decrypt.init(false, privateParameter())
         decrypt.processBlock(cipherbytes, 0, cipherbytes.length)
     }
 
@@ -751,6 +886,20 @@ println("Time taken (milliseconds): ${Instant.now().toEpochMilli() - before}ms")
       @return Ciphertext with 12-byte nonce prepended (nonce || ciphertext || auth-tag).
       */
     static byte[] encryptWithAES256GCM(byte[] secret, String data) {
+        MetricsSpan span = Metrics.startSpan('jervis.securityio', [operation: 'encryptAES256GCM'])
+        try {
+            return encryptWithAES256GCMInternal(secret, data)
+        }
+        catch(Throwable e) {
+            span.error(e)
+            throw e
+        }
+        finally {
+            span.close()
+        }
+    }
+
+    private static byte[] encryptWithAES256GCMInternal(byte[] secret, String data) {
         // Generate a random 12-byte nonce for GCM (recommended size)
         byte[] nonce = randomBytes(12)
 
@@ -782,6 +931,20 @@ println("Time taken (milliseconds): ${Instant.now().toEpochMilli() - before}ms")
       @return Decrypted plaintext String.
       */
     static String decryptWithAES256GCM(byte[] secret, byte[] data) {
+        MetricsSpan span = Metrics.startSpan('jervis.securityio', [operation: 'decryptAES256GCM'])
+        try {
+            return decryptWithAES256GCMInternal(secret, data)
+        }
+        catch(Throwable e) {
+            span.error(e)
+            throw e
+        }
+        finally {
+            span.close()
+        }
+    }
+
+    private static String decryptWithAES256GCMInternal(byte[] secret, byte[] data) {
         // Extract 12-byte nonce from beginning of ciphertext
         if(data.length < 28) { // 12 bytes nonce + 16 bytes auth tag (min for empty plaintext)
             throw new DecryptException('Ciphertext too short - missing nonce or auth tag')
@@ -827,6 +990,291 @@ println("Time taken (milliseconds): ${Instant.now().toEpochMilli() - before}ms")
         decryptWithAES256GCM(b_secret, b_data)
     }
 
+    /**
+      HMAC-based key derivation function (HKDF) using HMAC-SHA256 as defined
+      by <a href="https://datatracker.ietf.org/doc/html/rfc5869" target=_blank>RFC 5869</a>.
+      Derives one or more strong keys from existing key material.  Unlike
+      PBKDF2, HKDF is fast and is not meant for deriving keys from human
+      passphrases.
+
+      @param ikm Input key material.
+      @param salt Optional random salt.  If empty or <tt>null</tt>, then 32
+                  zero bytes are used as defined by the RFC.
+      @param info Optional context so that keys derived for different purposes
+                  are independent.
+      @param length Number of bytes to derive up to <tt>8160</tt> bytes.
+      @return Derived key material.
+      */
+    static byte[] hkdfSha256(byte[] ikm, byte[] salt, byte[] info, int length) {
+        if(length < 1 || length > 255 * 32) {
+            throw new IllegalArgumentException('HKDF length must be between 1 and 8160 bytes.')
+        }
+        Mac mac = Mac.getInstance('HmacSHA256')
+        mac.init(new SecretKeySpec(salt ?: new byte[32], 'HmacSHA256'))
+        byte[] prk = mac.doFinal(ikm)
+        mac.init(new SecretKeySpec(prk, 'HmacSHA256'))
+        ByteArrayOutputStream okm = new ByteArrayOutputStream()
+        byte[] t = new byte[0]
+        int counter = 1
+        while(okm.size() < length) {
+            mac.update(t)
+            if(info) {
+                mac.update(info)
+            }
+            mac.update((byte) counter)
+            t = mac.doFinal()
+            okm.write(t)
+            counter++
+        }
+        Arrays.copyOf(okm.toByteArray(), length)
+    }
+
+    /**
+      Encrypt a stream of any size using AES-256-GCM in constant memory.  The
+      plaintext is split into segments and each segment is individually
+      encrypted and authenticated.  Segments are encrypted in parallel when
+      more than one thread is allowed.
+
+      <p>The ciphertext format is a 28 byte header followed by encrypted
+      segments.  The header contains a format version, the segment size, a
+      random 16 byte salt, and a random 7 byte nonce prefix.  A unique key for
+      the stream is derived from the secret and salt with
+      <tt>{@link #hkdfSha256(byte[], byte[], byte[], int)}</tt>.  Each
+      segment nonce is the nonce prefix, a 4 byte segment counter, and a 1
+      byte final segment marker.  The header is authenticated with every
+      segment.  Reordering, removing, or truncating segments causes
+      decryption to fail.</p>
+
+      <h2>Sample usage</h2>
+<pre><code>
+import net.gleske.jervis.tools.SecurityIO
+
+byte[] secret = SecurityIO.randomBytes(32)
+new File('build.log').withInputStream { plain -&gt;
+    new File('build.log.enc').withOutputStream { encrypted -&gt;
+        SecurityIO.encryptWithAES256GCMStream(secret, plain, encrypted)
+    }
+}
+new File('build.log.enc').withInputStream { encrypted -&gt;
+    new File('build.log.dec').withOutputStream { plain -&gt;
+        SecurityIO.decryptWithAES256GCMStream(secret, encrypted, plain)
+    }
+}
+</code></pre>
+
+      @param secret Secret key for encrypting.  If byte-count is less than 32
+                    (256-bits), then bytes are repeated until 256 bits are
+                    available.
+      @param plaintext A stream of data to encrypt.  The stream is read until
+                       the end but not closed.
+      @param ciphertext A stream where encrypted data is written.  The stream
+                        is flushed but not closed.
+      @param segmentSize The number of plaintext bytes in each segment.
+                         Memory used is roughly the segment size multiplied by
+                         twice the thread count.
+      @param threads The number of threads encrypting segments.  Defaults to
+                     the number of available processors.
+      */
+    static void encryptWithAES256GCMStream(byte[] secret, InputStream plaintext, OutputStream ciphertext, Integer segmentSize = DEFAULT_STREAM_SEGMENT_SIZE, Integer threads = Runtime.runtime.availableProcessors()) throws EncryptException {
+        MetricsSpan span = Metrics.startSpan('jervis.securityio', [operation: 'encryptAES256GCMStream'])
+        try {
+            encryptWithAES256GCMStreamInternal(secret, plaintext, ciphertext, segmentSize, threads)
+        }
+        catch(Throwable e) {
+            span.error(e)
+            throw e
+        }
+        finally {
+            span.close()
+        }
+    }
+
+    private static void encryptWithAES256GCMStreamInternal(byte[] secret, InputStream plaintext, OutputStream ciphertext, Integer segmentSize, Integer threads) throws EncryptException {
+        if(segmentSize < 1 || segmentSize > STREAM_MAX_SEGMENT_SIZE) {
+            throw new EncryptException("Segment size must be between 1 and ${STREAM_MAX_SEGMENT_SIZE} bytes.")
+        }
+        byte[] salt = randomBytes(16)
+        byte[] noncePrefix = randomBytes(7)
+        ByteArrayOutputStream header = new ByteArrayOutputStream()
+        header.write(STREAM_VERSION)
+        header.write([segmentSize >>> 24, segmentSize >>> 16, segmentSize >>> 8, segmentSize] as byte[])
+        header.write(salt)
+        header.write(noncePrefix)
+        final byte[] aad = header.toByteArray()
+        final SecretKey key = streamKey(secret, salt)
+        ciphertext.write(aad)
+        processStreamSegments(plaintext, ciphertext, segmentSize, threads) { byte[] segment, long index, Boolean last ->
+            Cipher cipher = Cipher.getInstance('AES/GCM/NoPadding')
+            cipher.init(Cipher.ENCRYPT_MODE, key, new GCMParameterSpec(128, streamNonce(noncePrefix, index, last)))
+            cipher.updateAAD(aad)
+            cipher.doFinal(segment)
+        }
+        ciphertext.flush()
+    }
+
+    /**
+      Decrypt a stream which was encrypted by
+      <tt>{@link #encryptWithAES256GCMStream(byte[], java.io.InputStream, java.io.OutputStream, java.lang.Integer, java.lang.Integer)}</tt>
+      in constant memory.  Every segment is authenticated before its
+      plaintext is written.  Plaintext of earlier segments will already be
+      written if a later segment fails to authenticate so a caller should
+      discard all output when a <tt>DecryptException</tt> is thrown.
+
+      @param secret Secret key for decrypting.  If byte-count is less than 32
+                    (256-bits), then bytes are repeated until 256 bits are
+                    available.
+      @param ciphertext A stream of encrypted data.  The stream is read until
+                        the end but not closed.
+      @param plaintext A stream where decrypted data is written.  The stream
+                       is flushed but not closed.
+      @param threads The number of threads decrypting segments.  Defaults to
+                     the number of available processors.
+      */
+    static void decryptWithAES256GCMStream(byte[] secret, InputStream ciphertext, OutputStream plaintext, Integer threads = Runtime.runtime.availableProcessors()) throws DecryptException {
+        MetricsSpan span = Metrics.startSpan('jervis.securityio', [operation: 'decryptAES256GCMStream'])
+        try {
+            decryptWithAES256GCMStreamInternal(secret, ciphertext, plaintext, threads)
+        }
+        catch(Throwable e) {
+            span.error(e)
+            throw e
+        }
+        finally {
+            span.close()
+        }
+    }
+
+    private static void decryptWithAES256GCMStreamInternal(byte[] secret, InputStream ciphertext, OutputStream plaintext, Integer threads) throws DecryptException {
+        final byte[] aad = readStreamBytes(ciphertext, STREAM_HEADER_SIZE)
+        if(aad.length < STREAM_HEADER_SIZE) {
+            throw new DecryptException('Ciphertext too short - missing stream header.')
+        }
+        if(aad[0] != STREAM_VERSION) {
+            throw new DecryptException("Unsupported stream format version ${aad[0]}.")
+        }
+        int segmentSize = ((aad[1] & 0xff) << 24) | ((aad[2] & 0xff) << 16) | ((aad[3] & 0xff) << 8) | (aad[4] & 0xff)
+        if(segmentSize < 1 || segmentSize > STREAM_MAX_SEGMENT_SIZE) {
+            throw new DecryptException('Stream header contains an invalid segment size.')
+        }
+        final byte[] salt = Arrays.copyOfRange(aad, 5, 21)
+        final byte[] noncePrefix = Arrays.copyOfRange(aad, 21, 28)
+        final SecretKey key = streamKey(secret, salt)
+        processStreamSegments(ciphertext, plaintext, segmentSize + 16, threads) { byte[] segment, long index, Boolean last ->
+            if(segment.length < 16) {
+                throw new DecryptException('Ciphertext truncated - segment is missing its auth tag.')
+            }
+            Cipher cipher = Cipher.getInstance('AES/GCM/NoPadding')
+            cipher.init(Cipher.DECRYPT_MODE, key, new GCMParameterSpec(128, streamNonce(noncePrefix, index, last)))
+            cipher.updateAAD(aad)
+            try {
+                cipher.doFinal(segment)
+            }
+            catch(AEADBadTagException e) {
+                throw new DecryptException("Segment ${index} failed authentication.  The ciphertext is corrupt, truncated, or the secret is wrong.")
+            }
+        }
+        plaintext.flush()
+    }
+
+    /**
+      Derives a per-stream AES key from a secret and a random salt.
+      */
+    private static SecretKey streamKey(byte[] secret, byte[] salt) {
+        byte[] derived = hkdfSha256(Arrays.copyOf(padForAES256(secret), 32), salt, 'jervis aes-256-gcm stream v1'.getBytes('UTF-8'), 32)
+        new SecretKeySpec(derived, 'AES')
+    }
+
+    /**
+      Segment nonce: 7 byte prefix, 4 byte big-endian counter, and a final
+      segment marker.
+      */
+    private static byte[] streamNonce(byte[] prefix, long index, Boolean last) {
+        if(index > 0xffffffffL) {
+            throw new SecurityException('Too many segments in stream.  Use a larger segment size.')
+        }
+        byte[] nonce = Arrays.copyOf(prefix, 12)
+        nonce[7] = (byte) (index >>> 24)
+        nonce[8] = (byte) (index >>> 16)
+        nonce[9] = (byte) (index >>> 8)
+        nonce[10] = (byte) index
+        nonce[11] = (byte) (last ? 1 : 0)
+        nonce
+    }
+
+    /**
+      Reads up to <tt>length</tt> bytes and only returns fewer bytes at the
+      end of the stream.
+      */
+    private static byte[] readStreamBytes(InputStream input, int length) {
+        byte[] buffer = new byte[length]
+        int total = 0
+        int count
+        while(total < length && (count = input.read(buffer, total, length - total)) >= 0) {
+            total += count
+        }
+        (total == length) ? buffer : Arrays.copyOf(buffer, total)
+    }
+
+    /**
+      Reads an input stream in segments, transforms each segment, and writes
+      the results in order.  A segment is known to be the last segment by
+      reading one segment ahead.  When <tt>threads</tt> is greater than one,
+      segments are transformed in parallel with a bounded number of segments
+      held in memory.
+
+      @param transform A closure which is passed a segment, a segment index,
+                       and whether it is the last segment.  It returns bytes
+                       to write.
+      */
+    private static void processStreamSegments(InputStream input, OutputStream output, int segmentLength, Integer threads, Closure transform) {
+        ExecutorService pool
+        if(threads > 1) {
+            pool = Executors.newFixedThreadPool(threads, new DaemonThreadFactory('jervis-securityio-stream'))
+        }
+        ArrayDeque<Future<byte[]>> pending = new ArrayDeque<Future<byte[]>>()
+        int maxInFlight = Math.max(threads, 1) * 2
+        Closure writeNext = { ->
+            try {
+                output.write(pending.pollFirst().get())
+            }
+            catch(ExecutionException e) {
+                throw e.cause
+            }
+        }
+        try {
+            byte[] current = readStreamBytes(input, segmentLength)
+            long index = 0
+            while(true) {
+                byte[] next = (current.length == segmentLength) ? readStreamBytes(input, segmentLength) : new byte[0]
+                final Boolean last = next.length == 0
+                if(pool) {
+                    final byte[] segment = current
+                    final long segmentIndex = index
+                    pending.add(pool.submit({ ->
+                        transform(segment, segmentIndex, last)
+                    } as Callable<byte[]>))
+                    while(pending && (pending.size() >= maxInFlight || pending.peekFirst().isDone())) {
+                        writeNext()
+                    }
+                }
+                else {
+                    output.write(transform(current, index, last))
+                }
+                if(last) {
+                    break
+                }
+                current = next
+                index++
+            }
+            while(pending) {
+                writeNext()
+            }
+        }
+        finally {
+            pool?.shutdownNow()
+        }
+    }
+
     /**
       Encrypt plaintext using AES-256 CBC mode with PKCS5 padding.  The IV is
       hashed with multiple iterations of SHA-256.
@@ -998,8 +1446,9 @@ println("Time taken (milliseconds): ${Instant.now().toEpochMilli() - before}ms")
 
       @param passphrase A passphrase which would typically come from human input.
       @param shasum A SHA-256 a derived from the passphrase.
+      @see net.gleske.jervis.tools.PassphraseSession
       */
-    private static byte[] passwordKeyDerivation(String passphrase, String shasum) {
+    protected static byte[] passwordKeyDerivation(String passphrase, String shasum) {
         Integer iterations = iterationDerivation(shasum)
         SecretKeyFactory factory = SecretKeyFactory.getInstance("PBKDF2WithHmacSHA256")
         KeySpec spec = new PBEKeySpec(passphrase.toCharArray(), shasum.getBytes(), iterations, 256)
@@ -1071,16 +1520,24 @@ println "Encrypt time: ${timing1} second(s)\nDecrypt time: ${timing2} second(s)"
 
     /**
       Decrypts ciphertext with AES-256-GCM using a passphrase.
-      Expects the format: salt (32 bytes) || nonce (12 bytes) || ciphertext || auth-tag
+      Expects the format: salt (32 bytes) || nonce (12 bytes) || ciphertext || auth-tag or
+      the <tt>{@link net.gleske.jervis.tools.PassphraseSession}</tt> format.
       Provides authenticated decryption that verifies integrity.
 
       @see #encryptWithPassphraseGCM(java.lang.String, java.lang.String) encryptWithPassphraseGCM using passphrase method
       @see #decryptWithAES256GCM(byte[], byte[]) decryptWithAES256GCM AES-GCM deciphering details
+      @see net.gleske.jervis.tools.PassphraseSession PassphraseSession for encrypting many messages with one passphrase
       @param passphrase A passphrase used to decrypt AES-256-GCM ciphertext.
-      @param data Base64 encoded ciphertext to be decrypted (with prepended salt and nonce).
+      @param data Base64 encoded ciphertext to be decrypted (with prepended salt
+                  and nonce).  Ciphertext from a
+                  <tt>{@link net.gleske.jervis.tools.PassphraseSession}</tt> is
+                  also accepted.
       @return Decrypted plaintext String.
       */
     static String decryptWithPassphraseGCM(String passphrase, String data) {
+        if(PassphraseSession.isSessionCiphertext(data)) {
+            return PassphraseSession.decrypt(passphrase, data)
+        }
         byte[] fullData = decodeBase64Bytes(data)
 
         // Extract 32-byte salt from beginning
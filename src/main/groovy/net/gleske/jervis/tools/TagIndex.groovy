@@ -0,0 +1,133 @@
+/*
+   Copyright 2014-2026 Sam Gleske - https://github.com/samrocketman/jervis
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+   */
+package net.gleske.jervis.tools
+
+/**
+  An index of Git tags for
+  <tt>{@link net.gleske.jervis.tools.AutoRelease}</tt>.  Every tag is parsed
+  once into a stem and a trailing release number.  For example, the tag
+  <tt>v1.3.4</tt> has the stem <tt>v1.3.</tt> and the release number
+  <tt>4</tt>.  Only the highest release number of each stem is kept in a
+  sorted map so finding the next release is a single <tt>O(log n)</tt> lookup
+  instead of matching a regular expression against every tag.  Repositories
+  with tens of thousands of tags should build an index once and pass it to
+  every <tt>AutoRelease</tt> call.
+
+  <h2>Sample usage</h2>
+  <p>To run this example, clone Jervis and execute <tt>./gradlew console</tt>
+  to bring up a <a href="http://groovy-lang.org/groovyconsole.html" target="_blank">Groovy Console</a>
+  with the classpath set up.</p>
+
+<pre><code>
+import static net.gleske.jervis.tools.AutoRelease.getNextRelease
+import static net.gleske.jervis.tools.AutoRelease.getNextSemanticRelease
+import net.gleske.jervis.tools.TagIndex
+
+Process git = ['git', 'tag'].execute()
+TagIndex tags = TagIndex.fromReader(git.inputStream.newReader())
+git.waitFor()
+
+println "Indexed ${tags.size()} tags"
+println getNextSemanticRelease('1.3.0', tags, 'v')
+println getNextRelease('1.3.2', tags, '-', 'v')
+</code></pre>
+  */
+class TagIndex {
+
+    private final TreeMap<String, Long> latest = new TreeMap<String, Long>()
+    private int count = 0
+
+    /**
+      Create an empty index.  Add tags with <tt>{@link #add(java.lang.String)}</tt>.
+      */
+    TagIndex() { }
+
+    /**
+      Create an index from a list of Git tags.
+
+      @param git_tags A list of tags pulled from Git.
+      */
+    TagIndex(Collection<String> git_tags) {
+        git_tags.each { String tag ->
+            add(tag)
+        }
+    }
+
+    /**
+      Create an index by streaming one tag per line such as the output of
+      <tt>git tag</tt>.  Tags are indexed as they are read so the full list of
+      tags is never held in memory.  The reader is not closed.
+
+      @param reader Reads one Git tag per line.  Blank lines are ignored.
+      @return An index of all tags read.
+      */
+    static TagIndex fromReader(Reader reader) {
+        TagIndex index = new TagIndex()
+        BufferedReader lines = (reader instanceof BufferedReader) ? (BufferedReader) reader : new BufferedReader(reader)
+        String line
+        while((line = lines.readLine()) != null) {
+            index.add(line.trim())
+        }
+        index
+    }
+
+    /**
+      Add a Git tag to the index.  Tags which do not end with a number are
+      counted but can never be the latest release of a stem.
+
+      @param tag A tag pulled from Git.
+      */
+    void add(String tag) {
+        if(!tag) {
+            return
+        }
+        this.count++
+        int start = tag.length()
+        while(start > 0 && Character.isDigit(tag.charAt(start - 1))) {
+            start--
+        }
+        // more than 18 digits does not fit in a Long so it is not a release number
+        if(start == tag.length() || tag.length() - start > 18) {
+            return
+        }
+        String stem = tag.substring(0, start)
+        Long number = Long.parseLong(tag.substring(start))
+        Long current = this.latest.get(stem)
+        if(current == null || number > current) {
+            this.latest.put(stem, number)
+        }
+    }
+
+    /**
+      Get the highest release number of all tags which are the stem followed
+      only by digits.  For example, the stem <tt>v1.3.</tt> matches tags
+      <tt>v1.3.1</tt> and <tt>v1.3.2</tt> but not <tt>v1.3.2-1</tt>.
+
+      @param stem The tag prefix, version, and separator before the release
+                  number.
+      @return The highest release number or <tt>null</tt> if no tags match.
+      */
+    Long getLatestRelease(String stem) {
+        this.latest.get(stem)
+    }
+
+    /**
+      The number of tags added to this index.
+      */
+    int size() {
+        this.count
+    }
+}
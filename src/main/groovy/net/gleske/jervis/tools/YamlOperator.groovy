@@ -21,6 +21,12 @@ import org.yaml.snakeyaml.Yaml
 import org.yaml.snakeyaml.constructor.SafeConstructor
 import org.yaml.snakeyaml.representer.Representer
 
+import java.lang.ref.ReferenceQueue
+import java.lang.ref.WeakReference
+import java.util.concurrent.ArrayBlockingQueue
+import java.util.concurrent.BlockingQueue
+import java.util.concurrent.ConcurrentHashMap
+
 /**
   A utility class for centralizing basic YAML operations required by Jervis.
   Reads and writes YAML.  This utility class is necessary because of a few
@@ -49,7 +55,44 @@ Map result = YamlOperator.loadYamlFrom(yaml)
 println(YamlOperator.writeObjToYaml(result))
 
 // Write YAML to a File
-YamlOperator.writeObjToYaml(new File('/tmp/file.yaml')), result)
+YamlOperator.writeObjToYaml(new File('/tmp/file.yaml'), result)
+</code></pre>
+
+  <h2>Large YAML</h2>
+
+  <p>YAML engines are expensive to create so they are pooled and reused.
+  YAML can be written directly to a <tt>Writer</tt> and multi-document YAML
+  can be parsed one document at a time.</p>
+
+<pre><code>
+import net.gleske.jervis.tools.YamlOperator
+
+new File('/tmp/documents.yaml').withWriter('UTF-8') { Writer w -&gt;
+    1000.times {
+        w &lt;&lt; '---\n'
+        YamlOperator.writeObjToYaml(w, [id: it])
+    }
+}
+
+Integer count = 0
+YamlOperator.loadAllYamlFrom(new File('/tmp/documents.yaml')) { Map document -&gt;
+    count++
+}
+assert count == 1000
+</code></pre>
+
+  <h2>Long lived YAML</h2>
+
+  <p>YAML kept in memory for a long time can be compacted into a read-only
+  tree.  Keys are interned, maps and lists are backed by arrays, and
+  identical values are shared with other compacted YAML.</p>
+
+<pre><code>
+import net.gleske.jervis.tools.YamlOperator
+
+Map first = YamlOperator.compact(YamlOperator.loadYamlFrom('jdk: [openjdk8, openjdk11]\nlanguage: java'))
+Map second = YamlOperator.compact(YamlOperator.loadYamlFrom('jdk: [openjdk8, openjdk11]\nlanguage: groovy'))
+assert first.jdk.is(second.jdk)
 </code></pre>
   */
 class YamlOperator {
@@ -58,20 +101,85 @@ class YamlOperator {
     }
 
     /**
-      Convert a POJO consisting of standard Java classes into a YAML string.
-      @param yamlToSerialize A POJO consisting of standard Java class instance
-                             objects.
-      @return A YAML-spec String.
+      The maximum number of idle YAML engines kept for reuse.  A
+      <tt>{@link org.yaml.snakeyaml.Yaml}</tt> instance is not thread safe so
+      each engine is borrowed by only one thread at a time.  A pool is used
+      instead of a <tt>ThreadLocal</tt> so that long lived threads, such as
+      Jenkins executors, do not keep engines alive.
       */
-    static String writeObjToYaml(def yamlToSerialize) {
+    static final Integer ENGINE_POOL_SIZE = 16
+
+    private static final BlockingQueue<Yaml> loaders = new ArrayBlockingQueue<Yaml>(ENGINE_POOL_SIZE)
+
+    private static final BlockingQueue<Yaml> dumpers = new ArrayBlockingQueue<Yaml>(ENGINE_POOL_SIZE)
+
+    /**
+      Creates a new YAML engine for parsing YAML with safe loading limits.
+      */
+    private static Yaml newLoader() {
+        LoaderOptions options = new LoaderOptions()
+        options.allowDuplicateKeys = true
+        options.allowRecursiveKeys = false
+        // 5MB data limit?  code point limit is not well explained
+        options.codePointLimit = 5242880
+        options.maxAliasesForCollections = 500
+        options.nestingDepthLimit = 500
+        options.processComments = false
+        options.wrappedToRootException = false
+        new Yaml(new SafeConstructor(options))
+    }
+
+    /**
+      Creates a new YAML engine for writing YAML.
+      */
+    private static Yaml newDumper() {
         DumperOptions options = new DumperOptions()
         options.setIndent(2)
         options.setPrettyFlow(true)
         options.setDefaultFlowStyle(DumperOptions.FlowStyle.BLOCK)
         options.setIndicatorIndent(2)
         options.setIndentWithIndicator(true)
-        def yaml = new Yaml(new SafeConstructor(new LoaderOptions()), new Representer(options), options)
-        yaml.dump(yamlToSerialize)
+        new Yaml(new SafeConstructor(new LoaderOptions()), new Representer(options), options)
+    }
+
+    /**
+      Borrows an engine from a pool for the duration of the closure.  A new
+      engine is created if none are idle.  The engine is returned to the pool
+      afterward unless the pool is full.  An engine which threw an exception
+      is discarded because it may hold state from the failed operation.
+      */
+    private static def withEngine(BlockingQueue<Yaml> pool, Closure create, Closure body) {
+        Yaml yaml = pool.poll() ?: create()
+        def result = body(yaml)
+        pool.offer(yaml)
+        result
+    }
+
+    /**
+      Convert a POJO consisting of standard Java classes into a YAML string.
+      @param yamlToSerialize A POJO consisting of standard Java class instance
+                             objects.
+      @return A YAML-spec String.
+      */
+    static String writeObjToYaml(def yamlToSerialize) {
+        withEngine(dumpers, {-> newDumper() }) { Yaml yaml ->
+            yaml.dump(yamlToSerialize)
+        }
+    }
+
+    /**
+      Convert a POJO consisting of standard Java classes into YAML written
+      directly to a <tt>Writer</tt> without building a <tt>String</tt> in
+      memory first.  The writer is not closed.
+
+      @param destWriter A writer where the YAML output will be written.
+      @param yamlToSerialize A POJO consisting of standard Java class instance
+                             objects.
+      */
+    static void writeObjToYaml(Writer destWriter, def yamlToSerialize) {
+        withEngine(dumpers, {-> newDumper() }) { Yaml yaml ->
+            yaml.dump(yamlToSerialize, destWriter)
+        }
     }
 
     /**
@@ -84,7 +192,7 @@ class YamlOperator {
       */
     static void writeObjToYaml(File destFile, def yamlToSerialize) {
         destFile.withWriter('UTF-8') { Writer w ->
-            w << writeObjToYaml(yamlToSerialize)
+            writeObjToYaml(w, yamlToSerialize)
         }
     }
 
@@ -95,17 +203,21 @@ class YamlOperator {
       @return A plain old Java object consisting of standard Java classes.
       */
     static def loadYamlFrom(InputStream srcStream) {
-        LoaderOptions options = new LoaderOptions()
-        options.allowDuplicateKeys = true
-        options.allowRecursiveKeys = false
-        // 5MB data limit?  code point limit is not well explained
-        options.codePointLimit = 5242880
-        options.maxAliasesForCollections = 500
-        options.nestingDepthLimit = 500
-        options.processComments = false
-        options.wrappedToRootException = false
-        def yaml = new Yaml(new SafeConstructor(options))
-        yaml.load(srcStream)
+        withEngine(loaders, {-> newLoader() }) { Yaml yaml ->
+            yaml.load(srcStream)
+        }
+    }
+
+    /**
+      Parse YAML from a <tt>Reader</tt>.
+
+      @param srcReader A reader which contains YAML to be parsed.
+      @return A plain old Java object consisting of standard Java classes.
+      */
+    static def loadYamlFrom(Reader srcReader) {
+        withEngine(loaders, {-> newLoader() }) { Yaml yaml ->
+            yaml.load(srcReader)
+        }
     }
 
     /**
@@ -115,7 +227,7 @@ class YamlOperator {
       @return A plain old Java object consisting of standard Java classes.
       */
     static def loadYamlFrom(String srcString) {
-        loadYamlFrom(new ByteArrayInputStream(srcString.bytes))
+        loadYamlFrom(new StringReader(srcString))
     }
 
     /**
@@ -126,7 +238,7 @@ class YamlOperator {
       @return A plain old Java object consisting of standard Java classes.
       */
     static def loadYamlFrom(StringWriter srcString) {
-        loadYamlFrom(new ByteArrayInputStream(srcString.toString().bytes)) ?: ''
+        loadYamlFrom(new StringReader(srcString.toString())) ?: ''
     }
 
     /**
@@ -146,7 +258,65 @@ class YamlOperator {
       @return A plain old Java object consisting of standard Java classes.
       */
     static def loadYamlFrom(File srcFile) {
-        loadYamlFrom(new FileInputStream(srcFile))
+        srcFile.withInputStream { InputStream is ->
+            loadYamlFrom(is)
+        }
+    }
+
+    /**
+      Lazily parse multi-document YAML from a <tt>Reader</tt>.  Each document
+      is parsed when it is iterated so only one document is held in memory at
+      a time.  Documents are separated by <tt>---</tt>.
+
+      @param srcReader A reader which contains one or more YAML documents.
+      @return An <tt>Iterable</tt> of plain old Java objects consisting of
+              standard Java classes.  It can only be iterated once.
+      */
+    static Iterable<Object> loadAllYamlFrom(Reader srcReader) {
+        // an engine is not returned to the pool since the iterator keeps
+        // using it after this method returns
+        newLoader().loadAll(srcReader)
+    }
+
+    /**
+      Lazily parse multi-document YAML from an <tt>InputStream</tt>.
+
+      @see #loadAllYamlFrom(java.io.Reader)
+      @param srcStream A stream which contains one or more YAML documents.
+      @return An <tt>Iterable</tt> of plain old Java objects consisting of
+              standard Java classes.  It can only be iterated once.
+      */
+    static Iterable<Object> loadAllYamlFrom(InputStream srcStream) {
+        newLoader().loadAll(srcStream)
+    }
+
+    /**
+      Lazily parse multi-document YAML from a <tt>String</tt>.
+
+      @see #loadAllYamlFrom(java.io.Reader)
+      @param srcString A <tt>String</tt> which contains one or more YAML
+                       documents.
+      @return An <tt>Iterable</tt> of plain old Java objects consisting of
+              standard Java classes.  It can only be iterated once.
+      */
+    static Iterable<Object> loadAllYamlFrom(String srcString) {
+        loadAllYamlFrom(new StringReader(srcString))
+    }
+
+    /**
+      Parse multi-document YAML from a file one document at a time.  The file
+      is closed after all documents are parsed.
+
+      @see #loadAllYamlFrom(java.io.Reader)
+      @param srcFile A file with one or more YAML documents.
+      @param body A closure called with each document.
+      */
+    static void loadAllYamlFrom(File srcFile, Closure body) {
+        srcFile.withInputStream { InputStream is ->
+            loadAllYamlFrom(is).each { document ->
+                body(document)
+            }
+        }
     }
 
     /**
@@ -357,4 +527,221 @@ assert getObjectValue(hexKeys, 'hello // friend.name', [ '', [] ]) == 'dog'
     static def deepCopy(def m) {
         loadYamlFrom(writeObjToYaml(m))
     }
+
+    /**
+      Compacted values which are shared between all compacted YAML grouped by
+      <tt>{@link #yamlHash(java.lang.Object)}</tt>.  Values are weakly
+      referenced so unused values are garbage collected.  Each bucket is
+      locked separately so that threads compacting YAML only wait on each
+      other when looking up values with the same hash.
+      */
+    private static final ConcurrentHashMap<Integer, List<SharedReference>> shared = new ConcurrentHashMap<Integer, List<SharedReference>>()
+
+    private static final ReferenceQueue<Object> collected = new ReferenceQueue<Object>()
+
+    private static class SharedReference extends WeakReference<Object> {
+        final int hash
+
+        SharedReference(Object value, int hash, ReferenceQueue<Object> queue) {
+            super(value, queue)
+            this.hash = hash
+        }
+    }
+
+    private static class RecursiveYamlException extends RuntimeException {
+    }
+
+    /**
+      Converts an object created from <tt>YamlOperator</tt> into a compact
+      read-only copy meant for YAML which is kept in memory for a long time.
+
+      <ul>
+        <li>
+          Every <tt>Map</tt> becomes a
+          <tt>{@link net.gleske.jervis.tools.CompactYamlMap}</tt> and every
+          <tt>List</tt> becomes a
+          <tt>{@link net.gleske.jervis.tools.CompactYamlList}</tt>.  Iteration
+          order is preserved.
+        </li>
+        <li>
+          <tt>String</tt> keys are interned.
+        </li>
+        <li>
+          Identical strings, maps, and lists are shared with all other
+          compacted YAML.  For example, the same <tt>.jervis.yml</tt> split
+          across several platforms and operating systems only keeps one copy
+          of the keys which are the same for every platform.
+        </li>
+      </ul>
+
+      <p>Other values, such as numbers and dates, are kept as-is.  Modifying a
+      compacted object throws an
+      <tt>{@link java.lang.UnsupportedOperationException}</tt>; use
+      <tt>{@link #deepCopy(java.lang.Object)}</tt> to get a modifiable
+      copy.  YAML which refers to itself through anchors cannot be compacted
+      so it is returned unchanged.</p>
+
+      @param obj An object that was parsed from YAML using <tt>YamlOperator</tt>
+      @return A read-only equivalent of <tt>obj</tt>.
+      */
+    static def compact(def obj) {
+        try {
+            compactRecurse(obj, new IdentityHashMap<Object, Boolean>())
+        }
+        catch(RecursiveYamlException ignored) {
+            obj
+        }
+    }
+
+    private static def compactRecurse(def obj, Map<Object, Boolean> visiting) {
+        if((obj instanceof CompactYamlMap) || (obj instanceof CompactYamlList) || (obj instanceof String)) {
+            return share(obj)
+        }
+        if(!(obj instanceof Map) && !(obj instanceof List)) {
+            return obj
+        }
+        if(visiting.containsKey(obj)) {
+            throw new RecursiveYamlException()
+        }
+        visiting.put(obj, true)
+        def result
+        if(obj instanceof Map) {
+            Object[] keys = new Object[obj.size()]
+            Object[] values = new Object[obj.size()]
+            int i = 0
+            for(Map.Entry entry : ((Map) obj).entrySet()) {
+                keys[i] = (entry.key instanceof String) ? ((String) entry.key).intern() : compactRecurse(entry.key, visiting)
+                values[i] = compactRecurse(entry.value, visiting)
+                i++
+            }
+            result = new CompactYamlMap(keys, values)
+        }
+        else {
+            Object[] items = new Object[obj.size()]
+            int i = 0
+            for(Object item : (List) obj) {
+                items[i++] = compactRecurse(item, visiting)
+            }
+            result = new CompactYamlList(items)
+        }
+        visiting.remove(obj)
+        share(result)
+    }
+
+    /**
+      Returns a previously compacted value identical to <tt>value</tt> or
+      remembers <tt>value</tt> for sharing.  <tt>Map.equals</tt> ignores key
+      order so YAML sameness is checked separately.
+      */
+    private static Object share(Object value) {
+        expungeCollected()
+        int hash = yamlHash(value)
+        while(true) {
+            List<SharedReference> bucket = shared.get(hash)
+            if(bucket == null) {
+                bucket = new ArrayList<SharedReference>(1)
+                List<SharedReference> raced = shared.putIfAbsent(hash, bucket)
+                if(raced != null) {
+                    bucket = raced
+                }
+            }
+            synchronized(bucket) {
+                // an empty bucket may have been removed by another thread
+                if(!shared.get(hash).is(bucket)) {
+                    continue
+                }
+                for(SharedReference existing : bucket) {
+                    Object candidate = existing.get()
+                    if(candidate != null && sameYaml(candidate, value)) {
+                        return candidate
+                    }
+                }
+                bucket.add(new SharedReference(value, hash, collected))
+                return value
+            }
+        }
+    }
+
+    /**
+      Forgets shared values which were garbage collected.
+      */
+    private static void expungeCollected() {
+        SharedReference ref
+        while((ref = (SharedReference) collected.poll()) != null) {
+            List<SharedReference> stale = shared.get(ref.hash)
+            if(stale == null) {
+                continue
+            }
+            synchronized(stale) {
+                stale.remove(ref)
+                if(stale.isEmpty()) {
+                    shared.remove(ref.hash, stale)
+                }
+            }
+        }
+    }
+
+    /**
+      An order sensitive hash.  Children of compacted maps and lists are
+      already shared so their cached hash codes are used.
+      */
+    private static int yamlHash(Object value) {
+        if(value instanceof CompactYamlMap) {
+            int h = 1
+            for(Map.Entry entry : ((Map) value).entrySet()) {
+                h = 31 * h + Objects.hashCode(entry.key)
+                h = 31 * h + Objects.hashCode(entry.value)
+            }
+            return h
+        }
+        Objects.hashCode(value)
+    }
+
+    /**
+      Compares in order.  Children of compacted maps and lists are already
+      shared so they are compared by identity.
+      */
+    private static Boolean sameYaml(Object a, Object b) {
+        if(a.is(b)) {
+            return true
+        }
+        if(a.getClass() != b.getClass()) {
+            return false
+        }
+        if(a instanceof CompactYamlMap) {
+            if(a.size() != b.size()) {
+                return false
+            }
+            Iterator<Map.Entry> other = ((Map) b).entrySet().iterator()
+            for(Map.Entry entry : ((Map) a).entrySet()) {
+                Map.Entry otherEntry = other.next()
+                if(!sameChild(entry.key, otherEntry.key) || !sameChild(entry.value, otherEntry.value)) {
+                    return false
+                }
+            }
+            return true
+        }
+        if(a instanceof CompactYamlList) {
+            if(a.size() != b.size()) {
+                return false
+            }
+            for(int i = 0; i < a.size(); i++) {
+                if(!sameChild(a.get(i), b.get(i))) {
+                    return false
+                }
+            }
+            return true
+        }
+        a.equals(b)
+    }
+
+    private static Boolean sameChild(Object a, Object b) {
+        if(a.is(b)) {
+            return true
+        }
+        if((a == null) || (b == null) || (a instanceof CompactYamlMap) || (a instanceof CompactYamlList) || (a.getClass() != b.getClass())) {
+            return false
+        }
+        a.equals(b)
+    }
 }
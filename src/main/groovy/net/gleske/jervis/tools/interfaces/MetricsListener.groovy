@@ -0,0 +1,84 @@
+/*
+   Copyright 2014-2026 Sam Gleske - https://github.com/samrocketman/jervis
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+   */
+package net.gleske.jervis.tools.interfaces
+
+import net.gleske.jervis.tools.MetricsSpan
+
+/**
+  Receives metrics and finished spans reported through
+  <tt>{@link net.gleske.jervis.tools.Metrics}</tt>.  Implement this interface
+  to forward Jervis instrumentation to a monitoring system.  Methods are
+  called on the thread doing the work being measured so implementations
+  should be thread safe and return quickly.
+
+  <h2>Sample usage</h2>
+  <p>To run this example, clone Jervis and execute <tt>./gradlew console</tt>
+  to bring up a <a href="http://groovy-lang.org/groovyconsole.html" target="_blank">Groovy Console</a>
+  with the classpath set up.</p>
+
+<pre><code>
+import net.gleske.jervis.tools.Metrics
+import net.gleske.jervis.tools.MetricsSpan
+import net.gleske.jervis.tools.interfaces.MetricsListener
+
+class PrintingListener implements MetricsListener {
+    void count(String name, Map&lt;String, String&gt; tags, long amount) {
+        println "counter ${name} ${tags} +${amount}"
+    }
+    void record(String name, Map&lt;String, String&gt; tags, double value) {
+        println "histogram ${name} ${tags} ${value}"
+    }
+    void spanFinished(MetricsSpan span) {
+        println "span ${span.name} ${span.tags} ${span.durationNanos / 1000000} ms"
+    }
+}
+
+Metrics.listener = new PrintingListener()
+Metrics.count('example.events', [kind: 'demo'])
+Metrics.span('example.work') {
+    sleep(10)
+}
+Metrics.listener = null
+</code></pre>
+  */
+interface MetricsListener {
+
+    /**
+      Called when a counter is incremented.
+
+      @param name The name of the counter.
+      @param tags Dimensions of the counter such as an HTTP method.
+      @param amount The amount the counter is incremented.
+      */
+    void count(String name, Map<String, String> tags, long amount)
+
+    /**
+      Called when a value is recorded in a histogram.
+
+      @param name The name of the histogram.
+      @param tags Dimensions of the histogram.
+      @param value The value observed.
+      */
+    void record(String name, Map<String, String> tags, double value)
+
+    /**
+      Called when a span finishes.
+
+      @param span A finished span with its duration, tags, parent span, and
+                  error if one was thrown.
+      */
+    void spanFinished(MetricsSpan span)
+}
@@ -0,0 +1,86 @@
+/*
+   Copyright 2014-2026 Sam Gleske - https://github.com/samrocketman/jervis
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+   */
+package net.gleske.jervis.beta
+//the SupportDocumentationGeneratorTest() class automatically sees the SupportDocumentationGenerator() class because they're in the same package
+
+import org.junit.After
+import org.junit.Before
+import org.junit.Test
+
+/**
+  Renders lifecycle documentation into a temporary directory and re-runs it
+  after editing inputs.
+  */
+class SupportDocumentationGeneratorTest extends GroovyTestCase {
+    File jsonDir
+    File outputDir
+
+    //set up before every test
+    @Before protected void setUp() {
+        super.setUp()
+        jsonDir = File.createTempDir()
+        outputDir = File.createTempDir()
+        new File(jsonDir, 'platforms.json').text = '{"defaults": {"platform": "x86_64", "os": "alpine3", "stability": "stable", "sudo": "sudo"}, "supported_platforms": {"x86_64": {"alpine3": {}, "ubuntu2204": {}}}, "restrictions": {}}'
+        ['alpine3', 'ubuntu2204'].each { String os ->
+            new File(jsonDir, "lifecycles-${os}-stable.json").text = '{"java": {"defaultKey": "gradle", "friendlyName": "Java", "gradle": {"fileExistsCondition": "build.gradle", "fallbackKey": "ant", "script": "./gradlew check"}, "ant": {"script": "ant test"}}}'
+            new File(jsonDir, "toolchains-${os}-stable.json").text = '{"toolchains": {"java": ["jdk"]}, "jdk": {"default_ivalue": "openjdk8", "*": ["echo ${jervis_toolchain_ivalue}"]}}'
+        }
+    }
+    //tear down after every test
+    @After protected void tearDown() {
+        jsonDir.deleteDir()
+        outputDir.deleteDir()
+        super.tearDown()
+    }
+    private SupportDocumentationGenerator newGenerator() {
+        new SupportDocumentationGenerator(
+            templateDir: new File(this.class.getResource('/net/gleske/jervis/doctemplates/lifecycle.tmpl.md').toURI()).parent,
+            jsonDir: jsonDir.path,
+            outputDir: outputDir.path)
+    }
+    private Map<String, List<String>> writeDocumentation() {
+        newGenerator().writeLifecycleDocumentation(2).collectEntries { k, v ->
+            [(k): v.collect { (it.path - outputDir.path) - ~'^/' }.sort()]
+        }
+    }
+    @Test public void test_SupportDocumentationGenerator_writeLifecycleDocumentation() {
+        assert writeDocumentation() == [rendered: ['alpine3/lifecycle-java.md', 'ubuntu2204/lifecycle-java.md'], skipped: []]
+        String document = new File(outputDir, 'alpine3/lifecycle-java.md').text
+        assert document.startsWith('# Java language lifecycle')
+        assert document.contains('./gradlew check')
+        assert document == newGenerator().getLifecycleDocumentation('alpine3', 'java')
+        assert writeDocumentation() == [rendered: [], skipped: ['alpine3/lifecycle-java.md', 'ubuntu2204/lifecycle-java.md']]
+    }
+    @Test public void test_SupportDocumentationGenerator_writeLifecycleDocumentation_edited_lifecycle() {
+        writeDocumentation()
+        new File(jsonDir, 'lifecycles-ubuntu2204-stable.json').text = '{"java": {"defaultKey": "gradle", "friendlyName": "Java", "gradle": {"script": "./gradlew test"}}}'
+        // every JSON file is bound to templates so every document is rendered
+        assert writeDocumentation() == [rendered: ['alpine3/lifecycle-java.md', 'ubuntu2204/lifecycle-java.md'], skipped: []]
+        assert new File(outputDir, 'ubuntu2204/lifecycle-java.md').text.contains('./gradlew test')
+        assert !new File(outputDir, 'alpine3/lifecycle-java.md').text.contains('./gradlew test')
+        assert writeDocumentation() == [rendered: [], skipped: ['alpine3/lifecycle-java.md', 'ubuntu2204/lifecycle-java.md']]
+    }
+    @Test public void test_SupportDocumentationGenerator_writeLifecycleDocumentation_edited_platforms() {
+        writeDocumentation()
+        new File(jsonDir, 'platforms.json').text = '{"defaults": {"platform": "x86_64", "os": "ubuntu2204", "stability": "stable", "sudo": "sudo"}, "supported_platforms": {"x86_64": {"alpine3": {}, "ubuntu2204": {}}}, "restrictions": {}}'
+        assert writeDocumentation() == [rendered: ['alpine3/lifecycle-java.md', 'ubuntu2204/lifecycle-java.md'], skipped: []]
+    }
+    @Test public void test_SupportDocumentationGenerator_writeLifecycleDocumentation_deleted_document() {
+        writeDocumentation()
+        assert new File(outputDir, 'alpine3/lifecycle-java.md').delete()
+        assert writeDocumentation() == [rendered: ['alpine3/lifecycle-java.md'], skipped: ['ubuntu2204/lifecycle-java.md']]
+    }
+}
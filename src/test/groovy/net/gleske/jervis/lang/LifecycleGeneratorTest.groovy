@@ -311,6 +311,33 @@ class LifecycleGeneratorTest extends GroovyTestCase {
         generator.loadYamlString('language: ruby\njdk: [openjdk6, openjdk7]')
         assert '#\n# TOOLCHAINS SECTION\n#\nset +x\necho \'# TOOLCHAINS SECTION\'\nset -x\n#gemfile toolchain section\nexport BUNDLE_GEMFILE="${PWD}/Gemfile"\n#env toolchain section\n#rvm toolchain section\nsome commands\n#jdk toolchain section\ncase ${jdk} in\n  jdk:openjdk6)\n    more commands\n    ;;\n  jdk:openjdk7)\n    some commands\n    ;;\nesac\n' == generator.generateToolchainSection()
     }
+    @Test public void test_LifecycleGenerator_generateToolchainSection_axis() {
+        String header = '#\n# TOOLCHAINS SECTION\n#\nset +x\necho \'# TOOLCHAINS SECTION\'\nset -x\n#gemfile toolchain section\nexport BUNDLE_GEMFILE="${PWD}/Gemfile"\n'
+        generator.loadYamlString('language: ruby\nenv:\n  global: foobar=foo\n  matrix: [world=hello, world=goodbye]\njdk: [openjdk6, openjdk7]')
+        assert header + '#env toolchain section\nexport foobar=foo\nexport world=goodbye\n#rvm toolchain section\nsome commands\n#jdk toolchain section\nmore commands\n' == generator.generateToolchainSection([platform: 'x86_64', env: 'env1', jdk: 'jdk0'])
+        // cached by axis values
+        assert generator.generateToolchainSection([env: 'env1', jdk: 'jdk0']).is(generator.generateToolchainSection([platform: 'x86_64', env: 'env1', jdk: 'jdk0']))
+        // a missing or unknown axis value keeps the case statement
+        assert generator.generateToolchainSection([env: 'env0', jdk: 'jdk9']).contains('case ${jdk} in\n  jdk0)\n')
+        assert generator.generateToolchainSection([env: 'env0']).contains('export world=hello\n#rvm')
+        // every buildable axis gets a smaller script
+        String generic = generator.generateToolchainSection()
+        [['env0', 'env1'], ['jdk0', 'jdk1']].combinations().collect { [env: it[0], jdk: it[1]] }.each { Map axis ->
+            assert generator.generateToolchainSection(axis).size() < generic.size()
+        }
+        // loading new YAML clears the cache
+        generator.loadYamlString('language: ruby\nenv: [world=one, world=two]')
+        assert header + '#env toolchain section\nexport world=two\n#rvm toolchain section\nsome commands\n#jdk toolchain section\nsome commands\n' == generator.generateToolchainSection([env: 'env1'])
+        generator.loadYamlString('language: ruby\njdk: [openjdk6, derp]')
+        shouldFail(UnsupportedToolException) {
+            generator.generateToolchainSection([jdk: 'jdk0'])
+        }
+        //test for friendly labels
+        URL url = this.getClass().getResource('/good_toolchains_friendly.json')
+        generator.loadToolchains(url.getFile())
+        generator.loadYamlString('language: ruby\njdk: [openjdk6, openjdk7]')
+        assert header + '#env toolchain section\n#rvm toolchain section\nsome commands\n#jdk toolchain section\nsome commands\n' == generator.generateToolchainSection([jdk: 'jdk:openjdk7'])
+    }
     @Test public void test_LifecycleGenerator_generateToolchainSection_nonmatrix() {
         //basic language test
         generator.loadYamlString('language: ruby')
@@ -767,6 +794,29 @@ class LifecycleGeneratorTest extends GroovyTestCase {
         generator.loadPlatformsFile(url.getFile())
         new ObjectOutputStream(new ByteArrayOutputStream()).writeObject(generator)
     }
+    @Test public void test_LifecycleGenerator_serialization_round_trip() {
+        URL url = this.getClass().getResource('/rsa_keys/good_id_rsa_2048')
+        URL file_url = this.getClass().getResource('/rsa_keys/rsa_secure_properties_map_test.yml')
+        generator.loadYamlString(file_url.content.text + '\nenv:\n  - foo=hello\n  - bar=world')
+        generator.setPrivateKey(url.content.text)
+        generator.decryptSecrets()
+        String toolchainSection = generator.generateToolchainSection()
+        Map friendly = generator.matrix_fullName_by_friendly
+        assert friendly
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream()
+        new ObjectOutputStream(bytes).withCloseable {
+            it.writeObject(generator)
+        }
+        LifecycleGenerator copy = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray())).readObject()
+        assert copy.jervis_yaml == generator.jervis_yaml
+        assert copy.ciphermap == generator.ciphermap
+        assert copy.cipherlist == generator.cipherlist
+        assert copy.plainmap == [JERVIS_SECRETS_TEST: 'plaintext']
+        assert copy.plainlist == generator.plainlist
+        assert copy.isMatrixBuild()
+        assert copy.matrix_fullName_by_friendly == friendly
+        assert copy.generateToolchainSection() == toolchainSection
+    }
     @Test public void test_LifecycleGenerator_matrix_fullName_by_friendly() {
         generator.loadYamlString('language: ruby\nenv:\n  - foo=hello\n  - bar=world\n  - baz=goodbye')
         //generator.generateToolchainSection()
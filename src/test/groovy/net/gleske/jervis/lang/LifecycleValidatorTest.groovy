@@ -152,4 +152,21 @@ class LifecycleValidatorTest extends GroovyTestCase {
         // supported when unstable enabled
         assert true == lifecycles.supportedLanguage('python', true)
     }
+    @Test public void test_LifecycleValidator_serialization_round_trip() {
+        lifecycles.loadYamlFile(this.getClass().getResource('/good_lifecycles_simple.json').getFile())
+        lifecycles.loadYamlFile(this.getClass().getResource('/good_lifecycles_python_number.json').getFile(), true)
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream()
+        new ObjectOutputStream(bytes).withCloseable {
+            it.writeObject(lifecycles)
+        }
+        LifecycleValidator copy = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray())).readObject()
+        assert copy.lifecycles == lifecycles.lifecycles
+        assert copy.unstable_lifecycles == lifecycles.unstable_lifecycles
+        assert copy.languages == lifecycles.languages
+        assert true == copy.supportedLanguage('groovy')
+        assert false == copy.supportedLanguage('python')
+        assert true == copy.supportedLanguage('python', true)
+        // only the loaded YAML is serialized
+        assert !(new String(bytes.toByteArray(), 'UTF-8').contains('groovy'))
+    }
 }
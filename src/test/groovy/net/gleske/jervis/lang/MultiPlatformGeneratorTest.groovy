@@ -243,6 +243,40 @@ class MultiPlatformGeneratorTest extends GroovyTestCase {
         assert mpg.rawJervisYaml.jenkins.platform == ['x86_64', 'arm64']
         assert mpg.rawJervisYaml.jenkins.os == ['ubuntu2204', 'alpine3']
     }
+    @Test public void test_MultiPlatformGenerator_multiplatform_compact_yaml() {
+        String yaml = '''
+            |language: shell
+            |script: /bin/true
+            |env:
+            |  - FOO=1
+            |  - FOO=2
+            |jenkins:
+            |  platform:
+            |    - x86_64
+            |    - arm64
+            |  os:
+            |    - ubuntu2204
+            |    - alpine3
+        '''.stripMargin().trim()
+        def mpg = new MultiPlatformGenerator(platforms)
+        mpg.loadMultiPlatformYaml(yaml: yaml)
+
+        // platform and OS variants share values which are the same
+        Map x86 = mpg.platform_jervis_yaml['x86_64']['ubuntu2204']
+        Map arm = mpg.platform_jervis_yaml['arm64']['alpine3']
+        assert x86.env.is(arm.env)
+        assert x86.env.is(mpg.rawJervisYaml.env)
+        assert !x86.jenkins.is(arm.jenkins)
+        assert x86.env.is(mpg.platform_generators['x86_64']['ubuntu2204'].jervis_yaml.env)
+
+        // loaded YAML is read-only
+        shouldFail(UnsupportedOperationException) {
+            x86.language = 'groovy'
+        }
+        shouldFail(UnsupportedOperationException) {
+            mpg.rawJervisYaml.jenkins.platform << 'ppc64le'
+        }
+    }
     @Test public void test_MultiPlatformGenerator_multiplatform_getJervisYaml() {
         String yaml = '''
             |language: shell
@@ -442,6 +476,36 @@ class MultiPlatformGeneratorTest extends GroovyTestCase {
         mpg.loadMultiPlatformYaml(yaml: yaml)
         new ObjectOutputStream(new ByteArrayOutputStream()).writeObject(mpg)
     }
+    @Test public void test_MultiPlatformGenerator_serialization_round_trip() {
+        String yaml = '''
+            |language: shell
+            |script: /bin/true
+            |jenkins:
+            |  platform:
+            |    - x86_64
+            |    - arm64
+            |  os:
+            |    - ubuntu2204
+            |    - alpine3
+            |alpine3:
+            |  script: /bin/false
+        '''.stripMargin().trim()
+        def mpg = new MultiPlatformGenerator(platforms)
+        mpg.loadMultiPlatformYaml(yaml: yaml)
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream()
+        new ObjectOutputStream(bytes).withCloseable {
+            it.writeObject(mpg)
+        }
+        MultiPlatformGenerator copy = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray())).readObject()
+        assert copy.rawJervisYaml == mpg.rawJervisYaml
+        assert copy.platform_jervis_yaml == mpg.platform_jervis_yaml
+        assert copy.platform_jervis_yaml['arm64']['alpine3'].script == '/bin/false'
+        assert copy.platform_jervis_yaml['arm64']['ubuntu2204'].script == '/bin/true'
+        assert copy.platform_jervis_yaml['x86_64']['alpine3'].jenkins.os == 'alpine3'
+        assert copy.jervisYamlString == mpg.jervisYamlString
+        assert copy.generator.platform_obj.is(copy.platforms_obj.platform_obj)
+        assert copy.generateToolchainSection() == mpg.generateToolchainSection()
+    }
     @Test public void test_MultiPlatformGenerator_multiplatform_getJervisYamlString() {
         String yaml = '''
             |language: shell
@@ -1149,4 +1213,121 @@ class MultiPlatformGeneratorTest extends GroovyTestCase {
         )
         assert errors.size() == 0
     }
+    //helper for regenerate tests which compares against a full rebuild
+    private void assertSameAsFullRebuild(MultiPlatformGenerator incremental, String yaml) {
+        def full = new MultiPlatformGenerator(platforms)
+        full.loadMultiPlatformYaml(yaml: yaml)
+        assert incremental.rawJervisYaml == full.rawJervisYaml
+        assert incremental.platform_jervis_yaml == full.platform_jervis_yaml
+        assert incremental.defaultPlatform == full.defaultPlatform
+        assert incremental.defaultOS == full.defaultOS
+        full.platform_generators.each { platform, generators ->
+            generators.each { os, generator ->
+                assert incremental.platform_generators[platform][os].jervis_yaml == generator.jervis_yaml
+            }
+        }
+        assert incremental.platform_generators.collect { k, v -> [k, v.keySet()] } == full.platform_generators.collect { k, v -> [k, v.keySet()] }
+        assert incremental.generateToolchainSection() == full.generateToolchainSection()
+    }
+    @Test public void test_MultiPlatformGenerator_regenerate() {
+        String yaml = '''
+            |language: java
+            |jdk: openjdk17
+            |jenkins:
+            |  platform: [x86_64, arm64]
+            |  os: [ubuntu2204, alpine3]
+            |arm64:
+            |  alpine3:
+            |    jdk: openjdk11
+        '''.stripMargin().trim()
+        def mpg = new MultiPlatformGenerator(platforms)
+        mpg.loadMultiPlatformYaml(yaml: yaml)
+        // change only the arm64 platform
+        String yaml2 = yaml + '\n  ubuntu2204:\n    jdk: openjdk11'
+        def next = mpg.regenerate(yaml: yaml2)
+        assertSameAsFullRebuild(next, yaml2)
+        assert next.platform_generators.x86_64.ubuntu2204.is(mpg.platform_generators.x86_64.ubuntu2204)
+        assert next.platform_generators.x86_64.alpine3.is(mpg.platform_generators.x86_64.alpine3)
+        // arm64 alpine3 merges the changed platform key but its YAML is unchanged
+        assert next.platform_generators.arm64.alpine3.is(mpg.platform_generators.arm64.alpine3)
+        assert !next.platform_generators.arm64.ubuntu2204.is(mpg.platform_generators.arm64.ubuntu2204)
+        // the previous generator is not modified
+        assert mpg.platform_generators.arm64.ubuntu2204.jervis_yaml.jdk == 'openjdk17'
+        // change only an OS
+        String yaml3 = yaml2 + '\nalpine3:\n  env: FOO=bar'
+        def third = next.regenerate(yaml: yaml3)
+        assertSameAsFullRebuild(third, yaml3)
+        assert third.platform_generators.x86_64.ubuntu2204.is(mpg.platform_generators.x86_64.ubuntu2204)
+        assert third.platform_generators.arm64.ubuntu2204.is(next.platform_generators.arm64.ubuntu2204)
+        assert !third.platform_generators.x86_64.alpine3.is(next.platform_generators.x86_64.alpine3)
+        // a change outside of platforms and OSes rebuilds everything
+        String yaml4 = yaml3.replace('jdk: openjdk17', 'jdk: openjdk11')
+        def fourth = third.regenerate(yaml: yaml4)
+        assertSameAsFullRebuild(fourth, yaml4)
+        assert !fourth.platform_generators.x86_64.ubuntu2204.is(third.platform_generators.x86_64.ubuntu2204)
+    }
+    @Test public void test_MultiPlatformGenerator_regenerate_matrix_selection() {
+        String yaml = '''
+            |language: shell
+            |jenkins:
+            |  platform: x86_64
+            |  os: [ubuntu2204, alpine3]
+        '''.stripMargin().trim()
+        def mpg = new MultiPlatformGenerator(platforms)
+        mpg.loadMultiPlatformYaml(yaml: yaml)
+        // adding a platform only builds the new combinations
+        String yaml2 = yaml.replace('platform: x86_64', 'platform: [arm64, x86_64]')
+        def next = mpg.regenerate(yaml: yaml2)
+        assertSameAsFullRebuild(next, yaml2)
+        assert next.defaultPlatform == 'arm64'
+        assert next.platform_generators.x86_64.ubuntu2204.is(mpg.platform_generators.x86_64.ubuntu2204)
+        // removing an OS drops its combinations
+        String yaml3 = yaml2.replace('os: [ubuntu2204, alpine3]', 'os: alpine3')
+        def third = next.regenerate(yaml: yaml3)
+        assertSameAsFullRebuild(third, yaml3)
+        assert third.platform_generators.arm64.alpine3.is(next.platform_generators.arm64.alpine3)
+        // other jenkins settings affect every combination
+        String yaml4 = yaml3 + '\n  collect:\n    junit: build/*.xml'
+        def fourth = third.regenerate(yaml: yaml4)
+        assertSameAsFullRebuild(fourth, yaml4)
+        assert !fourth.platform_generators.arm64.alpine3.is(third.platform_generators.arm64.alpine3)
+    }
+    @Test public void test_MultiPlatformGenerator_regenerate_options_changed() {
+        def mpg = new MultiPlatformGenerator(platforms)
+        mpg.loadMultiPlatformYaml(yaml: 'language: shell', folder_listing: ['README.md'])
+        def same = mpg.regenerate(yaml: 'language: shell', folder_listing: ['README.md'])
+        assert same.generator.is(mpg.generator)
+        def changed = mpg.regenerate(yaml: 'language: shell', folder_listing: ['README.md', 'build.gradle'])
+        assert !changed.generator.is(mpg.generator)
+        assert changed.generator.folder_listing == ['README.md', 'build.gradle']
+        // a generator which never loaded YAML rebuilds everything
+        def empty = new MultiPlatformGenerator(platforms)
+        assert empty.regenerate(yaml: 'language: shell').generator
+    }
+    @Test public void test_MultiPlatformGenerator_generateToolchainSection_axis() {
+        String yaml = '''
+            |language: java
+            |jdk: [openjdk17, openjdk11]
+            |jenkins:
+            |  platform: [x86_64, arm64]
+            |  os: [ubuntu2204, alpine3]
+            |arm64:
+            |  alpine3:
+            |    env: FOO=bar
+        '''.stripMargin().trim()
+        def mpg = new MultiPlatformGenerator(platforms)
+        mpg.loadMultiPlatformYaml(yaml: yaml)
+        String generic = mpg.generateToolchainSection()
+        List axes = mpg.getBuildableMatrixAxes()
+        assert axes.size() == 8
+        axes.each { Map axis ->
+            String script = mpg.generateToolchainSection(axis)
+            assert script == mpg.platform_generators[axis.platform][axis.os].generateToolchainSection(axis)
+            assert !script.contains('case ${jdk}')
+            assert !script.contains('elif')
+            assert script.size() < generic.size()
+        }
+        assert mpg.generateToolchainSection([platform: 'arm64', os: 'alpine3', jdk: axes[0].jdk]).contains('FOO=bar')
+        assert !mpg.generateToolchainSection([platform: 'x86_64', os: 'alpine3', jdk: axes[0].jdk]).contains('FOO=bar')
+    }
 }
@@ -16,6 +16,7 @@
 package net.gleske.jervis.lang
 //the PipelineGeneratorTest() class automatically sees the PipelineGenerator() class because they're in the same package
 import net.gleske.jervis.exceptions.PipelineGeneratorException
+import net.gleske.jervis.tools.CompactYamlMap
 
 import org.junit.After
 import org.junit.Before
@@ -44,6 +45,22 @@ class PipelineGeneratorTest extends GroovyTestCase {
         def pipeline = new PipelineGenerator(generator)
         new ObjectOutputStream(new ByteArrayOutputStream()).writeObject(pipeline)
     }
+    @Test public void test_PipelineGenerator_serialization_round_trip() {
+        generator.loadYamlString('language: java\njdk: [openjdk6, openjdk7]\njenkins:\n  stash:\n    - name: hello\n      includes: world\n      matrix_axis: [jdk: openjdk6]\n  collect:\n    artifacts: foo.jar')
+        def pipeline = new PipelineGenerator(generator)
+        pipeline.supported_collections = ['artifacts']
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream()
+        new ObjectOutputStream(bytes).withCloseable {
+            it.writeObject(pipeline)
+        }
+        PipelineGenerator copy = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray())).readObject()
+        assert copy.getStashMap([jdk: 'openjdk6']) == pipeline.getStashMap([jdk: 'openjdk6'])
+        assert copy.stashes == pipeline.stashes
+        assert copy.getStashMap([jdk: 'openjdk7']) == [:]
+        assert copy.getPublishableItems() == pipeline.getPublishableItems()
+        assert copy.getPublishable('artifacts') == pipeline.getPublishable('artifacts')
+        assert copy.getBuildableMatrixAxes() == pipeline.getBuildableMatrixAxes()
+    }
     @Test public void test_PipelineGenerator_getSecretPairsEnv() {
         URL url = this.getClass().getResource('/rsa_keys/good_id_rsa_2048')
         URL file_url = this.getClass().getResource('/rsa_keys/rsa_secure_properties_map_test.yml')
@@ -158,6 +175,16 @@ class PipelineGeneratorTest extends GroovyTestCase {
         pipeline_generator = new PipelineGenerator(generator)
         assert pipeline_generator.getStashMap([jdk: 'openjdk6']) == [hello:[includes:'world', excludes:'', use_default_excludes:true, allow_empty:false, matrix_axis:[jdk: 'openjdk6']]]
     }
+    @Test public void test_PipelineGenerator_getStashMap_collect_read_only_yaml() {
+        generator.loadYamlString('language: java\njenkins:\n  stash:\n    - name: artifacts\n      includes: world\n  collect:\n    artifacts: foo.jar')
+        assert generator.jervis_yaml.jenkins.stash[0] instanceof CompactYamlMap
+        // collect items update a copy of the stash instead of the read-only YAML
+        2.times {
+            def pipeline_generator = new PipelineGenerator(generator)
+            assert pipeline_generator.getStashMap().artifacts.includes == 'foo.jar'
+        }
+        assert generator.jervis_yaml.jenkins.stash[0].includes == 'world'
+    }
     @Test public void test_PipelineGenerator_getStashMap_nonmatrix() {
         //automatically infer stashes from nonmatrix
         generator.loadYamlString('language: java\njenkins:\n  collect:\n    foo: hello\n    artifacts: world\n    baz: goodbye')
@@ -1527,4 +1554,95 @@ class PipelineGeneratorTest extends GroovyTestCase {
         assert pipeline_generator.getYaml().jdk == ['openjdk6', 'openjdk7']
         assert pipeline_generator.getYaml().env == ['foo=hello', 'foo=world']
     }
+    @Test public void test_PipelineGenerator_getStashMap_plan_indexed_by_axis() {
+        generator.loadYamlString('language: java\njdk: [openjdk6, openjdk7]\njenkins:\n  stash:\n    - name: hello\n      includes: world\n      matrix_axis:\n        jdk: openjdk6\n    - name: bye\n      includes: moon\n      matrix_axis:\n        jdk: openjdk7\n    - name: nope')
+        def pipeline_generator = new PipelineGenerator(generator)
+        assert pipeline_generator.stashPlan.keySet() == [[jdk: 'openjdk6'], [jdk: 'openjdk7']] as Set
+        assert pipeline_generator.stashPlan[[jdk: 'openjdk7']]*.name == ['bye']
+        shouldFail(UnsupportedOperationException) {
+            pipeline_generator.stashPlan[[jdk: 'openjdk7']] << [:]
+        }
+        assert pipeline_generator.getStashMap([jdk: 'openjdk7']) == [bye:[includes:'moon', excludes:'', use_default_excludes:true, allow_empty:false, matrix_axis:[jdk: 'openjdk7']]]
+        // callers modifying results do not modify cached results
+        Map stashMap = pipeline_generator.getStashMap([jdk: 'openjdk6'])
+        stashMap.hello.includes = 'modified'
+        stashMap.hello.matrix_axis.jdk = 'modified'
+        stashMap.other = [:]
+        assert pipeline_generator.getStashMap([jdk: 'openjdk6']) == [hello:[includes:'world', excludes:'', use_default_excludes:true, allow_empty:false, matrix_axis:[jdk: 'openjdk6']]]
+        assert pipeline_generator.stashPlan[[jdk: 'openjdk6']][0].matrix_axis == [jdk: 'openjdk6']
+    }
+    @Test public void test_PipelineGenerator_admin_plan_reset_on_settings_change() {
+        String yaml = '''
+            |language: java
+            |jenkins:
+            |  collect:
+            |    fake:
+            |      path: some/path
+            |      validateme: hello world
+        '''.stripMargin().trim()
+        generator.loadYamlString(yaml)
+        def pipeline_generator = new PipelineGenerator(generator)
+        pipeline_generator.collect_settings_defaults = [
+            fake: [
+                validateme: 'Some bad input was given.'
+            ]
+        ]
+        pipeline_generator.collect_settings_validation = [
+            fake: [
+                validateme: '^[A-Z][ a-z]+\\.$'
+            ]
+        ]
+        assert 'Some bad input was given.' == pipeline_generator.getPublishable('fake')['validateme']
+        assert pipeline_generator.getStashMap().fake.includes == 'some/path'
+        // patterns are compiled once
+        pipeline_generator.getPublishable('fake')
+        pipeline_generator.getStashMap()
+        assert pipeline_generator.adminPlan.patterns.keySet().toList() == ['^[A-Z][ a-z]+\\.$']
+        // callers modifying results do not modify cached results
+        pipeline_generator.getPublishable('fake').validateme = 'modified'
+        assert 'Some bad input was given.' == pipeline_generator.getPublishable('fake')['validateme']
+        // setting admin settings discards cached results
+        pipeline_generator.collect_settings_validation = [fake: [validateme: '^[a-z ]+$']]
+        assert 'hello world' == pipeline_generator.getPublishable('fake')['validateme']
+        pipeline_generator.collect_settings_validation = [fake: [validateme: '^[a-z ]+$', path: '^other/.*$']]
+        assert pipeline_generator.getPublishable('fake') == [:]
+        assert pipeline_generator.getStashMap() == [:]
+        pipeline_generator.collect_settings_validation = [:]
+        pipeline_generator.collect_settings_filesets = [fake: ['validateme']]
+        assert pipeline_generator.getStashMap().fake.includes == 'some/path'
+        pipeline_generator.stashmap_preprocessor = [fake: { Map settings -> 'preprocessed' }]
+        assert pipeline_generator.getStashMap().fake.includes == 'preprocessed'
+        pipeline_generator.collect_settings_defaults = [other: [setting: 'value']]
+        assert pipeline_generator.adminPlan.stash_maps.isEmpty()
+    }
+    @Test public void test_PipelineGenerator_admin_failure_not_cached() {
+        generator.loadYamlString('language: java\njenkins:\n  collect:\n    fake: some/path')
+        def pipeline_generator = new PipelineGenerator(generator)
+        pipeline_generator.collect_settings_validation = [fake: [path: 3]]
+        shouldFail(PipelineGeneratorException) {
+            pipeline_generator.getPublishable('fake')
+        }
+        shouldFail(PipelineGeneratorException) {
+            pipeline_generator.getPublishable('fake')
+        }
+        shouldFail(PipelineGeneratorException) {
+            pipeline_generator.getStashMap()
+        }
+        shouldFail(PipelineGeneratorException) {
+            pipeline_generator.getStashMap()
+        }
+        pipeline_generator.collect_settings_validation = [fake: [path: '^some/.*$']]
+        assert pipeline_generator.getPublishable('fake') == 'some/path'
+        assert pipeline_generator.getStashMap().fake.includes == 'some/path'
+    }
+    @Test public void test_PipelineGenerator_serialization_rebuilds_plan() {
+        generator.loadYamlString('language: java\njdk: [openjdk6, openjdk7]\njenkins:\n  stash:\n    - name: hello\n      includes: world\n      matrix_axis:\n        jdk: openjdk6')
+        def pipeline_generator = new PipelineGenerator(generator)
+        Map expected = pipeline_generator.getStashMap([jdk: 'openjdk6'])
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream()
+        new ObjectOutputStream(bytes).writeObject(pipeline_generator)
+        def copy = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray())).readObject()
+        assert copy.stashPlan == pipeline_generator.stashPlan
+        assert copy.getStashMap([jdk: 'openjdk6']) == expected
+    }
 }
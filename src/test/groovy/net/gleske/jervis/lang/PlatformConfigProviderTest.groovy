@@ -0,0 +1,119 @@
+/*
+   Copyright 2014-2026 Sam Gleske - https://github.com/samrocketman/jervis
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+   */
+package net.gleske.jervis.lang
+//the PlatformConfigProviderTest() class automatically sees the PlatformConfigProvider() class because they're in the same package
+import net.gleske.jervis.exceptions.MultiPlatformValidatorException
+
+import org.junit.After
+import org.junit.Before
+import org.junit.Test
+
+class PlatformConfigProviderTest extends GroovyTestCase {
+    File directory
+    PlatformConfigProvider provider
+
+    //set up before every test
+    @Before protected void setUp() {
+        super.setUp()
+        directory = File.createTempDir()
+        ['platforms', 'lifecycles-ubuntu2204-stable', 'toolchains-ubuntu2204-stable', 'lifecycles-alpine3-stable', 'toolchains-alpine3-stable'].each { String name ->
+            new File(directory, "${name}.yaml").text = this.getClass().getResource("/mpt${name}.yaml").content.text
+        }
+        provider = new PlatformConfigProvider(directory)
+    }
+    //tear down after every test
+    @After protected void tearDown() {
+        provider.close()
+        directory.deleteDir()
+        super.tearDown()
+    }
+    @Test public void test_PlatformConfigProvider_snapshot() {
+        MultiPlatformValidator platforms = provider.snapshot
+        assert provider.version == 1
+        assert provider.lastError == null
+        assert platforms.lifecycles.keySet() == ['ubuntu2204', 'alpine3'] as Set
+        assert 'x86_64' in platforms.known_platforms
+        shouldFail(UnsupportedOperationException) {
+            platforms.lifecycles.remove('alpine3')
+        }
+        MultiPlatformGenerator generator = new MultiPlatformGenerator(platforms)
+        generator.loadMultiPlatformYaml(yaml: 'language: shell')
+        assert generator.platform_generators[generator.defaultPlatform][generator.defaultOS]
+    }
+    @Test public void test_PlatformConfigProvider_checkForChanges() {
+        MultiPlatformValidator first = provider.snapshot
+        assert !provider.checkForChanges()
+        // timestamps alone do not reload
+        File toolchains = new File(directory, 'toolchains-alpine3-stable.yaml')
+        toolchains.setLastModified(toolchains.lastModified() - 10000)
+        assert !provider.checkForChanges()
+        toolchains << '\n# changed\n'
+        assert provider.checkForChanges()
+        assert provider.version == 2
+        assert !provider.snapshot.is(first)
+        // the old snapshot is still usable by in-flight generations
+        assert first.lifecycles.keySet() == ['ubuntu2204', 'alpine3'] as Set
+        assert !provider.checkForChanges()
+    }
+    @Test public void test_PlatformConfigProvider_keeps_last_good_snapshot() {
+        List errors = []
+        List reloads = []
+        provider.onError = { Throwable e -> errors << e }
+        provider.onReload = { MultiPlatformValidator platforms -> reloads << platforms }
+        MultiPlatformValidator good = provider.snapshot
+        File platformsFile = new File(directory, 'platforms.yaml')
+        String original = platformsFile.text
+        platformsFile.text = 'defaults: {}'
+        assert !provider.checkForChanges()
+        assert provider.snapshot.is(good)
+        assert provider.version == 1
+        assert provider.lastError
+        assert errors == [provider.lastError]
+        // the same broken files are not reloaded again
+        assert !provider.checkForChanges()
+        assert errors.size() == 1
+        platformsFile.text = original
+        assert provider.checkForChanges()
+        assert provider.lastError == null
+        assert reloads == [provider.snapshot]
+    }
+    @Test public void test_PlatformConfigProvider_removed_file() {
+        new File(directory, 'toolchains-alpine3-stable.yaml').delete()
+        assert !provider.checkForChanges()
+        assert provider.lastError instanceof MultiPlatformValidatorException
+        assert provider.snapshot.toolchains.keySet() == ['ubuntu2204', 'alpine3'] as Set
+    }
+    @Test public void test_PlatformConfigProvider_invalid_directory() {
+        File empty = File.createTempDir()
+        try {
+            shouldFail(MultiPlatformValidatorException) {
+                new PlatformConfigProvider(empty)
+            }
+        }
+        finally {
+            empty.deleteDir()
+        }
+    }
+    @Test public void test_PlatformConfigProvider_start() {
+        provider.start(10)
+        new File(directory, 'lifecycles-alpine3-stable.yaml') << '\n# changed\n'
+        long deadline = System.currentTimeMillis() + 10000
+        while(provider.version < 2 && System.currentTimeMillis() < deadline) {
+            sleep(10)
+        }
+        assert provider.version == 2
+    }
+}
@@ -331,4 +331,27 @@ class ToolchainValidatorTest extends GroovyTestCase {
         assert toolchains.toolValues('python') == ['2.6', '2.7']
         assert toolchains.toolValues('rvm') == []
     }
+    @Test public void test_ToolchainValidator_serialization_round_trip() {
+        URL url = this.getClass().getResource('/good_toolchains_matrix_added_toolchain.json')
+        toolchains.loadYamlFile(url.getFile())
+        url = this.getClass().getResource('/good_toolchains_partial_unstable.yaml')
+        toolchains.loadYamlFile(url.getFile(), true)
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream()
+        new ObjectOutputStream(bytes).withCloseable {
+            it.writeObject(toolchains)
+        }
+        ToolchainValidator copy = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray())).readObject()
+        assert copy.getToolchains(false) == toolchains.getToolchains(false)
+        assert copy.getToolchains(true) == toolchains.getToolchains(true)
+        assert copy.getToolchain_list(false) == ['toolchains', 'env', 'jdk', 'python']
+        assert copy.getToolchain_list(true) == ['toolchains', 'env', 'jdk', 'python', 'go']
+        assert copy.getLanguages(false) == ['python']
+        assert copy.getLanguages(true) == ['python', 'java']
+        assert copy.getMatrix_toolchain_list(false) == ['toolchains', 'env', 'jdk', 'python']
+        assert copy.getMatrix_toolchain_list(true) == ['toolchains', 'jdk', 'python', 'go']
+        assert copy.validate() == true
+        // generators append additional toolchains so toolchains must be modifiable
+        copy.getToolchains(false)['toolchains']['python'] += ['go']
+        assert toolchains.getToolchains(false)['toolchains']['python'] != copy.getToolchains(false)['toolchains']['python']
+    }
 }
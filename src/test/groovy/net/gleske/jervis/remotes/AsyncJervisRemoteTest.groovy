@@ -0,0 +1,209 @@
+/*
+   Copyright 2014-2026 Sam Gleske - https://github.com/samrocketman/jervis
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+   */
+package net.gleske.jervis.remotes
+//the AsyncJervisRemoteTest() class automatically sees the AsyncJervisRemote() class because they're in the same package
+
+import net.gleske.jervis.remotes.interfaces.JervisRemote
+
+import java.util.concurrent.CompletionException
+import java.util.concurrent.ExecutorService
+import java.util.concurrent.Executors
+import java.util.concurrent.atomic.AtomicInteger
+import org.junit.After
+import org.junit.Before
+import org.junit.Test
+
+/**
+  A remote which serves files from memory and records how many calls run at
+  the same time.
+  */
+class FakeJervisRemote implements JervisRemote {
+    // project to ref to file name to contents
+    Map<String, Map<String, Map<String, String>>> projects = [:]
+    List<String> calls = Collections.synchronizedList([])
+    AtomicInteger inFlight = new AtomicInteger()
+    AtomicInteger maxInFlight = new AtomicInteger()
+    Long delayMillis = 0
+
+    String getWebUrl() {
+        'https://example.com/'
+    }
+    String getCloneUrl() {
+        'https://example.com/'
+    }
+    private def call(String name, Closure c) {
+        calls << name
+        int current = inFlight.incrementAndGet()
+        maxInFlight.accumulateAndGet(current) { int a, int b -> Math.max(a, b) }
+        try {
+            if(delayMillis) {
+                sleep(delayMillis)
+            }
+            c()
+        }
+        finally {
+            inFlight.decrementAndGet()
+        }
+    }
+    private Map<String, String> files(String project, String ref) {
+        Map<String, String> found = projects[project]?.get(ref ?: 'main')
+        if(found == null) {
+            throw new IOException("${project} not found.")
+        }
+        found
+    }
+    List branches(String project) {
+        call("branches ${project}") {
+            (projects[project] ?: [:]).keySet().toList()
+        }
+    }
+    String getFile(String project, String file_path) {
+        getFile(project, file_path, '')
+    }
+    String getFile(String project, String file_path, String ref) {
+        call("getFile ${project} ${file_path} ${ref}") {
+            String contents = files(project, ref)[file_path]
+            if(contents == null) {
+                throw new FileNotFoundException(file_path)
+            }
+            contents
+        }
+    }
+    ArrayList getFolderListing(String project) {
+        getFolderListing(project, '/', '')
+    }
+    ArrayList getFolderListing(String project, String dir_path) {
+        getFolderListing(project, dir_path, '')
+    }
+    ArrayList getFolderListing(String project, String dir_path, String ref) {
+        call("getFolderListing ${project} ${dir_path} ${ref}") {
+            files(project, ref).keySet() as ArrayList
+        }
+    }
+    String toString() {
+        'Fake'
+    }
+}
+
+class AsyncJervisRemoteTest extends GroovyTestCase {
+    FakeJervisRemote fake
+    AsyncJervisRemote remote
+
+    //set up before every test
+    @Before protected void setUp() {
+        super.setUp()
+        fake = new FakeJervisRemote()
+        fake.projects['org/java'] = [main: ['.jervis.yml': 'language: java', 'build.gradle': ''], dev: ['.travis.yml': 'language: java', 'pom.xml': '']]
+        fake.projects['org/python'] = [main: ['.jervis.yml': 'language: python', '.travis.yml': 'language: ruby']]
+        fake.projects['org/empty'] = [main: ['README.md': '']]
+        remote = new AsyncJervisRemote(fake, 2)
+    }
+    //tear down after every test
+    @After protected void tearDown() {
+        remote.close()
+        super.tearDown()
+    }
+    @Test public void test_AsyncJervisRemote_branchesAsync() {
+        assert remote.branchesAsync('org/java').join() == ['main', 'dev']
+    }
+    @Test public void test_AsyncJervisRemote_getFileAsync() {
+        assert remote.getFileAsync('org/java', '.jervis.yml').join() == 'language: java'
+        assert remote.getFileAsync('org/java', '.travis.yml', 'dev').join() == 'language: java'
+        shouldFail(CompletionException) {
+            remote.getFileAsync('org/java', 'missing').join()
+        }
+    }
+    @Test public void test_AsyncJervisRemote_getFolderListingAsync() {
+        assert remote.getFolderListingAsync('org/java').join() == ['.jervis.yml', 'build.gradle']
+        assert remote.getFolderListingAsync('org/java', '/', 'dev').join() == ['.travis.yml', 'pom.xml']
+    }
+    @Test public void test_AsyncJervisRemote_getJervisYamlAsync() {
+        Map result = remote.getJervisYamlAsync('org/java', 'dev').join()
+        assert result == [project: 'org/java', ref: 'dev', yaml: 'language: java', yaml_file: '.travis.yml', listing: ['.travis.yml', 'pom.xml']]
+        // .jervis.yml takes precedence over .travis.yml
+        result = remote.getJervisYamlAsync('org/python').join()
+        assert result.yaml == 'language: python'
+        assert result.yaml_file == '.jervis.yml'
+        // only the listing and one file are read
+        assert fake.calls.count { it.startsWith('getFile org/python') } == 1
+        String message = shouldFail(CompletionException) {
+            remote.getJervisYamlAsync('org/empty').join()
+        }
+        assert message.startsWith('java.io.FileNotFoundException: Cannot find .jervis.yml nor .travis.yml')
+    }
+    @Test public void test_AsyncJervisRemote_getJervisYamlAsync_many() {
+        List<Map> projects = [
+            [project: 'org/java'],
+            [project: 'org/java', ref: 'dev'],
+            [project: 'org/python'],
+            [project: 'org/empty'],
+            [project: 'org/missing']
+        ]
+        List<Map> results = remote.getJervisYamlAsync(projects).join()
+        assert results*.project == ['org/java', 'org/java', 'org/python', 'org/empty', 'org/missing']
+        assert results*.ref == ['', 'dev', '', '', '']
+        assert results[0..2]*.yaml == ['language: java', 'language: java', 'language: python']
+        assert results[3].error instanceof FileNotFoundException
+        assert results[4].error instanceof IOException
+        assert results[4].error.message == 'org/missing not found.'
+        assert remote.getJervisYamlAsync([]).join() == []
+    }
+    @Test public void test_AsyncJervisRemote_concurrency_limit() {
+        fake.delayMillis = 50
+        List<Map> projects = (1..8).collect { [project: 'org/java'] }
+        remote.getJervisYamlAsync(projects).join()
+        assert fake.maxInFlight.get() == 2
+        assert fake.calls.size() == 16
+    }
+    @Test public void test_AsyncJervisRemote_shared_executor() {
+        fake.delayMillis = 50
+        ExecutorService pool = Executors.newFixedThreadPool(8)
+        try {
+            AsyncJervisRemote shared = new AsyncJervisRemote(fake, pool, 3)
+            List<Map> projects = (1..8).collect { [project: 'org/python'] }
+            shared.getJervisYamlAsync(projects).join()
+            shared.close()
+            // a provided executor is not shut down
+            assert !pool.isShutdown()
+            assert fake.maxInFlight.get() == 3
+        }
+        finally {
+            pool.shutdown()
+        }
+    }
+    @Test public void test_AsyncJervisRemote_newExecutor() {
+        ExecutorService pool = AsyncJervisRemote.newExecutor(1, false)
+        try {
+            assert pool.submit({ -> Thread.currentThread().name } as java.util.concurrent.Callable).get() == 'jervis-remote'
+        }
+        finally {
+            pool.shutdown()
+        }
+        pool = AsyncJervisRemote.newExecutor()
+        try {
+            assert pool.submit({ -> 'ran' } as java.util.concurrent.Callable).get() == 'ran'
+        }
+        finally {
+            pool.shutdown()
+        }
+        shouldFail(IllegalArgumentException) {
+            AsyncJervisRemote.newExecutor(0)
+        }
+        shouldFail(IllegalArgumentException) {
+            new AsyncJervisRemote(fake, 0)
+        }
+    }
+}
@@ -0,0 +1,228 @@
+/*
+   Copyright 2014-2026 Sam Gleske - https://github.com/samrocketman/jervis
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+   */
+package net.gleske.jervis.remotes
+//the GitHubContentCacheTest() class automatically sees the GitHubContentCache() class because they're in the same package
+
+import net.gleske.jervis.tools.SecurityIO
+
+import com.sun.net.httpserver.HttpExchange
+import org.junit.After
+import org.junit.Before
+import org.junit.Test
+
+/**
+  Reads from a real local HTTP server which serves GitHub contents and
+  resolves references with ETags like GitHub.
+  */
+class GitHubContentCacheTest extends GroovyTestCase {
+    static final String SHA1 = 'a' * 40
+    static final String SHA2 = 'b' * 40
+    LocalApiServer server
+    File cacheDir
+    GitHub github
+    // branch to commit SHA
+    Map<String, String> branches
+    // commit SHA to path to contents
+    Map<String, Map<String, String>> commits
+    List<String> requests
+
+    //set up before every test
+    @Before protected void setUp() {
+        super.setUp()
+        cacheDir = File.createTempDir()
+        branches = [main: SHA1]
+        commits = [
+            (SHA1): ['.jervis.yml': 'language: java', 'README.md': 'hello'],
+            (SHA2): ['.jervis.yml': 'language: python']
+        ]
+        requests = Collections.synchronizedList([])
+        server = new LocalApiServer()
+        server.createContext('/repos/org/repo/') { HttpExchange exchange ->
+            String path = exchange.requestURI.path - '/repos/org/repo/'
+            String query = exchange.requestURI.query
+            Integer code = 200
+            String content = ''
+            if(path.startsWith('commits/')) {
+                requests << 'commits'
+                String sha = branches[(path - 'commits/') == 'HEAD' ? 'main' : (path - 'commits/')]
+                String etag = "\"${sha}\"".toString()
+                if(!sha) {
+                    code = 422
+                    content = '{"message": "No commit found"}'
+                    exchange.responseHeaders.add('Content-Type', 'application/json')
+                }
+                else if(exchange.requestHeaders.getFirst('If-None-Match') == etag) {
+                    code = 304
+                }
+                else {
+                    assert exchange.requestHeaders.getFirst('Accept') == 'application/vnd.github.sha'
+                    exchange.responseHeaders.add('ETag', etag)
+                    exchange.responseHeaders.add('Content-Type', 'application/vnd.github.sha')
+                    content = sha
+                }
+            }
+            else {
+                requests << 'contents'
+                String sha = query - 'ref='
+                String file = path - 'contents/'
+                if(file) {
+                    content = SimpleRestService.objToJson([content: SecurityIO.encodeBase64(commits[sha][file])])
+                }
+                else {
+                    content = '[' + commits[sha].keySet().collect { SimpleRestService.objToJson([name: it]) }.join(',') + ']'
+                }
+                exchange.responseHeaders.add('Content-Type', 'application/json')
+            }
+            byte[] bytes = content.bytes
+            exchange.sendResponseHeaders(code, (code == 304) ? -1 : bytes.length)
+            if(code != 304) {
+                exchange.responseBody.withCloseable {
+                    it.write(bytes)
+                }
+            }
+            exchange.close()
+        }
+        server.start()
+        github = newGitHub(new GitHubContentCache(cacheDir))
+    }
+    //tear down after every test
+    @After protected void tearDown() {
+        server.close()
+        cacheDir.deleteDir()
+        super.tearDown()
+    }
+    private GitHub newGitHub(GitHubContentCache cache) {
+        GitHub client = new GitHub()
+        client.gh_api = server.url()
+        client.scheduler = null
+        client.contentCache = cache
+        client
+    }
+    @Test public void test_GitHubContentCache_getFile_cached() {
+        assert github.getFile('org/repo', '.jervis.yml', 'main') == 'language: java'
+        assert github.getFile('org/repo', '.jervis.yml', 'main') == 'language: java'
+        // the reference is revalidated but contents are only read once
+        assert requests == ['commits', 'contents', 'commits']
+        Map stats = github.contentCache.stats
+        assert stats.misses == 1
+        assert stats.memory_hits == 1
+        assert stats.ref_resolved == 1
+        assert stats.ref_not_modified == 1
+        assert stats.disk_entries == 1
+    }
+    @Test public void test_GitHubContentCache_getFolderListing_cached() {
+        List listing = github.getFolderListing('org/repo', '/', 'main')
+        assert listing == ['.jervis.yml', 'README.md']
+        // cached listings can not be modified by callers
+        listing << 'modified'
+        assert github.getFolderListing('org/repo', '', 'main') == ['.jervis.yml', 'README.md']
+        assert requests.count('contents') == 1
+    }
+    @Test public void test_GitHubContentCache_ref_moved() {
+        assert github.getFile('org/repo', '.jervis.yml', 'main') == 'language: java'
+        branches.main = SHA2
+        assert github.getFile('org/repo', '.jervis.yml', 'main') == 'language: python'
+        assert requests == ['commits', 'contents', 'commits', 'contents']
+        // the old commit is still cached
+        assert github.getFile('org/repo', '.jervis.yml', SHA1) == 'language: java'
+        assert requests.size() == 4
+    }
+    @Test public void test_GitHubContentCache_default_branch() {
+        assert github.getFile('org/repo', 'README.md') == 'hello'
+        assert github.getFile('org/repo', 'README.md', 'main') == 'hello'
+        assert requests == ['commits', 'contents', 'commits']
+    }
+    @Test public void test_GitHubContentCache_commit_sha_not_resolved() {
+        assert github.getFile('org/repo', '.jervis.yml', SHA2) == 'language: python'
+        assert github.getFile('org/repo', '.jervis.yml', SHA2) == 'language: python'
+        assert requests == ['contents']
+    }
+    @Test public void test_GitHubContentCache_refMaxAgeMillis() {
+        github.contentCache.refMaxAgeMillis = 60000
+        github.getFile('org/repo', '.jervis.yml', 'main')
+        github.getFolderListing('org/repo', '/', 'main')
+        github.getFile('org/repo', '.jervis.yml', 'main')
+        assert requests == ['commits', 'contents', 'contents']
+    }
+    @Test public void test_GitHubContentCache_disk_tier_reused() {
+        github.getFile('org/repo', '.jervis.yml', 'main')
+        github.getFolderListing('org/repo', '/', 'main')
+        assert new File(cacheDir, GitHubContentCache.INDEX_FILE).readLines().size() == 2
+        requests.clear()
+        // a later run such as another seed job
+        GitHub later = newGitHub(new GitHubContentCache(cacheDir))
+        assert later.contentCache.stats.disk_entries == 2
+        assert later.getFile('org/repo', '.jervis.yml', 'main') == 'language: java'
+        assert later.getFolderListing('org/repo', '/', 'main') == ['.jervis.yml', 'README.md']
+        assert requests == ['commits', 'commits']
+        assert later.contentCache.stats.disk_hits == 2
+    }
+    @Test public void test_GitHubContentCache_memory_only() {
+        github = newGitHub(new GitHubContentCache())
+        github.contentCache.maxMemoryEntries = 1
+        github.getFile('org/repo', '.jervis.yml', SHA1)
+        github.getFile('org/repo', 'README.md', SHA1)
+        github.getFile('org/repo', '.jervis.yml', SHA1)
+        assert requests.count('contents') == 3
+        assert github.contentCache.stats.memory_entries == 1
+        assert !cacheDir.list()
+    }
+    @Test public void test_GitHubContentCache_maxDiskBytes() {
+        github.contentCache.maxDiskBytes = 1
+        github.getFile('org/repo', '.jervis.yml', SHA1)
+        github.getFile('org/repo', 'README.md', SHA1)
+        Map stats = github.contentCache.stats
+        // the newest blob is always kept
+        assert stats.disk_entries == 1
+        assert cacheDir.list().findAll { it.endsWith('.gz') }.size() == 1
+        assert new File(cacheDir, GitHubContentCache.INDEX_FILE).readLines().size() == 1
+    }
+    @Test public void test_GitHubContentCache_corrupt_blob() {
+        github.getFile('org/repo', '.jervis.yml', SHA1)
+        cacheDir.listFiles().findAll { it.name.endsWith('.gz') }.each { it.text = 'corrupt' }
+        GitHub later = newGitHub(new GitHubContentCache(cacheDir))
+        assert later.getFile('org/repo', '.jervis.yml', SHA1) == 'language: java'
+        assert requests == ['contents', 'contents']
+        assert later.contentCache.stats.misses == 1
+    }
+    @Test public void test_GitHubContentCache_clear() {
+        github.getFile('org/repo', '.jervis.yml', 'main')
+        github.contentCache.clear()
+        assert !cacheDir.list().findAll { it.endsWith('.gz') }
+        github.getFile('org/repo', '.jervis.yml', 'main')
+        assert requests == ['commits', 'contents', 'commits', 'contents']
+    }
+    @Test public void test_GitHubContentCache_scoped_per_credential() {
+        github.gh_token = 'one'
+        github.getFile('org/repo', '.jervis.yml', SHA1)
+        GitHub other = newGitHub(github.contentCache)
+        other.gh_token = 'two'
+        assert other.getFile('org/repo', '.jervis.yml', SHA1) == 'language: java'
+        GitHub same = newGitHub(github.contentCache)
+        same.gh_token = 'one'
+        assert same.getFile('org/repo', '.jervis.yml', SHA1) == 'language: java'
+        // contents are read again for a different credential only
+        assert requests == ['contents', 'contents']
+        // tokens are never written to disk
+        String index = new File(cacheDir, GitHubContentCache.INDEX_FILE).text
+        assert !index.tokenize('\n').collect { SecurityIO.decodeBase64String(it.tokenize('\t')[2]) }.any { it.contains('one') || it.contains('two') }
+    }
+    @Test public void test_GitHubContentCache_unknown_ref() {
+        shouldFail(FileNotFoundException) {
+            github.getFile('org/repo', '.jervis.yml', 'missing')
+        }
+    }
+}
@@ -0,0 +1,257 @@
+/*
+   Copyright 2014-2026 Sam Gleske - https://github.com/samrocketman/jervis
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+   */
+package net.gleske.jervis.remotes
+//the GitHubRequestSchedulerTest() class automatically sees the GitHubRequestScheduler() class because they're in the same package
+
+import com.sun.net.httpserver.HttpExchange
+import java.util.concurrent.atomic.AtomicInteger
+import org.junit.After
+import org.junit.Before
+import org.junit.Test
+
+/**
+  Makes requests to a real local HTTP server which enforces rate limits like
+  GitHub.
+  */
+class GitHubRequestSchedulerTest extends GroovyTestCase {
+    LocalApiServer server
+    GitHubRequestScheduler scheduler
+    // responses to send before succeeding; each is a list of status and headers
+    List<List> limited
+    AtomicInteger requests
+    AtomicInteger inFlight
+    AtomicInteger maxInFlight
+    List<String> authorizations
+    Map lastHeaders
+    String body
+
+    //set up before every test
+    @Before protected void setUp() {
+        super.setUp()
+        limited = Collections.synchronizedList([])
+        requests = new AtomicInteger()
+        inFlight = new AtomicInteger()
+        maxInFlight = new AtomicInteger()
+        authorizations = Collections.synchronizedList([])
+        lastHeaders = ['X-RateLimit-Limit': '5000', 'X-RateLimit-Remaining': '4999', 'X-RateLimit-Reset': '0']
+        body = '{"login": "samrocketman"}'
+        scheduler = new GitHubRequestScheduler(backoffMillis: 10, maxBackoffMillis: 50)
+        server = new LocalApiServer(threads: 8)
+        server.createContext('/') { HttpExchange exchange ->
+            requests.incrementAndGet()
+            authorizations << exchange.requestHeaders.getFirst('Authorization')
+            int current = inFlight.incrementAndGet()
+            maxInFlight.accumulateAndGet(current, { a, b -> Math.max(a, b) } as java.util.function.IntBinaryOperator)
+            try {
+                sleep(20)
+                List response = limited ? limited.remove(0) : [200, lastHeaders]
+                response[1].each { k, v ->
+                    exchange.responseHeaders.add(k, v)
+                }
+                exchange.responseHeaders.add('Content-Type', 'application/json')
+                byte[] content = ((response[0] == 200) ? body : '{"message": "API rate limit exceeded"}').bytes
+                exchange.sendResponseHeaders(response[0], content.length)
+                exchange.responseBody.withCloseable {
+                    it.write(content)
+                }
+            }
+            finally {
+                inFlight.decrementAndGet()
+                exchange.close()
+            }
+        }
+        server.start()
+    }
+    //tear down after every test
+    @After protected void tearDown() {
+        server.close()
+        super.tearDown()
+    }
+    private URL url(String path = 'user') {
+        new URL(server.url(path))
+    }
+    private String key(String token = 'token') {
+        GitHubRequestScheduler.budgetKey(url(), [Authorization: "Bearer ${token}".toString()])
+    }
+    @Test public void test_GitHubRequestScheduler_success() {
+        Map response = scheduler.fetch(url(), [Authorization: 'Bearer token'])
+        assert response.login == 'samrocketman'
+        Map stats = scheduler.getStats(key())
+        assert stats.requests == 1
+        assert stats.retries == 0
+        assert stats.remaining == 4999
+        assert stats.limit == 5000
+        assert stats.in_flight == 0
+        assert stats.queue_depth == 0
+        assert scheduler.queueDepth == 0
+    }
+    @Test public void test_GitHubRequestScheduler_retry_429_retry_after() {
+        limited << [429, ['Retry-After': '0']]
+        Map response = scheduler.fetch(url(), [Authorization: 'Bearer token'])
+        assert response.login == 'samrocketman'
+        assert requests.get() == 2
+        assert scheduler.getStats(key()).retries == 1
+    }
+    @Test public void test_GitHubRequestScheduler_retry_403_secondary_limit() {
+        String reset = (System.currentTimeMillis().intdiv(1000) + 1).toString()
+        limited << [403, ['X-RateLimit-Remaining': '0', 'X-RateLimit-Reset': reset]]
+        long start = System.currentTimeMillis()
+        Map response = scheduler.fetch(url(), [Authorization: 'Bearer token'])
+        assert response.login == 'samrocketman'
+        assert requests.get() == 2
+        // waited for the rate limit reset
+        assert System.currentTimeMillis() >= Long.parseLong(reset) * 1000
+        Map stats = scheduler.getStats(key())
+        assert stats.retries == 1
+        assert stats.concurrency == 5
+        assert stats.wait_millis > 0
+    }
+    @Test public void test_GitHubRequestScheduler_give_up() {
+        scheduler.maxRetries = 2
+        3.times {
+            limited << [429, ['Retry-After': '0']]
+        }
+        shouldFail(FileNotFoundException) {
+            scheduler.fetch(url(), [Authorization: 'Bearer token'])
+        }
+        assert requests.get() == 3
+    }
+    @Test public void test_GitHubRequestScheduler_give_up_response_map() {
+        scheduler.maxRetries = 0
+        limited << [429, ['Retry-After': '0']]
+        Map response = scheduler.fetch(url(), [Authorization: 'Bearer token', 'Response-Map': true])
+        assert response.response_code == 429
+        assert response.error
+    }
+    @Test public void test_GitHubRequestScheduler_no_retry_not_found() {
+        limited << [404, [:]]
+        shouldFail(FileNotFoundException) {
+            scheduler.fetch(url(), [Authorization: 'Bearer token'])
+        }
+        assert requests.get() == 1
+        assert scheduler.getStats(key()).retries == 0
+    }
+    @Test public void test_GitHubRequestScheduler_runtime_exception_releases_permit() {
+        scheduler.maxConcurrency = 1
+        shouldFail(IllegalStateException) {
+            scheduler.fetch(url(), [Authorization: 'Bearer token', 'Response-Callback': { Integer code, Map headers ->
+                throw new IllegalStateException('callback failed')
+            }])
+        }
+        Map stats = scheduler.getStats(key())
+        assert stats.in_flight == 0
+        assert stats.retries == 0
+        // the only permit is available again
+        assert scheduler.fetch(url(), [Authorization: 'Bearer token']).login == 'samrocketman'
+    }
+    @Test public void test_GitHubRequestScheduler_user_callback() {
+        List codes = []
+        limited << [429, ['Retry-After': '0']]
+        scheduler.fetch(url(), [Authorization: 'Bearer token', 'Response-Callback': { Integer code, Map headers -> codes << code }])
+        assert codes == [429, 200]
+    }
+    @Test public void test_GitHubRequestScheduler_token_bucket() {
+        scheduler.requestsPerSecond = 20
+        scheduler.burst = 1
+        long start = System.currentTimeMillis()
+        5.times {
+            scheduler.fetch(url(), [Authorization: 'Bearer token'])
+        }
+        // the first request uses the burst and then 4 requests at 20/s
+        assert System.currentTimeMillis() - start >= 190
+    }
+    @Test public void test_GitHubRequestScheduler_wait_for_reset() {
+        String reset = (System.currentTimeMillis().intdiv(1000) + 1).toString()
+        lastHeaders = ['X-RateLimit-Remaining': '0', 'X-RateLimit-Reset': reset]
+        scheduler.fetch(url(), [Authorization: 'Bearer token'])
+        lastHeaders = ['X-RateLimit-Remaining': '10']
+        scheduler.fetch(url(), [Authorization: 'Bearer token'])
+        assert System.currentTimeMillis() >= Long.parseLong(reset) * 1000
+        assert scheduler.getStats(key()).remaining == 10
+    }
+    @Test public void test_GitHubRequestScheduler_concurrency_limit() {
+        scheduler.maxConcurrency = 2
+        scheduler.requestsPerSecond = 0
+        List threads = (1..8).collect {
+            Thread.start {
+                scheduler.fetch(url(), [Authorization: 'Bearer token'])
+            }
+        }
+        threads*.join()
+        assert requests.get() == 8
+        assert maxInFlight.get() <= 2
+        assert scheduler.getStats(key()).requests == 8
+    }
+    @Test public void test_GitHubRequestScheduler_separate_token_budgets() {
+        limited << [429, ['Retry-After': '0']]
+        scheduler.fetch(url(), [Authorization: 'Bearer one'])
+        scheduler.fetch(url(), [Authorization: 'Bearer two'])
+        assert scheduler.getStats(key('one')).retries == 1
+        assert scheduler.getStats(key('two')).retries == 0
+        assert scheduler.stats.size() == 2
+        scheduler.reset()
+        assert !scheduler.stats
+    }
+    @Test public void test_GitHubRequestScheduler_idle_budgets_removed() {
+        scheduler.idleBudgetMillis = 1
+        scheduler.fetch(url(), [Authorization: 'Bearer one'])
+        sleep(5)
+        scheduler.fetch(url(), [Authorization: 'Bearer two'])
+        assert scheduler.stats.keySet() == [key('two')] as Set
+        // kept until the rate limit window resets
+        lastHeaders = ['X-RateLimit-Limit': '5000', 'X-RateLimit-Remaining': '0', 'X-RateLimit-Reset': ((System.currentTimeMillis() + 60000).intdiv(1000)).toString()]
+        scheduler.fetch(url(), [Authorization: 'Bearer three'])
+        sleep(5)
+        scheduler.fetch(url(), [Authorization: 'Bearer four'])
+        assert key('three') in scheduler.stats.keySet()
+        // never removed when disabled
+        scheduler.idleBudgetMillis = 0
+        sleep(5)
+        scheduler.fetch(url(), [Authorization: 'Bearer five'])
+        assert key('four') in scheduler.stats.keySet()
+    }
+    @Test public void test_GitHubRequestScheduler_graphql_rate_limit() {
+        body = '{"data": {"rateLimit": {"limit": 5000, "remaining": 42, "resetAt": "2030-01-01T00:00:00Z"}}}'
+        lastHeaders = [:]
+        GitHubGraphQL github = new GitHubGraphQL(gh_api: url('graphql').toString(), token: 'token', scheduler: scheduler)
+        Map response = github.sendGQL('query { rateLimit { limit remaining resetAt } }')
+        assert response.data.rateLimit.remaining == 42
+        Map stats = scheduler.getStats(GitHubRequestScheduler.budgetKey(url(), [Authorization: 'bearer token']))
+        assert stats.remaining == 42
+        assert stats.reset_millis == java.time.Instant.parse('2030-01-01T00:00:00Z').toEpochMilli()
+    }
+    @Test public void test_GitHubRequestScheduler_graphql_rate_limited_error() {
+        lastHeaders = [:]
+        body = '{"errors": [{"type": "RATE_LIMITED", "message": "API rate limit exceeded"}]}'
+        scheduler.maxRetries = 1
+        GitHubGraphQL github = new GitHubGraphQL(gh_api: url('graphql').toString(), token: 'token', scheduler: scheduler)
+        Map response = github.sendGQL('query { viewer { login } }')
+        assert response.errors
+        assert requests.get() == 2
+    }
+    @Test public void test_GitHubRequestScheduler_github_client() {
+        limited << [429, ['Retry-After': '0']]
+        GitHub github = new GitHub(gh_api: url('').toString(), gh_token: 'token', scheduler: scheduler)
+        assert github.fetch('user').login == 'samrocketman'
+        assert requests.get() == 2
+        assert authorizations == ['Bearer token', 'Bearer token']
+        github.scheduler = null
+        limited << [429, ['Retry-After': '0']]
+        shouldFail(FileNotFoundException) {
+            github.fetch('user')
+        }
+    }
+}
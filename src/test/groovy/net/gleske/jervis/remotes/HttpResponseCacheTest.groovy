@@ -0,0 +1,197 @@
+/*
+   Copyright 2014-2026 Sam Gleske - https://github.com/samrocketman/jervis
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+   */
+package net.gleske.jervis.remotes
+//the HttpResponseCacheTest() class automatically sees the HttpResponseCache() class because they're in the same package
+
+import com.sun.net.httpserver.HttpExchange
+import org.junit.After
+import org.junit.Before
+import org.junit.Test
+
+/**
+  Caches responses from a real local HTTP server rather than a mocked URL.
+  */
+class HttpResponseCacheTest extends GroovyTestCase {
+    LocalApiServer server
+    List<Map> received
+    Map<String, Map> resources
+    HttpResponseCache cache
+    TestApi api
+
+    static class TestApi implements SimpleRestServiceSupport {
+        String url
+        String token = 'one'
+        String baseUrl() {
+            url
+        }
+        Map header(Map headers = [:]) {
+            headers + [Authorization: "Bearer ${token}".toString()]
+        }
+    }
+
+    //set up before every test
+    @Before protected void setUp() {
+        super.setUp()
+        received = []
+        resources = [
+            etag: [body: '{"name": "etag"}', headers: [ETag: '"v1"']],
+            modified: [body: '{"name": "modified"}', headers: ['Last-Modified': 'Wed, 21 Oct 2015 07:28:00 GMT']],
+            maxage: [body: '[1, 2, 3]', headers: ['Cache-Control': 'private, max-age=60', ETag: '"m1"']],
+            nostore: [body: '{"name": "nostore"}', headers: ['Cache-Control': 'no-store', ETag: '"n1"']],
+            plain: [body: '{"name": "plain"}', headers: [:]]
+        ]
+        server = new LocalApiServer()
+        server.createContext('/') { HttpExchange exchange ->
+            String name = exchange.requestURI.path.tokenize('/').last()
+            Map resource = resources[name]
+            received << [
+                method: exchange.requestMethod,
+                name: name,
+                authorization: exchange.requestHeaders.getFirst('Authorization'),
+                if_none_match: exchange.requestHeaders.getFirst('If-None-Match'),
+                if_modified_since: exchange.requestHeaders.getFirst('If-Modified-Since'),
+                response_cache: exchange.requestHeaders.getFirst('Response-Cache')
+            ]
+            exchange.requestBody.close()
+            resource.headers.each { k, v ->
+                exchange.responseHeaders.add(k, v)
+            }
+            exchange.responseHeaders.add('Content-Type', 'application/json')
+            Boolean notModified = exchange.requestMethod == 'GET' && (
+                (resource.headers.ETag && exchange.requestHeaders.getFirst('If-None-Match') == resource.headers.ETag) ||
+                (resource.headers['Last-Modified'] && exchange.requestHeaders.getFirst('If-Modified-Since') == resource.headers['Last-Modified']))
+            if(notModified) {
+                exchange.sendResponseHeaders(304, -1)
+                exchange.close()
+                return
+            }
+            byte[] body = resource.body.getBytes('UTF-8')
+            exchange.sendResponseHeaders(200, body.length)
+            exchange.responseBody.withCloseable {
+                it.write(body)
+            }
+        }
+        server.start()
+        cache = new HttpResponseCache()
+        api = new TestApi(url: server.url(), responseCache: cache)
+    }
+    //tear down after every test
+    @After protected void tearDown() {
+        server.close()
+        super.tearDown()
+    }
+    @Test public void test_HttpResponseCache_etag_revalidation() {
+        Map first = api.apiFetch('etag')
+        Map second = api.apiFetch('etag')
+        assert first == [name: 'etag']
+        assert second == [name: 'etag']
+        assert received*.if_none_match == [null, '"v1"']
+        assert cache.stats.not_modified == 1
+        assert cache.stats.misses == 1
+        // the cached object is not parsed again
+        assert api.apiFetch('etag').is(second)
+        assert second.is(first)
+        // downloaded and cached responses are both read-only
+        shouldFail(UnsupportedOperationException) {
+            first.name = 'changed'
+        }
+    }
+    @Test public void test_HttpResponseCache_last_modified_revalidation() {
+        api.apiFetch('modified')
+        assert api.apiFetch('modified') == [name: 'modified']
+        assert received*.if_modified_since == [null, 'Wed, 21 Oct 2015 07:28:00 GMT']
+        assert cache.stats.not_modified == 1
+    }
+    @Test public void test_HttpResponseCache_max_age() {
+        assert api.apiFetch('maxage') == [1, 2, 3]
+        assert api.apiFetch('maxage') == [1, 2, 3]
+        assert api.apiFetch('maxage') == [1, 2, 3]
+        assert received.size() == 1
+        assert cache.stats.hits == 2
+    }
+    @Test public void test_HttpResponseCache_not_stored() {
+        api.apiFetch('nostore')
+        api.apiFetch('nostore')
+        api.apiFetch('plain')
+        api.apiFetch('plain')
+        assert received*.if_none_match == [null, null, null, null]
+        assert cache.stats.stored == 0
+        assert cache.stats.entries == 0
+        // read-only even when not stored
+        shouldFail(UnsupportedOperationException) {
+            api.apiFetch('plain').name = 'changed'
+        }
+        // unchanged when the cache is skipped
+        Map response = api.apiFetch('plain', ['Response-Cache': false])
+        response.name = 'changed'
+        assert response.name == 'changed'
+    }
+    @Test public void test_HttpResponseCache_scoped_per_credential() {
+        api.apiFetch('maxage')
+        api.token = 'two'
+        api.apiFetch('maxage')
+        api.token = 'one'
+        api.apiFetch('maxage')
+        assert received*.authorization == ['Bearer one', 'Bearer two']
+        assert cache.stats.entries == 2
+    }
+    @Test public void test_HttpResponseCache_opt_out() {
+        api.apiFetch('maxage')
+        api.apiFetch('maxage', ['Response-Cache': false])
+        assert received.size() == 2
+        assert received*.response_cache == [null, null]
+        assert cache.stats.hits == 0
+        // not sent when there is no cache
+        api.responseCache = null
+        api.apiFetch('maxage', ['Response-Cache': false])
+        assert received[-1].response_cache == null
+    }
+    @Test public void test_HttpResponseCache_response_map() {
+        Map first = api.apiFetch('etag', ['Response-Map': true])
+        Map second = api.apiFetch('etag', ['Response-Map': true])
+        assert first.response_code == 200
+        assert second.response_code == 200
+        assert second.content == [name: 'etag']
+        assert second.content.is(first.content)
+        assert !second.error
+        assert cache.stats.not_modified == 1
+        // the response map can be changed without changing the cache
+        second.extra = true
+        assert !api.apiFetch('etag', ['Response-Map': true]).extra
+    }
+    @Test public void test_HttpResponseCache_conditional_request_by_caller() {
+        api.apiFetch('etag')
+        Map response = api.apiFetch('etag', ['If-None-Match': '"v1"', 'Response-Map': true])
+        assert response.response_code == 304
+    }
+    @Test public void test_HttpResponseCache_invalidated_by_unsafe_method() {
+        api.apiFetch('maxage')
+        api.apiFetch('maxage', [:], 'POST', '{}')
+        api.apiFetch('maxage')
+        assert received*.method == ['GET', 'POST', 'GET']
+        assert cache.stats.invalidated == 1
+    }
+    @Test public void test_HttpResponseCache_max_entries() {
+        cache.maxEntries = 1
+        api.apiFetch('maxage')
+        api.apiFetch('etag')
+        api.apiFetch('maxage')
+        assert received*.name == ['maxage', 'etag', 'maxage']
+        assert cache.stats.entries == 1
+        cache.clear()
+        assert cache.stats.entries == 0
+    }
+}
@@ -0,0 +1,688 @@
+/*
+   Copyright 2014-2026 Sam Gleske - https://github.com/samrocketman/jervis
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+   */
+package net.gleske.jervis.remotes
+
+import net.gleske.jervis.tools.SecurityIO
+import net.gleske.jervis.tools.YamlOperator
+
+import com.sun.net.httpserver.HttpExchange
+import com.sun.net.httpserver.HttpServer
+import java.security.MessageDigest
+import java.time.Instant
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.ExecutorService
+import java.util.concurrent.Executors
+import java.util.concurrent.ThreadLocalRandom
+import java.util.concurrent.atomic.AtomicInteger
+import java.util.concurrent.atomic.AtomicLong
+
+/**
+  A local HTTP server which stands in for the HashiCorp Vault and GitHub APIs
+  Jervis calls.  Unlike <tt>{@link net.gleske.jervis.remotes.StaticMocking}</tt>
+  requests go over real sockets so concurrency, latency, and connection reuse
+  of API clients can be exercised in tests and load tests.
+
+  <p>Emulated APIs:</p>
+  <ul>
+  <li>Vault under <tt>{@link #getVaultUrl()}</tt>: <tt>sys/mounts</tt>, KV v1
+      and KV v2 secrets engines including metadata and <tt>LIST</tt>, AppRole
+      login, and token <tt>lookup-self</tt>, <tt>renew-self</tt>, and
+      <tt>revoke-self</tt>.</li>
+  <li>GitHub REST under <tt>{@link #getGitHubUrl()}</tt>: user, branches,
+      contents, commits resolved to a SHA with ETags, and GitHub App
+      installations and access tokens.</li>
+  <li>GitHub GraphQL at <tt>{@link #getGraphqlUrl()}</tt>.</li>
+  </ul>
+
+  <p>Tests which need a response the emulated APIs do not offer register
+  their own handler with
+  <tt>{@link #createContext(java.lang.String, groovy.lang.Closure)}</tt> and
+  build request URLs with <tt>{@link #url(java.lang.String)}</tt>.</p>
+
+  <p>Every GitHub response includes <tt>X-RateLimit-*</tt> headers.  When the
+  budget of <tt>{@link #rateLimit}</tt> requests is used up, GitHub requests
+  fail with <tt>403</tt> until the window resets.  Latency, server errors, and
+  <tt>429</tt> responses can be injected on any request.</p>
+
+<pre><code>
+import net.gleske.jervis.remotes.GitHub
+import net.gleske.jervis.remotes.LocalApiServer
+
+new LocalApiServer(latencyMillis: 5).start().withCloseable { LocalApiServer server -&gt;
+    server.repositories['org/repo'] = [main: ['README.md': 'hello']]
+    GitHub github = new GitHub(gh_api: server.gitHubUrl)
+    assert github.getFile('org/repo', 'README.md', 'main') == 'hello'
+}
+</code></pre>
+  */
+class LocalApiServer implements Closeable {
+
+    /**
+      Added to every request before responding.
+      */
+    Long latencyMillis = 0
+
+    /**
+      A random amount of time up to this many milliseconds added to
+      <tt>{@link #latencyMillis}</tt>.
+      */
+    Long latencyJitterMillis = 0
+
+    /**
+      The fraction of requests, between <tt>0</tt> and <tt>1</tt>, which fail
+      with <tt>500</tt>.
+      */
+    Double errorRate = 0
+
+    /**
+      The fraction of requests, between <tt>0</tt> and <tt>1</tt>, which fail
+      with <tt>429</tt> and a <tt>Retry-After</tt> of
+      <tt>{@link #retryAfterSeconds}</tt>.
+      */
+    Double tooManyRequestsRate = 0
+
+    /**
+      The <tt>Retry-After</tt> header of injected <tt>429</tt> responses.
+      */
+    Integer retryAfterSeconds = 0
+
+    /**
+      The number of GitHub requests allowed in every rate limit window.
+      */
+    Integer rateLimit = 5000
+
+    /**
+      The length of the GitHub rate limit window in seconds.
+      */
+    Long rateLimitWindowSeconds = 3600
+
+    /**
+      The number of threads handling requests.
+      */
+    Integer threads = 16
+
+    /**
+      Vault secrets engines keyed by mount path with a trailing slash like
+      Vault <tt>sys/mounts</tt>.
+      */
+    Map<String, Map> vaultMounts = new ConcurrentHashMap<String, Map>([
+        'kv/': [type: 'kv', options: [version: '2']],
+        'secret/': [type: 'kv', options: [version: '1']]
+    ])
+
+    /**
+      Vault secrets keyed by full path including the mount.  KV v2 secrets
+      are a list of versions where the last item is the current version.
+      */
+    Map<String, Object> vaultSecrets = new ConcurrentHashMap<String, Object>()
+
+    /**
+      GitHub repositories keyed by <tt>owner/name</tt>.  Each repository maps
+      a branch name to a <tt>Map</tt> of file path to file contents.
+      */
+    Map<String, Map<String, Map<String, String>>> repositories = new ConcurrentHashMap<String, Map<String, Map<String, String>>>()
+
+    /**
+      Returns the <tt>data</tt> of GitHub GraphQL responses.  It is called
+      with the parsed request body.  By default, it returns the rate limit and
+      the viewer login.
+      */
+    Closure graphqlHandler = { Map request ->
+        [
+            rateLimit: [limit: rateLimit, remaining: remainingRateLimit(), resetAt: Instant.ofEpochSecond(rateLimitReset()).toString()],
+            viewer: [login: 'jervis']
+        ]
+    }
+
+    private HttpServer server
+    private ExecutorService pool
+    private final Map<String, Closure> contexts = new ConcurrentHashMap<String, Closure>()
+    private final List<Integer> forcedStatus = Collections.synchronizedList([])
+    private final AtomicLong requests = new AtomicLong()
+    private final Map<String, AtomicLong> requestsByRoute = new ConcurrentHashMap<String, AtomicLong>()
+    private final Set<String> connections = ConcurrentHashMap.newKeySet()
+    private final AtomicInteger inFlight = new AtomicInteger()
+    private final AtomicInteger maxInFlight = new AtomicInteger()
+    private final AtomicLong tokens = new AtomicLong()
+    private final AtomicLong rateLimitUsed = new AtomicLong()
+    private volatile long rateLimitWindowStart = Instant.now().epochSecond
+
+    /**
+      Starts listening on a random local port.
+
+      @return This server.
+      */
+    LocalApiServer start() {
+        // other tests mock URL via meta class; use the real implementation
+        GroovySystem.metaClassRegistry.removeMetaClass(URL)
+        this.pool = Executors.newFixedThreadPool(this.threads)
+        this.server = HttpServer.create(new InetSocketAddress('127.0.0.1', 0), 0)
+        this.server.executor = this.pool
+        this.server.createContext('/') { HttpExchange exchange ->
+            String context = contextFor(exchange.requestURI.path)
+            if(context) {
+                handleContext(exchange, context)
+            }
+            else {
+                handle(exchange)
+            }
+        }
+        this.server.start()
+        this
+    }
+
+    /**
+      Stops the server.
+      */
+    @Override
+    void close() {
+        this.server?.stop(0)
+        this.pool?.shutdownNow()
+    }
+
+    /**
+      @return The base URL of the Vault API such as <tt>http://127.0.0.1:8200/v1/</tt>.
+      */
+    String getVaultUrl() {
+        "${baseUrl()}v1/"
+    }
+
+    /**
+      @return The base URL of the GitHub REST API.
+      */
+    String getGitHubUrl() {
+        "${baseUrl()}github/"
+    }
+
+    /**
+      @return The URL of the GitHub GraphQL API.
+      */
+    String getGraphqlUrl() {
+        "${baseUrl()}github/graphql"
+    }
+
+    /**
+      @param path A path relative to the root of the server such as
+                  <tt>upload</tt>.
+      @return The URL of the path on this server.
+      */
+    String url(String path = '') {
+        "${baseUrl()}${path}"
+    }
+
+    /**
+      Handles requests under a path with a custom handler instead of the
+      emulated APIs.  The handler is called with the
+      <tt>{@link com.sun.net.httpserver.HttpExchange}</tt> and must send the
+      response; the exchange is closed afterwards.  Latency and failure
+      injection do not apply to custom handlers.  When paths overlap the
+      longest path wins.
+
+      @param path A path prefix such as <tt>/upload</tt>.
+      @param handler A <tt>Closure</tt> which takes an <tt>HttpExchange</tt>.
+      @return This server.
+      */
+    LocalApiServer createContext(String path, Closure handler) {
+        this.contexts[path] = handler
+        this
+    }
+
+    /**
+      Responds to the next requests with an HTTP status instead of handling
+      them.  A <tt>429</tt> includes a <tt>Retry-After</tt> header.
+
+      @param status An HTTP status code such as <tt>500</tt> or <tt>429</tt>.
+      @param count The number of requests to respond to with the status.
+      */
+    void failNext(Integer status, Integer count = 1) {
+        count.times {
+            this.forcedStatus << status
+        }
+    }
+
+    /**
+      Returns request statistics.  <tt>connections</tt> is the number of
+      distinct client sockets which shows if clients reuse connections.
+
+      @return A <tt>Map</tt> of statistics.
+      */
+    Map getStats() {
+        [
+            requests: this.requests.get(),
+            routes: this.requestsByRoute.collectEntries { k, v -> [(k): v.get()] },
+            connections: this.connections.size(),
+            max_in_flight: this.maxInFlight.get(),
+            rate_limit_remaining: remainingRateLimit()
+        ]
+    }
+
+    /**
+      Clears request statistics and resets the GitHub rate limit window.
+      */
+    void resetStats() {
+        this.requests.set(0)
+        this.requestsByRoute.clear()
+        this.connections.clear()
+        this.maxInFlight.set(0)
+        this.rateLimitUsed.set(0)
+        this.rateLimitWindowStart = Instant.now().epochSecond
+    }
+
+    /**
+      Calculates the commit SHA of a branch.  The SHA changes when the files of
+      the branch change.
+
+      @param project A repository such as <tt>owner/name</tt>.
+      @param branch A branch of the repository.
+      @return A 40 character hex SHA or <tt>null</tt> if the branch does not
+              exist.
+      */
+    String commitSha(String project, String branch) {
+        Map<String, String> files = this.repositories[project]?.get(branch)
+        if(files == null) {
+            return null
+        }
+        MessageDigest digest = MessageDigest.getInstance('SHA-1')
+        digest.update([project, branch, files.sort().toString()].join('\n').getBytes('UTF-8'))
+        new BigInteger(1, digest.digest()).toString(16).padLeft(40, '0')
+    }
+
+    private String baseUrl() {
+        "http://127.0.0.1:${this.server.address.port}/"
+    }
+
+    private long rateLimitReset() {
+        this.rateLimitWindowStart + this.rateLimitWindowSeconds
+    }
+
+    private long remainingRateLimit() {
+        Math.max(0L, this.rateLimit - this.rateLimitUsed.get())
+    }
+
+    private String contextFor(String path) {
+        this.contexts.keySet().findAll {
+            path.startsWith(it)
+        }.max {
+            it.size()
+        }
+    }
+
+    private void handleContext(HttpExchange exchange, String context) {
+        this.requests.incrementAndGet()
+        this.connections << exchange.remoteAddress.toString()
+        countRoute(context)
+        try {
+            this.contexts[context](exchange)
+        }
+        catch(Throwable e) {
+            // only respond if the handler did not already send headers
+            if(exchange.responseCode == -1) {
+                respond(exchange, 500, [message: e.toString()])
+            }
+        }
+        finally {
+            exchange.close()
+        }
+    }
+
+    private void handle(HttpExchange exchange) {
+        this.requests.incrementAndGet()
+        this.connections << exchange.remoteAddress.toString()
+        int current = this.inFlight.incrementAndGet()
+        this.maxInFlight.accumulateAndGet(current, { int a, int b -> Math.max(a, b) } as java.util.function.IntBinaryOperator)
+        try {
+            // request bodies must be read before responding
+            String body = exchange.requestBody.getText('UTF-8')
+            long delay = this.latencyMillis
+            if(this.latencyJitterMillis > 0) {
+                delay += ThreadLocalRandom.current().nextLong(this.latencyJitterMillis + 1)
+            }
+            if(delay > 0) {
+                sleep(delay)
+            }
+            String path = exchange.requestURI.path
+            Boolean github = path.startsWith('/github/')
+            if(github) {
+                addRateLimitHeaders(exchange)
+            }
+            Integer injected = injectedStatus()
+            if(injected) {
+                countRoute('injected')
+                if(injected == 429) {
+                    exchange.responseHeaders.add('Retry-After', this.retryAfterSeconds.toString())
+                }
+                respond(exchange, injected, [message: 'Injected failure', errors: ['Injected failure']])
+            }
+            else if(github && remainingRateLimit() <= 0) {
+                countRoute('rate_limited')
+                respond(exchange, 403, [message: 'API rate limit exceeded'])
+            }
+            else if(github) {
+                this.rateLimitUsed.incrementAndGet()
+                handleGitHub(exchange, path - '/github/', body)
+            }
+            else if(path.startsWith('/v1/')) {
+                handleVault(exchange, path - '/v1/', body)
+            }
+            else {
+                respond(exchange, 404, [errors: ['Not found']])
+            }
+        }
+        catch(Throwable e) {
+            respond(exchange, 500, [message: e.toString()])
+        }
+        finally {
+            this.inFlight.decrementAndGet()
+            exchange.close()
+        }
+    }
+
+    private Integer injectedStatus() {
+        synchronized(this.forcedStatus) {
+            if(this.forcedStatus) {
+                return this.forcedStatus.remove(0)
+            }
+        }
+        double roll = ThreadLocalRandom.current().nextDouble()
+        if(roll < this.errorRate) {
+            return 500
+        }
+        if(roll < this.errorRate + this.tooManyRequestsRate) {
+            return 429
+        }
+        null
+    }
+
+    private void countRoute(String route) {
+        this.requestsByRoute.computeIfAbsent(route, { new AtomicLong() } as java.util.function.Function).incrementAndGet()
+    }
+
+    private void addRateLimitHeaders(HttpExchange exchange) {
+        long now = Instant.now().epochSecond
+        if(now >= rateLimitReset()) {
+            synchronized(this) {
+                if(now >= rateLimitReset()) {
+                    this.rateLimitWindowStart = now
+                    this.rateLimitUsed.set(0)
+                }
+            }
+        }
+        exchange.responseHeaders.add('X-RateLimit-Limit', this.rateLimit.toString())
+        // include this request in the remaining budget
+        exchange.responseHeaders.add('X-RateLimit-Remaining', Math.max(0L, remainingRateLimit() - 1).toString())
+        exchange.responseHeaders.add('X-RateLimit-Reset', rateLimitReset().toString())
+        exchange.responseHeaders.add('X-RateLimit-Used', this.rateLimitUsed.get().toString())
+    }
+
+    private void respond(HttpExchange exchange, Integer status, def content, String contentType = 'application/json') {
+        byte[] bytes = new byte[0]
+        if(content != null) {
+            String text = (content instanceof String) ? content : SimpleRestService.objToJson(content)
+            bytes = text.getBytes('UTF-8')
+        }
+        exchange.responseHeaders.add('Content-Type', contentType)
+        if(status in [204, 304] || !bytes.length) {
+            exchange.sendResponseHeaders(status, -1)
+            return
+        }
+        exchange.sendResponseHeaders(status, bytes.length)
+        exchange.responseBody.withCloseable {
+            it.write(bytes)
+        }
+    }
+
+    private String queryParam(String query, String name) {
+        String pair = query.tokenize('&').find { it.startsWith(name + '=') }
+        pair ? URLDecoder.decode(pair - (name + '='), 'UTF-8') : null
+    }
+
+    private Map parseBody(String body) {
+        body ? (YamlOperator.loadYamlFrom(body) ?: [:]) : [:]
+    }
+
+    private Map authResponse() {
+        [auth: [
+            client_token: "s.token${this.tokens.incrementAndGet()}".toString(),
+            lease_duration: 3600,
+            renewable: true,
+            token_type: 'service'
+        ]]
+    }
+
+    private void handleVault(HttpExchange exchange, String path, String body) {
+        String method = exchange.requestMethod.toUpperCase()
+        if(path == 'sys/mounts') {
+            countRoute('vault mounts')
+            respond(exchange, 200, this.vaultMounts + [data: this.vaultMounts])
+            return
+        }
+        if(path ==~ 'auth/[^/]+/login') {
+            countRoute('vault login')
+            respond(exchange, 200, authResponse())
+            return
+        }
+        if(path == 'auth/token/renew-self') {
+            countRoute('vault renew')
+            respond(exchange, 200, authResponse())
+            return
+        }
+        if(path == 'auth/token/lookup-self') {
+            countRoute('vault lookup')
+            respond(exchange, 200, [data: [ttl: 3600, renewable: true]])
+            return
+        }
+        if(path == 'auth/token/revoke-self') {
+            countRoute('vault revoke')
+            respond(exchange, 204, null)
+            return
+        }
+        String mount = this.vaultMounts.keySet().findAll { path.startsWith(it) }.max { it.size() }
+        if(!mount) {
+            respond(exchange, 404, [errors: ["no handler for route '${path}'".toString()]])
+            return
+        }
+        String subpath = path - mount
+        mount = mount - ~/\/$/
+        if(this.vaultMounts[mount + '/'].options?.version?.toString() == '2') {
+            handleVaultKv2(exchange, method, mount, subpath, body)
+        }
+        else {
+            handleVaultKv1(exchange, method, mount, subpath, body)
+        }
+    }
+
+    private List<String> listKeys(String prefix) {
+        String dir = prefix.endsWith('/') || !prefix ? prefix : prefix + '/'
+        this.vaultSecrets.keySet().findAll { it.startsWith(dir) }.collect { String key ->
+            String rest = key - dir
+            rest.contains('/') ? rest.tokenize('/').first() + '/' : rest
+        }.unique().sort()
+    }
+
+    private void handleVaultKv1(HttpExchange exchange, String method, String mount, String subpath, String body) {
+        String key = "${mount}/${subpath}".toString()
+        countRoute("vault kv1 ${method}".toString())
+        if(method == 'LIST') {
+            List<String> keys = listKeys(key)
+            keys ? respond(exchange, 200, [data: [keys: keys]]) : respond(exchange, 404, [errors: []])
+        }
+        else if(method in ['POST', 'PUT']) {
+            this.vaultSecrets[key] = parseBody(body)
+            respond(exchange, 204, null)
+        }
+        else if(method == 'DELETE') {
+            this.vaultSecrets.remove(key)
+            respond(exchange, 204, null)
+        }
+        else if(subpath == 'config') {
+            respond(exchange, 200, [data: [cas_required: false]])
+        }
+        else if(key in this.vaultSecrets.keySet()) {
+            respond(exchange, 200, [data: this.vaultSecrets[key]])
+        }
+        else {
+            respond(exchange, 404, [errors: []])
+        }
+    }
+
+    private void handleVaultKv2(HttpExchange exchange, String method, String mount, String subpath, String body) {
+        countRoute("vault kv2 ${method}".toString())
+        if(subpath == 'config') {
+            respond(exchange, 200, [data: [cas_required: false, max_versions: 0]])
+            return
+        }
+        String type = subpath.tokenize('/').first()
+        String key = "${mount}/${subpath - ~/^[^\/]+\//}".toString()
+        List versions = this.vaultSecrets[key] ?: []
+        if(type == 'metadata' && method == 'LIST') {
+            List<String> keys = listKeys(key)
+            keys ? respond(exchange, 200, [data: [keys: keys]]) : respond(exchange, 404, [errors: []])
+        }
+        else if(type == 'metadata' && method == 'DELETE') {
+            this.vaultSecrets.remove(key)
+            respond(exchange, 204, null)
+        }
+        else if(type == 'metadata') {
+            if(!versions) {
+                respond(exchange, 404, [errors: []])
+                return
+            }
+            Map all = [:]
+            versions.eachWithIndex { v, int i ->
+                all[(i + 1).toString()] = [destroyed: false, deletion_time: '']
+            }
+            respond(exchange, 200, [data: [current_version: versions.size(), oldest_version: 1, versions: all, cas_required: false]])
+        }
+        else if(type == 'data' && method in ['POST', 'PUT']) {
+            synchronized(this.vaultSecrets) {
+                List updated = new ArrayList(this.vaultSecrets[key] ?: [])
+                updated << (parseBody(body).data ?: [:])
+                this.vaultSecrets[key] = updated
+                respond(exchange, 200, [data: [version: updated.size()]])
+            }
+        }
+        else if(type == 'data' && method == 'DELETE') {
+            this.vaultSecrets.remove(key)
+            respond(exchange, 204, null)
+        }
+        else if(type == 'data') {
+            String query = exchange.requestURI.query ?: ''
+            Integer version = (queryParam(query, 'version') ?: '0') as Integer
+            version = version ?: versions.size()
+            if(!versions || version > versions.size()) {
+                respond(exchange, 404, [errors: []])
+                return
+            }
+            respond(exchange, 200, [data: [data: versions[version - 1], metadata: [version: version]]])
+        }
+        else {
+            respond(exchange, 404, [errors: []])
+        }
+    }
+
+    private void handleGitHub(HttpExchange exchange, String path, String body) {
+        String method = exchange.requestMethod.toUpperCase()
+        String query = exchange.requestURI.query ?: ''
+        if(path == 'graphql') {
+            countRoute('github graphql')
+            respond(exchange, 200, [data: this.graphqlHandler(parseBody(body))])
+            return
+        }
+        if(path == 'user') {
+            countRoute('github user')
+            respond(exchange, 200, [login: 'jervis'])
+            return
+        }
+        if(path == 'app/installations' || path ==~ '(orgs|users)/[^/]+/installation') {
+            countRoute('github installations')
+            respond(exchange, 200, (path == 'app/installations') ? [[id: 1]] : [id: 1])
+            return
+        }
+        if(method == 'POST' && path ==~ 'app/installations/[^/]+/access_tokens') {
+            countRoute('github access token')
+            respond(exchange, 201, [
+                token: "ghs_token${this.tokens.incrementAndGet()}".toString(),
+                expires_at: Instant.now().plusSeconds(3600).toString()
+            ])
+            return
+        }
+        List<String> parts = path.tokenize('/')
+        if(parts.size() < 4 || parts[0] != 'repos' || !this.repositories[parts[1] + '/' + parts[2]]) {
+            respond(exchange, 404, [message: 'Not Found'])
+            return
+        }
+        String project = parts[1] + '/' + parts[2]
+        Map<String, Map<String, String>> branches = this.repositories[project]
+        String resource = parts[3]
+        String rest = parts.drop(4).join('/')
+        if(resource == 'branches') {
+            countRoute('github branches')
+            Integer page = (queryParam(query, 'page') ?: '1') as Integer
+            respond(exchange, 200, (page == 1) ? branches.keySet().collect { [name: it] } : [])
+        }
+        else if(resource == 'commits') {
+            countRoute('github commits')
+            String ref = URLDecoder.decode(rest, 'UTF-8')
+            String sha = resolveRef(project, (ref == 'HEAD') ? branches.keySet().first() : ref)
+            String etag = "\"${sha}\"".toString()
+            if(!sha) {
+                respond(exchange, 422, [message: "No commit found for SHA: ${ref}".toString()])
+            }
+            else if(exchange.requestHeaders.getFirst('If-None-Match') == etag) {
+                respond(exchange, 304, null)
+            }
+            else {
+                exchange.responseHeaders.add('ETag', etag)
+                respond(exchange, 200, sha, 'application/vnd.github.sha')
+            }
+        }
+        else if(resource == 'contents') {
+            countRoute('github contents')
+            String ref = queryParam(query, 'ref') ?: branches.keySet().first()
+            String branch = branchOf(project, ref)
+            Map<String, String> files = branch ? branches[branch] : null
+            if(files == null) {
+                respond(exchange, 404, [message: 'Not Found'])
+            }
+            else if(rest in files.keySet()) {
+                respond(exchange, 200, [name: rest.tokenize('/').last(), path: rest, encoding: 'base64', content: SecurityIO.encodeBase64(files[rest])])
+            }
+            else {
+                String dir = rest ? rest + '/' : ''
+                List names = files.keySet().findAll { it.startsWith(dir) }.collect { (it - dir).tokenize('/').first() }.unique()
+                names ? respond(exchange, 200, names.collect { [name: it] }) : respond(exchange, 404, [message: 'Not Found'])
+            }
+        }
+        else {
+            respond(exchange, 404, [message: 'Not Found'])
+        }
+    }
+
+    private String resolveRef(String project, String ref) {
+        if(ref in this.repositories[project].keySet()) {
+            return commitSha(project, ref)
+        }
+        branchOf(project, ref) ? ref : null
+    }
+
+    private String branchOf(String project, String ref) {
+        Map branches = this.repositories[project]
+        if(ref in branches.keySet()) {
+            return ref
+        }
+        branches.keySet().find { commitSha(project, it) == ref }
+    }
+}
@@ -0,0 +1,176 @@
+/*
+   Copyright 2014-2026 Sam Gleske - https://github.com/samrocketman/jervis
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+   */
+package net.gleske.jervis.remotes
+//the LocalApiServerTest() class automatically sees the LocalApiServer() class because they're in the same package
+
+import net.gleske.jervis.remotes.creds.EphemeralTokenCache
+import net.gleske.jervis.remotes.creds.GitHubAppCredential
+import net.gleske.jervis.remotes.creds.GitHubAppRsaCredentialImpl
+import net.gleske.jervis.remotes.creds.VaultAppRoleCredential
+import net.gleske.jervis.remotes.interfaces.TokenCredential
+
+import org.junit.After
+import org.junit.Before
+import org.junit.Test
+
+/**
+  Runs API clients against the local stand-in server.
+  */
+class LocalApiServerTest extends GroovyTestCase {
+    LocalApiServer server
+    GitHub github
+    VaultService vault
+
+    //set up before every test
+    @Before protected void setUp() {
+        super.setUp()
+        server = new LocalApiServer().start()
+        server.repositories['org/repo'] = [
+            main: ['.jervis.yml': 'language: java', 'src/Main.java': 'class Main {}'],
+            dev: ['.jervis.yml': 'language: python']
+        ]
+        github = new GitHub(gh_api: server.gitHubUrl)
+        github.scheduler = new GitHubRequestScheduler(backoffMillis: 1, maxBackoffMillis: 5)
+        vault = new VaultService(server.vaultUrl, [getToken: { -> 'token' }] as TokenCredential)
+    }
+    //tear down after every test
+    @After protected void tearDown() {
+        server.close()
+        super.tearDown()
+    }
+    @Test public void test_LocalApiServer_github_rest() {
+        assert github.branches('org/repo') == ['main', 'dev']
+        assert github.getFile('org/repo', '.jervis.yml') == 'language: java'
+        assert github.getFile('org/repo', '.jervis.yml', 'dev') == 'language: python'
+        assert github.getFolderListing('org/repo') == ['.jervis.yml', 'src']
+        assert github.getFolderListing('org/repo', 'src', 'main') == ['Main.java']
+        assert github.fetch('user').login == 'jervis'
+        shouldFail(IOException) {
+            github.getFile('org/repo', 'missing')
+        }
+    }
+    @Test public void test_LocalApiServer_github_content_cache() {
+        github.contentCache = new GitHubContentCache()
+        2.times {
+            assert github.getFile('org/repo', '.jervis.yml', 'main') == 'language: java'
+        }
+        assert server.stats.routes['github contents'] == 1
+        assert server.stats.routes['github commits'] == 2
+        server.repositories['org/repo'].main = ['.jervis.yml': 'language: ruby']
+        assert github.getFile('org/repo', '.jervis.yml', 'main') == 'language: ruby'
+        assert server.stats.routes['github contents'] == 2
+    }
+    @Test public void test_LocalApiServer_github_graphql() {
+        GitHubGraphQL graphql = new GitHubGraphQL(gh_api: server.graphqlUrl)
+        graphql.scheduler = null
+        Map response = graphql.sendGQL('query { viewer { login } }')
+        assert response.data.viewer.login == 'jervis'
+        server.graphqlHandler = { Map request ->
+            [query: request.query]
+        }
+        assert graphql.sendGQL('query { custom }').data.query == 'query { custom }'
+    }
+    @Test public void test_LocalApiServer_github_app_credential() {
+        File cacheDir = File.createTempDir()
+        try {
+            URL key = this.getClass().getResource('/rsa_keys/good_id_rsa_2048')
+            GitHubAppRsaCredentialImpl rsaCred = new GitHubAppRsaCredentialImpl('123', key.content.text, server.gitHubUrl)
+            EphemeralTokenCache tokenCred = new EphemeralTokenCache(key.file)
+            tokenCred.cacheFile = new File(cacheDir, 'cache.yaml').absolutePath
+            tokenCred.cacheLockFile = new File(cacheDir, 'cache.lock').absolutePath
+            GitHubAppCredential app = new GitHubAppCredential(rsaCred, tokenCred)
+            app.scheduler = null
+            String token = app.getToken()
+            assert token.startsWith('ghs_token')
+            // the token is cached until it expires
+            assert app.getToken() == token
+            assert server.stats.routes['github access token'] == 1
+        }
+        finally {
+            cacheDir.deleteDir()
+        }
+    }
+    @Test public void test_LocalApiServer_vault_kv() {
+        vault.discoverKVMounts()
+        assert vault.mountVersions == [kv: '2', secret: '1']
+        vault.setSecret('kv/foo/bar', [hello: 'world'])
+        vault.setSecret('kv/foo/bar', [hello: 'friend'])
+        vault.setSecret('secret/baz', [key: 'value'])
+        assert vault.getSecret('kv/foo/bar') == [hello: 'friend']
+        assert vault.getSecret('kv/foo/bar', 1) == [hello: 'world']
+        assert vault.getSecret('secret/baz') == [key: 'value']
+        VaultSecretsResult result = vault.getSecrets(['kv/foo/bar', 'secret/baz', 'secret/missing'])
+        assert result.secrets.keySet() == ['kv/foo/bar', 'secret/baz'] as Set
+        assert result.failures.keySet() == ['secret/missing'] as Set
+    }
+    @Test public void test_LocalApiServer_vault_approle() {
+        VaultAppRoleCredential approle = new VaultAppRoleCredential(server.vaultUrl - 'v1/', 'role', 'secret')
+        String token = approle.getToken()
+        assert token.startsWith('s.token')
+        assert approle.getToken() == token
+        assert approle.lookupToken().data.ttl == 3600
+        assert approle.renewToken()
+        approle.revokeToken()
+        assert server.stats.routes.keySet().containsAll(['vault login', 'vault lookup', 'vault renew', 'vault revoke'])
+    }
+    @Test public void test_LocalApiServer_rate_limit_headers() {
+        server.rateLimit = 3
+        Map headers = SimpleRestService.apiFetch(new URL(server.gitHubUrl + 'user'), ['Response-Headers': true])
+        assert headers['X-ratelimit-limit'] == ['3']
+        assert headers['X-ratelimit-remaining'] == ['2']
+        github.scheduler = null
+        2.times {
+            github.fetch('user')
+        }
+        String message = shouldFail(IOException) {
+            github.fetch('user')
+        }
+        assert message.contains('API rate limit exceeded')
+        assert server.stats.routes['rate_limited'] == 1
+    }
+    @Test public void test_LocalApiServer_injected_failures() {
+        server.failNext(429, 2)
+        // the scheduler retries 429 responses
+        assert github.fetch('user').login == 'jervis'
+        assert server.stats.routes['injected'] == 2
+        server.failNext(500)
+        github.scheduler = null
+        shouldFail(IOException) {
+            github.fetch('user')
+        }
+        vault.discoverKVMounts()
+        server.errorRate = 1
+        shouldFail(IOException) {
+            vault.getSecret('secret/missing')
+        }
+    }
+    @Test public void test_LocalApiServer_latency_and_concurrency() {
+        server.latencyMillis = 50
+        github.scheduler = null
+        List<Thread> threads = (1..4).collect {
+            Thread.start {
+                github.fetch('user')
+            }
+        }
+        long start = System.nanoTime()
+        threads*.join()
+        long elapsed = (System.nanoTime() - start).intdiv(1000000)
+        assert server.stats.max_in_flight == 4
+        // requests ran at the same time instead of one after another
+        assert elapsed < 200
+        assert server.stats.requests == 4
+    }
+}
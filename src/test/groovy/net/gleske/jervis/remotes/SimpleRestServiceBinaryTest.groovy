@@ -73,6 +73,60 @@ class SimpleRestServiceBinaryTest extends GroovyTestCase {
 
         // get response message from Nexus
         assert request_history*.response_code == [201]
+        // chunked transfer encoding is opt-in
+        assert !request_meta.chunkedStreamingMode
+        assert !request_meta.fixedLengthStreamingMode
+    }
+    @Test public void test_SimpleRestService_apiFetch_binary_upload_stream_options() {
+        url = 'http://localhost:8081/repository/hosted-raw-repo/file.gz'
+        URL api_url = new URL(url)
+        List progress = []
+        Map http_headers = [
+            Accept: '*/*',
+            'Binary-Data': true,
+            'Stream-Length': 23,
+            'Stream-Progress': { Long bytes -> progress << bytes }
+        ]
+        SimpleRestService.apiFetch(api_url, http_headers, 'PUT', 'binary-data') { httpOutputStream ->
+            httpOutputStream << 'hello world\n\nMy friend\n'.bytes
+        }
+        assert request_history*.response_code == [201]
+        assert request_meta.fixedLengthStreamingMode == 23
+        assert !request_meta.chunkedStreamingMode
+        assert progress == [23]
+        assert request_meta.data_binary.toString() == 'hello world\n\nMy friend\n'
+        assert !request_meta.headers.keySet().any { it.toLowerCase().startsWith('stream-') }
+    }
+    @Test public void test_SimpleRestService_apiFetch_binary_upload_stream_gzip() {
+        url = 'http://localhost:8081/repository/hosted-raw-repo/file.gz'
+        URL api_url = new URL(url)
+        Map http_headers = [
+            Accept: '*/*',
+            'Binary-Data': true,
+            'Stream-GZip': true,
+            // length is ignored because compressed size is not known
+            'Stream-Length': 23,
+            'Stream-Chunk-Size': 1024
+        ]
+        SimpleRestService.apiFetch(api_url, http_headers, 'PUT', 'binary-data') { httpOutputStream ->
+            httpOutputStream << 'hello world\n\nMy friend\n'.bytes
+        }
+        assert request_meta.chunkedStreamingMode == 1024
+        assert !request_meta.fixedLengthStreamingMode
+        ByteArrayOutputStream plain = new ByteArrayOutputStream()
+        new GZIPInputStream(new ByteArrayInputStream(request_meta.data_binary.toByteArray())).withCloseable { gunzip ->
+            plain << gunzip
+        }
+        assert plain.toString() == 'hello world\n\nMy friend\n'
+    }
+    @Test public void test_SimpleRestService_apiFetch_binary_upload_stream_disabled() {
+        url = 'http://localhost:8081/repository/hosted-raw-repo/file.gz'
+        URL api_url = new URL(url)
+        SimpleRestService.apiFetch(api_url, ['Binary-Data': true, 'Stream-Chunk-Size': -1], 'PUT', 'binary-data') { httpOutputStream ->
+            httpOutputStream << 'hello world\n\nMy friend\n'.bytes
+        }
+        assert !request_meta.chunkedStreamingMode
+        assert !request_meta.fixedLengthStreamingMode
     }
     @Test public void test_SimpleRestService_apiFetch_binary_download() {
         URL api_url = new URL('http://localhost:8081/repository/hosted-raw-repo/file.gz')
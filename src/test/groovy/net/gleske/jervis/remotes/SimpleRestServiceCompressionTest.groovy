@@ -0,0 +1,147 @@
+/*
+   Copyright 2014-2026 Sam Gleske - https://github.com/samrocketman/jervis
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+   */
+package net.gleske.jervis.remotes
+//the SimpleRestServiceCompressionTest() class automatically sees the SimpleRestService() class because they're in the same package
+
+import net.gleske.jervis.tools.GZip
+import net.gleske.jervis.tools.Metrics
+import net.gleske.jervis.tools.MetricsRegistry
+
+import com.sun.net.httpserver.HttpExchange
+import java.util.zip.Deflater
+import java.util.zip.DeflaterOutputStream
+import java.util.zip.GZIPInputStream
+import org.junit.After
+import org.junit.Before
+import org.junit.Test
+
+/**
+  Negotiates compressed transfers with a real local HTTP server rather than a
+  mocked URL.
+  */
+class SimpleRestServiceCompressionTest extends GroovyTestCase {
+    LocalApiServer server
+    Map received
+    String json
+
+    //set up before every test
+    @Before protected void setUp() {
+        super.setUp()
+        received = [:]
+        json = '{"items": [' + (1..500).collect { "{\"name\": \"item ${it}\", \"value\": \"café\"}" }.join(', ') + ']}'
+        server = new LocalApiServer()
+        server.createContext('/json') { HttpExchange exchange ->
+            received.accept_encoding = exchange.requestHeaders.getFirst('Accept-Encoding')
+            received.content_encoding = exchange.requestHeaders.getFirst('Content-Encoding')
+            InputStream body = exchange.requestBody
+            if(received.content_encoding == 'gzip') {
+                body = new GZIPInputStream(body)
+            }
+            ByteArrayOutputStream request = new ByteArrayOutputStream()
+            request << body
+            received.body = request.toString('UTF-8')
+            String encoding = exchange.requestURI.query ?: 'identity'
+            ByteArrayOutputStream response = new ByteArrayOutputStream()
+            OutputStream os = response
+            if(encoding == 'gzip') {
+                os = new GZip(response)
+            }
+            else if(encoding == 'deflate') {
+                os = new DeflaterOutputStream(response)
+            }
+            else if(encoding == 'rawdeflate') {
+                os = new DeflaterOutputStream(response, new Deflater(Deflater.DEFAULT_COMPRESSION, true))
+                encoding = 'deflate'
+            }
+            os.withCloseable {
+                it.write(json.getBytes('UTF-8'))
+            }
+            Integer code = exchange.requestURI.path.endsWith('/error') ? 400 : 200
+            exchange.responseHeaders.add('Content-Type', 'application/json; charset=UTF-8')
+            if(encoding != 'identity') {
+                exchange.responseHeaders.add('Content-Encoding', encoding)
+            }
+            exchange.sendResponseHeaders(code, response.size())
+            exchange.responseBody.withCloseable {
+                it.write(response.toByteArray())
+            }
+        }
+        server.start()
+    }
+    //tear down after every test
+    @After protected void tearDown() {
+        Metrics.listener = null
+        server.close()
+        super.tearDown()
+    }
+    private URL url(String encoding, String path = 'json') {
+        new URL(server.url("${path}?${encoding}"))
+    }
+    @Test public void test_SimpleRestService_compression_accept_encoding_default() {
+        Map response = SimpleRestService.apiFetch(url('identity'))
+        assert received.accept_encoding == 'gzip, deflate'
+        assert response.items.size() == 500
+    }
+    @Test public void test_SimpleRestService_compression_gzip_response() {
+        MetricsRegistry registry = new MetricsRegistry()
+        Metrics.listener = registry
+        Map response = SimpleRestService.apiFetch(url('gzip'))
+        assert response.items.size() == 500
+        assert response.items[0].value == 'café'
+        Map tags = [host: '127.0.0.1', encoding: 'gzip']
+        long compressed = registry.getCounter('jervis.http.response.bytes', tags + [transfer: 'compressed'])
+        long uncompressed = registry.getCounter('jervis.http.response.bytes', tags + [transfer: 'uncompressed'])
+        assert uncompressed == json.getBytes('UTF-8').length
+        assert compressed < uncompressed / 5
+    }
+    @Test public void test_SimpleRestService_compression_deflate_response() {
+        assert SimpleRestService.apiFetch(url('deflate')).items.size() == 500
+        assert SimpleRestService.apiFetch(url('rawdeflate')).items.size() == 500
+    }
+    @Test public void test_SimpleRestService_compression_error_response() {
+        Map response = SimpleRestService.apiFetch(url('gzip', 'json/error'), ['Response-Map': true])
+        assert response.error
+        assert response.response_code == 400
+        assert response.content.items.size() == 500
+    }
+    @Test public void test_SimpleRestService_compression_opt_out() {
+        String response = SimpleRestService.apiFetch(url('identity'), ['Accept-Encoding': 'identity', 'Parse-JSON': false])
+        assert received.accept_encoding == 'identity'
+        assert response.startsWith('{"items": [')
+        assert response.contains('"item 500"')
+    }
+    @Test public void test_SimpleRestService_compression_binary_data_untouched() {
+        HttpURLConnection conn = SimpleRestService.apiFetch(url('gzip'), ['Binary-Data': true])
+        assert received.accept_encoding == null
+        assert conn.getHeaderField('Content-Encoding') == 'gzip'
+        ByteArrayOutputStream plain = new ByteArrayOutputStream()
+        conn.inputStream.withCloseable { is ->
+            plain << new GZIPInputStream(is)
+        }
+        assert plain.toString('UTF-8') == json
+    }
+    @Test public void test_SimpleRestService_compression_request_gzip() {
+        String body = '{"query": "' + ('x' * 10000) + '"}'
+        SimpleRestService.apiFetch(url('gzip'), ['Request-GZip': true], 'POST', body)
+        assert received.content_encoding == 'gzip'
+        assert received.body == body
+    }
+    @Test public void test_SimpleRestService_compression_request_gzip_small_body() {
+        SimpleRestService.apiFetch(url('gzip'), ['Request-GZip': 6], 'POST', '{"query": "small"}')
+        assert received.content_encoding == null
+        assert received.body == '{"query": "small"}'
+    }
+}
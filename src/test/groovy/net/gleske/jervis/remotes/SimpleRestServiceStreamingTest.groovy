@@ -0,0 +1,139 @@
+/*
+   Copyright 2014-2026 Sam Gleske - https://github.com/samrocketman/jervis
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+   */
+package net.gleske.jervis.remotes
+//the SimpleRestServiceStreamingTest() class automatically sees the SimpleRestService() class because they're in the same package
+
+import com.sun.net.httpserver.HttpExchange
+import java.util.zip.GZIPInputStream
+import org.junit.After
+import org.junit.Before
+import org.junit.Test
+
+/**
+  Uploads to a real local HTTP server rather than a mocked URL.
+  */
+class SimpleRestServiceStreamingTest extends GroovyTestCase {
+    LocalApiServer server
+    Map received
+
+    //set up before every test
+    @Before protected void setUp() {
+        super.setUp()
+        received = [:]
+        server = new LocalApiServer()
+        server.createContext('/upload') { HttpExchange exchange ->
+            InputStream body = exchange.requestBody
+            if(exchange.requestHeaders.getFirst('X-Test-Decompress')) {
+                body = new GZIPInputStream(body)
+            }
+            byte[] buffer = new byte[65536]
+            long total = 0
+            int len
+            while((len = body.read(buffer)) > 0) {
+                total += len
+            }
+            received.bytes = total
+            received.transfer_encoding = exchange.requestHeaders.getFirst('Transfer-Encoding')
+            received.content_length = exchange.requestHeaders.getFirst('Content-Length')
+            exchange.sendResponseHeaders(201, -1)
+            exchange.close()
+        }
+        server.start()
+    }
+    //tear down after every test
+    @After protected void tearDown() {
+        server.close()
+        super.tearDown()
+    }
+    private URL uploadUrl() {
+        new URL(server.url('upload'))
+    }
+    @Test public void test_SimpleRestService_stream_upload_buffered_by_default() {
+        byte[] data = new byte[1024 * 1024]
+        HttpURLConnection response = SimpleRestService.apiFetch(
+                uploadUrl(),
+                ['Binary-Data': true],
+                'PUT',
+                'binary-data') { OutputStream os ->
+            os.write(data)
+        }
+        assert response.responseCode == 201
+        assert received.bytes == data.length
+        assert received.content_length == data.length.toString()
+        assert !received.transfer_encoding
+    }
+    @Test public void test_SimpleRestService_stream_upload_chunked() {
+        // upload twice the max heap so a buffered body would run out of memory
+        byte[] block = new byte[1024 * 1024]
+        long blocks = (2L * Runtime.runtime.maxMemory()) / block.length + 1
+        long size = blocks * block.length
+        Long progress = 0
+        HttpURLConnection response = SimpleRestService.apiFetch(
+                uploadUrl(),
+                [
+                    'Binary-Data': true,
+                    'Stream-Chunk-Size': 65536,
+                    'Stream-Progress': { Long bytes -> progress = bytes }
+                ],
+                'PUT',
+                'binary-data') { OutputStream os ->
+            for(long i = 0; i < blocks; i++) {
+                os.write(block)
+            }
+        }
+        assert response.responseCode == 201
+        assert received.bytes == size
+        assert progress == size
+        assert received.transfer_encoding == 'chunked'
+    }
+    @Test public void test_SimpleRestService_stream_fixed_length_upload() {
+        byte[] data = new byte[1024 * 1024]
+        HttpURLConnection response = SimpleRestService.apiFetch(
+                uploadUrl(),
+                ['Binary-Data': true, 'Stream-Length': data.length],
+                'PUT',
+                'binary-data') { OutputStream os ->
+            os.write(data)
+        }
+        assert response.responseCode == 201
+        assert received.bytes == data.length
+        assert received.content_length == data.length.toString()
+        assert !received.transfer_encoding
+    }
+    @Test public void test_SimpleRestService_stream_gzip_upload() {
+        byte[] block = new byte[1024 * 1024]
+        Long progress = 0
+        HttpURLConnection response = SimpleRestService.apiFetch(
+                uploadUrl(),
+                [
+                    'Binary-Data': true,
+                    'Stream-GZip': 1,
+                    'Stream-Chunk-Size': 65536,
+                    'Stream-Progress': { Long bytes -> progress = bytes },
+                    'X-Test-Decompress': 'true'
+                ],
+                'PUT',
+                'binary-data') { OutputStream os ->
+            64.times {
+                os.write(block)
+            }
+        }
+        assert response.responseCode == 201
+        assert progress == 64L * block.length
+        assert received.bytes == 64L * block.length
+        assert received.transfer_encoding == 'chunked'
+    }
+}
@@ -64,7 +64,7 @@ class SimpleRestServiceTest extends GroovyTestCase {
         assert response['login'] == 'samrocketman'
         assert request_meta['method'] == 'POST'
         assert request_meta['data'].toString().trim() == 'this is some test data'
-        assert request_meta['headers'] == ['Content-Type': 'application/json']
+        assert request_meta['headers'] == ['Content-Type': 'application/json', 'Accept-Encoding': 'gzip, deflate']
     }
     @Test public void test_SimpleRestService_apiFetch_post_plain() {
         Map http_headers = ['Content-Type': 'text/plain']
@@ -72,7 +72,7 @@ class SimpleRestServiceTest extends GroovyTestCase {
         assert response == 'this is mock POST response data'
         assert request_meta['method'] == 'POST'
         assert request_meta['data'].toString().trim() == 'this is some test data'
-        assert request_meta['headers'] == http_headers
+        assert request_meta['headers'] == http_headers + ['Accept-Encoding': 'gzip, deflate']
     }
     @Test public void test_SimpleRestService_apiFetch_post_fail() {
         shouldFail(RuntimeException) {
@@ -185,6 +185,13 @@ class SimpleRestServiceTest extends GroovyTestCase {
         apiFetch(new URL('https://api.github.com/users/samrocketman'), ['X-HTTP-Timeout-Millis': '5000'])
         assert request_meta['connectTimeout'] == 5000
     }
+    @Test public void test_SimpleRestService_apiFetch_read_timeout_via_header() {
+        apiFetch(new URL('https://api.github.com/users/samrocketman'))
+        assert request_meta['readTimeout'] == null
+        apiFetch(new URL('https://api.github.com/users/samrocketman'), ['X-HTTP-Read-Timeout-Millis': 2500])
+        assert request_meta['readTimeout'] == 2500
+        assert !request_meta.headers.keySet().any { it.equalsIgnoreCase('X-HTTP-Read-Timeout-Millis') }
+    }
     @Test public void test_SimpleRestService_apiFetch_timeout_via_property() {
         String originalValue = System.getProperty('net.gleske.jervis.remotes.SimpleRestService.timeoutMillis')
         try {
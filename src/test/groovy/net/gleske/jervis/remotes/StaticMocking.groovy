@@ -138,6 +138,15 @@ JERVIS_MOCKS_PATH=/tmp/mocks ./gradlew clean check
                 setConnectTimeout: { Integer millis ->
                     request_meta['connectTimeout'] = millis
                 },
+                setReadTimeout: { Integer millis ->
+                    request_meta['readTimeout'] = millis
+                },
+                setChunkedStreamingMode: { Integer chunklen ->
+                    request_meta['chunkedStreamingMode'] = chunklen
+                },
+                setFixedLengthStreamingMode: { Long contentLength ->
+                    request_meta['fixedLengthStreamingMode'] = contentLength
+                },
                 getHeaderFields: { ->
                     request_meta.data = request_meta.data?.toString() ?: ''
                     Map header_fields = [(null): Collections.unmodifiableList(['HTTP/1.1 200 OK'])]
@@ -361,6 +370,18 @@ request_history
                 getDoOutput: { ->
                     request_meta.conn.getDoOutput()
                 },
+                setConnectTimeout: { Integer millis ->
+                    request_meta.conn.setConnectTimeout(millis)
+                },
+                setReadTimeout: { Integer millis ->
+                    request_meta.conn.setReadTimeout(millis)
+                },
+                setChunkedStreamingMode: { Integer chunklen ->
+                    request_meta['chunkedStreamingMode'] = chunklen
+                },
+                setFixedLengthStreamingMode: { Long contentLength ->
+                    request_meta['fixedLengthStreamingMode'] = contentLength
+                },
                 getHeaderFields: { ->
                     request_meta.data = request_meta.data?.toString() ?: ''
                     // write output to connection request
@@ -0,0 +1,202 @@
+/*
+   Copyright 2014-2026 Sam Gleske - https://github.com/samrocketman/jervis
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+   */
+package net.gleske.jervis.remotes
+//the VaultServiceBulkReadTest() class automatically sees the VaultService() class because they're in the same package
+
+import net.gleske.jervis.exceptions.VaultException
+import net.gleske.jervis.remotes.interfaces.TokenCredential
+
+import com.sun.net.httpserver.HttpExchange
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.TimeoutException
+import java.util.concurrent.atomic.AtomicInteger
+import org.junit.After
+import org.junit.Before
+import org.junit.Test
+
+/**
+  Reads secrets from a real local HTTP server which behaves like Vault in
+  order to measure concurrency and read timeouts.
+  */
+class VaultServiceBulkReadTest extends GroovyTestCase {
+    LocalApiServer server
+    VaultService myvault
+    Map<String, Map> secrets
+    Map<String, AtomicInteger> requests
+    AtomicInteger inFlight
+    AtomicInteger maxInFlight
+
+    //set up before every test
+    @Before protected void setUp() {
+        super.setUp()
+        secrets = [
+            'kv/data/foo': [hello: 'world', another: 'secret'],
+            'kv/data/foo/bar': [hello: 'friend'],
+            'kv/data/slow': [slow: 'value'],
+            'kv/data/sleepy': [sleepy: 'value'],
+            'secret/foo': [test: 'data']
+        ]
+        requests = new ConcurrentHashMap<String, AtomicInteger>()
+        inFlight = new AtomicInteger()
+        maxInFlight = new AtomicInteger()
+        server = new LocalApiServer(threads: 16)
+        server.createContext('/v1/') { HttpExchange exchange ->
+            String path = exchange.requestURI.path - '/v1/'
+            requests.computeIfAbsent(path) { new AtomicInteger() }.incrementAndGet()
+            int current = inFlight.incrementAndGet()
+            synchronized(maxInFlight) {
+                maxInFlight.set(Math.max(maxInFlight.get(), current))
+            }
+            try {
+                sleep([('kv/data/slow'): 5000, ('kv/data/sleepy'): 1000][path] ?: 100)
+                String body = '{"errors": []}'
+                int code = 404
+                if(path == 'sys/mounts') {
+                    code = 200
+                    body = '{"kv/": {"type": "kv", "options": {"version": "2"}}, "secret/": {"type": "kv", "options": {"version": "1"}}}'
+                }
+                else if(path == 'kv/config') {
+                    code = 200
+                    body = '{"data": {"cas_required": false}}'
+                }
+                else if(path in secrets.keySet()) {
+                    code = 200
+                    Map data = path.startsWith('kv/') ? [data: [data: secrets[path]]] : [data: secrets[path]]
+                    body = SimpleRestService.objToJson(data)
+                }
+                byte[] content = body.bytes
+                exchange.responseHeaders.add('Content-Type', 'application/json')
+                exchange.sendResponseHeaders(code, content.length)
+                exchange.responseBody.withCloseable {
+                    it.write(content)
+                }
+            }
+            finally {
+                inFlight.decrementAndGet()
+                exchange.close()
+            }
+        }
+        server.start()
+        TokenCredential cred = [getToken: {-> 'fake-token' }] as TokenCredential
+        myvault = new VaultService(server.url(), cred)
+        myvault.mountVersions = [kv: '2', secret: '1']
+    }
+    //tear down after every test
+    @After protected void tearDown() {
+        server.close()
+        super.tearDown()
+    }
+    @Test public void test_VaultService_getSecrets() {
+        VaultSecretsResult result = myvault.getSecrets(['kv/foo', [mount: 'kv', path: '/foo/bar'], 'secret/foo', 'kv/doesnotexist'])
+        assert !result.isSuccess()
+        assert result.secrets.keySet().toList() == ['kv/foo', 'kv/foo/bar', 'secret/foo']
+        assert result.secrets['kv/foo/bar'] == [hello: 'friend']
+        assert result.secrets['secret/foo'] == [test: 'data']
+        assert result.failures.keySet().toList() == ['kv/doesnotexist']
+        assert result.failures['kv/doesnotexist'] in FileNotFoundException
+    }
+    @Test public void test_VaultService_getSecrets_concurrent() {
+        List paths = (1..8).collect { "kv/generated/${it}".toString() }
+        paths.each {
+            secrets[it.replace('kv/', 'kv/data/')] = [id: it]
+        }
+        myvault.readConcurrency = 4
+        // warm up the client and server before measuring
+        myvault.getSecrets(['kv/foo'])
+        maxInFlight.set(0)
+        long start = System.currentTimeMillis()
+        VaultSecretsResult result = myvault.getSecrets(paths)
+        long elapsed = System.currentTimeMillis() - start
+        assert result.isSuccess()
+        assert result.secrets.keySet().toList() == paths
+        assert maxInFlight.get() <= 4
+        assert maxInFlight.get() > 1
+        // 8 reads of 100ms each read 4 at a time
+        assert elapsed < 800
+    }
+    @Test public void test_VaultService_getSecrets_deduplicates() {
+        VaultSecretsResult result = myvault.getSecrets(['kv/foo', 'kv/foo', [mount: 'kv', path: 'foo'], [mount: 'kv', path: '/foo']])
+        assert result.secrets.keySet().toList() == ['kv/foo']
+        assert requests['kv/data/foo'].get() == 1
+    }
+    @Test public void test_VaultService_getSecrets_deadline() {
+        myvault.readTimeoutMillis = 2000
+        VaultSecretsResult result = myvault.getSecrets(['kv/slow', 'kv/foo'])
+        assert result.secrets.keySet().toList() == ['kv/foo']
+        assert result.failures['kv/slow'] in InterruptedIOException
+    }
+    @Test public void test_VaultService_getSecrets_overall_deadline() {
+        myvault.readTimeoutMillis = 0
+        myvault.readDeadlineMillis = 1000
+        long start = System.currentTimeMillis()
+        VaultSecretsResult result = myvault.getSecrets(['kv/slow', 'kv/foo'])
+        long elapsed = System.currentTimeMillis() - start
+        assert result.secrets.keySet().toList() == ['kv/foo']
+        assert result.failures['kv/slow'] in TimeoutException
+        assert elapsed < 3000
+        // skipped like other secrets which could not be read
+        assert myvault.getEnvironmentSecrets(['kv/slow', 'kv/foo']) == [another: 'secret', hello: 'world']
+    }
+    @Test public void test_VaultService_getSecret_not_limited_by_read_timeout() {
+        myvault.readTimeoutMillis = 200
+        assert myvault.getSecret('kv/sleepy') == [sleepy: 'value']
+        assert myvault.getSecrets(['kv/sleepy']).failures['kv/sleepy'] in InterruptedIOException
+    }
+    @Test public void test_VaultService_getSecrets_reuses_threads() {
+        assert myvault.getSecrets(['kv/foo']).isSuccess()
+        def pool = myvault.@readPool
+        assert pool.maximumPoolSize == 8
+        assert myvault.getSecrets(['kv/foo/bar']).isSuccess()
+        assert myvault.@readPool.is(pool)
+        myvault.readConcurrency = 2
+        assert myvault.getSecrets(['kv/foo']).isSuccess()
+        assert myvault.@readPool.is(pool)
+        assert pool.maximumPoolSize == 2
+        assert pool.corePoolSize == 2
+    }
+    @Test public void test_VaultService_getSecrets_discovers_mounts_once() {
+        myvault.@mountVersions = [:]
+        VaultSecretsResult result = myvault.getSecrets(['kv/foo', 'kv/foo/bar', 'secret/foo'])
+        assert result.isSuccess()
+        assert requests['sys/mounts'].get() == 1
+        assert myvault.mountVersions == [kv: '2', secret: '1']
+    }
+    @Test public void test_VaultService_getSecrets_empty() {
+        VaultSecretsResult result = myvault.getSecrets([])
+        assert result.isSuccess()
+        assert !result.secrets
+    }
+    @Test public void test_VaultService_fetchEnvironmentSecrets_order() {
+        VaultSecretsResult result = myvault.fetchEnvironmentSecrets(['kv/foo/bar', 'kv/doesnotexist', 'kv/foo'])
+        assert result.environment == [another: 'secret', hello: 'world']
+        assert result.environment.keySet().toList() == ['another', 'hello']
+        assert result.failures.keySet().toList() == ['kv/doesnotexist']
+        // a repeated path takes precedence at its last position
+        result = myvault.fetchEnvironmentSecrets(['kv/foo/bar', 'kv/foo', 'kv/foo/bar'])
+        assert result.environment == [another: 'secret', hello: 'friend']
+        assert requests['kv/data/foo/bar'].get() == 2
+    }
+    @Test public void test_VaultService_getEnvironmentSecrets_skips_failures() {
+        myvault.readTimeoutMillis = 2000
+        Map result = myvault.getEnvironmentSecrets(['kv/slow', 'kv/doesnotexist', 'kv/foo', 'secret/foo'])
+        assert result == [another: 'secret', hello: 'world', test: 'data']
+    }
+    @Test public void test_VaultService_getEnvironmentSecrets_invalid_path() {
+        shouldFail(VaultException) {
+            myvault.getEnvironmentSecrets(['kv/foo', 'doesnotexist/foo'])
+        }
+    }
+}
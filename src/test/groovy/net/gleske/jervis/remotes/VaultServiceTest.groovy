@@ -277,6 +277,8 @@ class VaultServiceTest extends GroovyTestCase {
         myvault = new VaultService(DEFAULT_VAULT_URL, cred)
         myvault.mountVersions = ['secret':'1', 'kv2/withslash':'2', 'secret2/withslash':'1', 'kv':'2', 'kv_cas':'2']
         myvault.cas_required = ['kv_cas']
+        // mocked URL connections share request state so read one at a time
+        myvault.readConcurrency = 1
     }
     //tear down after every test
     @After protected void tearDown() {
@@ -274,6 +274,7 @@ class EphemeralTokenCacheTest extends GroovyTestCase {
 
         // verify cache is encrypted by CipherMap
         Map dataOnDisk = YamlOperator.loadYamlFrom(new File('build/tmp/cache-encrypted.yaml'))
-        dataOnDisk.keySet().toList() == ['age', 'cipher', 'data', 'signature']
+        assert dataOnDisk.keySet().toList() == ['version', 'age', 'cipher', 'entries', 'signature']
+        assert dataOnDisk.entries.size() == 2
     }
 }
@@ -108,6 +108,31 @@ class AutoReleaseTest extends GroovyTestCase {
             AutoRelease.getNextSemanticRelease('1.0-beta', [])
         }
     }
+    @Test public void test_AutoRelease_getNextRelease_TagIndex() {
+        // same cases as the documentation for getNextRelease
+        assert '1.3' == AutoRelease.getNextRelease('1.0-SNAPSHOT', new TagIndex(['1.1', '1.2']))
+        assert '1.1.5.3' == AutoRelease.getNextRelease('1.1.5', new TagIndex(['1.1.6', '1.1.5.1', '1.1.5.2']))
+        assert 'client-2.1.3' == AutoRelease.getNextRelease('2.1-SNAPSHOT', new TagIndex(['client-2.1.1', 'client-2.1.2']), '.', 'client-')
+        assert 'v1.3.4' == AutoRelease.getNextRelease('1.3.0', new TagIndex(['v1.1.1', 'v1.2.1', 'v1.3.1', 'v1.3.2', 'v1.3.3']), '.', 'v')
+        assert 'v1.4' == AutoRelease.getNextRelease('1.0', new TagIndex(['v1.1', 'v1.2', 'v1.3', 'v1.3.2', 'v1.3.3']), '.', 'v')
+        assert '20200101-3' == AutoRelease.getNextRelease('20200101', new TagIndex(['20200101-1', '20200101-2']), '-')
+        assert 'v1.0-beta-1' == AutoRelease.getNextRelease('1.0-beta', new TagIndex(), '-', 'v')
+    }
+    @Test public void test_AutoRelease_getNextSemanticRelease_TagIndex() {
+        // same cases as the documentation for getNextSemanticRelease
+        assert '0.1.3' == AutoRelease.getNextSemanticRelease('0.1.0', new TagIndex(['0.1.1', '0.1.2']))
+        assert '1.1.5-3' == AutoRelease.getNextSemanticRelease('1.1.5', new TagIndex(['1.1.6', '1.1.5-1', '1.1.5-2']))
+        assert 'client-2.1.3' == AutoRelease.getNextSemanticRelease('2.1.0', new TagIndex(['client-2.1.1', 'client-2.1.2']), 'client-')
+        TagIndex tags = new TagIndex(['v1.1.1', 'v1.2.1', 'v1.3.1', 'v1.3.2', 'v1.3.3', 'v1.3.2-1', 'v1.3.2-2'])
+        assert 'v1.3.4' == AutoRelease.getNextSemanticRelease('1.3.0', tags, 'v')
+        assert 'v1.3.2-3' == AutoRelease.getNextSemanticRelease('1.3.2', tags, 'v')
+        assert 'v1.3.2-1-1' == AutoRelease.getNextSemanticRelease('1.3.2-1', tags, 'v')
+        assert 'v1.0.0-rc-2' == AutoRelease.getNextSemanticRelease('1.0.0-rc', new TagIndex(['v0.10.3', 'v1.0.0-rc-1']), 'v')
+        assert '1.1.0-beta-4' == AutoRelease.getNextSemanticRelease('1.1.0-beta', new TagIndex(['1.1.0-beta-1', '1.1.0-beta-2', '1.1.0-beta-3']))
+        shouldFail(JervisException) {
+            AutoRelease.getNextSemanticRelease('1.0', new TagIndex(['1.1']), '-')
+        }
+    }
     @Test public void test_AutoRelease_getNextSemanticRelease_isMatched() {
         assert false == AutoRelease.isMatched('hello', 'world')
         assert true == AutoRelease.isMatched('hello', 'hello')
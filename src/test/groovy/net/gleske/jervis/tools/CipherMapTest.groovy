@@ -169,4 +169,208 @@ class CipherMapTest extends GroovyTestCase {
         assert rotated.age == updated.age
         assert rotated.cipher == updated.cipher
     }
+    @Test public void test_CipherMap_per_entry_basic_usage() {
+        ciphermap.per_entry = true
+        Map plainTextMap = [hello: 'world', goodbye: [friend: 'bye']]
+        ciphermap.plainMap = plainTextMap
+        assert ciphermap.plainMap == plainTextMap
+        String ciphertext = ciphermap.toString()
+        Map yaml = YamlOperator.loadYamlFrom(ciphertext)
+        assert yaml.keySet().toList() == ['version', 'age', 'cipher', 'entries', 'signature']
+        assert yaml.version == '2'
+        assert yaml.entries.size() == 2
+        // keys are not stored in plain text
+        assert !ciphertext.contains('hello')
+        assert !ciphertext.contains('goodbye')
+
+        CipherMap cmap2 = new CipherMap(privateKey)
+        cmap2 << ciphertext
+        assert cmap2.per_entry
+        assert cmap2.plainMap == plainTextMap
+        assert cmap2.get('hello') == 'world'
+        assert cmap2.get('goodbye') == [friend: 'bye']
+        assert cmap2.get('missing') == null
+    }
+    @Test public void test_CipherMap_per_entry_get_put_remove() {
+        ciphermap.put('one', 1)
+        ciphermap.put('two', [2])
+        assert ciphermap.per_entry
+        assert ciphermap.get('one') == 1
+        assert ciphermap.get('two') == [2]
+        ciphermap.put('one', 'uno')
+        assert ciphermap.plainMap == [one: 'uno', two: [2]]
+        assert ciphermap.remove('two')
+        assert !ciphermap.remove('two')
+        assert ciphermap.plainMap == [one: 'uno']
+
+        CipherMap cmap2 = new CipherMap(privateKey)
+        cmap2 << ciphermap.toString()
+        assert cmap2.plainMap == [one: 'uno']
+        // updating after loading only encrypts one entry
+        Map before = YamlOperator.loadYamlFrom(cmap2.toString())
+        cmap2.put('three', 3)
+        Map after = YamlOperator.loadYamlFrom(cmap2.toString())
+        assert before.entries.every { id, data -> after.entries[id] == data }
+        assert after.entries.size() == 2
+        assert before.signature != after.signature
+        ciphermap << cmap2.toString()
+        assert ciphermap.plainMap == [one: 'uno', three: 3]
+    }
+    @Test public void test_CipherMap_per_entry_unchanged_entries_not_encrypted() {
+        ciphermap.per_entry = true
+        ciphermap.plainMap = [a: 'a', b: 'b']
+        Map before = YamlOperator.loadYamlFrom(ciphermap.toString())
+        ciphermap.plainMap = [a: 'a', b: 'changed', c: 'c']
+        Map after = YamlOperator.loadYamlFrom(ciphermap.toString())
+        String idA = ciphermap.entryId('a')
+        String idB = ciphermap.entryId('b')
+        assert before.entries[idA] == after.entries[idA]
+        assert before.entries[idB] != after.entries[idB]
+        assert ciphermap.plainMap == [a: 'a', b: 'changed', c: 'c']
+        ciphermap.plainMap = [c: 'c']
+        assert YamlOperator.loadYamlFrom(ciphermap.toString()).entries.keySet().toList() == [ciphermap.entryId('c')]
+    }
+    @Test public void test_CipherMap_per_entry_migrate() {
+        ciphermap.plainMap = [hello: 'world', foo: 'bar']
+        Map legacy = YamlOperator.loadYamlFrom(ciphermap.toString())
+        assert 'data' in legacy.keySet()
+
+        CipherMap cmap2 = new CipherMap(privateKey)
+        cmap2 << ciphermap.toString()
+        assert !cmap2.per_entry
+        assert cmap2.get('foo') == 'bar'
+        cmap2.migrate()
+        assert cmap2.per_entry
+        Map migrated = YamlOperator.loadYamlFrom(cmap2.toString())
+        assert migrated.version == '2'
+        // migrating keeps the existing secret
+        assert migrated.age == legacy.age
+        assert migrated.cipher == legacy.cipher
+        assert cmap2.plainMap == [hello: 'world', foo: 'bar']
+
+        // put migrates automatically
+        CipherMap cmap3 = new CipherMap(privateKey)
+        cmap3 << ciphermap.toString()
+        cmap3.put('new', 'value')
+        assert YamlOperator.loadYamlFrom(cmap3.toString()).version == '2'
+        assert cmap3.plainMap == [hello: 'world', foo: 'bar', new: 'value']
+
+        // per_entry writes legacy data in the new format on the next update
+        CipherMap cmap4 = new CipherMap(privateKey)
+        cmap4.per_entry = true
+        cmap4 << ciphermap.toString()
+        assert cmap4.plainMap == [hello: 'world', foo: 'bar']
+        cmap4.plainMap = cmap4.plainMap
+        assert YamlOperator.loadYamlFrom(cmap4.toString()).version == '2'
+
+        // disabling per_entry writes the original format
+        cmap4.per_entry = false
+        cmap4.plainMap = [hello: 'world']
+        assert YamlOperator.loadYamlFrom(cmap4.toString()).keySet().toList() == ['age', 'cipher', 'data', 'signature']
+        assert cmap4.plainMap == [hello: 'world']
+    }
+    @Test public void test_CipherMap_per_entry_leftShift_CipherMap() {
+        ciphermap.plainMap = [hello: 'friend']
+        URL url = this.getClass().getResource('/rsa_keys/good_id_rsa_4096')
+        CipherMap cmap2 = new CipherMap(new File(url.file))
+        cmap2.per_entry = true
+        cmap2.plainMap = [hello: 'world', goodbye: 'friend']
+        cmap2 << ciphermap
+        assert cmap2.plainMap == [hello: 'friend', goodbye: 'friend']
+        assert YamlOperator.loadYamlFrom(cmap2.toString()).version == '2'
+    }
+    @Test public void test_CipherMap_per_entry_bad_data() {
+        ciphermap.per_entry = true
+        ciphermap.plainMap = [hello: 'world', foo: 'bar']
+        String ciphertext = ciphermap.toString()
+        String idHello = ciphermap.entryId('hello')
+        String idFoo = ciphermap.entryId('foo')
+
+        // removing an entry
+        Map yaml = YamlOperator.loadYamlFrom(ciphertext)
+        yaml.entries.remove(idFoo)
+        ciphermap << YamlOperator.writeObjToYaml(yaml)
+        assert ciphermap.plainMap == [:]
+
+        // swapping entries
+        yaml = YamlOperator.loadYamlFrom(ciphertext)
+        String temp = yaml.entries[idHello]
+        yaml.entries[idHello] = yaml.entries[idFoo]
+        yaml.entries[idFoo] = temp
+        ciphermap << YamlOperator.writeObjToYaml(yaml)
+        assert ciphermap.plainMap == [:]
+
+        // replaying an older entry
+        ciphermap << ciphertext
+        String oldHello = YamlOperator.loadYamlFrom(ciphertext).entries[idHello]
+        ciphermap.put('hello', 'changed')
+        yaml = YamlOperator.loadYamlFrom(ciphermap.toString())
+        yaml.entries[idHello] = oldHello
+        ciphermap << YamlOperator.writeObjToYaml(yaml)
+        assert ciphermap.plainMap == [:]
+
+        // unknown version
+        yaml = YamlOperator.loadYamlFrom(ciphertext)
+        yaml.version = '3'
+        ciphermap << YamlOperator.writeObjToYaml(yaml)
+        assert ciphermap.plainMap == [:]
+
+        // corrupt signature
+        yaml = YamlOperator.loadYamlFrom(ciphertext)
+        yaml.signature = 'corrupt the signature'
+        ciphermap << YamlOperator.writeObjToYaml(yaml)
+        assert ciphermap.plainMap == [:]
+
+        // entries must be strings
+        yaml = YamlOperator.loadYamlFrom(ciphertext)
+        yaml.entries[idHello] = 3
+        ciphermap << YamlOperator.writeObjToYaml(yaml)
+        assert ciphermap.plainMap == [:]
+
+        // valid data still loads
+        ciphermap << ciphertext
+        assert ciphermap.plainMap == [hello: 'world', foo: 'bar']
+    }
+    @Test public void test_CipherMap_per_entry_rotating_expired_secret() {
+        ciphermap.put('leeroy', 'jenkins')
+        ciphermap.put('bert', 'ernie')
+
+        // manipulate the encrypted payload to be "older than 30 days"
+        ciphermap.hidden.age = ciphermap.encrypt(Instant.now().minus(31, ChronoUnit.DAYS).toString())
+        ciphermap.hidden.signature = ''
+        Map old = YamlOperator.loadYamlFrom(ciphermap.toString())
+
+        CipherMap cmap2 = new CipherMap(privateKey)
+        cmap2 << YamlOperator.writeObjToYaml(old)
+        assert cmap2.get('leeroy') == 'jenkins'
+
+        // updating a single entry rotates the secret for all entries
+        cmap2.put('bert', 'big bird')
+        Map rotated = YamlOperator.loadYamlFrom(cmap2.toString())
+        assert old.age != rotated.age
+        assert old.cipher != rotated.cipher
+        assert old.entries.keySet() != rotated.entries.keySet()
+        assert cmap2.plainMap == [leeroy: 'jenkins', bert: 'big bird']
+
+        CipherMap cmap3 = new CipherMap(privateKey)
+        cmap3 << cmap2.toString()
+        assert cmap3.plainMap == [leeroy: 'jenkins', bert: 'big bird']
+    }
+    @Test public void test_CipherMap_unwraps_secret_once() {
+        ciphermap.plainMap = [hello: 'world']
+        Integer unwrapCount = 0
+        ciphermap.security = new SecurityIO(privateKey) {
+            byte[] rsaDecryptBytesOaep(byte[] data) {
+                unwrapCount++
+                super.rsaDecryptBytesOaep(data)
+            }
+        }
+        CipherMap cmap2 = new CipherMap(privateKey)
+        cmap2.security = ciphermap.security
+        cmap2 << ciphermap.toString()
+        10.times {
+            assert cmap2.plainMap == [hello: 'world']
+        }
+        assert unwrapCount == 1
+    }
 }
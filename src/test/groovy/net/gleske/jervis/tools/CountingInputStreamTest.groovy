@@ -0,0 +1,48 @@
+/*
+   Copyright 2014-2026 Sam Gleske - https://github.com/samrocketman/jervis
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+   */
+package net.gleske.jervis.tools
+//the CountingInputStreamTest() class automatically sees the CountingInputStream() class because they're in the same package
+
+import java.util.zip.GZIPInputStream
+import org.junit.Test
+
+class CountingInputStreamTest extends GroovyTestCase {
+    @Test public void test_CountingInputStream_count() {
+        CountingInputStream counter = new CountingInputStream(new ByteArrayInputStream('xhello world'.bytes))
+        assert counter.read() == ('x' as char) as int
+        byte[] buffer = new byte[5]
+        assert counter.read(buffer, 0, 5) == 5
+        assert new String(buffer) == 'hello'
+        assert counter.skip(1) == 1
+        assert counter.text == 'world'
+        assert counter.count == 12
+        assert counter.read() == -1
+        assert counter.count == 12
+        assert !counter.markSupported()
+    }
+    @Test public void test_CountingInputStream_compressed_and_plain() {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream()
+        new GZip(compressed).withCloseable {
+            it << ('a' * 10000).bytes
+        }
+        CountingInputStream wire = new CountingInputStream(new ByteArrayInputStream(compressed.toByteArray()))
+        CountingInputStream plain = new CountingInputStream(new GZIPInputStream(wire))
+        assert plain.text == 'a' * 10000
+        assert plain.count == 10000
+        assert wire.count == compressed.size()
+        assert wire.count < plain.count
+    }
+}
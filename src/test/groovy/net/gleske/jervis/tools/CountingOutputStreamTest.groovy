@@ -0,0 +1,58 @@
+/*
+   Copyright 2014-2026 Sam Gleske - https://github.com/samrocketman/jervis
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+   */
+package net.gleske.jervis.tools
+//the CountingOutputStreamTest() class automatically sees the CountingOutputStream() class because they're in the same package
+
+import java.util.zip.GZIPInputStream
+import org.junit.Test
+
+class CountingOutputStreamTest extends GroovyTestCase {
+    @Test public void test_CountingOutputStream_count() {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream()
+        CountingOutputStream counter = new CountingOutputStream(buffer)
+        counter.write(1)
+        counter.write('hello'.bytes)
+        counter.write('hello world'.bytes, 6, 5)
+        assert counter.count == 11
+        assert buffer.size() == 11
+        assert buffer.toString().substring(1) == 'helloworld'
+    }
+    @Test public void test_CountingOutputStream_progress() {
+        List progress = []
+        Closure callback = { Long bytes ->
+            progress << bytes
+        }
+        new CountingOutputStream(new ByteArrayOutputStream(), callback).withCloseable {
+            it << 'one'.bytes
+            it << 'three'.bytes
+        }
+        assert progress == [3, 8]
+    }
+    @Test public void test_CountingOutputStream_compressed_and_plain() {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream()
+        CountingOutputStream wire = new CountingOutputStream(compressed)
+        CountingOutputStream plain = new CountingOutputStream(new GZip(wire))
+        plain.withCloseable {
+            it << ('a' * 10000).bytes
+        }
+        assert plain.count == 10000
+        assert wire.count == compressed.size()
+        assert wire.count < plain.count
+        ByteArrayOutputStream decompressed = new ByteArrayOutputStream()
+        decompressed << new GZIPInputStream(new ByteArrayInputStream(compressed.toByteArray()))
+        assert decompressed.toString() == 'a' * 10000
+    }
+}
@@ -0,0 +1,28 @@
+/*
+   Copyright 2014-2026 Sam Gleske - https://github.com/samrocketman/jervis
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+   */
+package net.gleske.jervis.tools
+//the DaemonThreadFactoryTest() class automatically sees the DaemonThreadFactory() class because they're in the same package
+
+import org.junit.Test
+
+class DaemonThreadFactoryTest extends GroovyTestCase {
+    @Test public void test_DaemonThreadFactory_newThread() {
+        Thread t = new DaemonThreadFactory('jervis-test').newThread({-> } as Runnable)
+        assert t.name == 'jervis-test'
+        assert t.daemon
+        assert t.state == Thread.State.NEW
+    }
+}
@@ -0,0 +1,99 @@
+/*
+   Copyright 2014-2026 Sam Gleske - https://github.com/samrocketman/jervis
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+   */
+package net.gleske.jervis.tools
+//the MetricsRegistryTest() class automatically sees the MetricsRegistry() class because they're in the same package
+
+import groovy.json.JsonSlurper
+import org.junit.After
+import org.junit.Before
+import org.junit.Test
+
+class MetricsRegistryTest extends GroovyTestCase {
+    MetricsRegistry registry
+
+    //set up before every test
+    @Before protected void setUp() {
+        super.setUp()
+        registry = new MetricsRegistry([0.1, 1], 2)
+    }
+    //tear down after every test
+    @After protected void tearDown() {
+        registry = null
+        super.tearDown()
+    }
+    @Test public void test_MetricsRegistry_histogram_buckets() {
+        registry.record('latency', [:], 0.05)
+        registry.record('latency', [:], 0.5)
+        registry.record('latency', [:], 5)
+        Map histogram = registry.getHistogram('latency')
+        assert histogram.count == 3
+        assert histogram.buckets == ['0.1': 1, '1': 2, '+Inf': 3]
+    }
+    @Test public void test_MetricsRegistry_span_limit() {
+        3.times { i ->
+            MetricsSpan span = new MetricsSpan("span${i}", null, { MetricsSpan s -> registry.spanFinished(s) })
+            span.close()
+        }
+        assert registry.spans*.name == ['span1', 'span2']
+        assert registry.getHistogram('span0').count == 1
+    }
+    @Test public void test_MetricsRegistry_reset() {
+        registry.count('requests', [:], 1)
+        registry.record('latency', [:], 1)
+        registry.reset()
+        assert registry.getCounter('requests') == 0
+        assert !registry.getHistogram('latency')
+    }
+    @Test public void test_MetricsRegistry_toJson() {
+        registry.count('requests', [host: 'example.com'], 2)
+        registry.record('latency', [:], 0.5)
+        Map json = new JsonSlurper().parseText(registry.toJson())
+        assert json.counters == [[name: 'requests', tags: [host: 'example.com'], value: 2]]
+        assert json.histograms[0].name == 'latency'
+        assert json.histograms[0].count == 1
+        assert json.spans == []
+    }
+    @Test public void test_MetricsRegistry_toPrometheus() {
+        registry.count('jervis.http.request', [host: 'example.com', path: 'a"b'], 2)
+        registry.record('jervis.generator', [phase: 'load'], 0.5)
+        String expected = '''\
+# TYPE jervis_http_request_total counter
+jervis_http_request_total{host="example.com",path="a\\"b"} 2
+# TYPE jervis_generator histogram
+jervis_generator_bucket{le="0.1",phase="load"} 0
+jervis_generator_bucket{le="1",phase="load"} 1
+jervis_generator_bucket{le="+Inf",phase="load"} 1
+jervis_generator_sum{phase="load"} 0.5
+jervis_generator_count{phase="load"} 1
+'''.toString()
+        assert registry.toPrometheus() == expected
+    }
+    @Test public void test_MetricsRegistry_write_files() {
+        File json = File.createTempFile('metrics', '.json')
+        File prom = File.createTempFile('metrics', '.prom')
+        try {
+            registry.count('requests', [:], 1)
+            registry.writeJson(json)
+            registry.writePrometheus(prom)
+            assert json.text == registry.toJson()
+            assert prom.text.contains('requests_total 1')
+        }
+        finally {
+            json.delete()
+            prom.delete()
+        }
+    }
+}
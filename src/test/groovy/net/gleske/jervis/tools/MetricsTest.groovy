@@ -0,0 +1,175 @@
+/*
+   Copyright 2014-2026 Sam Gleske - https://github.com/samrocketman/jervis
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+   */
+package net.gleske.jervis.tools
+//the MetricsTest() class automatically sees the Metrics() class because they're in the same package
+
+import static net.gleske.jervis.remotes.StaticMocking.mockStaticUrl
+import net.gleske.jervis.lang.LifecycleGenerator
+import net.gleske.jervis.remotes.SimpleRestService
+import net.gleske.jervis.tools.interfaces.MetricsListener
+
+import org.junit.After
+import org.junit.Before
+import org.junit.Test
+
+class MetricsTest extends GroovyTestCase {
+    MetricsRegistry registry
+
+    //set up before every test
+    @Before protected void setUp() {
+        super.setUp()
+        registry = new MetricsRegistry()
+        Metrics.listener = registry
+    }
+    //tear down after every test
+    @After protected void tearDown() {
+        Metrics.listener = null
+        registry = null
+        super.tearDown()
+    }
+    @Test public void test_Metrics_fail_instantiation() {
+        shouldFail(IllegalStateException) {
+            new Metrics()
+        }
+    }
+    @Test public void test_Metrics_disabled_by_default() {
+        Metrics.listener = null
+        assert !Metrics.isEnabled()
+        MetricsSpan span = Metrics.startSpan('test', [key: 'value'])
+        assert span.is(MetricsSpan.NOOP)
+        span.tag('another', 'tag').close()
+        assert span.tags == [:]
+        Metrics.count('test.count')
+        assert registry.getCounter('test.count') == 0
+    }
+    @Test public void test_Metrics_count_and_record() {
+        assert Metrics.isEnabled()
+        Metrics.count('test.count')
+        Metrics.count('test.count', [status: 200], 3)
+        Metrics.count('test.count', [status: '200'])
+        Metrics.record('test.size', 0.5)
+        Metrics.record('test.size', 2)
+        assert registry.getCounter('test.count') == 1
+        assert registry.getCounter('test.count', [status: '200']) == 4
+        Map histogram = registry.getHistogram('test.size')
+        assert histogram.count == 2
+        assert histogram.sum == 2.5
+        assert histogram.min == 0.5
+        assert histogram.max == 2
+        assert !registry.getHistogram('does.not.exist')
+    }
+    @Test public void test_Metrics_nested_spans() {
+        String result = Metrics.span('outer', [level: 1]) { MetricsSpan outer ->
+            outer.tag('extra', true)
+            Metrics.span('inner') {
+                'done'
+            }
+        }
+        assert result == 'done'
+        List spans = registry.spans
+        assert spans*.name == ['inner', 'outer']
+        assert spans[0].parent == 'outer'
+        assert spans[1].parent == null
+        assert spans[1].tags == [level: '1', extra: 'true']
+        assert registry.getHistogram('outer', [level: 1, extra: true]).count == 1
+        // the parent is restored after spans close
+        Metrics.span('after') {}
+        assert registry.spans[-1].parent == null
+    }
+    @Test public void test_Metrics_span_error() {
+        shouldFail(IllegalArgumentException) {
+            Metrics.span('failing') {
+                throw new IllegalArgumentException('bad')
+            }
+        }
+        assert registry.spans[0].error == 'java.lang.IllegalArgumentException'
+        assert registry.getCounter('failing.errors') == 1
+    }
+    @Test public void test_Metrics_span_close_idempotent() {
+        MetricsSpan span = Metrics.startSpan('once')
+        span.close()
+        long duration = span.durationNanos
+        span.close()
+        assert duration >= 0
+        assert span.durationNanos == duration
+        assert registry.getHistogram('once').count == 1
+    }
+    @Test public void test_Metrics_custom_listener() {
+        List events = []
+        Metrics.listener = [
+            count: { String name, Map tags, long amount -> events << "count ${name} ${amount}".toString() },
+            record: { String name, Map tags, double value -> events << "record ${name}".toString() },
+            spanFinished: { MetricsSpan span -> events << "span ${span.name}".toString() }
+        ] as MetricsListener
+        Metrics.count('a', [:], 2)
+        Metrics.record('b', 1.0)
+        Metrics.span('c') {}
+        assert events == ['count a 2', 'record b', 'span c']
+    }
+    @Test public void test_Metrics_apiFetch_span() {
+        Map request_meta = [:]
+        mockStaticUrl(null, URL, request_meta, false, '', [])
+        try {
+            SimpleRestService.apiFetch(new URL('https://api.github.com/users/samrocketman'))
+            shouldFail(IOException) {
+                SimpleRestService.apiFetch(new URL('https://example.com/does/not/exist'))
+            }
+        }
+        finally {
+            GroovySystem.metaClassRegistry.removeMetaClass(URL)
+        }
+        List spans = registry.spans
+        assert spans*.name == ['jervis.http.request', 'jervis.http.request']
+        assert spans*.tags*.host == ['api.github.com', 'example.com']
+        assert spans*.tags*.method == ['GET', 'GET']
+        assert spans*.error == [null, 'java.io.FileNotFoundException']
+        assert registry.getCounter('jervis.http.request.errors', spans[1].tags) == 1
+    }
+    @Test public void test_Metrics_generator_spans() {
+        LifecycleGenerator generator = new LifecycleGenerator()
+        generator.loadLifecycles(this.getClass().getResource('/good_lifecycles_simple.json').file)
+        generator.loadToolchains(this.getClass().getResource('/good_toolchains_simple.json').file)
+        generator.loadYamlString('language: ruby')
+        generator.generateToolchainSection()
+        assert registry.getHistogram('jervis.generator', [phase: 'loadYamlString']).count == 1
+        assert registry.getHistogram('jervis.generator', [phase: 'generateToolchainSection']).count == 1
+    }
+    @Test public void test_Metrics_ciphermap_and_securityio_spans() {
+        String privateKey = this.getClass().getResource('/rsa_keys/good_id_rsa_2048').content.text
+        CipherMap ciphermap = new CipherMap(privateKey, 0)
+        ciphermap.plainMap = [hello: 'world']
+        assert ciphermap.plainMap == [hello: 'world']
+        assert registry.getHistogram('jervis.ciphermap', [operation: 'setPlainMap']).count == 1
+        assert registry.getHistogram('jervis.ciphermap', [operation: 'getPlainMap']).count == 1
+        assert registry.getHistogram('jervis.securityio', [operation: 'encryptAES256GCM']).count >= 1
+        assert registry.getHistogram('jervis.securityio', [operation: 'decryptAES256GCM']).count >= 1
+        assert registry.spans.find { it.name == 'jervis.securityio' && it.parent == 'jervis.ciphermap' }
+    }
+    @Test public void test_Metrics_lockablefile_span() {
+        File tmp = File.createTempFile('metrics', '.lock')
+        try {
+            String result
+            new LockableFile(tmp.path).withLock {
+                result = 'locked'
+            }
+            assert result == 'locked'
+        }
+        finally {
+            tmp.delete()
+        }
+        assert registry.getHistogram('jervis.lockablefile.wait').count == 1
+    }
+}
@@ -0,0 +1,152 @@
+/*
+   Copyright 2014-2026 Sam Gleske - https://github.com/samrocketman/jervis
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+   */
+package net.gleske.jervis.tools
+//the ParallelGZipTest() class automatically sees the ParallelGZip() class because they're in the same package
+
+import java.util.concurrent.ExecutorService
+import java.util.concurrent.Executors
+import java.util.zip.GZIPInputStream
+import org.junit.Test
+
+class ParallelGZipTest extends GroovyTestCase {
+    private static byte[] gunzip(byte[] compressed) {
+        ByteArrayOutputStream plain = new ByteArrayOutputStream()
+        new GZIPInputStream(new ByteArrayInputStream(compressed)).withCloseable { is ->
+            plain << is
+        }
+        plain.toByteArray()
+    }
+    private static byte[] sampleData(int size) {
+        Random random = new Random(42)
+        ByteArrayOutputStream data = new ByteArrayOutputStream()
+        while(data.size() < size) {
+            data << "INFO build step ${random.nextInt(100)} finished in ${random.nextInt(10000)}ms\n".toString().bytes
+        }
+        data.toByteArray()[0..<size] as byte[]
+    }
+    @Test public void test_ParallelGZip_utility_decompression() {
+        StringWriter stdout = new StringWriter()
+        StringWriter stderr = new StringWriter()
+        Process proc = 'gunzip'.execute()
+        proc.outputStream.withCloseable { stdin ->
+            new ParallelGZip(stdin).withCloseable {
+                it << 'hello\n'
+            }
+        }
+        proc.waitForProcessOutput(stdout, stderr)
+        assert stdout.toString() == 'hello\n'
+        assert stderr.toString() == ''
+        assert proc.exitValue() == 0
+    }
+    @Test public void test_ParallelGZip_empty() {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream()
+        new ParallelGZip(compressed, 1, 2).close()
+        assert gunzip(compressed.toByteArray()).length == 0
+    }
+    @Test public void test_ParallelGZip_multiple_blocks() {
+        // include exact block boundaries and partial final blocks
+        [1, 1024, 4096, 4097, 50000].each { int size ->
+            [0, 1, 6, 9].each { int level ->
+                byte[] data = sampleData(size)
+                ByteArrayOutputStream compressed = new ByteArrayOutputStream()
+                new ParallelGZip(compressed, level, 4, 1024).withCloseable {
+                    it << data
+                }
+                assert gunzip(compressed.toByteArray()) == data
+            }
+        }
+    }
+    @Test public void test_ParallelGZip_default_block_size() {
+        // larger than the dictionary so each block uses the tail of the
+        // previous block
+        byte[] data = sampleData(ParallelGZip.DEFAULT_BLOCK_SIZE * 3 + 100)
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream()
+        new ParallelGZip(compressed, 6, 4).withCloseable {
+            it << data
+        }
+        assert gunzip(compressed.toByteArray()) == data
+    }
+    @Test public void test_ParallelGZip_single_byte_writes() {
+        byte[] data = sampleData(3000)
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream()
+        new ParallelGZip(compressed, 6, 3, 512).withCloseable { gzip ->
+            data.each { byte b ->
+                gzip.write(b)
+            }
+        }
+        assert gunzip(compressed.toByteArray()) == data
+    }
+    @Test public void test_ParallelGZip_dictionary_keeps_ratio() {
+        byte[] data = sampleData(1048576)
+        ByteArrayOutputStream parallel = new ByteArrayOutputStream()
+        new ParallelGZip(parallel, 6, 4, 65536).withCloseable {
+            it << data
+        }
+        ByteArrayOutputStream single = new ByteArrayOutputStream()
+        new GZip(single, 6).withCloseable {
+            it << data
+        }
+        assert gunzip(parallel.toByteArray()) == data
+        // within 5% of single threaded compression
+        assert parallel.size() < single.size() * 1.05
+    }
+    @Test public void test_ParallelGZip_shared_pool() {
+        ExecutorService pool = Executors.newFixedThreadPool(2)
+        try {
+            2.times {
+                ByteArrayOutputStream compressed = new ByteArrayOutputStream()
+                new ParallelGZip(compressed, 1, pool, 128).withCloseable {
+                    it << 'hello'
+                    it << ' world'
+                }
+                assert new String(gunzip(compressed.toByteArray())) == 'hello world'
+            }
+            assert !pool.isShutdown()
+        }
+        finally {
+            pool.shutdown()
+        }
+    }
+    @Test public void test_ParallelGZip_finish_without_close() {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream() {
+            Boolean closed = false
+            void close() {
+                closed = true
+            }
+        }
+        ParallelGZip gzip = new ParallelGZip(compressed, 9, 1)
+        gzip << 'hello'
+        gzip.finish()
+        assert !compressed.closed
+        assert new String(gunzip(compressed.toByteArray())) == 'hello'
+        shouldFail(IOException) {
+            gzip << 'more'
+        }
+        gzip.close()
+        assert compressed.closed
+    }
+    @Test public void test_ParallelGZip_bad_arguments() {
+        shouldFail(IllegalArgumentException) {
+            new ParallelGZip(new ByteArrayOutputStream(), 10)
+        }
+        shouldFail(IllegalArgumentException) {
+            new ParallelGZip(new ByteArrayOutputStream(), 1, 0)
+        }
+        shouldFail(IllegalArgumentException) {
+            new ParallelGZip(new ByteArrayOutputStream(), 1, 1, 0)
+        }
+    }
+}
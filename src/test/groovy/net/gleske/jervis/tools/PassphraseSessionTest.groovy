@@ -0,0 +1,136 @@
+/*
+   Copyright 2014-2026 Sam Gleske - https://github.com/samrocketman/jervis
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+   */
+package net.gleske.jervis.tools
+//the PassphraseSessionTest() class automatically sees the PassphraseSession() class because they're in the same package
+
+import net.gleske.jervis.exceptions.DecryptException
+
+import javax.crypto.AEADBadTagException
+import org.junit.After
+import org.junit.Before
+import org.junit.Test
+
+class PassphraseSessionTest extends GroovyTestCase {
+    String passphrase = 'correct horse battery staple'
+    Integer defaultCacheSize
+    Long defaultCacheTtlMillis
+
+    //set up before every test
+    @Before protected void setUp() {
+        super.setUp()
+        defaultCacheSize = PassphraseSession.cacheSize
+        defaultCacheTtlMillis = PassphraseSession.cacheTtlMillis
+        PassphraseSession.clearCache()
+    }
+    //tear down after every test
+    @After protected void tearDown() {
+        PassphraseSession.cacheSize = defaultCacheSize
+        PassphraseSession.cacheTtlMillis = defaultCacheTtlMillis
+        PassphraseSession.clearCache()
+        super.tearDown()
+    }
+    @Test public void test_PassphraseSession_encrypt_decrypt() {
+        PassphraseSession session = new PassphraseSession(passphrase)
+        String ciphertext = session.encrypt('secret data')
+        assert ciphertext.startsWith(PassphraseSession.FORMAT_PREFIX)
+        assert PassphraseSession.isSessionCiphertext(ciphertext)
+        assert session.decrypt(ciphertext) == 'secret data'
+        assert session.decrypt(session.encrypt('')) == ''
+    }
+    @Test public void test_PassphraseSession_unique_ciphertext() {
+        PassphraseSession session = new PassphraseSession(passphrase)
+        String one = session.encrypt('same message')
+        String two = session.encrypt('same message')
+        assert one != two
+        byte[] first = SecurityIO.decodeBase64Bytes(one - PassphraseSession.FORMAT_PREFIX)
+        byte[] second = SecurityIO.decodeBase64Bytes(two - PassphraseSession.FORMAT_PREFIX)
+        // same session salt but a different message salt
+        assert Arrays.copyOfRange(first, 0, 32) == Arrays.copyOfRange(second, 0, 32)
+        assert Arrays.copyOfRange(first, 32, 48) != Arrays.copyOfRange(second, 32, 48)
+    }
+    @Test public void test_PassphraseSession_decryptWithPassphraseGCM() {
+        PassphraseSession session = new PassphraseSession(passphrase)
+        List<String> ciphertexts = (1..5).collect { session.encrypt("secret ${it}") }
+        assert ciphertexts.collect { SecurityIO.decryptWithPassphraseGCM(passphrase, it) } == (1..5).collect { "secret ${it}".toString() }
+        // one master key for all messages in the session
+        assert PassphraseSession.cachedSessions == 1
+        // the original format is still readable
+        String original = SecurityIO.encryptWithPassphraseGCM(passphrase, 'original')
+        assert !PassphraseSession.isSessionCiphertext(original)
+        assert SecurityIO.decryptWithPassphraseGCM(passphrase, original) == 'original'
+    }
+    @Test public void test_PassphraseSession_wrong_passphrase() {
+        String ciphertext = new PassphraseSession(passphrase).encrypt('secret data')
+        assert SecurityIO.decryptWithPassphraseGCM(passphrase, ciphertext) == 'secret data'
+        // a cached master key is never used for a different passphrase
+        shouldFail(AEADBadTagException) {
+            SecurityIO.decryptWithPassphraseGCM('wrong passphrase', ciphertext)
+        }
+    }
+    @Test public void test_PassphraseSession_different_session() {
+        PassphraseSession session = new PassphraseSession(passphrase)
+        String ciphertext = new PassphraseSession(passphrase).encrypt('secret data')
+        shouldFail(DecryptException) {
+            session.decrypt(ciphertext)
+        }
+    }
+    @Test public void test_PassphraseSession_tampered() {
+        PassphraseSession session = new PassphraseSession(passphrase)
+        byte[] bytes = SecurityIO.decodeBase64Bytes(session.encrypt('secret data') - PassphraseSession.FORMAT_PREFIX)
+        bytes[bytes.length - 1] = (byte) (bytes[bytes.length - 1] ^ 0xFF)
+        shouldFail(AEADBadTagException) {
+            session.decrypt(PassphraseSession.FORMAT_PREFIX + SecurityIO.encodeBase64(bytes))
+        }
+        shouldFail(DecryptException) {
+            session.decrypt(PassphraseSession.FORMAT_PREFIX + SecurityIO.encodeBase64(new byte[75]))
+        }
+        shouldFail(DecryptException) {
+            session.decrypt(SecurityIO.encodeBase64(new byte[80]))
+        }
+    }
+    @Test public void test_PassphraseSession_bounded_cache() {
+        PassphraseSession.cacheSize = 2
+        List<String> ciphertexts = (1..3).collect { new PassphraseSession(passphrase).encrypt("secret ${it}") }
+        ciphertexts.each {
+            SecurityIO.decryptWithPassphraseGCM(passphrase, it)
+        }
+        assert PassphraseSession.cachedSessions == 2
+    }
+    @Test public void test_PassphraseSession_cache_expires() {
+        String ciphertext = new PassphraseSession(passphrase).encrypt('secret data')
+        assert SecurityIO.decryptWithPassphraseGCM(passphrase, ciphertext) == 'secret data'
+        assert PassphraseSession.cachedSessions == 1
+        PassphraseSession.cacheTtlMillis = 0
+        assert PassphraseSession.cachedSessions == 0
+        // derived again after expiring
+        assert SecurityIO.decryptWithPassphraseGCM(passphrase, ciphertext) == 'secret data'
+    }
+    @Test public void test_PassphraseSession_cache_wiped() {
+        String ciphertext = new PassphraseSession(passphrase).encrypt('secret data')
+        SecurityIO.decryptWithPassphraseGCM(passphrase, ciphertext)
+        PassphraseSession cached = PassphraseSession.@cache.values().first()
+        byte[] masterKey = cached.@masterKey
+        assert masterKey.any { it != 0 }
+        PassphraseSession.clearCache()
+        assert masterKey.every { it == 0 }
+        // the cache key does not reveal the passphrase or session salt
+        SecurityIO.decryptWithPassphraseGCM(passphrase, ciphertext)
+        String key = PassphraseSession.@cache.keySet().first()
+        byte[] sessionSalt = Arrays.copyOfRange(SecurityIO.decodeBase64Bytes(ciphertext - PassphraseSession.FORMAT_PREFIX), 0, 32)
+        assert key != SecurityIO.sha256Sum(SecurityIO.encodeBase64(sessionSalt) + passphrase)
+        assert !key.contains(SecurityIO.encodeBase64(sessionSalt))
+    }
+}
@@ -0,0 +1,122 @@
+/*
+   Copyright 2014-2026 Sam Gleske - https://github.com/samrocketman/jervis
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+   */
+package net.gleske.jervis.tools
+//the RsaKeyRegistryTest() class automatically sees the RsaKeyRegistry() class because they're in the same package
+
+import net.gleske.jervis.exceptions.KeyPairDecodeException
+
+import java.security.KeyPair
+import org.junit.After
+import org.junit.Before
+import org.junit.Test
+
+class RsaKeyRegistryTest extends GroovyTestCase {
+    String pem2048
+    String pem4096
+
+    //set up before every test
+    @Before protected void setUp() {
+        super.setUp()
+        RsaKeyRegistry.clear()
+        pem2048 = this.getClass().getResource('/rsa_keys/good_id_rsa_2048').text
+        pem4096 = this.getClass().getResource('/rsa_keys/good_id_rsa_pkcs8_4096').text
+    }
+    //tear down after every test
+    @After protected void tearDown() {
+        RsaKeyRegistry.ttlMillis = 3600000L
+        RsaKeyRegistry.maxEntries = 64
+        RsaKeyRegistry.clear()
+        super.tearDown()
+    }
+    private Map stats() {
+        RsaKeyRegistry.stats.subMap(['hits', 'misses', 'entries'])
+    }
+    @Test public void test_RsaKeyRegistry_fails_instantiation() {
+        shouldFail(IllegalStateException) {
+            new RsaKeyRegistry()
+        }
+    }
+    @Test public void test_RsaKeyRegistry_same_pem_decoded_once() {
+        Map before = stats()
+        RsaKeyRegistry.RegisteredKey first = RsaKeyRegistry.getKey(pem2048)
+        RsaKeyRegistry.RegisteredKey second = RsaKeyRegistry.getKey(pem2048)
+        assert first.is(second)
+        assert first.fingerprint == SecurityIO.sha256Sum(pem2048)
+        assert first.fingerprint == RsaKeyRegistry.fingerprint(pem2048)
+        assert first.keyPair.private.modulus.bitLength() == 2048
+        assert stats().misses - before.misses == 1
+        assert stats().hits - before.hits == 1
+    }
+    @Test public void test_RsaKeyRegistry_security_io_shares_key() {
+        SecurityIO one = new SecurityIO(pem4096)
+        SecurityIO two = new SecurityIO(pem4096)
+        assert one.key_pair.is(two.key_pair)
+        assert one.rsa_keysize == 4096
+        assert stats().entries == 1
+        // prepared keys sign, verify, encrypt, and decrypt
+        String signature = one.signRS256Base64Url('data')
+        assert two.verifyRS256Base64Url(signature, 'data')
+        assert two.rsaDecryptOaep(one.rsaEncryptOaep('hello')) == 'hello'
+    }
+    @Test public void test_RsaKeyRegistry_replaced_key_pair() {
+        SecurityIO registered = new SecurityIO(pem4096)
+        SecurityIO other = new SecurityIO(pem2048)
+        // a KeyPair set directly is not prepared by the registry
+        other.@key_pair = RsaKeyRegistry.getKey(pem4096).keyPair
+        assert other.rsa_keysize == 4096
+        assert other.rsaDecryptOaep(registered.rsaEncryptOaep('hello')) == 'hello'
+        assert registered.verifyRS256Base64Url(other.signRS256Base64Url('data'), 'data')
+    }
+    @Test public void test_RsaKeyRegistry_weak_key_not_registered() {
+        String weak = this.getClass().getResource('/rsa_keys/bad_id_rsa_1024').text
+        shouldFail(KeyPairDecodeException) {
+            RsaKeyRegistry.getKey(weak)
+        }
+        shouldFail(KeyPairDecodeException) {
+            new SecurityIO(weak)
+        }
+        assert stats().entries == 0
+    }
+    @Test public void test_RsaKeyRegistry_ttl_eviction() {
+        RsaKeyRegistry.RegisteredKey first = RsaKeyRegistry.getKey(pem2048)
+        RsaKeyRegistry.ttlMillis = -1L
+        RsaKeyRegistry.RegisteredKey second = RsaKeyRegistry.getKey(pem2048)
+        assert !first.is(second)
+        assert RsaKeyRegistry.stats.evicted >= 1
+        // keys evicted from the registry still work for existing users
+        SecurityIO security = new SecurityIO()
+        security.@key_pair = first.keyPair
+        assert security.rsa_keysize == 2048
+    }
+    @Test public void test_RsaKeyRegistry_max_entries() {
+        RsaKeyRegistry.maxEntries = 1
+        RsaKeyRegistry.getKey(pem2048)
+        RsaKeyRegistry.getKey(pem4096)
+        assert stats().entries == 1
+        Map before = stats()
+        RsaKeyRegistry.getKey(pem4096)
+        assert stats().hits - before.hits == 1
+        RsaKeyRegistry.getKey(pem2048)
+        assert stats().misses - before.misses == 1
+    }
+    @Test public void test_RsaKeyRegistry_remove() {
+        RsaKeyRegistry.getKey(pem2048)
+        RsaKeyRegistry.remove(pem2048)
+        assert stats().entries == 0
+        // removing a key which is not registered does nothing
+        RsaKeyRegistry.remove(pem2048)
+    }
+}
@@ -868,4 +868,119 @@ class SecurityIOTest extends GroovyTestCase {
         String signature = 'fakesignature'
         assert false == security.verifyJsonWebToken("${header}.${payload}.${signature}")
     }
+
+    @Test public void test_SecurityIO_hkdfSha256_rfc5869_test_case_1() {
+        byte[] ikm = ('0b' * 22).decodeHex()
+        byte[] salt = '000102030405060708090a0b0c'.decodeHex()
+        byte[] info = 'f0f1f2f3f4f5f6f7f8f9'.decodeHex()
+        byte[] okm = SecurityIO.hkdfSha256(ikm, salt, info, 42)
+        assert okm.encodeHex().toString() == '3cb25f25faacd57a90434f64d0362f2a2d2d0a90cf1a5a4c5db02d56ecc4c5bf34007208d5b887185865'
+    }
+    @Test public void test_SecurityIO_hkdfSha256_rfc5869_test_case_3() {
+        byte[] ikm = ('0b' * 22).decodeHex()
+        byte[] okm = SecurityIO.hkdfSha256(ikm, new byte[0], new byte[0], 42)
+        assert okm.encodeHex().toString() == '8da4e775a563c18f715f802a063c5a31b8a11f5c5ee1879ec3454e5f3c738d2d9d201395faa4b61a96c8'
+        shouldFail(IllegalArgumentException) {
+            SecurityIO.hkdfSha256(ikm, null, null, 0)
+        }
+    }
+    private byte[] streamEncrypt(byte[] secret, byte[] plain, Integer segmentSize, Integer threads) {
+        ByteArrayOutputStream encrypted = new ByteArrayOutputStream()
+        SecurityIO.encryptWithAES256GCMStream(secret, new ByteArrayInputStream(plain), encrypted, segmentSize, threads)
+        encrypted.toByteArray()
+    }
+    private byte[] streamDecrypt(byte[] secret, byte[] encrypted, Integer threads = 1) {
+        ByteArrayOutputStream plain = new ByteArrayOutputStream()
+        SecurityIO.decryptWithAES256GCMStream(secret, new ByteArrayInputStream(encrypted), plain, threads)
+        plain.toByteArray()
+    }
+    @Test public void test_SecurityIO_AES256GCMStream_encrypt_decrypt() {
+        byte[] secret = SecurityIO.randomBytes(32)
+        [0, 1, 99, 100, 101, 300, 1234].each { Integer size ->
+            byte[] plain = SecurityIO.randomBytes(size)
+            [1, 4].each { Integer threads ->
+                byte[] encrypted = streamEncrypt(secret, plain, 100, threads)
+                // 28 byte header and a 16 byte tag for each segment
+                Integer segments = (size == 0) ? 1 : Math.ceil(size / 100.0) as Integer
+                assert encrypted.length == 28 + size + 16 * segments
+                assert streamDecrypt(secret, encrypted, threads) == plain
+                assert streamDecrypt(secret, encrypted, 5 - threads) == plain
+            }
+        }
+    }
+    @Test public void test_SecurityIO_AES256GCMStream_default_segment_size() {
+        byte[] secret = 'short secret'.bytes
+        byte[] plain = ('hello world\n' * 20000).bytes
+        ByteArrayOutputStream encrypted = new ByteArrayOutputStream()
+        SecurityIO.encryptWithAES256GCMStream(secret, new ByteArrayInputStream(plain), encrypted)
+        ByteArrayOutputStream decrypted = new ByteArrayOutputStream()
+        SecurityIO.decryptWithAES256GCMStream(secret, new ByteArrayInputStream(encrypted.toByteArray()), decrypted)
+        assert decrypted.toByteArray() == plain
+    }
+    @Test public void test_SecurityIO_AES256GCMStream_random_header() {
+        byte[] secret = SecurityIO.randomBytes(32)
+        byte[] plain = 'same plaintext'.bytes
+        assert streamEncrypt(secret, plain, 100, 1) != streamEncrypt(secret, plain, 100, 1)
+    }
+    @Test public void test_SecurityIO_AES256GCMStream_wrong_secret() {
+        byte[] encrypted = streamEncrypt(SecurityIO.randomBytes(32), 'secret data'.bytes, 100, 1)
+        shouldFail(DecryptException) {
+            streamDecrypt(SecurityIO.randomBytes(32), encrypted)
+        }
+    }
+    @Test public void test_SecurityIO_AES256GCMStream_tampered() {
+        byte[] secret = SecurityIO.randomBytes(32)
+        byte[] encrypted = streamEncrypt(secret, SecurityIO.randomBytes(250), 100, 1)
+        // flip a bit in the second segment
+        encrypted[28 + 116 + 10] ^= 1
+        shouldFail(DecryptException) {
+            streamDecrypt(secret, encrypted)
+        }
+        // tamper with the authenticated segment size in the header
+        encrypted = streamEncrypt(secret, SecurityIO.randomBytes(250), 100, 1)
+        encrypted[4] = 101
+        shouldFail(DecryptException) {
+            streamDecrypt(secret, encrypted)
+        }
+    }
+    @Test public void test_SecurityIO_AES256GCMStream_truncated() {
+        byte[] secret = SecurityIO.randomBytes(32)
+        byte[] encrypted = streamEncrypt(secret, SecurityIO.randomBytes(300), 100, 1)
+        // drop the final segment on a segment boundary
+        byte[] truncated = Arrays.copyOf(encrypted, 28 + 2 * 116)
+        shouldFail(DecryptException) {
+            streamDecrypt(secret, truncated)
+        }
+        // drop part of the final segment
+        shouldFail(DecryptException) {
+            streamDecrypt(secret, Arrays.copyOf(encrypted, encrypted.length - 20))
+        }
+        // only a partial header
+        shouldFail(DecryptException) {
+            streamDecrypt(secret, Arrays.copyOf(encrypted, 10))
+        }
+    }
+    @Test public void test_SecurityIO_AES256GCMStream_reordered() {
+        byte[] secret = SecurityIO.randomBytes(32)
+        byte[] encrypted = streamEncrypt(secret, SecurityIO.randomBytes(300), 100, 1)
+        ByteArrayOutputStream reordered = new ByteArrayOutputStream()
+        reordered.write(encrypted, 0, 28)
+        reordered.write(encrypted, 28 + 116, 116)
+        reordered.write(encrypted, 28, 116)
+        reordered.write(encrypted, 28 + 232, encrypted.length - 28 - 232)
+        shouldFail(DecryptException) {
+            streamDecrypt(secret, reordered.toByteArray())
+        }
+    }
+    @Test public void test_SecurityIO_AES256GCMStream_bad_header() {
+        byte[] secret = SecurityIO.randomBytes(32)
+        byte[] encrypted = streamEncrypt(secret, 'data'.bytes, 100, 1)
+        encrypted[0] = 2
+        shouldFail(DecryptException) {
+            streamDecrypt(secret, encrypted)
+        }
+        shouldFail(EncryptException) {
+            streamEncrypt(secret, 'data'.bytes, 0, 1)
+        }
+    }
 }
@@ -0,0 +1,49 @@
+/*
+   Copyright 2014-2026 Sam Gleske - https://github.com/samrocketman/jervis
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+   */
+package net.gleske.jervis.tools
+//the TagIndexTest() class automatically sees the TagIndex() class because they're in the same package
+
+import org.junit.Test
+
+class TagIndexTest extends GroovyTestCase {
+    @Test public void test_TagIndex_latest_release() {
+        TagIndex tags = new TagIndex(['v1.3.1', 'v1.3.10', 'v1.3.2', 'v1.3.2-1', 'v1.4', 'latest'])
+        assert tags.size() == 6
+        assert tags.getLatestRelease('v1.3.') == 10
+        assert tags.getLatestRelease('v1.3.2-') == 1
+        assert tags.getLatestRelease('v1.') == 4
+        assert tags.getLatestRelease('v2.') == null
+        assert tags.getLatestRelease('latest') == null
+    }
+    @Test public void test_TagIndex_fromReader() {
+        TagIndex tags = TagIndex.fromReader(new StringReader('v1.0.1\n\n  v1.0.2  \nv1.0.3\n'))
+        assert tags.size() == 3
+        assert tags.getLatestRelease('v1.0.') == 3
+    }
+    @Test public void test_TagIndex_add() {
+        TagIndex tags = new TagIndex()
+        tags.add(null)
+        tags.add('')
+        assert tags.size() == 0
+        tags.add('20200101-2')
+        tags.add('20200101-1')
+        // too large to be a release number
+        tags.add('1.' + ('9' * 19))
+        assert tags.size() == 3
+        assert tags.getLatestRelease('20200101-') == 2
+        assert tags.getLatestRelease('1.') == null
+    }
+}
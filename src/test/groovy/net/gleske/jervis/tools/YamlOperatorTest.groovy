@@ -194,4 +194,184 @@ class YamlOperatorTest extends GroovyAssert {
         assert copy.hello.jervis == 'amazing'
         assert map.hello.jervis == 'friend'
     }
+    @Test public void test_YamlOperator_writeObjToYaml_writer() {
+        StringWriter writer = new StringWriter()
+        YamlOperator.writeObjToYaml(writer, [hello: 'world', me: ['a', 'b']])
+        assert writer.toString() == 'hello: world\nme:\n  - a\n  - b\n'
+    }
+    @Test public void test_YamlOperator_writeObjToYaml_file() {
+        File f = folder.newFile('out.yaml')
+        YamlOperator.writeObjToYaml(f, [hello: 'world'])
+        assert f.text == 'hello: world\n'
+        assert YamlOperator.loadYamlFrom(f) == [hello: 'world']
+    }
+    @Test public void test_YamlOperator_loadYamlFrom_reader() {
+        assert YamlOperator.loadYamlFrom(new StringReader('hello: world\n')) == [hello: 'world']
+        assert YamlOperator.loadYamlFrom(new StringWriter().append('hello: friend')) == [hello: 'friend']
+        assert YamlOperator.loadYamlFrom('unicode: \u2713') == [unicode: '\u2713']
+    }
+    @Test public void test_YamlOperator_engine_reused_after_failure() {
+        shouldFail(MarkedYAMLException) {
+            YamlOperator.loadYamlFrom('key: [unclosed')
+        }
+        assert YamlOperator.loadYamlFrom('key: value') == [key: 'value']
+        Map recursive = [a: 'b']
+        List shared = ['x']
+        assert YamlOperator.writeObjToYaml([one: shared, two: shared]).contains('&')
+        assert YamlOperator.writeObjToYaml(recursive) == 'a: b\n'
+    }
+    @Test public void test_YamlOperator_loadAllYamlFrom() {
+        String yaml = '---\na: 1\n---\nb: 2\n---\n- c\n'
+        assert YamlOperator.loadAllYamlFrom(yaml).collect { it } == [[a: 1], [b: 2], ['c']]
+        assert YamlOperator.loadAllYamlFrom(new ByteArrayInputStream(yaml.bytes)).collect { it } == [[a: 1], [b: 2], ['c']]
+
+        // nested loading while iterating does not interfere
+        List documents = []
+        YamlOperator.loadAllYamlFrom(new StringReader(yaml)).each { document ->
+            documents << document
+            assert YamlOperator.loadYamlFrom('nested: true') == [nested: true]
+        }
+        assert documents == [[a: 1], [b: 2], ['c']]
+    }
+    @Test public void test_YamlOperator_loadAllYamlFrom_file() {
+        File f = folder.newFile('documents.yaml')
+        f.withWriter('UTF-8') { Writer w ->
+            100.times {
+                w << '---\n'
+                YamlOperator.writeObjToYaml(w, [id: it])
+            }
+        }
+        List ids = []
+        YamlOperator.loadAllYamlFrom(f) { Map document ->
+            ids << document.id
+        }
+        assert ids == (0..99).toList()
+    }
+    @Test public void test_YamlOperator_concurrent_use() {
+        List errors = Collections.synchronizedList([])
+        List threads = (1..8).collect { Integer n ->
+            Thread.start {
+                try {
+                    200.times { Integer i ->
+                        Map data = [thread: n, iteration: i, list: (1..n).toList()]
+                        assert YamlOperator.loadYamlFrom(YamlOperator.writeObjToYaml(data)) == data
+                    }
+                }
+                catch(Throwable e) {
+                    errors << e
+                }
+            }
+        }
+        threads.each { Thread t ->
+            t.join()
+        }
+        assert errors == []
+    }
+    @Test public void test_YamlOperator_compact() {
+        Map yaml = YamlOperator.loadYamlFrom('language: java\njdk:\n  - openjdk8\n  - openjdk11\njenkins:\n  os: ubuntu2204\n  unstable: false\n  count: 3')
+        Map compacted = YamlOperator.compact(yaml)
+        assert compacted instanceof CompactYamlMap
+        assert compacted.jdk instanceof CompactYamlList
+        assert compacted == yaml
+        assert compacted.hashCode() == yaml.hashCode()
+        assert compacted.keySet().toList() == ['language', 'jdk', 'jenkins']
+        assert compacted.jenkins.count == 3
+        assert compacted.jenkins.unstable == false
+        assert YamlOperator.getObjectValue(compacted, 'jenkins.os', '') == 'ubuntu2204'
+        assert YamlOperator.writeObjToYaml(compacted) == YamlOperator.writeObjToYaml(yaml)
+    }
+    @Test public void test_YamlOperator_compact_read_only() {
+        Map compacted = YamlOperator.compact([list: ['a'], map: [key: 'value']])
+        shouldFail(UnsupportedOperationException) {
+            compacted.foo = 'bar'
+        }
+        shouldFail(UnsupportedOperationException) {
+            compacted.remove('list')
+        }
+        shouldFail(UnsupportedOperationException) {
+            compacted.list << 'b'
+        }
+        shouldFail(UnsupportedOperationException) {
+            compacted.map.clear()
+        }
+        Map copy = YamlOperator.deepCopy(compacted)
+        copy.list << 'b'
+        assert copy.list == ['a', 'b']
+        assert compacted.list == ['a']
+    }
+    @Test public void test_YamlOperator_compact_shares_identical_values() {
+        Map first = YamlOperator.compact(YamlOperator.loadYamlFrom('jdk: [openjdk8, openjdk11]\nlanguage: java\nscript: ./gradlew check'))
+        Map second = YamlOperator.compact(YamlOperator.loadYamlFrom('jdk: [openjdk8, openjdk11]\nlanguage: groovy\nscript: ./gradlew check'))
+        assert !first.is(second)
+        assert first.jdk.is(second.jdk)
+        assert first.script.is(second.script)
+        assert first.keySet().first().is('jdk')
+    }
+    @Test public void test_YamlOperator_compact_shares_across_threads() {
+        String yaml = 'jdk: [openjdk8, openjdk11]\nenv: [one, two]\nscript: ./gradlew check\nconcurrent: compact'
+        List results = Collections.synchronizedList([])
+        List threads = (1..8).collect {
+            Thread.start {
+                20.times {
+                    results << YamlOperator.compact(YamlOperator.loadYamlFrom(yaml))
+                }
+            }
+        }
+        threads*.join()
+        assert results.size() == 160
+        assert results.every { it.is(results[0]) }
+    }
+    @Test public void test_YamlOperator_compact_preserves_key_order() {
+        Map first = YamlOperator.compact([exclude: [jdk: 'openjdk8', env: 'foo']])
+        Map second = YamlOperator.compact([exclude: [env: 'foo', jdk: 'openjdk8']])
+        assert first == second
+        assert !first.exclude.is(second.exclude)
+        assert first.exclude.keySet().toList() == ['jdk', 'env']
+        assert second.exclude.keySet().toList() == ['env', 'jdk']
+    }
+    @Test public void test_YamlOperator_compact_does_not_share_different_types() {
+        Map first = YamlOperator.compact([value: 1])
+        Map second = YamlOperator.compact([value: 1L])
+        assert first.value instanceof Integer
+        assert second.value instanceof Long
+    }
+    @Test public void test_YamlOperator_compact_large_map() {
+        Map yaml = [:]
+        100.times {
+            yaml["key${it}".toString()] = it
+        }
+        yaml[null] = 'null key'
+        Map compacted = YamlOperator.compact(yaml)
+        assert compacted.size() == 101
+        100.times {
+            assert compacted["key${it}".toString()] == it
+        }
+        assert compacted[null] == 'null key'
+        assert compacted.containsKey(null)
+        assert !compacted.containsKey('missing')
+        assert compacted.keySet().toList() == yaml.keySet().toList()
+    }
+    @Test public void test_YamlOperator_compact_serializable() {
+        Map compacted = YamlOperator.compact([list: ['a', 'b'], large: (1..20).collectEntries { ["k${it}".toString(), it] }])
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream()
+        new ObjectOutputStream(bytes).withCloseable {
+            it.writeObject(compacted)
+        }
+        Map copy = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray())).readObject()
+        assert copy instanceof CompactYamlMap
+        assert copy == compacted
+        assert copy.large.k20 == 20
+    }
+    @Test public void test_YamlOperator_compact_recursive_yaml_unchanged() {
+        Map yaml = YamlOperator.loadYamlFrom('a: &anchor\n  b: *anchor')
+        assert YamlOperator.compact(yaml).is(yaml)
+    }
+    @Test public void test_YamlOperator_compact_scalars() {
+        assert YamlOperator.compact(null) == null
+        assert YamlOperator.compact(5) == 5
+        assert YamlOperator.compact('hello') == 'hello'
+        List compacted = YamlOperator.compact(['a', null, [b: null]])
+        assert compacted == ['a', null, [b: null]]
+        assert compacted[2].containsKey('b')
+    }
 }